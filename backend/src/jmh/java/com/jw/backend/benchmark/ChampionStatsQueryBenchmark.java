@@ -0,0 +1,187 @@
+package com.jw.backend.benchmark;
+
+import com.jw.backend.dto.ChampionStatsDto;
+import com.jw.backend.entity.MatchRecord;
+import com.jw.backend.repository.ChampionTotals;
+import com.jw.backend.repository.GlobalStatsRollupRepository;
+import com.jw.backend.repository.MatchRecordRepositoryImpl;
+import com.jw.backend.repository.PlayerStatsRollupRepository;
+import com.jw.backend.service.MatchHistoryService;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading a player's champion stats from PostgreSQL: the per-player rollup and the
+ * in-database sum over recent games, against the old load-then-aggregate path.
+ *
+ * <p>{@code loadThenAggregate} reproduces what {@code getChampionStats} did before the
+ * rollup: load the player's 1,000 newest match rows in full and sum them per champion in
+ * Java. {@code rollup*} read {@code player_champion_stats} through
+ * {@link MatchHistoryService#getChampionStats} without a count; {@code recent*} pass a
+ * count and hit {@link PlayerStatsRollupRepository#recentChampionTotals}. The player
+ * has {@code history} games skewed toward a few mains, among 50 other players with 200
+ * games each, all written through the bulk insert so the rollups are maintained as in
+ * production.</p>
+ *
+ * <p>Starts a throwaway PostgreSQL 16 container through Testcontainers, so Docker must
+ * be available, and migrates it with the application's Flyway scripts.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ChampionStatsQueryBenchmark {
+
+    private static final String PUUID = "benchmark-puuid";
+    private static final String[] CHAMPIONS = {
+            "Ahri", "Lux", "Jinx", "Thresh", "LeeSin", "Garen", "Darius", "Ezreal", "Leona", "Vi",
+            "Yasuo", "Kaisa", "Sett", "Viego", "Lulu", "Orianna", "Caitlyn", "Nautilus", "Graves", "Jayce"};
+    private static final int[] QUEUES = {420, 420, 420, 440, 450, 400};
+
+    // Every column of the old entity load, newest first
+    private static final String LEGACY_SELECT =
+            "SELECT id, puuid, match_id, region, champion_name, kills, deaths, assists, win, game_duration_sec, " +
+            "game_end_timestamp, queue_id, total_damage_dealt_to_champions, gold_earned, total_minions_killed, " +
+            "neutral_minions_killed, placement, team_total_kills FROM match_records WHERE puuid = ? " +
+            "ORDER BY game_end_timestamp DESC LIMIT 1000";
+
+    @Param({"1000", "10000"})
+    public int history;
+
+    private PostgreSQLContainer<?> postgres;
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private MatchHistoryService service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+        postgres.start();
+        dataSource = new SingleConnectionDataSource(postgres.getJdbcUrl(), postgres.getUsername(),
+                postgres.getPassword(), true);
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        PlayerStatsRollupRepository rollups = new PlayerStatsRollupRepository(jdbcTemplate);
+        MatchRecordRepositoryImpl bulk = new MatchRecordRepositoryImpl(jdbcTemplate,
+                new GlobalStatsRollupRepository(jdbcTemplate), rollups);
+
+        Random random = new Random(42);
+        bulk.insertIgnoringDuplicates(generateRecords(PUUID, history, random));
+        for (int p = 0; p < 50; p++) {
+            bulk.insertIgnoringDuplicates(generateRecords("other-puuid-" + p, 200, random));
+        }
+        jdbcTemplate.execute("ANALYZE");
+        // Champion stats never touch the JPA repository
+        service = new MatchHistoryService(null, rollups);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (dataSource != null) dataSource.destroy();
+        if (postgres != null) postgres.stop();
+    }
+
+    @Benchmark
+    public List<ChampionStatsDto> rollupAllQueues() {
+        return service.getChampionStats(PUUID, null, null);
+    }
+
+    @Benchmark
+    public List<ChampionStatsDto> rollupRankedSolo() {
+        return service.getChampionStats(PUUID, null, 420);
+    }
+
+    @Benchmark
+    public List<ChampionStatsDto> recent20() {
+        return service.getChampionStats(PUUID, 20, null);
+    }
+
+    @Benchmark
+    public List<ChampionStatsDto> recent1000() {
+        return service.getChampionStats(PUUID, 1000, null);
+    }
+
+    @Benchmark
+    public List<ChampionTotals> loadThenAggregate() {
+        List<MatchRecord> records = jdbcTemplate.query(LEGACY_SELECT, (rs, i) -> {
+            MatchRecord r = new MatchRecord();
+            r.setId(rs.getLong(1));
+            r.setPuuid(rs.getString(2));
+            r.setMatchId(rs.getString(3));
+            r.setRegion(rs.getString(4));
+            r.setChampionName(rs.getString(5));
+            r.setKills(rs.getInt(6));
+            r.setDeaths(rs.getInt(7));
+            r.setAssists(rs.getInt(8));
+            r.setWin(rs.getBoolean(9));
+            r.setGameDurationSec(rs.getLong(10));
+            r.setGameEndTimestamp(rs.getLong(11));
+            r.setQueueId(rs.getInt(12));
+            r.setTotalDamageDealtToChampions(rs.getInt(13));
+            r.setGoldEarned(rs.getInt(14));
+            r.setTotalMinionsKilled(rs.getInt(15));
+            r.setNeutralMinionsKilled(rs.getInt(16));
+            r.setPlacement(rs.getInt(17));
+            r.setTeamTotalKills(rs.getInt(18));
+            return r;
+        }, PUUID);
+
+        Map<String, long[]> byChampion = new HashMap<>();
+        for (MatchRecord r : records) {
+            long[] s = byChampion.computeIfAbsent(r.getChampionName(), c -> new long[8]);
+            s[0]++;
+            if (r.isWin()) s[1]++;
+            s[2] += r.getKills();
+            s[3] += r.getDeaths();
+            s[4] += r.getAssists();
+            s[5] += r.getTotalMinionsKilled() + r.getNeutralMinionsKilled();
+            s[6] += r.getTotalDamageDealtToChampions();
+            s[7] += r.getGoldEarned();
+        }
+        List<ChampionTotals> totals = new ArrayList<>(byChampion.size());
+        byChampion.forEach((champion, s) ->
+                totals.add(new ChampionTotals(champion, s[0], s[1], s[2], s[3], s[4], s[5], s[6], s[7])));
+        totals.sort((a, b) -> Long.compare(b.games(), a.games()));
+        return totals;
+    }
+
+    // Skewed toward a few mains, like a real history
+    private static List<MatchRecord> generateRecords(String puuid, int count, Random random) {
+        List<MatchRecord> records = new ArrayList<>(count);
+        long endTs = 1_717_000_000_000L;
+        for (int i = 0; i < count; i++) {
+            int champion = Math.min(CHAMPIONS.length - 1, (int) Math.abs(random.nextGaussian() * 5));
+            MatchRecord r = new MatchRecord();
+            r.setPuuid(puuid);
+            r.setMatchId("NA1_" + (5_000_000_000L - i));
+            r.setRegion("NA");
+            r.setChampionName(CHAMPIONS[champion]);
+            r.setKills(random.nextInt(16));
+            r.setDeaths(random.nextInt(12));
+            r.setAssists(random.nextInt(20));
+            r.setWin(random.nextBoolean());
+            r.setGameDurationSec(1200 + random.nextInt(1200));
+            r.setGameEndTimestamp(endTs - i * 2_400_000L);
+            r.setQueueId(QUEUES[random.nextInt(QUEUES.length)]);
+            r.setTotalDamageDealtToChampions(5000 + random.nextInt(45000));
+            r.setGoldEarned(6000 + random.nextInt(12000));
+            r.setTotalMinionsKilled(random.nextInt(300));
+            r.setNeutralMinionsKilled(random.nextInt(150));
+            r.setTeamTotalKills(20 + random.nextInt(30));
+            records.add(r);
+        }
+        return records;
+    }
+}
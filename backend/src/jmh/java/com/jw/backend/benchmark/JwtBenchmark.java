@@ -0,0 +1,46 @@
+package com.jw.backend.benchmark;
+
+import com.jw.backend.security.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JwtUtil#isTokenValid}, which runs on every authenticated request via the
+ * JWT filter. Covers a valid token, a token with a tampered signature and garbage input.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private JwtUtil jwtUtil;
+    private String validToken;
+    private String tamperedToken;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil("benchmark-secret-that-is-at-least-32-bytes-long", 3_600_000);
+        validToken = jwtUtil.generateToken("benchmark-user");
+        char last = validToken.charAt(validToken.length() - 1);
+        tamperedToken = validToken.substring(0, validToken.length() - 1) + (last == 'A' ? 'B' : 'A');
+    }
+
+    @Benchmark
+    public boolean validToken() {
+        return jwtUtil.isTokenValid(validToken);
+    }
+
+    @Benchmark
+    public boolean tamperedSignature() {
+        return jwtUtil.isTokenValid(tamperedToken);
+    }
+
+    @Benchmark
+    public boolean malformed() {
+        return jwtUtil.isTokenValid("not.a.jwt");
+    }
+}
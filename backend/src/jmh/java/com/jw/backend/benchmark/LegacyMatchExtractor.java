@@ -0,0 +1,236 @@
+package com.jw.backend.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Verbatim copy of the tree-walk extraction RiotApiService used before the parse-once
+ * model, kept as the baseline for {@link MatchParseBenchmark}.
+ */
+final class LegacyMatchExtractor {
+
+    private final ObjectMapper objectMapper;
+
+    LegacyMatchExtractor(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    com.jw.backend.dto.MatchDetailDto extractFullMatchDetail(String detailJson, String matchId) {
+        try {
+            JsonNode root = objectMapper.readTree(detailJson);
+            JsonNode info = root.path("info");
+            JsonNode participantsNode = info.path("participants");
+
+            int queueId = info.path("queueId").asInt(0);
+            long duration = info.path("gameDuration").asLong(0);
+            long endTs = info.path("gameEndTimestamp").asLong(0);
+            String gameMode = info.path("gameMode").asText("");
+            String gameVersion = info.path("gameVersion").asText("");
+
+            List<com.jw.backend.dto.MatchDetailDto.TeamDto> teams = new ArrayList<>();
+            JsonNode teamsNode = info.path("teams");
+            if (teamsNode.isArray()) {
+                for (JsonNode t : teamsNode) {
+                    int teamId = t.path("teamId").asInt(0);
+                    boolean win = t.path("win").asBoolean(false);
+
+                    List<Integer> bans = new ArrayList<>();
+                    JsonNode bansNode = t.path("bans");
+                    if (bansNode.isArray()) {
+                        for (JsonNode b : bansNode) {
+                            bans.add(b.path("championId").asInt(0));
+                        }
+                    }
+
+                    JsonNode obj = t.path("objectives");
+                    int baronKills = obj.path("baron").path("kills").asInt(0);
+                    int dragonKills = obj.path("dragon").path("kills").asInt(0);
+                    int towerKills = obj.path("tower").path("kills").asInt(0);
+
+                    teams.add(new com.jw.backend.dto.MatchDetailDto.TeamDto(
+                            teamId, win, bans,
+                            new com.jw.backend.dto.MatchDetailDto.ObjectivesDto(baronKills, dragonKills, towerKills)
+                    ));
+                }
+            }
+
+            List<com.jw.backend.dto.MatchDetailParticipantDto> participants = new ArrayList<>();
+            for (JsonNode p : participantsNode) {
+                String name = p.path("riotIdGameName").asText(p.path("summonerName").asText("Unknown"));
+                String tagline = p.path("riotIdTagline").asText("");
+                String champion = p.path("championName").asText("Unknown");
+                String puuid = p.path("puuid").asText("");
+                int teamId = p.path("teamId").asInt(0);
+                int kills = p.path("kills").asInt(0);
+                int deaths = p.path("deaths").asInt(0);
+                int assists = p.path("assists").asInt(0);
+                int champLevel = p.path("champLevel").asInt(0);
+                int dmgDealt = p.path("totalDamageDealtToChampions").asInt(0);
+                int dmgTaken = p.path("totalDamageTaken").asInt(0);
+                int gold = p.path("goldEarned").asInt(0);
+
+                int[] items = new int[7];
+                for (int i = 0; i < 7; i++) {
+                    items[i] = p.path("item" + i).asInt(0);
+                }
+
+                int totalMinions = p.path("totalMinionsKilled").asInt(0);
+                int neutralMinions = p.path("neutralMinionsKilled").asInt(0);
+                int spell1 = p.path("summoner1Id").asInt(0);
+                int spell2 = p.path("summoner2Id").asInt(0);
+
+                int primaryRuneId = 0;
+                int secondaryRuneStyleId = 0;
+                JsonNode styles = p.path("perks").path("styles");
+                if (styles.isArray() && styles.size() > 0) {
+                    JsonNode primarySelections = styles.get(0).path("selections");
+                    if (primarySelections.isArray() && primarySelections.size() > 0) {
+                        primaryRuneId = primarySelections.get(0).path("perk").asInt(0);
+                    }
+                    if (styles.size() > 1) {
+                        secondaryRuneStyleId = styles.get(1).path("style").asInt(0);
+                    }
+                }
+
+                int wardsPlaced = p.path("wardsPlaced").asInt(0);
+                int wardsKilled = p.path("wardsKilled").asInt(0);
+                int visionWards = p.path("visionWardsBoughtInGame").asInt(0);
+                int doubleKills = p.path("doubleKills").asInt(0);
+                int tripleKills = p.path("tripleKills").asInt(0);
+                int quadraKills = p.path("quadraKills").asInt(0);
+                int pentaKills = p.path("pentaKills").asInt(0);
+                boolean win = p.path("win").asBoolean(false);
+                int placement = p.path("placement").asInt(0);
+                int playerSubteamId = p.path("playerSubteamId").asInt(0);
+
+                participants.add(new com.jw.backend.dto.MatchDetailParticipantDto(
+                        name, tagline, champion, puuid, teamId,
+                        kills, deaths, assists, champLevel,
+                        dmgDealt, dmgTaken, gold, items,
+                        totalMinions, neutralMinions, spell1, spell2,
+                        primaryRuneId, secondaryRuneStyleId,
+                        wardsPlaced, wardsKilled, visionWards,
+                        doubleKills, tripleKills, quadraKills, pentaKills, win,
+                        placement, playerSubteamId
+                ));
+            }
+
+            return new com.jw.backend.dto.MatchDetailDto(
+                    matchId, queueId, duration, endTs, gameMode, gameVersion, teams, participants
+            );
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to parse full match detail JSON for " + matchId, e);
+        }
+    }
+
+    /**
+     * Extracts a single player's perspective from a full 10-player match payload,
+     * splitting participants into allies vs. enemies based on team ID.
+     */
+    com.jw.backend.dto.MatchSummaryDto extractSummaryFromMatchDetail(String detailJson, String puuid, String matchId) {
+        try {
+            JsonNode root = objectMapper.readTree(detailJson);
+            JsonNode info = root.path("info");
+            JsonNode participants = info.path("participants");
+
+            JsonNode me = null;
+            for (JsonNode p : participants) {
+                if (puuid.equals(p.path("puuid").asText())) {
+                    me = p;
+                    break;
+                }
+            }
+
+            String champion = me != null ? me.path("championName").asText("Unknown") : "Unknown";
+            int kills = me != null ? me.path("kills").asInt(0) : 0;
+            int deaths = me != null ? me.path("deaths").asInt(0) : 0;
+            int assists = me != null ? me.path("assists").asInt(0) : 0;
+            boolean win = me != null && me.path("win").asBoolean(false);
+            int placement = me != null ? me.path("placement").asInt(0) : 0;
+
+            long duration = info.path("gameDuration").asLong(0);
+            long endTs = info.path("gameEndTimestamp").asLong(0);
+
+            int championLevel = me != null ? me.path("champLevel").asInt(0) : 0;
+            int summoner1Id = me != null ? me.path("summoner1Id").asInt(0) : 0;
+            int summoner2Id = me != null ? me.path("summoner2Id").asInt(0) : 0;
+
+            int[] items = new int[7];
+            if (me != null) {
+                for (int i = 0; i < 7; i++) {
+                    items[i] = me.path("item" + i).asInt(0);
+                }
+            }
+
+            int totalMinionsKilled = me != null ? me.path("totalMinionsKilled").asInt(0) : 0;
+            int neutralMinionsKilled = me != null ? me.path("neutralMinionsKilled").asInt(0) : 0;
+            int queueId = info.path("queueId").asInt(0);
+
+            int primaryRuneId = 0;
+            int secondaryRuneStyleId = 0;
+            if (me != null) {
+                JsonNode styles = me.path("perks").path("styles");
+                if (styles.isArray() && styles.size() > 0) {
+                    JsonNode primarySelections = styles.get(0).path("selections");
+                    if (primarySelections.isArray() && primarySelections.size() > 0) {
+                        primaryRuneId = primarySelections.get(0).path("perk").asInt(0);
+                    }
+                    if (styles.size() > 1) {
+                        secondaryRuneStyleId = styles.get(1).path("style").asInt(0);
+                    }
+                }
+            }
+
+            int[] augments = new int[4];
+            if (me != null) {
+                for (int i = 0; i < 4; i++) {
+                    augments[i] = me.path("playerAugment" + (i + 1)).asInt(0);
+                }
+            }
+
+            int totalDamageDealtToChampions = me != null ? me.path("totalDamageDealtToChampions").asInt(0) : 0;
+            int goldEarned = me != null ? me.path("goldEarned").asInt(0) : 0;
+            String individualPosition = me != null ? me.path("individualPosition").asText("") : "";
+
+            int myTeamId = me != null ? me.path("teamId").asInt(0) : 0;
+
+            int teamTotalKills = 0;
+            List<com.jw.backend.dto.MatchParticipantDto> allies = new ArrayList<>();
+            List<com.jw.backend.dto.MatchParticipantDto> enemies = new ArrayList<>();
+
+            for (JsonNode p : participants) {
+                String pPuuid = p.path("puuid").asText("");
+                String pName = p.path("riotIdGameName").asText(p.path("summonerName").asText("Unknown"));
+                String pTagline = p.path("riotIdTagline").asText("");
+                String pChamp = p.path("championName").asText("Unknown");
+                int pTeam = p.path("teamId").asInt(0);
+
+                var dto = new com.jw.backend.dto.MatchParticipantDto(pName, pTagline, pChamp, pPuuid);
+
+                if (pTeam == myTeamId) {
+                    teamTotalKills += p.path("kills").asInt(0);
+                    if (!pPuuid.equals(puuid)) {
+                        allies.add(dto);
+                    }
+                } else {
+                    enemies.add(dto);
+                }
+            }
+
+            return new com.jw.backend.dto.MatchSummaryDto(
+                    matchId, champion, kills, deaths, assists, win, duration, endTs,
+                    championLevel, summoner1Id, summoner2Id, items,
+                    totalMinionsKilled, neutralMinionsKilled, queueId, teamTotalKills,
+                    allies, enemies,
+                    primaryRuneId, secondaryRuneStyleId, augments, placement,
+                    totalDamageDealtToChampions, goldEarned, individualPosition
+            );
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to parse match detail JSON for " + matchId, e);
+        }
+    }
+
+}
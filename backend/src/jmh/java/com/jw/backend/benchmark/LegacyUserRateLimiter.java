@@ -0,0 +1,38 @@
+package com.jw.backend.benchmark;
+
+import com.jw.backend.exception.RateLimitException;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Copy of the copy-on-write timestamp lists RateLimitService used before its pluggable
+ * store, kept as the baseline for {@link RateLimitBenchmark}.
+ */
+final class LegacyUserRateLimiter {
+
+    private static final int FREE_MAX_REQUESTS = 5;
+    private static final long WINDOW_MS = 60_000;
+
+    private final ConcurrentHashMap<String, List<Long>> requestLog = new ConcurrentHashMap<>();
+
+    void checkRateLimit(String userIdentifier) {
+        long now = System.currentTimeMillis();
+        long windowStart = now - WINDOW_MS;
+
+        List<Long> timestamps = requestLog.computeIfAbsent(userIdentifier, k -> new CopyOnWriteArrayList<>());
+
+        timestamps.removeIf(t -> t < windowStart);
+
+        if (timestamps.size() >= FREE_MAX_REQUESTS) {
+            throw new RateLimitException("Rate limit exceeded. FREE users are limited to " + FREE_MAX_REQUESTS + " requests per minute.");
+        }
+
+        timestamps.add(now);
+    }
+
+    void reset() {
+        requestLog.clear();
+    }
+}
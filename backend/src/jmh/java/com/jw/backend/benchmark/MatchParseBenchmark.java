@@ -0,0 +1,99 @@
+package com.jw.backend.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jw.backend.dto.MatchDetailDto;
+import com.jw.backend.dto.MatchSummaryDto;
+import com.jw.backend.service.MatchPayloadParser;
+import com.jw.backend.service.ParsedMatch;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Match-v5 extraction: the old per-call {@code readTree} walk versus the streaming
+ * parser and the projections over a cached {@link ParsedMatch}.
+ *
+ * <p>The "summaryAndDetail" pair models the common flow of a history page followed by
+ * opening the scoreboard for the same game; the tree-walk parses twice, the parsed
+ * model once. Run the {@code gc} profiler ({@code -prof gc}) to compare allocation.</p>
+ *
+ * <p>Fixtures are a ranked Summoner's Rift game and a 16-player Arena game (augments,
+ * subteams, no team objectives). The checked-in ones have Riot's field layout but
+ * generated values, which differ from a live game in number sizes and in string and
+ * float lengths. Before trusting absolute numbers, replace them with live captures
+ * passed through {@link ScrubMatchFixture}.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MatchParseBenchmark {
+
+    private static final String MATCH_ID = "NA1_5012345678";
+
+    @Param({"match-detail.json", "match-detail-arena.json"})
+    public String fixture;
+
+    private String json;
+    private String puuid;
+    private LegacyMatchExtractor legacy;
+    private MatchPayloadParser parser;
+    private ParsedMatch cached;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        json = Fixtures.load(fixture);
+        legacy = new LegacyMatchExtractor(objectMapper);
+        parser = new MatchPayloadParser(objectMapper.getFactory());
+        cached = parser.parse(json);
+        puuid = cached.participants().get(3).puuid();
+    }
+
+    @Benchmark
+    public MatchSummaryDto treeWalk_summary() {
+        return legacy.extractSummaryFromMatchDetail(json, puuid, MATCH_ID);
+    }
+
+    @Benchmark
+    public MatchDetailDto treeWalk_detail() {
+        return legacy.extractFullMatchDetail(json, MATCH_ID);
+    }
+
+    @Benchmark
+    public void treeWalk_summaryAndDetail(Blackhole bh) {
+        bh.consume(legacy.extractSummaryFromMatchDetail(json, puuid, MATCH_ID));
+        bh.consume(legacy.extractFullMatchDetail(json, MATCH_ID));
+    }
+
+    @Benchmark
+    public ParsedMatch streaming_parse() throws IOException {
+        return parser.parse(json);
+    }
+
+    @Benchmark
+    public MatchDetailDto streaming_detail() throws IOException {
+        return parser.parse(json).toDetail(MATCH_ID);
+    }
+
+    @Benchmark
+    public void streaming_summaryAndDetail(Blackhole bh) throws IOException {
+        ParsedMatch match = parser.parse(json);
+        bh.consume(match.toSummary(MATCH_ID, puuid));
+        bh.consume(match.toDetail(MATCH_ID));
+    }
+
+    @Benchmark
+    public MatchSummaryDto cached_summary() {
+        return cached.toSummary(MATCH_ID, puuid);
+    }
+
+    @Benchmark
+    public MatchDetailDto cached_detail() {
+        return cached.toDetail(MATCH_ID);
+    }
+}
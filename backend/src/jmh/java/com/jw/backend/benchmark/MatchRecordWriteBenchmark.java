@@ -0,0 +1,171 @@
+package com.jw.backend.benchmark;
+
+import com.jw.backend.entity.MatchRecord;
+import com.jw.backend.repository.GlobalStatsRollupRepository;
+import com.jw.backend.repository.MatchRecordRepositoryImpl;
+import com.jw.backend.repository.PlayerStatsRollupRepository;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing a page of match records to PostgreSQL: the old check-then-save path versus
+ * the single {@code INSERT ... SELECT unnest(...) ON CONFLICT DO NOTHING}.
+ *
+ * <p>{@code checkThenInsert} reproduces what {@code saveAll} did with {@code IDENTITY}
+ * ids: one existence query, then one {@code INSERT ... RETURNING id} round trip per
+ * record, in one transaction. {@code bulkInsert} is
+ * {@link MatchRecordRepositoryImpl#insertIgnoringDuplicates}, including the global and
+ * per-player stats rollup upkeep the old path did not have. Every invocation writes
+ * {@code rows} new records for a fresh player; the table is truncated per iteration.</p>
+ *
+ * <p>Starts a throwaway PostgreSQL 16 container through Testcontainers, so Docker must
+ * be available, and migrates it with the application's Flyway scripts.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MatchRecordWriteBenchmark {
+
+    private static final String LEGACY_INSERT =
+            "INSERT INTO match_records (puuid, match_id, region, champion_name, kills, deaths, assists, win, " +
+            "game_duration_sec, game_end_timestamp, queue_id, total_damage_dealt_to_champions, gold_earned, " +
+            "total_minions_killed, neutral_minions_killed, placement, team_total_kills) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Param({"10", "100", "10000"})
+    public int rows;
+
+    private PostgreSQLContainer<?> postgres;
+    private SingleConnectionDataSource dataSource;
+    private MatchRecordRepositoryImpl bulk;
+    private List<MatchRecord> records;
+    private long player;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+        postgres.start();
+        dataSource = new SingleConnectionDataSource(postgres.getJdbcUrl(), postgres.getUsername(),
+                postgres.getPassword(), true);
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        bulk = new MatchRecordRepositoryImpl(jdbcTemplate, new GlobalStatsRollupRepository(jdbcTemplate),
+                new PlayerStatsRollupRepository(jdbcTemplate));
+
+        records = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            MatchRecord r = new MatchRecord();
+            r.setMatchId("NA1_" + (5_000_000_000L - i));
+            r.setRegion("NA");
+            r.setChampionName("Ahri");
+            r.setKills(i % 16);
+            r.setDeaths(i % 12);
+            r.setAssists(i % 20);
+            r.setWin(i % 2 == 0);
+            r.setGameDurationSec(1800);
+            r.setGameEndTimestamp(1_717_000_000_000L - i * 2_400_000L);
+            r.setQueueId(420);
+            r.setTotalDamageDealtToChampions(15000);
+            r.setGoldEarned(12000);
+            r.setTotalMinionsKilled(150);
+            r.setNeutralMinionsKilled(30);
+            r.setTeamTotalKills(30);
+            records.add(r);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void truncate() throws SQLException {
+        try (Connection con = dataSource.getConnection(); Statement st = con.createStatement()) {
+            st.execute("TRUNCATE match_records, champion_stats, queue_stats, stats_counters, player_champion_stats");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (dataSource != null) dataSource.destroy();
+        if (postgres != null) postgres.stop();
+    }
+
+    @Benchmark
+    public int bulkInsert() {
+        return bulk.insertIgnoringDuplicates(nextPlayer());
+    }
+
+    @Benchmark
+    public int checkThenInsert() throws SQLException {
+        List<MatchRecord> page = nextPlayer();
+        try (Connection con = dataSource.getConnection()) {
+            con.setAutoCommit(false);
+            Set<String> existing = new HashSet<>();
+            try (PreparedStatement ps = con.prepareStatement(
+                    "SELECT match_id FROM match_records WHERE puuid = ? AND match_id = ANY(?)")) {
+                ps.setString(1, page.get(0).getPuuid());
+                ps.setArray(2, con.createArrayOf("varchar",
+                        page.stream().map(MatchRecord::getMatchId).toArray(String[]::new)));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) existing.add(rs.getString(1));
+                }
+            }
+            int inserted = 0;
+            try (PreparedStatement ps = con.prepareStatement(LEGACY_INSERT, Statement.RETURN_GENERATED_KEYS)) {
+                for (MatchRecord r : page) {
+                    if (existing.contains(r.getMatchId())) continue;
+                    bindRow(ps, r);
+                    inserted += ps.executeUpdate();
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        keys.next();
+                    }
+                }
+            }
+            con.commit();
+            con.setAutoCommit(true);
+            return inserted;
+        }
+    }
+
+    private List<MatchRecord> nextPlayer() {
+        String puuid = "benchmark-puuid-" + player++;
+        for (MatchRecord r : records) {
+            r.setPuuid(puuid);
+        }
+        return records;
+    }
+
+    private static void bindRow(PreparedStatement ps, MatchRecord r) throws SQLException {
+        ps.setString(1, r.getPuuid());
+        ps.setString(2, r.getMatchId());
+        ps.setString(3, r.getRegion());
+        ps.setString(4, r.getChampionName());
+        ps.setInt(5, r.getKills());
+        ps.setInt(6, r.getDeaths());
+        ps.setInt(7, r.getAssists());
+        ps.setBoolean(8, r.isWin());
+        ps.setLong(9, r.getGameDurationSec());
+        ps.setLong(10, r.getGameEndTimestamp());
+        ps.setInt(11, r.getQueueId());
+        ps.setInt(12, r.getTotalDamageDealtToChampions());
+        ps.setInt(13, r.getGoldEarned());
+        ps.setInt(14, r.getTotalMinionsKilled());
+        ps.setInt(15, r.getNeutralMinionsKilled());
+        ps.setInt(16, r.getPlacement());
+        ps.setInt(17, r.getTeamTotalKills());
+    }
+}
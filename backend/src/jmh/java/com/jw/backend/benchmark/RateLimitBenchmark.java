@@ -0,0 +1,116 @@
+package com.jw.backend.benchmark;
+
+import com.jw.backend.exception.RateLimitException;
+import com.jw.backend.service.InMemoryUserRateLimitStore;
+import com.jw.backend.service.RateLimitService;
+import com.jw.backend.service.RedisUserRateLimitStore;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RateLimitService#checkRateLimit} under 8-thread contention, per backend.
+ *
+ * <p>{@code hotUser} has every thread hammering one free-tier key, so all but the first
+ * five calls per window are rejections on a single shared key. {@code manyUsers} spreads
+ * calls over 10k keys, closer to production traffic. Both report allowed and rejected
+ * calls together; the state is reset at the start of each iteration.</p>
+ *
+ * <p>{@code backend} selects the store: {@code legacy} is the old copy-on-write list,
+ * {@code memory} the ring-buffer store. {@code redis} needs a running server at
+ * {@code REDIS_HOST} (default localhost) and is left out of the default run; pass
+ * {@code -p backend=redis} to include it. Its {@code hotUser} figure mostly measures the
+ * locally cached denial, {@code manyUsers} the Lua round trip.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class RateLimitBenchmark {
+
+    private static final int USERS = 10_000;
+
+    @Param({"legacy", "memory"})
+    public String backend;
+
+    private LegacyUserRateLimiter legacy;
+    private RateLimitService service;
+    private LettuceConnectionFactory redisConnections;
+    private StringRedisTemplate redisTemplate;
+    private String[] userKeys;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        switch (backend) {
+            case "legacy" -> legacy = new LegacyUserRateLimiter();
+            case "memory" -> service = new RateLimitService(new InMemoryUserRateLimitStore());
+            case "redis" -> {
+                String host = System.getenv().getOrDefault("REDIS_HOST", "localhost");
+                redisConnections = new LettuceConnectionFactory(host, 6379);
+                redisConnections.afterPropertiesSet();
+                redisConnections.start();
+                redisTemplate = new StringRedisTemplate(redisConnections);
+                redisConnections.getConnection().ping();
+                service = new RateLimitService(new RedisUserRateLimitStore(redisTemplate));
+            }
+            default -> throw new IllegalArgumentException("Unknown backend " + backend);
+        }
+        userKeys = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            userKeys[i] = "anon-puuid-" + i;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void resetWindows() {
+        if (legacy != null) legacy.reset();
+        else service.reset();
+        if (redisTemplate != null) {
+            // Redis keeps its windows across iterations; start each one from empty sets.
+            redisTemplate.delete(redisTemplate.keys("ratelimit:free:*"));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (redisConnections != null) redisConnections.destroy();
+    }
+
+    @Benchmark
+    public boolean hotUser() {
+        return check("hot-user");
+    }
+
+    @Benchmark
+    public boolean manyUsers() {
+        return check(userKeys[ThreadLocalRandom.current().nextInt(USERS)]);
+    }
+
+    @Benchmark
+    public boolean proTier() {
+        return check(userKeys[ThreadLocalRandom.current().nextInt(USERS)], 1);
+    }
+
+    private boolean check(String key) {
+        return check(key, 0);
+    }
+
+    private boolean check(String key, int tier) {
+        try {
+            if (legacy != null) {
+                if (tier != 1) legacy.checkRateLimit(key);
+            } else {
+                service.checkRateLimit(key, tier);
+            }
+            return true;
+        } catch (RateLimitException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.jw.backend.benchmark;
+
+import com.jw.backend.service.RiotClusterBudget;
+import com.jw.backend.service.RiotRateLimiter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpHeaders;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of taking a {@link RiotRateLimiter} permit when one is available, alone and
+ * with eight threads competing. The contended cases either share one host or spread
+ * over the three routing hosts.
+ *
+ * <p>Every host has an application limit and a method limit learned from response
+ * headers, so each permit checks and records two sliding windows, as in production.
+ * The limits are 10M per second, about twice the fastest rate measured here, so the
+ * windows never fill and no permit waits. Each window keeps one timestamp per permit,
+ * 80 MB at that size.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RiotRateLimiterBenchmark {
+
+    private static final String[] HOSTS = {"americas", "europe", "asia"};
+    private static final String METHOD = "match-v5.match";
+    private static final String LIMIT = "10000000:1";
+
+    private RiotRateLimiter limiter;
+
+    @Setup
+    public void setUp() {
+        limiter = new RiotRateLimiter(LIMIT, 10_000, 0.85, 0.7, 0.3, RiotClusterBudget.localOnly());
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Method-Rate-Limit", LIMIT);
+        for (String host : HOSTS) {
+            limiter.onResponse(host, METHOD, headers);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void acquire_uncontended() {
+        limiter.acquire("americas", METHOD);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void acquire_contendedOneHost() {
+        limiter.acquire("americas", METHOD);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long tryAcquire_contendedThreeHosts() {
+        return limiter.tryAcquire(HOSTS[ThreadLocalRandom.current().nextInt(HOSTS.length)], METHOD);
+    }
+}
@@ -0,0 +1,86 @@
+package com.jw.backend.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Turns a Match-v5 response captured from Riot into a benchmark fixture.
+ *
+ * <p>PUUIDs, summoner IDs, Riot IDs and the match/game IDs are replaced with
+ * placeholders of the same length, so the fixture keeps the size and field layout of
+ * the capture and parses at the same cost. The same PUUID maps to the same placeholder
+ * in {@code metadata} and {@code info}. Everything else is copied unchanged.</p>
+ *
+ * <pre>
+ * ./mvnw -P benchmark test-compile exec:exec@scrub-fixture \
+ *     -Dfixture.in=/tmp/NA1_123.json -Dfixture.out=src/jmh/resources/fixtures/match-detail.json
+ * </pre>
+ */
+public final class ScrubMatchFixture {
+
+    static final String MATCH_NUMBER = "5012345678";
+
+    private final Map<String, String> puuids = new HashMap<>();
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: ScrubMatchFixture <captured.json> <fixture.json>");
+            System.exit(2);
+        }
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode root = mapper.readTree(Files.readString(Path.of(args[0])));
+        new ScrubMatchFixture().scrub(root);
+        Files.writeString(Path.of(args[1]), mapper.writeValueAsString(root));
+    }
+
+    void scrub(JsonNode root) {
+        JsonNode metadata = root.path("metadata");
+        if (metadata instanceof ObjectNode meta) {
+            meta.put("matchId", matchId(meta.path("matchId").asText()));
+            if (meta.path("participants") instanceof ArrayNode ids) {
+                for (int i = 0; i < ids.size(); i++) {
+                    ids.set(i, puuid(ids.get(i).asText()));
+                }
+            }
+        }
+
+        if (!(root.path("info") instanceof ObjectNode info)) return;
+        if (info.has("gameId")) info.put("gameId", Long.parseLong(MATCH_NUMBER));
+        if (info.has("gameName")) info.put("gameName", "teambuilder-match-" + MATCH_NUMBER);
+        if (info.path("tournamentCode").asText().length() > 0) info.put("tournamentCode", "");
+
+        JsonNode participants = info.path("participants");
+        for (int i = 0; i < participants.size(); i++) {
+            if (!(participants.get(i) instanceof ObjectNode p)) continue;
+            p.put("puuid", puuid(p.path("puuid").asText()));
+            if (p.has("summonerId")) p.put("summonerId", padded("sid-" + i + "-", p.path("summonerId").asText()));
+            if (p.has("riotIdGameName")) p.put("riotIdGameName", "Player" + i);
+            if (p.has("riotIdTagline")) p.put("riotIdTagline", "NA1");
+            if (p.path("summonerName").asText().length() > 0) p.put("summonerName", "Player" + i);
+        }
+    }
+
+    private String puuid(String original) {
+        return puuids.computeIfAbsent(original,
+                k -> padded(String.format("puuid-%02d-", puuids.size()), original));
+    }
+
+    // Keep the platform prefix (NA1_, EUW1_, ...) so region routing still works
+    private static String matchId(String original) {
+        int sep = original.indexOf('_');
+        return (sep < 0 ? "NA1" : original.substring(0, sep)) + "_" + MATCH_NUMBER;
+    }
+
+    private static String padded(String prefix, String original) {
+        int fill = original.length() - prefix.length();
+        return fill <= 0 ? prefix : prefix + "x".repeat(fill);
+    }
+}
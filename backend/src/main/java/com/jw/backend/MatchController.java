@@ -10,11 +10,16 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jw.backend.region.RiotRegion;
 import com.jw.backend.service.MatchHistoryService;
 import com.jw.backend.service.RiotApiService;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import com.jw.backend.dto.MatchSummaryDto;
 import com.jw.backend.dto.MatchDetailDto;
+import com.jw.backend.dto.MatchSummaryStreamEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Provide match history and match detail data by proxying the Riot Match-v5 API.
@@ -78,8 +83,7 @@ public class MatchController {
             @RequestParam String matchId,
             @RequestParam RiotRegion region
     ) {
-        String detailJson = riotApiService.getMatchDetail(matchId, region);
-        return riotApiService.extractFullMatchDetail(detailJson, matchId);
+        return riotApiService.getFullMatchDetail(matchId, region);
     }
 
     /**
@@ -94,8 +98,7 @@ public class MatchController {
             @RequestParam String matchId,
             @RequestParam RiotRegion region
     ) {
-        String detailJson = riotApiService.getMatchDetail(matchId, region);
-        return riotApiService.extractFullMatchDetail(detailJson, matchId);
+        return riotApiService.getFullMatchDetail(matchId, region);
     }
 
     /**
@@ -125,4 +128,35 @@ public class MatchController {
 
         return summaries;
     }
+
+    /**
+     * Stream match summaries as newline-delimited JSON, one line per match as soon as its
+     * detail resolves, then a {@code complete} line with the number sent.
+     *
+     * <p>Matches arrive in completion order, so clients sort by end time. Each match is
+     * persisted shortly after it is sent; the completion line follows the last write.</p>
+     *
+     * @param puuid  the player's unique identifier
+     * @param region the Riot routing region
+     * @param count  number of matches to retrieve
+     * @param start  pagination offset index
+     * @return stream of match events followed by one completion event
+     */
+    @GetMapping(value = "/summary/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<MatchSummaryStreamEvent> streamMatchSummaries(
+            @RequestParam String puuid,
+            @RequestParam RiotRegion region,
+            @RequestParam(defaultValue = "20") int count,
+            @RequestParam(defaultValue = "0") int start
+    ) {
+        count = Math.max(1, Math.min(count, 100));
+        start = Math.max(0, start);
+
+        AtomicInteger sent = new AtomicInteger();
+        Flux<MatchSummaryDto> summaries = riotApiService.streamRecentMatchSummaries(puuid, region, count, start);
+        return matchHistoryService.persistAsTheyArrive(puuid, region.name(), summaries)
+                .doOnNext(s -> sent.incrementAndGet())
+                .map(MatchSummaryStreamEvent::match)
+                .concatWith(Mono.fromSupplier(() -> MatchSummaryStreamEvent.complete(sent.get())));
+    }
 }
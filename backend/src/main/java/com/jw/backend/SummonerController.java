@@ -9,42 +9,45 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jw.backend.dto.SummonerDto;
 import com.jw.backend.region.RiotRegion;
-import com.jw.backend.service.LpTrackingService;
-import com.jw.backend.service.PlayerTrackingService;
 import com.jw.backend.service.RiotApiService;
+import com.jw.backend.service.RiotReactiveClient;
+import com.jw.backend.service.SearchSideEffects;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
 
 /**
  * Combine Riot Account-v1 and Summoner-v4 responses into a single enriched payload.
  *
  * <p>Account-v1 provides the PUUID and Riot ID but lacks profile icon data.
  * A secondary Summoner-v4 call supplements the response with the profile icon ID.
- * An LP snapshot is captured on each lookup for historical tracking.</p>
+ * Each lookup queues player tracking and an LP snapshot capture for historical tracking;
+ * they run after the response, off the request path.</p>
  */
 @RestController
 @RequestMapping("/api/summoner")
 public class SummonerController {
 
     private final RiotApiService riotApiService;
-    private final LpTrackingService lpTrackingService;
-    private final PlayerTrackingService playerTrackingService;
+    private final SearchSideEffects searchSideEffects;
+    private final RiotReactiveClient reactiveClient;
     private final ObjectMapper objectMapper;
 
     /**
      * Construct the controller with required service dependencies.
      *
-     * @param riotApiService       service for Riot API communication
-     * @param lpTrackingService    service for capturing LP snapshots
-     * @param playerTrackingService service for tracking searched players
-     * @param objectMapper         Jackson mapper for JSON manipulation
+     * @param riotApiService    service for Riot API communication
+     * @param searchSideEffects queue for player tracking and LP capture after a lookup
+     * @param reactiveClient    non-blocking Riot client, for fetching resources side by side
+     * @param objectMapper      Jackson mapper for JSON manipulation
      */
-    public SummonerController(RiotApiService riotApiService, LpTrackingService lpTrackingService,
-                              PlayerTrackingService playerTrackingService, ObjectMapper objectMapper) {
+    public SummonerController(RiotApiService riotApiService, SearchSideEffects searchSideEffects,
+                              RiotReactiveClient reactiveClient, ObjectMapper objectMapper) {
         this.riotApiService = riotApiService;
-        this.lpTrackingService = lpTrackingService;
-        this.playerTrackingService = playerTrackingService;
+        this.searchSideEffects = searchSideEffects;
+        this.reactiveClient = reactiveClient;
         this.objectMapper = objectMapper;
     }
 
@@ -52,7 +55,8 @@ public class SummonerController {
      * Look up a summoner by Riot ID and return enriched account data.
      *
      * <p>Merges the profile icon from Summoner-v4 into the Account-v1 response
-     * and triggers an LP snapshot capture for trend tracking.</p>
+     * and queues tracking and an LP snapshot capture for trend tracking. Summoner-v4 is
+     * keyed by PUUID, so it can only start once Account-v1 has resolved the Riot ID.</p>
      *
      * @param gameName the player's game name (before the #)
      * @param tag      the player's tag line (after the #)
@@ -68,7 +72,8 @@ public class SummonerController {
     ) {
         try {
             String accountJson = riotApiService.getAccountByRiotId(gameName, tag, region);
-            return enrichAccount(accountJson, region);
+            String puuid = objectMapper.readTree(accountJson).path("puuid").asText();
+            return enrichAccount(accountJson, riotApiService.getSummonerByPuuid(puuid, region), region);
         } catch (HttpClientErrorException | HttpServerErrorException e) {
             throw e;
         } catch (Exception e) {
@@ -80,7 +85,8 @@ public class SummonerController {
      * Look up a summoner by PUUID and return enriched account data.
      *
      * <p>Resolves the PUUID to current gameName/tagLine via Account-v1, then enriches
-     * with profile icon and LP snapshot — identical response shape to the name-based endpoint.</p>
+     * with profile icon and LP snapshot — identical response shape to the name-based endpoint.
+     * Account-v1 and Summoner-v4 are fetched in parallel since both take the PUUID.</p>
      *
      * @param puuid  the player's PUUID
      * @param region the Riot platform region
@@ -92,8 +98,11 @@ public class SummonerController {
             @RequestParam RiotRegion region
     ) {
         try {
-            String accountJson = riotApiService.getAccountByPuuid(puuid, region);
-            return enrichAccount(accountJson, region);
+            // Both calls only need the PUUID, so fetch them side by side
+            Tuple2<String, String> fetched = Mono.zip(
+                    reactiveClient.getAccountByPuuid(puuid, region),
+                    reactiveClient.getSummonerByPuuid(puuid, region)).block();
+            return enrichAccount(fetched.getT1(), fetched.getT2(), region);
         } catch (HttpClientErrorException | HttpServerErrorException e) {
             throw e;
         } catch (Exception e) {
@@ -102,20 +111,18 @@ public class SummonerController {
     }
 
     /**
-     * Shared enrichment logic: adds profileIconId and captures an LP snapshot.
+     * Shared enrichment logic: adds profileIconId and queues tracking and an LP snapshot.
      */
-    private SummonerDto enrichAccount(String accountJson, RiotRegion region) throws Exception {
+    private SummonerDto enrichAccount(String accountJson, String summonerJson, RiotRegion region) throws Exception {
         JsonNode accountNode = objectMapper.readTree(accountJson);
         String puuid = accountNode.path("puuid").asText();
         String gameName = accountNode.path("gameName").asText("");
         String tagLine = accountNode.path("tagLine").asText("");
 
-        String summonerJson = riotApiService.getSummonerByPuuid(puuid, region);
         JsonNode summonerNode = objectMapper.readTree(summonerJson);
         int profileIconId = summonerNode.path("profileIconId").asInt(0);
 
-        lpTrackingService.captureSnapshot(puuid, region);
-        playerTrackingService.trackPlayer(puuid, region.name(), gameName, tagLine);
+        searchSideEffects.playerSearched(puuid, region, gameName, tagLine);
 
         return new SummonerDto(puuid, gameName, tagLine, profileIconId);
     }
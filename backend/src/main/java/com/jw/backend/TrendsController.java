@@ -6,7 +6,7 @@
 package com.jw.backend;
 
 import com.jw.backend.dto.ChampionStatsDto;
-import com.jw.backend.dto.LpSnapshotDto;
+import com.jw.backend.dto.LpSeriesDto;
 import com.jw.backend.dto.MatchTrendPointDto;
 import com.jw.backend.service.LpTrackingService;
 import com.jw.backend.service.MatchHistoryService;
@@ -59,28 +59,42 @@ public class TrendsController {
     /**
      * Retrieve chronological match data points for trend line charts.
      *
-     * @param puuid the player's unique identifier
+     * <p>Returns the latest page of matches; pass the oldest returned timestamp as
+     * {@code before} to page further back.</p>
+     *
+     * @param puuid  the player's unique identifier
+     * @param before only matches that ended before this epoch-millis timestamp
      * @return time-ordered list of match performance data points
      */
     @GetMapping("/matches")
-    public List<MatchTrendPointDto> getMatchTrends(@RequestParam String puuid) {
-        return matchHistoryService.getMatchTrends(puuid);
+    public List<MatchTrendPointDto> getMatchTrends(
+            @RequestParam String puuid,
+            @RequestParam(required = false) Long before
+    ) {
+        return matchHistoryService.getMatchTrends(puuid, before);
     }
 
     /**
-     * Retrieve LP history for a specific ranked queue.
+     * Retrieve LP history for a specific ranked queue as a columnar, downsampled series.
      *
-     * <p>Defaults to RANKED_SOLO_5x5 as the primary competitive queue.</p>
+     * <p>Defaults to RANKED_SOLO_5x5 as the primary competitive queue and to the whole
+     * history reduced to at most 500 points.</p>
      *
      * @param puuid     the player's unique identifier
      * @param queueType the ranked queue type (default: RANKED_SOLO_5x5)
-     * @return chronological list of LP snapshots
+     * @param from      only snapshots captured at or after this epoch-millis timestamp
+     * @param to        only snapshots captured before this epoch-millis timestamp
+     * @param points    maximum number of points to return (default: 500)
+     * @return chronological LP series
      */
     @GetMapping("/lp")
-    public List<LpSnapshotDto> getLpHistory(
+    public LpSeriesDto getLpHistory(
             @RequestParam String puuid,
-            @RequestParam(defaultValue = "RANKED_SOLO_5x5") String queueType
+            @RequestParam(defaultValue = "RANKED_SOLO_5x5") String queueType,
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long to,
+            @RequestParam(defaultValue = "500") int points
     ) {
-        return lpTrackingService.getLpHistory(puuid, queueType);
+        return lpTrackingService.getLpHistory(puuid, queueType, from, to, points);
     }
 }
@@ -0,0 +1,325 @@
+/**
+ * @file MetricsConfig.java
+ * @description Micrometer bindings for in-process caches and Riot API plumbing.
+ * @module backend.config
+ */
+package com.jw.backend.config;
+
+import com.jw.backend.region.RiotRegion;
+import com.jw.backend.service.IngestionScheduler;
+import com.jw.backend.service.MatchIngestionService;
+import com.jw.backend.service.MatchPayloadStore;
+import com.jw.backend.service.RateLimitService;
+import com.jw.backend.service.LatencyHistogram;
+import com.jw.backend.service.RiotClusterBudget;
+import com.jw.backend.service.RiotHttpTransport;
+import com.jw.backend.service.RiotIoExecutor;
+import com.jw.backend.service.RiotPriority;
+import com.jw.backend.service.RiotRateLimiter;
+import com.jw.backend.service.RiotRequestCoalescer;
+import com.jw.backend.service.RiotResponseCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Publish internal counters to the actuator metrics endpoint.
+ *
+ * <p>Components keep their own lock-free counters and expose a stats snapshot;
+ * the binders here only read those snapshots, so the services stay free of
+ * any Micrometer dependency and remain trivial to construct in unit tests.</p>
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Expose hit/miss/eviction counts and current weight of the Riot L1 response cache.
+     *
+     * @param cache the in-process response cache
+     * @return binder registering the cache meters
+     */
+    @Bean
+    public MeterBinder riotResponseCacheMetrics(RiotResponseCache cache) {
+        return registry -> {
+            FunctionCounter.builder("riot.cache.l1.hits", cache, c -> c.stats().hits())
+                    .description("L1 cache hits").register(registry);
+            FunctionCounter.builder("riot.cache.l1.misses", cache, c -> c.stats().misses())
+                    .description("L1 cache misses").register(registry);
+            FunctionCounter.builder("riot.cache.l1.evictions", cache, c -> c.stats().evictions())
+                    .description("Entries evicted to stay within the byte budget").register(registry);
+            Gauge.builder("riot.cache.l1.weight", cache, c -> c.stats().weightBytes())
+                    .baseUnit("bytes").description("Approximate bytes held by the L1 cache").register(registry);
+            Gauge.builder("riot.cache.l1.entries", cache, c -> c.stats().entries())
+                    .description("Entries held by the L1 cache").register(registry);
+        };
+    }
+
+    /**
+     * Expose the hourly size report of the durable match payload store.
+     *
+     * @param store the match payload store
+     * @return binder registering the storage gauges
+     */
+    @Bean
+    public MeterBinder matchPayloadStoreMetrics(MatchPayloadStore store) {
+        return registry -> {
+            Gauge.builder("match.payloads.count", store, s -> s.lastReport().matches())
+                    .description("Stored Match-v5 payloads").register(registry);
+            Gauge.builder("match.payloads.raw", store, s -> s.lastReport().rawBytes())
+                    .baseUnit("bytes").description("Uncompressed size of stored payloads").register(registry);
+            Gauge.builder("match.payloads.compressed", store, s -> s.lastReport().compressedBytes())
+                    .baseUnit("bytes").description("Compressed size of stored payloads").register(registry);
+            Gauge.builder("match.payloads.table", store, s -> s.lastReport().tableBytes())
+                    .baseUnit("bytes").description("On-disk size of the payload table").register(registry);
+        };
+    }
+
+    /**
+     * Expose how many Riot lookups ran versus how many joined an identical in-flight call.
+     *
+     * @param coalescer the single-flight request coalescer
+     * @return binder registering the coalescing meters
+     */
+    @Bean
+    public MeterBinder riotRequestCoalescerMetrics(RiotRequestCoalescer coalescer) {
+        return registry -> {
+            FunctionCounter.builder("riot.requests.executed", coalescer, c -> c.stats().executions())
+                    .description("Lookups that ran after an L1 miss").register(registry);
+            FunctionCounter.builder("riot.requests.coalesced", coalescer, c -> c.stats().coalesced())
+                    .description("Lookups that shared an in-flight call for the same key").register(registry);
+            Gauge.builder("riot.requests.in-flight", coalescer, c -> c.stats().inFlight())
+                    .description("Distinct keys currently being fetched").register(registry);
+        };
+    }
+
+    /**
+     * Expose permits granted, waits, timeouts and 429s seen by the Riot rate limiter.
+     *
+     * @param limiter the per-host, per-method Riot rate limiter
+     * @return binder registering the limiter meters
+     */
+    @Bean
+    public MeterBinder riotRateLimiterMetrics(RiotRateLimiter limiter) {
+        return registry -> {
+            FunctionCounter.builder("riot.ratelimit.acquired", limiter, l -> l.stats().acquired())
+                    .description("Permits granted").register(registry);
+            FunctionCounter.builder("riot.ratelimit.throttled", limiter, l -> l.stats().throttled())
+                    .description("Acquires that had to wait for a window to free up").register(registry);
+            FunctionCounter.builder("riot.ratelimit.rejected", limiter, l -> l.stats().rejected())
+                    .description("Acquires that gave up at the deadline").register(registry);
+            FunctionCounter.builder("riot.ratelimit.429", limiter, l -> l.stats().rateLimited())
+                    .description("429 responses received from Riot").register(registry);
+            Gauge.builder("riot.ratelimit.hosts", limiter, l -> l.stats().hosts())
+                    .description("Region hosts with an active bucket").register(registry);
+
+            for (RiotPriority lane : RiotPriority.values()) {
+                String tag = lane.name().toLowerCase();
+                Gauge.builder("riot.ratelimit.queue", limiter, l -> l.laneStats(lane).queued())
+                        .tag("priority", tag).description("Callers waiting for a permit").register(registry);
+                FunctionCounter.builder("riot.ratelimit.wait.count", limiter, l -> l.laneStats(lane).waits().count())
+                        .tag("priority", tag).description("Permits granted").register(registry);
+                FunctionCounter.builder("riot.ratelimit.wait.total", limiter, l -> l.laneStats(lane).waits().totalMs())
+                        .tag("priority", tag).baseUnit("milliseconds")
+                        .description("Total time spent waiting for permits").register(registry);
+                long[] bounds = LatencyHistogram.DEFAULT_BOUNDS_MS;
+                for (int i = 0; i < bounds.length; i++) {
+                    int bucket = i;
+                    FunctionCounter.builder("riot.ratelimit.wait.bucket", limiter,
+                                    l -> l.laneStats(lane).waits().cumulativeCounts()[bucket])
+                            .tags("priority", tag, "le", String.valueOf(bounds[i]))
+                            .description("Permits granted within the bucket's wait bound (ms)").register(registry);
+                }
+            }
+        };
+    }
+
+    /**
+     * Expose Redis round-trips, denials and fallbacks of the cluster-wide Riot budget.
+     *
+     * @param budget the Redis-shared rate-limit budget
+     * @return binder registering the budget meters
+     */
+    @Bean
+    public MeterBinder riotClusterBudgetMetrics(RiotClusterBudget budget) {
+        return registry -> {
+            FunctionCounter.builder("riot.ratelimit.cluster.redis-calls", budget, b -> b.stats().redisCalls())
+                    .description("Lease requests sent to Redis").register(registry);
+            FunctionCounter.builder("riot.ratelimit.cluster.denied", budget, b -> b.stats().denied())
+                    .description("Lease requests refused because the shared budget was spent").register(registry);
+            FunctionCounter.builder("riot.ratelimit.cluster.fallbacks", budget, b -> b.stats().fallbacks())
+                    .description("Permits decided locally because Redis was unreachable").register(registry);
+            Gauge.builder("riot.ratelimit.cluster.fallback-active", budget, b -> b.stats().fallbackActive() ? 1 : 0)
+                    .description("1 while the local fallback is in use").register(registry);
+        };
+    }
+
+    /**
+     * Expose admitted and rejected user requests and whether the Redis backend has fallen back.
+     *
+     * @param service the per-user rate limiter
+     * @return binder registering the limiter meters
+     */
+    @Bean
+    public MeterBinder userRateLimitMetrics(RateLimitService service) {
+        return registry -> {
+            FunctionCounter.builder("ratelimit.user.allowed", service, s -> s.stats().allowed())
+                    .description("User requests admitted").register(registry);
+            FunctionCounter.builder("ratelimit.user.rejected", service, s -> s.stats().rejected())
+                    .description("User requests rejected for exceeding their limit").register(registry);
+            Gauge.builder("ratelimit.user.degraded", service, s -> s.stats().degraded() ? 1 : 0)
+                    .description("1 while limits are enforced per node because Redis is unreachable").register(registry);
+        };
+    }
+
+    /**
+     * Expose load and start delays of the shared Riot I/O executor.
+     *
+     * @param executor the executor running Riot fan-outs
+     * @return binder registering the executor meters
+     */
+    @Bean
+    public MeterBinder riotIoExecutorMetrics(RiotIoExecutor executor) {
+        return registry -> {
+            Gauge.builder("riot.io.in-flight", executor, e -> e.stats().inFlight())
+                    .description("Riot fan-out tasks running now").register(registry);
+            Gauge.builder("riot.io.waiting", executor, e -> e.stats().waiting())
+                    .description("Tasks of running fan-outs not started yet").register(registry);
+            Gauge.builder("riot.io.pool.queued", executor, e -> e.stats().poolQueued())
+                    .description("Workers queued for a platform thread (0 in virtual mode)").register(registry);
+            FunctionCounter.builder("riot.io.completed", executor, e -> e.stats().completed())
+                    .description("Tasks that returned a result").register(registry);
+            FunctionCounter.builder("riot.io.failed", executor, e -> e.stats().failed())
+                    .description("Tasks that threw and were given their fallback").register(registry);
+            FunctionCounter.builder("riot.io.timed-out", executor, e -> e.stats().timedOut())
+                    .description("Tasks that missed their fan-out deadline").register(registry);
+            FunctionCounter.builder("riot.io.start-delay.total", executor, e -> e.stats().startDelays().totalMs())
+                    .baseUnit("milliseconds").description("Total time tasks waited to start").register(registry);
+            long[] bounds = LatencyHistogram.DEFAULT_BOUNDS_MS;
+            for (int i = 0; i < bounds.length; i++) {
+                int bucket = i;
+                FunctionCounter.builder("riot.io.start-delay.bucket", executor,
+                                e -> e.stats().startDelays().cumulativeCounts()[bucket])
+                        .tag("le", String.valueOf(bounds[i]))
+                        .description("Tasks started within the bucket's bound (ms)").register(registry);
+            }
+        };
+    }
+
+    /**
+     * Expose connection pool occupancy, time to first byte and bytes read per Riot host.
+     *
+     * @param transport the pooled Riot HTTP transport
+     * @return binder registering one set of transport meters per routing and platform host
+     */
+    @Bean
+    public MeterBinder riotHttpTransportMetrics(RiotHttpTransport transport) {
+        return registry -> {
+            Set<String> hosts = new LinkedHashSet<>();
+            for (RiotRegion region : RiotRegion.values()) {
+                hosts.add(region.routing());
+                hosts.add(region.platform());
+            }
+            for (String host : hosts) {
+                Gauge.builder("riot.http.connections.active", transport, t -> t.hostStats(host).activeConnections())
+                        .tag("host", host).description("Connections serving a request").register(registry);
+                Gauge.builder("riot.http.connections.idle", transport, t -> t.hostStats(host).idleConnections())
+                        .tag("host", host).description("Open connections idle in the pool").register(registry);
+                Gauge.builder("riot.http.connections.pending", transport, t -> t.hostStats(host).pendingAcquires())
+                        .tag("host", host).description("Requests waiting for a connection").register(registry);
+                FunctionCounter.builder("riot.http.requests", transport, t -> t.hostStats(host).requests())
+                        .tag("host", host).description("Requests that got a response").register(registry);
+                FunctionCounter.builder("riot.http.bytes-read", transport, t -> t.hostStats(host).bytesRead())
+                        .tag("host", host).baseUnit("bytes")
+                        .description("Response body bytes read, after decompression").register(registry);
+                FunctionCounter.builder("riot.http.ttfb.total", transport, t -> t.hostStats(host).timeToFirstByte().totalMs())
+                        .tag("host", host).baseUnit("milliseconds")
+                        .description("Total time from request to response headers").register(registry);
+                long[] bounds = LatencyHistogram.DEFAULT_BOUNDS_MS;
+                for (int i = 0; i < bounds.length; i++) {
+                    int bucket = i;
+                    FunctionCounter.builder("riot.http.ttfb.bucket", transport,
+                                    t -> t.hostStats(host).timeToFirstByte().cumulativeCounts()[bucket])
+                            .tags("host", host, "le", String.valueOf(bounds[i]))
+                            .description("Responses whose headers arrived within the bucket's bound (ms)").register(registry);
+                }
+            }
+        };
+    }
+
+    /**
+     * Expose backlog, lag, throughput and worker occupancy of background ingestion.
+     *
+     * @param ingestion the partitioned ingestion engine
+     * @return binder registering one set of meters per routing-host partition plus the backlog gauges
+     */
+    @Bean
+    @ConditionalOnProperty(name = "ingestion.enabled", havingValue = "true", matchIfMissing = true)
+    public MeterBinder matchIngestionMetrics(MatchIngestionService ingestion) {
+        return registry -> {
+            Gauge.builder("ingestion.backlog", ingestion, i -> i.backlog().due())
+                    .description("Tracked players due for ingestion and not yet claimed").register(registry);
+            Gauge.builder("ingestion.lag.oldest", ingestion, i -> i.backlog().oldestLagMs())
+                    .baseUnit("milliseconds").description("How long the longest-waiting due player has been due")
+                    .register(registry);
+
+            for (String host : ingestion.partitions()) {
+                Gauge.builder("ingestion.workers", ingestion, i -> i.partitionStats(host).workers())
+                        .tag("host", host).description("Workers the host's background budget allows").register(registry);
+                Gauge.builder("ingestion.in-flight", ingestion, i -> i.partitionStats(host).inFlight())
+                        .tag("host", host).description("Players being ingested now").register(registry);
+                FunctionCounter.builder("ingestion.players", ingestion, i -> i.partitionStats(host).ingested())
+                        .tag("host", host).description("Players ingested successfully").register(registry);
+                FunctionCounter.builder("ingestion.failures", ingestion, i -> i.partitionStats(host).failed())
+                        .tag("host", host).description("Player ingests that failed and were rescheduled").register(registry);
+                FunctionCounter.builder("ingestion.lag.total", ingestion, i -> i.partitionStats(host).lag().totalMs())
+                        .tag("host", host).baseUnit("milliseconds")
+                        .description("Total time claimed players had been due").register(registry);
+                FunctionCounter.builder("ingestion.duration.total", ingestion, i -> i.partitionStats(host).duration().totalMs())
+                        .tag("host", host).baseUnit("milliseconds")
+                        .description("Total time spent ingesting players").register(registry);
+
+                long[] lagBounds = ingestion.partitionStats(host).lag().boundsMs();
+                for (int b = 0; b < lagBounds.length; b++) {
+                    int bucket = b;
+                    FunctionCounter.builder("ingestion.lag.bucket", ingestion,
+                                    i -> i.partitionStats(host).lag().cumulativeCounts()[bucket])
+                            .tags("host", host, "le", String.valueOf(lagBounds[b]))
+                            .description("Claimed players due for at most the bucket's bound (ms)").register(registry);
+                }
+                long[] durationBounds = ingestion.partitionStats(host).duration().boundsMs();
+                for (int b = 0; b < durationBounds.length; b++) {
+                    int bucket = b;
+                    FunctionCounter.builder("ingestion.duration.bucket", ingestion,
+                                    i -> i.partitionStats(host).duration().cumulativeCounts()[bucket])
+                            .tags("host", host, "le", String.valueOf(durationBounds[b]))
+                            .description("Player ingests finished within the bucket's bound (ms)").register(registry);
+                }
+            }
+        };
+    }
+
+    /**
+     * Expose how often ingestion scheduling checked for live games and backed off idle players.
+     *
+     * @param scheduler the activity-based ingestion scheduler
+     * @return binder registering the scheduling counters
+     */
+    @Bean
+    @ConditionalOnProperty(name = "ingestion.enabled", havingValue = "true", matchIfMissing = true)
+    public MeterBinder ingestionSchedulerMetrics(IngestionScheduler scheduler) {
+        return registry -> {
+            FunctionCounter.builder("ingestion.schedule.live-checks", scheduler, s -> s.stats().liveChecks())
+                    .description("Live-game lookups made to time a poll").register(registry);
+            FunctionCounter.builder("ingestion.schedule.live-games", scheduler, s -> s.stats().liveGames())
+                    .description("Live-game lookups that found the player in a game").register(registry);
+            FunctionCounter.builder("ingestion.schedule.backed-off", scheduler, s -> s.stats().backedOff())
+                    .description("Polls pushed past the freshness target because the player was idle").register(registry);
+        };
+    }
+}
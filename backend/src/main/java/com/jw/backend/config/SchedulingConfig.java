@@ -0,0 +1,37 @@
+/**
+ * @file SchedulingConfig.java
+ * @description Thread pool behind every @Scheduled job.
+ * @module backend.config
+ */
+package com.jw.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Run {@code @Scheduled} jobs on a pool instead of Spring's single default thread.
+ *
+ * <p>The jobs differ by orders of magnitude: the ingestion dispatcher and the search and
+ * LP flushes tick every second and return in milliseconds, while the global stats
+ * reconcile scans match_records and the payload size report walks the payload table. On
+ * one thread a slow run delays every other job until it finishes.</p>
+ */
+@Configuration
+public class SchedulingConfig {
+
+    /**
+     * The scheduler every {@code @Scheduled} method runs on.
+     *
+     * @param poolSize threads shared by all scheduled jobs
+     * @return the scheduler
+     */
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(@Value("${scheduling.pool-size:8}") int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(Math.max(1, poolSize));
+        scheduler.setThreadNamePrefix("scheduling-");
+        return scheduler;
+    }
+}
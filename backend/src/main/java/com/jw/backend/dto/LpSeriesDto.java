@@ -0,0 +1,32 @@
+/**
+ * @file LpSeriesDto.java
+ * @description Columnar DTO for downsampled LP history consumed by trend charts.
+ * @module backend.dto
+ */
+package com.jw.backend.dto;
+
+/**
+ * LP history for one queue as parallel arrays, one entry per point, oldest first.
+ *
+ * <p>Tier and division repeat across most points, so they are dictionary-encoded: the
+ * point's tier is {@code tiers[tier[i]]} and its division {@code divisions[division[i]]}.</p>
+ *
+ * @param queueType    the ranked queue (e.g., "RANKED_SOLO_5x5")
+ * @param total        snapshots in the requested range before downsampling
+ * @param capturedAt   epoch milliseconds of each point
+ * @param leaguePoints LP within the division at each point
+ * @param tiers        distinct tiers referenced by {@code tier}
+ * @param tier         index into {@code tiers} for each point
+ * @param divisions    distinct divisions referenced by {@code division}
+ * @param division     index into {@code divisions} for each point
+ */
+public record LpSeriesDto(
+        String queueType,
+        int total,
+        long[] capturedAt,
+        int[] leaguePoints,
+        String[] tiers,
+        int[] tier,
+        String[] divisions,
+        int[] division
+) {}
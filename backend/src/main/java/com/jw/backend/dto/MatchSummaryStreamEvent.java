@@ -0,0 +1,25 @@
+/**
+ * @file MatchSummaryStreamEvent.java
+ * @description One line of the streaming match summary response.
+ * @module backend.dto
+ */
+package com.jw.backend.dto;
+
+/**
+ * Event in the NDJSON match summary stream: one {@code match} event per resolved match,
+ * then a single {@code complete} event.
+ *
+ * @param type  {@code match} or {@code complete}
+ * @param match the resolved summary; null on the completion event
+ * @param count number of matches sent; null on match events
+ */
+public record MatchSummaryStreamEvent(String type, MatchSummaryDto match, Integer count) {
+
+    public static MatchSummaryStreamEvent match(MatchSummaryDto match) {
+        return new MatchSummaryStreamEvent("match", match, null);
+    }
+
+    public static MatchSummaryStreamEvent complete(int count) {
+        return new MatchSummaryStreamEvent("complete", null, count);
+    }
+}
@@ -0,0 +1,56 @@
+/**
+ * @file MatchPayload.java
+ * @description JPA entity holding a compressed, immutable Match-v5 payload.
+ * @module backend.entity
+ */
+package com.jw.backend.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Raw Match-v5 JSON for a finished game, stored once and gzip-compressed.
+ *
+ * <p>Match data never changes after the game ends, so unlike the TTL-based Redis
+ * cache these rows are kept indefinitely and keyed by the globally unique match ID.
+ * Both sizes are recorded so storage growth and compression ratio can be reported
+ * without decompressing anything.</p>
+ */
+@Entity
+@Table(name = "match_payloads")
+public class MatchPayload {
+
+    @Id
+    @Column(length = 64)
+    private String matchId;
+
+    @Column(nullable = false, length = 10)
+    private String region;
+
+    @Column(nullable = false)
+    private byte[] payload;
+
+    private int rawSize;
+    private int compressedSize;
+    private long storedAt;
+
+    /** Default constructor for JPA. */
+    public MatchPayload() {}
+
+    public String getMatchId() { return matchId; }
+    public void setMatchId(String matchId) { this.matchId = matchId; }
+
+    public String getRegion() { return region; }
+    public void setRegion(String region) { this.region = region; }
+
+    public byte[] getPayload() { return payload; }
+    public void setPayload(byte[] payload) { this.payload = payload; }
+
+    public int getRawSize() { return rawSize; }
+    public void setRawSize(int rawSize) { this.rawSize = rawSize; }
+
+    public int getCompressedSize() { return compressedSize; }
+    public void setCompressedSize(int compressedSize) { this.compressedSize = compressedSize; }
+
+    public long getStoredAt() { return storedAt; }
+    public void setStoredAt(long storedAt) { this.storedAt = storedAt; }
+}
@@ -34,6 +34,18 @@ public class TrackedPlayer {
     @Column(nullable = false)
     private boolean enabled = true;
 
+    @Column(length = 64)
+    private String lastMatchId;
+
+    @Column(nullable = false)
+    private long lastMatchEndAt;
+
+    @Column(nullable = false)
+    private int idlePolls;
+
+    @Column(nullable = false)
+    private long leasedUntil;
+
     public TrackedPlayer() {}
 
     public Long getId() { return id; }
@@ -62,4 +74,16 @@ public class TrackedPlayer {
 
     public boolean isEnabled() { return enabled; }
     public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public String getLastMatchId() { return lastMatchId; }
+    public void setLastMatchId(String lastMatchId) { this.lastMatchId = lastMatchId; }
+
+    public long getLastMatchEndAt() { return lastMatchEndAt; }
+    public void setLastMatchEndAt(long lastMatchEndAt) { this.lastMatchEndAt = lastMatchEndAt; }
+
+    public int getIdlePolls() { return idlePolls; }
+    public void setIdlePolls(int idlePolls) { this.idlePolls = idlePolls; }
+
+    public long getLeasedUntil() { return leasedUntil; }
+    public void setLeasedUntil(long leasedUntil) { this.leasedUntil = leasedUntil; }
 }
@@ -8,7 +8,9 @@ package com.jw.backend.exception;
 /**
  * Signal that a user has exceeded their per-minute request quota.
  *
- * <p>Caught by {@link GlobalExceptionHandler} and mapped to a 429 HTTP response.</p>
+ * <p>Caught by {@link GlobalExceptionHandler} and mapped to a 429 HTTP response.
+ * The stack trace is never shown, so it is not captured; a client hammering the
+ * API then costs little more to reject than to admit.</p>
  */
 public class RateLimitException extends RuntimeException {
 
@@ -18,6 +20,6 @@ public class RateLimitException extends RuntimeException {
      * @param message description of the rate limit violation
      */
     public RateLimitException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
@@ -0,0 +1,9 @@
+package com.jw.backend.repository;
+
+/**
+ * Stats summed over a set of games on one champion, read from the rollup tables.
+ *
+ * @param cs minions plus neutral monsters
+ */
+public record ChampionTotals(String championName, long games, long wins, long kills, long deaths,
+                             long assists, long cs, long damage, long gold) {}
@@ -0,0 +1,217 @@
+package com.jw.backend.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Pre-aggregated global stats: per-champion sums by queue, distinct matches by queue and
+ * the number of distinct players.
+ *
+ * <p>{@link MatchRecordRepositoryCustom#insertIgnoringDuplicates} adds each batch's
+ * {@link Delta} in the same transaction as the rows, so reads never scan
+ * {@code match_records}. Rows are locked in one global order (champions, then queues,
+ * then the player counter, each sorted by key), so concurrent writers cannot deadlock.
+ * {@link #reconcile} compares everything with {@code match_records} to repair drift,
+ * e.g. two writers both counting the same match as new.</p>
+ */
+@Repository
+public class GlobalStatsRollupRepository {
+
+    // pg_advisory_xact_lock key: one replica reconciles at a time
+    static final long RECONCILE_LOCK_KEY = 0x6C6F6C5F726F6C6CL;
+
+    private static final String UPSERT_CHAMPION =
+            "INSERT INTO champion_stats (champion_name, queue_id, games, wins, kills, deaths, assists, cs, damage, gold) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT (champion_name, queue_id) DO UPDATE SET " +
+            "games = champion_stats.games + EXCLUDED.games, wins = champion_stats.wins + EXCLUDED.wins, " +
+            "kills = champion_stats.kills + EXCLUDED.kills, deaths = champion_stats.deaths + EXCLUDED.deaths, " +
+            "assists = champion_stats.assists + EXCLUDED.assists, cs = champion_stats.cs + EXCLUDED.cs, " +
+            "damage = champion_stats.damage + EXCLUDED.damage, gold = champion_stats.gold + EXCLUDED.gold";
+
+    private static final String UPSERT_QUEUE =
+            "INSERT INTO queue_stats (queue_id, matches) VALUES (?, ?) " +
+            "ON CONFLICT (queue_id) DO UPDATE SET matches = queue_stats.matches + EXCLUDED.matches";
+
+    private static final String ADD_PLAYERS =
+            "INSERT INTO stats_counters (name, value) VALUES ('players', ?) " +
+            "ON CONFLICT (name) DO UPDATE SET value = stats_counters.value + EXCLUDED.value";
+
+    // Each drift query compares match_records with a rollup in one statement, so both sides
+    // come from the same snapshot and a batch committed mid-scan is on both or on neither
+    private static final String CHAMPION_DRIFT =
+            "WITH actual AS (SELECT champion_name, queue_id, COUNT(*) AS games, COUNT(*) FILTER (WHERE win) AS wins, " +
+            "SUM(kills) AS kills, SUM(deaths) AS deaths, SUM(assists) AS assists, " +
+            "SUM(total_minions_killed + neutral_minions_killed) AS cs, " +
+            "SUM(total_damage_dealt_to_champions) AS damage, SUM(gold_earned) AS gold " +
+            "FROM match_records GROUP BY champion_name, queue_id) " +
+            "SELECT champion_name, queue_id, COALESCE(a.games, 0) - COALESCE(s.games, 0), " +
+            "COALESCE(a.wins, 0) - COALESCE(s.wins, 0), COALESCE(a.kills, 0) - COALESCE(s.kills, 0), " +
+            "COALESCE(a.deaths, 0) - COALESCE(s.deaths, 0), COALESCE(a.assists, 0) - COALESCE(s.assists, 0), " +
+            "COALESCE(a.cs, 0) - COALESCE(s.cs, 0), COALESCE(a.damage, 0) - COALESCE(s.damage, 0), " +
+            "COALESCE(a.gold, 0) - COALESCE(s.gold, 0) " +
+            "FROM actual a FULL JOIN champion_stats s USING (champion_name, queue_id)";
+
+    private static final String QUEUE_DRIFT =
+            "WITH actual AS (SELECT queue_id, COUNT(DISTINCT match_id) AS matches FROM match_records GROUP BY queue_id) " +
+            "SELECT queue_id, COALESCE(a.matches, 0) - COALESCE(s.matches, 0) " +
+            "FROM actual a FULL JOIN queue_stats s USING (queue_id)";
+
+    private static final String PLAYER_DRIFT =
+            "SELECT (SELECT COUNT(DISTINCT puuid) FROM match_records) - " +
+            "COALESCE((SELECT value FROM stats_counters WHERE name = 'players'), 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** What one insert batch adds to the rollups. Keys are sorted, which fixes the lock order. */
+    public static final class Delta {
+
+        private final Map<String, Map<Integer, long[]>> champions = new TreeMap<>();
+        private final Map<Integer, Long> matchesByQueue = new TreeMap<>();
+        private long players;
+
+        /** Count one inserted record. */
+        public void addRecord(String championName, int queueId, boolean win, int kills, int deaths, int assists,
+                              int cs, int damage, int gold) {
+            long[] sums = champions.computeIfAbsent(championName, c -> new TreeMap<>())
+                    .computeIfAbsent(queueId, q -> new long[8]);
+            sums[0]++;
+            if (win) sums[1]++;
+            sums[2] += kills;
+            sums[3] += deaths;
+            sums[4] += assists;
+            sums[5] += cs;
+            sums[6] += damage;
+            sums[7] += gold;
+        }
+
+        /** Count a match that had no records before this batch. */
+        public void addMatch(int queueId) {
+            matchesByQueue.merge(queueId, 1L, Long::sum);
+        }
+
+        /** Count a player who had no records before this batch. */
+        public void addPlayer() {
+            players++;
+        }
+
+        // Corrections found by reconcile; any of them may be negative
+        void addChampionSums(String championName, int queueId, long[] sums) {
+            long[] total = champions.computeIfAbsent(championName, c -> new TreeMap<>())
+                    .computeIfAbsent(queueId, q -> new long[8]);
+            for (int i = 0; i < total.length; i++) total[i] += sums[i];
+        }
+
+        void addMatches(int queueId, long matches) {
+            matchesByQueue.merge(queueId, matches, Long::sum);
+        }
+
+        void addPlayers(long count) {
+            players += count;
+        }
+
+        public boolean isEmpty() {
+            return champions.isEmpty() && matchesByQueue.isEmpty() && players == 0;
+        }
+    }
+
+    public GlobalStatsRollupRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Add a batch's delta; call in the transaction that inserted its records. */
+    public void apply(Delta delta) {
+        if (delta.isEmpty()) return;
+        List<Object[]> championRows = new ArrayList<>();
+        delta.champions.forEach((champion, byQueue) -> byQueue.forEach((queueId, s) ->
+                championRows.add(new Object[]{champion, queueId, s[0], s[1], s[2], s[3], s[4], s[5], s[6], s[7]})));
+        if (!championRows.isEmpty()) jdbcTemplate.batchUpdate(UPSERT_CHAMPION, championRows);
+
+        List<Object[]> queueRows = new ArrayList<>();
+        delta.matchesByQueue.forEach((queueId, matches) -> queueRows.add(new Object[]{queueId, matches}));
+        if (!queueRows.isEmpty()) jdbcTemplate.batchUpdate(UPSERT_QUEUE, queueRows);
+
+        if (delta.players != 0) jdbcTemplate.update(ADD_PLAYERS, delta.players);
+    }
+
+    /**
+     * Champion totals, summed over all queues when {@code queueId} is null, most played first.
+     */
+    public List<ChampionTotals> championTotals(Integer queueId) {
+        String sql = "SELECT champion_name, SUM(games), SUM(wins), SUM(kills), SUM(deaths), SUM(assists), " +
+                     "SUM(cs), SUM(damage), SUM(gold) FROM champion_stats " +
+                     (queueId != null ? "WHERE queue_id = ? " : "") +
+                     "GROUP BY champion_name HAVING SUM(games) > 0 ORDER BY SUM(games) DESC";
+        Object[] args = queueId != null ? new Object[]{queueId} : new Object[0];
+        return jdbcTemplate.query(sql, (rs, i) -> new ChampionTotals(rs.getString(1), rs.getLong(2),
+                rs.getLong(3), rs.getLong(4), rs.getLong(5), rs.getLong(6), rs.getLong(7), rs.getLong(8),
+                rs.getLong(9)), args);
+    }
+
+    /** Distinct matches stored, in one queue or in all of them when {@code queueId} is null. */
+    public long matches(Integer queueId) {
+        Long matches = queueId != null
+                ? jdbcTemplate.queryForObject("SELECT COALESCE(SUM(matches), 0) FROM queue_stats WHERE queue_id = ?",
+                        Long.class, queueId)
+                : jdbcTemplate.queryForObject("SELECT COALESCE(SUM(matches), 0) FROM queue_stats", Long.class);
+        return matches != null ? matches : 0;
+    }
+
+    /** Distinct players with at least one stored match. */
+    public long players() {
+        List<Long> value = jdbcTemplate.queryForList(
+                "SELECT value FROM stats_counters WHERE name = 'players'", Long.class);
+        return value.isEmpty() ? 0 : value.get(0);
+    }
+
+    /** Distinct champions with at least one stored game. */
+    public long champions() {
+        Long champions = jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT champion_name) FROM champion_stats WHERE games > 0", Long.class);
+        return champions != null ? champions : 0;
+    }
+
+    /**
+     * Repair every rollup from {@code match_records}.
+     *
+     * <p>The full scan takes no lock that writers wait on: each rollup's drift is computed
+     * against {@code match_records} in a single statement, and only the rows that differ
+     * are then corrected through {@link #apply}, in the usual lock order. Batches inserted
+     * while the scan runs keep their delta, since the correction is added to the live
+     * totals rather than replacing them. Skipped if another replica is already
+     * reconciling.</p>
+     *
+     * @return whether this call did the reconciliation
+     */
+    @Transactional
+    public boolean reconcile() {
+        Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class,
+                RECONCILE_LOCK_KEY);
+        if (!Boolean.TRUE.equals(locked)) return false;
+
+        Delta drift = new Delta();
+        jdbcTemplate.query(CHAMPION_DRIFT, rs -> {
+            long[] sums = new long[8];
+            boolean drifted = false;
+            for (int i = 0; i < sums.length; i++) {
+                sums[i] = rs.getLong(3 + i);
+                drifted |= sums[i] != 0;
+            }
+            if (drifted) drift.addChampionSums(rs.getString(1), rs.getInt(2), sums);
+        });
+        jdbcTemplate.query(QUEUE_DRIFT, rs -> {
+            long matches = rs.getLong(2);
+            if (matches != 0) drift.addMatches(rs.getInt(1), matches);
+        });
+        Long players = jdbcTemplate.queryForObject(PLAYER_DRIFT, Long.class);
+        if (players != null) drift.addPlayers(players);
+
+        apply(drift);
+        return true;
+    }
+}
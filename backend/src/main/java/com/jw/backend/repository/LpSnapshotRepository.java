@@ -7,6 +7,8 @@ package com.jw.backend.repository;
 
 import com.jw.backend.entity.LpSnapshot;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,20 +16,29 @@ import java.util.Optional;
 
 /**
  * Provide time-ordered LP snapshot queries for trend charts and delta detection.
+ *
+ * <p>Batched inserts go through {@link LpSnapshotRepositoryCustom#insertAll}.</p>
  */
 @Repository
-public interface LpSnapshotRepository extends JpaRepository<LpSnapshot, Long> {
+public interface LpSnapshotRepository extends JpaRepository<LpSnapshot, Long>, LpSnapshotRepositoryCustom {
 
     /**
-     * Retrieve all snapshots for a player/queue in chronological order.
+     * Read one player/queue's snapshots in {@code [from, to)} as bare columns, oldest first.
      *
-     * <p>Oldest-first ordering supports left-to-right chart rendering.</p>
+     * <p>{@code idx_lp_snapshots_series} covers every column read, so this is a range scan
+     * of one index, usually without heap fetches.</p>
      *
      * @param puuid     the player's unique identifier
      * @param queueType the ranked queue type
-     * @return chronologically ordered list of LP snapshots
+     * @param from      inclusive lower bound on capturedAt (epoch millis)
+     * @param to        exclusive upper bound on capturedAt (epoch millis)
+     * @return rows of [capturedAt, tier, rankDivision, leaguePoints]
      */
-    List<LpSnapshot> findByPuuidAndQueueTypeOrderByCapturedAtAsc(String puuid, String queueType);
+    @Query("SELECT s.capturedAt, s.tier, s.rankDivision, s.leaguePoints FROM LpSnapshot s " +
+           "WHERE s.puuid = :puuid AND s.queueType = :queueType AND s.capturedAt >= :from AND s.capturedAt < :to " +
+           "ORDER BY s.capturedAt")
+    List<Object[]> findSeries(@Param("puuid") String puuid, @Param("queueType") String queueType,
+                              @Param("from") long from, @Param("to") long to);
 
     /**
      * Retrieve the most recent snapshot for delta detection before persisting a new one.
@@ -0,0 +1,18 @@
+package com.jw.backend.repository;
+
+import com.jw.backend.entity.LpSnapshot;
+
+import java.util.List;
+
+/**
+ * Bulk writes for {@link LpSnapshotRepository} that bypass the persistence context.
+ */
+public interface LpSnapshotRepositoryCustom {
+
+    /**
+     * Insert snapshots in one batched round trip.
+     *
+     * @param snapshots snapshots to insert; their ids are ignored and assigned by the database
+     */
+    void insertAll(List<LpSnapshot> snapshots);
+}
@@ -0,0 +1,38 @@
+package com.jw.backend.repository;
+
+import com.jw.backend.entity.LpSnapshot;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * {@link LpSnapshotRepositoryCustom} over plain JDBC.
+ *
+ * <p>{@code IDENTITY} ids stop Hibernate from batching inserts, so snapshots go out as
+ * one JDBC batch instead of one {@code INSERT ... RETURNING id} per row.</p>
+ */
+public class LpSnapshotRepositoryImpl implements LpSnapshotRepositoryCustom {
+
+    private static final String INSERT =
+            "INSERT INTO lp_snapshots (puuid, queue_type, tier, rank_division, league_points, captured_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LpSnapshotRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertAll(List<LpSnapshot> snapshots) {
+        if (snapshots.isEmpty()) return;
+        jdbcTemplate.batchUpdate(INSERT, snapshots, snapshots.size(), (ps, s) -> {
+            ps.setString(1, s.getPuuid());
+            ps.setString(2, s.getQueueType());
+            ps.setString(3, s.getTier());
+            ps.setString(4, s.getRankDivision());
+            ps.setInt(5, s.getLeaguePoints());
+            ps.setLong(6, s.getCapturedAt());
+        });
+    }
+}
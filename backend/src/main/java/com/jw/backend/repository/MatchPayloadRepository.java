@@ -0,0 +1,59 @@
+/**
+ * @file MatchPayloadRepository.java
+ * @description Spring Data JPA repository for durable Match-v5 payload storage.
+ * @module backend.repository
+ */
+package com.jw.backend.repository;
+
+import com.jw.backend.entity.MatchPayload;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Provide idempotent inserts and storage accounting for the match_payloads table.
+ */
+@Repository
+public interface MatchPayloadRepository extends JpaRepository<MatchPayload, String> {
+
+    /**
+     * Insert a payload unless the match is already stored.
+     *
+     * <p>Concurrent fetches of the same match race harmlessly: the loser's insert is a no-op
+     * instead of a unique-violation, and no read-before-write is needed.</p>
+     *
+     * @return number of rows inserted (0 if the match was already present)
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO match_payloads (match_id, region, payload, raw_size, compressed_size, stored_at) " +
+                   "VALUES (:matchId, :region, :payload, :rawSize, :compressedSize, :storedAt) " +
+                   "ON CONFLICT (match_id) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("matchId") String matchId,
+                       @Param("region") String region,
+                       @Param("payload") byte[] payload,
+                       @Param("rawSize") int rawSize,
+                       @Param("compressedSize") int compressedSize,
+                       @Param("storedAt") long storedAt);
+
+    /**
+     * Aggregate row count and logical sizes across all stored payloads.
+     *
+     * @return a single row of [count, sum(raw_size), sum(compressed_size)]
+     */
+    @Query("SELECT COUNT(p), COALESCE(SUM(p.rawSize), 0), COALESCE(SUM(p.compressedSize), 0) FROM MatchPayload p")
+    List<Object[]> sumSizes();
+
+    /**
+     * On-disk footprint of the table including TOAST and indexes.
+     *
+     * @return total relation size in bytes
+     */
+    @Query(value = "SELECT pg_total_relation_size('match_payloads')", nativeQuery = true)
+    long totalRelationSize();
+}
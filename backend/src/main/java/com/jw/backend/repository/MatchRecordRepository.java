@@ -5,6 +5,7 @@
  */
 package com.jw.backend.repository;
 
+import com.jw.backend.dto.MatchTrendPointDto;
 import com.jw.backend.entity.MatchRecord;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -13,13 +14,14 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
-import java.util.Set;
 
 /**
  * Provide match record queries for analytics and deduplication checks.
+ *
+ * <p>Bulk inserts go through {@link MatchRecordRepositoryCustom#insertIgnoringDuplicates}.</p>
  */
 @Repository
-public interface MatchRecordRepository extends JpaRepository<MatchRecord, Long> {
+public interface MatchRecordRepository extends JpaRepository<MatchRecord, Long>, MatchRecordRepositoryCustom {
 
     /**
      * Retrieve all match records for a player ordered by newest first.
@@ -33,6 +35,36 @@ public interface MatchRecordRepository extends JpaRepository<MatchRecord, Long>
 
     List<MatchRecord> findByPuuidOrderByGameEndTimestampDesc(String puuid, Pageable pageable);
 
+    /**
+     * Trend points for a player's matches that ended before {@code before}, newest first.
+     *
+     * <p>Projects only the charted columns, walking {@code idx_match_records_puuid_timestamp}
+     * from {@code before}, so each page costs the same however long the history is.</p>
+     *
+     * @param puuid    the player's unique identifier
+     * @param before   exclusive upper bound on the game end timestamp (epoch millis)
+     * @param pageable how many points to read
+     * @return trend points sorted by game end timestamp descending
+     */
+    @Query("SELECT new com.jw.backend.dto.MatchTrendPointDto(m.matchId, m.gameEndTimestamp, m.win, m.kills, " +
+           "m.deaths, m.assists, m.totalDamageDealtToChampions, m.goldEarned, " +
+           "m.totalMinionsKilled + m.neutralMinionsKilled, m.championName, m.queueId) " +
+           "FROM MatchRecord m WHERE m.puuid = :puuid AND m.gameEndTimestamp < :before " +
+           "ORDER BY m.gameEndTimestamp DESC")
+    List<MatchTrendPointDto> findTrendPoints(@Param("puuid") String puuid, @Param("before") long before,
+                                             Pageable pageable);
+
+    /**
+     * End times and durations of a player's most recent matches, for learning when they play.
+     *
+     * @param puuid    the player's unique identifier
+     * @param pageable how many matches to read
+     * @return rows of [gameEndTimestamp, gameDurationSec], newest first
+     */
+    @Query("SELECT m.gameEndTimestamp, m.gameDurationSec FROM MatchRecord m WHERE m.puuid = :puuid " +
+           "ORDER BY m.gameEndTimestamp DESC")
+    List<Object[]> findRecentActivity(@Param("puuid") String puuid, Pageable pageable);
+
     /**
      * Check whether a match record already exists for deduplication.
      *
@@ -43,24 +75,4 @@ public interface MatchRecordRepository extends JpaRepository<MatchRecord, Long>
      * @return true if the record already exists
      */
     boolean existsByPuuidAndMatchId(String puuid, String matchId);
-
-    @Query("SELECT m.matchId FROM MatchRecord m WHERE m.puuid = :puuid AND m.matchId IN :matchIds")
-    Set<String> findMatchIdsByPuuidAndMatchIdIn(@Param("puuid") String puuid, @Param("matchIds") List<String> matchIds);
-
-    @Query("SELECT m.championName, COUNT(m), SUM(CASE WHEN m.win = true THEN 1 ELSE 0 END), " +
-           "AVG(m.kills), AVG(m.deaths), AVG(m.assists), " +
-           "AVG(m.totalMinionsKilled + m.neutralMinionsKilled), " +
-           "AVG(m.totalDamageDealtToChampions), AVG(m.goldEarned) " +
-           "FROM MatchRecord m WHERE (:queueId IS NULL OR m.queueId = :queueId) " +
-           "GROUP BY m.championName ORDER BY COUNT(m) DESC")
-    List<Object[]> aggregateChampionStats(@Param("queueId") Integer queueId);
-
-    @Query("SELECT COUNT(DISTINCT m.matchId) FROM MatchRecord m WHERE (:queueId IS NULL OR m.queueId = :queueId)")
-    long countDistinctMatches(@Param("queueId") Integer queueId);
-
-    @Query("SELECT COUNT(DISTINCT m.puuid) FROM MatchRecord m")
-    long countDistinctPlayers();
-
-    @Query("SELECT COUNT(DISTINCT m.championName) FROM MatchRecord m")
-    long countDistinctChampions();
 }
@@ -0,0 +1,23 @@
+package com.jw.backend.repository;
+
+import com.jw.backend.entity.MatchRecord;
+
+import java.util.List;
+
+/**
+ * Bulk writes for {@link MatchRecordRepository} that bypass the persistence context.
+ */
+public interface MatchRecordRepositoryCustom {
+
+    /**
+     * Insert records in one statement, skipping any (puuid, matchId) pair already stored.
+     *
+     * <p>Safe to call concurrently for the same player: a record another writer inserted
+     * first is skipped instead of failing the batch. Duplicates within {@code records}
+     * are skipped the same way.</p>
+     *
+     * @param records records to insert; their ids are ignored and assigned by the database
+     * @return the number of records actually inserted
+     */
+    int insertIgnoringDuplicates(List<MatchRecord> records);
+}
@@ -0,0 +1,161 @@
+package com.jw.backend.repository;
+
+import com.jw.backend.entity.MatchRecord;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * {@link MatchRecordRepositoryCustom} over plain JDBC.
+ *
+ * <p>Each column is bound as one PostgreSQL array and the rows are rebuilt server-side
+ * with {@code unnest}, so a batch of any size is one statement with a fixed parameter
+ * count and one cached plan. Ids come from the {@code BIGSERIAL} default as rows are
+ * inserted, so nothing has to be pre-allocated client-side.</p>
+ *
+ * <p>The same statement returns the rows it actually inserted, flagged with whether
+ * their match and player were new; the reads of {@code match_records} see the table as
+ * it was before the insert. Those rows become the {@link GlobalStatsRollupRepository}
+ * and {@link PlayerStatsRollupRepository} deltas, written in that order in the same
+ * transaction so concurrent batches lock rollup rows in the same order.</p>
+ *
+ * <p>Rows are inserted sorted by (puuid, match_id) for the same reason: two batches
+ * that share keys (a streamed page and an ingestion run over the same matches) wait on
+ * each other's uncommitted rows in one order rather than deadlocking.</p>
+ */
+public class MatchRecordRepositoryImpl implements MatchRecordRepositoryCustom {
+
+    static final String INSERT_IGNORING_DUPLICATES =
+            "WITH inserted AS (" +
+            "INSERT INTO match_records (puuid, match_id, region, champion_name, kills, deaths, assists, win, " +
+            "game_duration_sec, game_end_timestamp, queue_id, total_damage_dealt_to_champions, gold_earned, " +
+            "total_minions_killed, neutral_minions_killed, placement, team_total_kills) " +
+            "SELECT * FROM unnest(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (puuid, match_id) DO NOTHING " +
+            "RETURNING puuid, match_id, champion_name, queue_id, win, kills, deaths, assists, " +
+            "total_minions_killed + neutral_minions_killed AS cs, total_damage_dealt_to_champions, gold_earned) " +
+            "SELECT i.*, " +
+            "NOT EXISTS (SELECT 1 FROM match_records m WHERE m.match_id = i.match_id) AS new_match, " +
+            "NOT EXISTS (SELECT 1 FROM match_records m WHERE m.puuid = i.puuid) AS new_player " +
+            "FROM inserted i";
+
+    // Stable, so the first of two rows repeated within a batch is still the one kept
+    private static final Comparator<MatchRecord> KEY_ORDER =
+            Comparator.comparing(MatchRecord::getPuuid).thenComparing(MatchRecord::getMatchId);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final GlobalStatsRollupRepository rollups;
+    private final PlayerStatsRollupRepository playerRollups;
+
+    public MatchRecordRepositoryImpl(JdbcTemplate jdbcTemplate, GlobalStatsRollupRepository rollups,
+                                     PlayerStatsRollupRepository playerRollups) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rollups = rollups;
+        this.playerRollups = playerRollups;
+    }
+
+    @Override
+    @Transactional
+    public int insertIgnoringDuplicates(List<MatchRecord> records) {
+        if (records.isEmpty()) return 0;
+        List<MatchRecord> ordered = new ArrayList<>(records);
+        ordered.sort(KEY_ORDER);
+        GlobalStatsRollupRepository.Delta delta = new GlobalStatsRollupRepository.Delta();
+        PlayerStatsRollupRepository.Delta playerDelta = new PlayerStatsRollupRepository.Delta();
+        Set<String> newMatches = new HashSet<>();
+        Set<String> newPlayers = new HashSet<>();
+        int[] inserted = {0};
+        jdbcTemplate.query(con -> prepareInsert(con, ordered), rs -> {
+            inserted[0]++;
+            String puuid = rs.getString("puuid");
+            String matchId = rs.getString("match_id");
+            String champion = rs.getString("champion_name");
+            int queueId = rs.getInt("queue_id");
+            boolean win = rs.getBoolean("win");
+            int kills = rs.getInt("kills");
+            int deaths = rs.getInt("deaths");
+            int assists = rs.getInt("assists");
+            int cs = rs.getInt("cs");
+            int damage = rs.getInt("total_damage_dealt_to_champions");
+            int gold = rs.getInt("gold_earned");
+            delta.addRecord(champion, queueId, win, kills, deaths, assists, cs, damage, gold);
+            playerDelta.addRecord(puuid, champion, queueId, win, kills, deaths, assists, cs, damage, gold);
+            // Several participants of one new match, or several matches of one new player, count once
+            if (rs.getBoolean("new_match") && newMatches.add(matchId)) delta.addMatch(queueId);
+            if (rs.getBoolean("new_player") && newPlayers.add(puuid)) delta.addPlayer();
+        });
+        rollups.apply(delta);
+        playerRollups.apply(playerDelta);
+        return inserted[0];
+    }
+
+    private static PreparedStatement prepareInsert(Connection con, List<MatchRecord> records) throws SQLException {
+        int n = records.size();
+        String[] puuids = new String[n];
+        String[] matchIds = new String[n];
+        String[] regions = new String[n];
+        String[] champions = new String[n];
+        Integer[] kills = new Integer[n];
+        Integer[] deaths = new Integer[n];
+        Integer[] assists = new Integer[n];
+        Boolean[] wins = new Boolean[n];
+        Long[] durations = new Long[n];
+        Long[] endTimestamps = new Long[n];
+        Integer[] queueIds = new Integer[n];
+        Integer[] damage = new Integer[n];
+        Integer[] gold = new Integer[n];
+        Integer[] minions = new Integer[n];
+        Integer[] neutralMinions = new Integer[n];
+        Integer[] placements = new Integer[n];
+        Integer[] teamKills = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            MatchRecord r = records.get(i);
+            puuids[i] = r.getPuuid();
+            matchIds[i] = r.getMatchId();
+            regions[i] = r.getRegion();
+            champions[i] = r.getChampionName();
+            kills[i] = r.getKills();
+            deaths[i] = r.getDeaths();
+            assists[i] = r.getAssists();
+            wins[i] = r.isWin();
+            durations[i] = r.getGameDurationSec();
+            endTimestamps[i] = r.getGameEndTimestamp();
+            queueIds[i] = r.getQueueId();
+            damage[i] = r.getTotalDamageDealtToChampions();
+            gold[i] = r.getGoldEarned();
+            minions[i] = r.getTotalMinionsKilled();
+            neutralMinions[i] = r.getNeutralMinionsKilled();
+            placements[i] = r.getPlacement();
+            teamKills[i] = r.getTeamTotalKills();
+        }
+
+        PreparedStatement ps = con.prepareStatement(INSERT_IGNORING_DUPLICATES);
+        int p = 1;
+        ps.setArray(p++, con.createArrayOf("varchar", puuids));
+        ps.setArray(p++, con.createArrayOf("varchar", matchIds));
+        ps.setArray(p++, con.createArrayOf("varchar", regions));
+        ps.setArray(p++, con.createArrayOf("varchar", champions));
+        ps.setArray(p++, con.createArrayOf("int4", kills));
+        ps.setArray(p++, con.createArrayOf("int4", deaths));
+        ps.setArray(p++, con.createArrayOf("int4", assists));
+        ps.setArray(p++, con.createArrayOf("bool", wins));
+        ps.setArray(p++, con.createArrayOf("int8", durations));
+        ps.setArray(p++, con.createArrayOf("int8", endTimestamps));
+        ps.setArray(p++, con.createArrayOf("int4", queueIds));
+        ps.setArray(p++, con.createArrayOf("int4", damage));
+        ps.setArray(p++, con.createArrayOf("int4", gold));
+        ps.setArray(p++, con.createArrayOf("int4", minions));
+        ps.setArray(p++, con.createArrayOf("int4", neutralMinions));
+        ps.setArray(p++, con.createArrayOf("int4", placements));
+        ps.setArray(p, con.createArrayOf("int4", teamKills));
+        return ps;
+    }
+}
@@ -0,0 +1,117 @@
+package com.jw.backend.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Pre-aggregated per-player stats: sums for each (player, champion, queue).
+ *
+ * <p>{@link MatchRecordRepositoryCustom#insertIgnoringDuplicates} adds each batch's
+ * {@link Delta} in the same transaction as the rows, after the
+ * {@link GlobalStatsRollupRepository} delta, so a player's champion stats read at most a
+ * few dozen rows however long their history is. Only rows the insert actually returned
+ * are counted, so unlike the global match and player counts these sums cannot drift.</p>
+ */
+@Repository
+public class PlayerStatsRollupRepository {
+
+    private static final String UPSERT =
+            "INSERT INTO player_champion_stats (puuid, champion_name, queue_id, games, wins, kills, deaths, assists, " +
+            "cs, damage, gold) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (puuid, champion_name, queue_id) DO UPDATE SET " +
+            "games = player_champion_stats.games + EXCLUDED.games, wins = player_champion_stats.wins + EXCLUDED.wins, " +
+            "kills = player_champion_stats.kills + EXCLUDED.kills, " +
+            "deaths = player_champion_stats.deaths + EXCLUDED.deaths, " +
+            "assists = player_champion_stats.assists + EXCLUDED.assists, cs = player_champion_stats.cs + EXCLUDED.cs, " +
+            "damage = player_champion_stats.damage + EXCLUDED.damage, gold = player_champion_stats.gold + EXCLUDED.gold";
+
+    private static final String SUMS =
+            "SELECT champion_name, SUM(games), SUM(wins), SUM(kills), SUM(deaths), SUM(assists), SUM(cs), " +
+            "SUM(damage), SUM(gold) ";
+
+    private static final String RECENT_SUMS =
+            "SELECT champion_name, COUNT(*), COUNT(*) FILTER (WHERE win), SUM(kills), SUM(deaths), SUM(assists), " +
+            "SUM(cs), SUM(damage), SUM(gold) ";
+
+    // Only the columns the sums need, newest first off idx_match_records_puuid_timestamp
+    private static final String RECENT_RECORDS =
+            "SELECT champion_name, win, kills, deaths, assists, total_minions_killed + neutral_minions_killed AS cs, " +
+            "total_damage_dealt_to_champions AS damage, gold_earned AS gold FROM match_records WHERE puuid = ? ";
+
+    private static final RowMapper<ChampionTotals> TOTALS = (rs, i) -> new ChampionTotals(rs.getString(1),
+            rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getLong(5), rs.getLong(6), rs.getLong(7),
+            rs.getLong(8), rs.getLong(9));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** What one insert batch adds to the rollup. Keys are sorted, which fixes the lock order. */
+    public static final class Delta {
+
+        private final Map<String, Map<String, Map<Integer, long[]>>> players = new TreeMap<>();
+
+        /** Count one inserted record. */
+        public void addRecord(String puuid, String championName, int queueId, boolean win, int kills, int deaths,
+                              int assists, int cs, int damage, int gold) {
+            long[] sums = players.computeIfAbsent(puuid, p -> new TreeMap<>())
+                    .computeIfAbsent(championName, c -> new TreeMap<>())
+                    .computeIfAbsent(queueId, q -> new long[8]);
+            sums[0]++;
+            if (win) sums[1]++;
+            sums[2] += kills;
+            sums[3] += deaths;
+            sums[4] += assists;
+            sums[5] += cs;
+            sums[6] += damage;
+            sums[7] += gold;
+        }
+
+        public boolean isEmpty() {
+            return players.isEmpty();
+        }
+    }
+
+    public PlayerStatsRollupRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Add a batch's delta; call in the transaction that inserted its records. */
+    public void apply(Delta delta) {
+        if (delta.isEmpty()) return;
+        List<Object[]> rows = new ArrayList<>();
+        delta.players.forEach((puuid, byChampion) -> byChampion.forEach((champion, byQueue) ->
+                byQueue.forEach((queueId, s) -> rows.add(new Object[]{puuid, champion, queueId,
+                        s[0], s[1], s[2], s[3], s[4], s[5], s[6], s[7]}))));
+        jdbcTemplate.batchUpdate(UPSERT, rows);
+    }
+
+    /**
+     * A player's champion totals over their whole stored history, summed over all queues
+     * when {@code queueId} is null, most played first.
+     */
+    public List<ChampionTotals> championTotals(String puuid, Integer queueId) {
+        String sql = SUMS + "FROM player_champion_stats WHERE puuid = ? " +
+                     (queueId != null ? "AND queue_id = ? " : "") +
+                     "GROUP BY champion_name HAVING SUM(games) > 0 ORDER BY SUM(games) DESC, champion_name";
+        Object[] args = queueId != null ? new Object[]{puuid, queueId} : new Object[]{puuid};
+        return jdbcTemplate.query(sql, TOTALS, args);
+    }
+
+    /**
+     * A player's champion totals over their {@code count} most recent games (in one queue
+     * when {@code queueId} is set), aggregated in the database, most played first.
+     */
+    public List<ChampionTotals> recentChampionTotals(String puuid, Integer queueId, int count) {
+        String sql = RECENT_SUMS + "FROM (" + RECENT_RECORDS +
+                     (queueId != null ? "AND queue_id = ? " : "") +
+                     "ORDER BY game_end_timestamp DESC LIMIT ?) recent " +
+                     "GROUP BY champion_name ORDER BY COUNT(*) DESC, champion_name";
+        Object[] args = queueId != null ? new Object[]{puuid, queueId, count} : new Object[]{puuid, count};
+        return jdbcTemplate.query(sql, TOTALS, args);
+    }
+}
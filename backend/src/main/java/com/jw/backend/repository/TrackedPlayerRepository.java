@@ -1,18 +1,69 @@
 package com.jw.backend.repository;
 
 import com.jw.backend.entity.TrackedPlayer;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface TrackedPlayerRepository extends JpaRepository<TrackedPlayer, Long> {
+public interface TrackedPlayerRepository extends JpaRepository<TrackedPlayer, Long>, TrackedPlayerRepositoryCustom {
 
     Optional<TrackedPlayer> findByPuuid(String puuid);
 
-    @Query("SELECT tp FROM TrackedPlayer tp WHERE tp.enabled = TRUE AND tp.nextIngestAt <= :now ORDER BY tp.nextIngestAt")
-    List<TrackedPlayer> findDuePlayers(@Param("now") long now, Pageable pageable);
+    /**
+     * Lock up to {@code limit} due players in the given regions, oldest due first.
+     *
+     * <p>Rows already locked by another transaction are skipped rather than waited on, so
+     * nodes claiming at the same time each get different players. Must run inside a
+     * transaction; the locks are held until it ends.</p>
+     */
+    @Query(value = "SELECT * FROM tracked_players " +
+                   "WHERE enabled = TRUE AND next_ingest_at <= :now AND region IN (:regions) " +
+                   "ORDER BY next_ingest_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<TrackedPlayer> findDuePlayers(@Param("regions") Collection<String> regions,
+                                       @Param("now") long now,
+                                       @Param("limit") int limit);
+
+    /**
+     * Size and age of the ingestion backlog.
+     *
+     * @return a single row of [count of due players, oldest nextIngestAt among them (null if none)]
+     */
+    @Query("SELECT COUNT(tp), MIN(tp.nextIngestAt) FROM TrackedPlayer tp WHERE tp.enabled = TRUE AND tp.nextIngestAt <= :now")
+    List<Object[]> dueBacklog(@Param("now") long now);
+
+    /**
+     * Record a finished ingest and release the player's lease.
+     *
+     * <p>Only the ingestion columns are written. The Riot ID, region and lastSearchedAt a
+     * search may have upserted while the player was leased are left as they are.</p>
+     *
+     * @return number of rows updated (0 if the player is no longer tracked)
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE TrackedPlayer tp SET tp.lastMatchId = :lastMatchId, tp.lastMatchEndAt = :lastMatchEndAt, " +
+           "tp.idlePolls = :idlePolls, tp.lastIngestedAt = :lastIngestedAt, tp.nextIngestAt = :nextIngestAt, " +
+           "tp.leasedUntil = 0 WHERE tp.puuid = :puuid")
+    int recordIngest(@Param("puuid") String puuid,
+                     @Param("lastMatchId") String lastMatchId,
+                     @Param("lastMatchEndAt") long lastMatchEndAt,
+                     @Param("idlePolls") int idlePolls,
+                     @Param("lastIngestedAt") long lastIngestedAt,
+                     @Param("nextIngestAt") long nextIngestAt);
+
+    /**
+     * Release a player's lease after a failed ingest, due again at {@code nextIngestAt}.
+     *
+     * @return number of rows updated (0 if the player is no longer tracked)
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE TrackedPlayer tp SET tp.nextIngestAt = :nextIngestAt, tp.leasedUntil = 0 WHERE tp.puuid = :puuid")
+    int rescheduleIngest(@Param("puuid") String puuid, @Param("nextIngestAt") long nextIngestAt);
 }
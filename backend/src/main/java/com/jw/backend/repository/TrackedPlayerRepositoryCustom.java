@@ -0,0 +1,24 @@
+package com.jw.backend.repository;
+
+import com.jw.backend.entity.TrackedPlayer;
+
+import java.util.List;
+
+/**
+ * Bulk writes for {@link TrackedPlayerRepository} that bypass the persistence context.
+ */
+public interface TrackedPlayerRepositoryCustom {
+
+    /**
+     * Insert searched players, or refresh the Riot ID, region and lastSearchedAt of those
+     * already tracked and move their nextIngestAt earlier, in one statement.
+     *
+     * <p>A tracked player's nextIngestAt only ever moves earlier, and not at all while an
+     * ingestion lease on it is still running, so a search never hands a leased player to a
+     * second worker. Ingestion state (high-water mark, idle polls, last ingest) of existing
+     * rows is left untouched. Puuids must be distinct within {@code players}.</p>
+     *
+     * @param players players to upsert; only the searched fields are read
+     */
+    void upsertSearched(List<TrackedPlayer> players);
+}
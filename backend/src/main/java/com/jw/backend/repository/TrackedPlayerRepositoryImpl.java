@@ -0,0 +1,69 @@
+package com.jw.backend.repository;
+
+import com.jw.backend.entity.TrackedPlayer;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * {@link TrackedPlayerRepositoryCustom} over plain JDBC.
+ *
+ * <p>Like the match record insert, each column is bound as one array and unnested
+ * server-side, so a batch of any size is one statement with one cached plan, and
+ * {@code ON CONFLICT (puuid)} replaces the read-then-write a JPA save would need.</p>
+ */
+public class TrackedPlayerRepositoryImpl implements TrackedPlayerRepositoryCustom {
+
+    static final String UPSERT_SEARCHED =
+            "INSERT INTO tracked_players (puuid, region, game_name, tag_line, last_searched_at, next_ingest_at) " +
+            "SELECT * FROM unnest(?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (puuid) DO UPDATE SET region = EXCLUDED.region, game_name = EXCLUDED.game_name, " +
+            "tag_line = EXCLUDED.tag_line, last_searched_at = EXCLUDED.last_searched_at, " +
+            // A lease still running at search time keeps the row hidden from other claims
+            "next_ingest_at = CASE WHEN tracked_players.leased_until > EXCLUDED.last_searched_at " +
+            "THEN tracked_players.next_ingest_at " +
+            "ELSE LEAST(tracked_players.next_ingest_at, EXCLUDED.next_ingest_at) END";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TrackedPlayerRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void upsertSearched(List<TrackedPlayer> players) {
+        if (players.isEmpty()) return;
+        jdbcTemplate.update(con -> prepareUpsert(con, players));
+    }
+
+    private static PreparedStatement prepareUpsert(Connection con, List<TrackedPlayer> players) throws SQLException {
+        int n = players.size();
+        String[] puuids = new String[n];
+        String[] regions = new String[n];
+        String[] gameNames = new String[n];
+        String[] tagLines = new String[n];
+        Long[] searchedAt = new Long[n];
+        Long[] nextIngestAt = new Long[n];
+        for (int i = 0; i < n; i++) {
+            TrackedPlayer p = players.get(i);
+            puuids[i] = p.getPuuid();
+            regions[i] = p.getRegion();
+            gameNames[i] = p.getGameName();
+            tagLines[i] = p.getTagLine();
+            searchedAt[i] = p.getLastSearchedAt();
+            nextIngestAt[i] = p.getNextIngestAt();
+        }
+
+        PreparedStatement ps = con.prepareStatement(UPSERT_SEARCHED);
+        ps.setArray(1, con.createArrayOf("varchar", puuids));
+        ps.setArray(2, con.createArrayOf("varchar", regions));
+        ps.setArray(3, con.createArrayOf("varchar", gameNames));
+        ps.setArray(4, con.createArrayOf("varchar", tagLines));
+        ps.setArray(5, con.createArrayOf("int8", searchedAt));
+        ps.setArray(6, con.createArrayOf("int8", nextIngestAt));
+        return ps;
+    }
+}
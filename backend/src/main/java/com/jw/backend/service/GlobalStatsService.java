@@ -2,43 +2,53 @@ package com.jw.backend.service;
 
 import com.jw.backend.dto.GlobalChampionStatsDto;
 import com.jw.backend.dto.GlobalOverviewDto;
-import com.jw.backend.repository.MatchRecordRepository;
+import com.jw.backend.repository.ChampionTotals;
+import com.jw.backend.repository.GlobalStatsRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Global champion and overview stats, read from the rollups the match record insert keeps
+ * current, so each request costs the same however many records are stored. The rollups
+ * are recomputed from {@code match_records} every {@code global-stats.reconcile-interval-ms}.
+ */
 @Service
 public class GlobalStatsService {
 
-    private final MatchRecordRepository matchRecordRepository;
+    private static final Logger log = LoggerFactory.getLogger(GlobalStatsService.class);
 
-    public GlobalStatsService(MatchRecordRepository matchRecordRepository) {
-        this.matchRecordRepository = matchRecordRepository;
+    private final GlobalStatsRollupRepository rollupRepository;
+
+    public GlobalStatsService(GlobalStatsRollupRepository rollupRepository) {
+        this.rollupRepository = rollupRepository;
     }
 
     public List<GlobalChampionStatsDto> getGlobalChampionStats(Integer queueId) {
-        List<Object[]> rows = matchRecordRepository.aggregateChampionStats(queueId);
-        long totalMatches = matchRecordRepository.countDistinctMatches(queueId);
+        List<ChampionTotals> rows = rollupRepository.championTotals(queueId);
+        long totalMatches = rollupRepository.matches(queueId);
 
         List<GlobalChampionStatsDto> results = new ArrayList<>();
-        for (Object[] row : rows) {
-            String championName = (String) row[0];
-            long games = (Long) row[1];
-            long wins = (Long) row[2];
-            double avgKills = (Double) row[3];
-            double avgDeaths = (Double) row[4];
-            double avgAssists = (Double) row[5];
-            double avgCs = (Double) row[6];
-            double avgDamage = (Double) row[7];
-            double avgGold = (Double) row[8];
+        for (ChampionTotals row : rows) {
+            long games = row.games();
+            long wins = row.wins();
+            double avgKills = average(row.kills(), games);
+            double avgDeaths = average(row.deaths(), games);
+            double avgAssists = average(row.assists(), games);
+            double avgCs = average(row.cs(), games);
+            double avgDamage = average(row.damage(), games);
+            double avgGold = average(row.gold(), games);
 
             double winRate = games > 0 ? (double) wins / games * 100.0 : 0.0;
             double pickRate = totalMatches > 0 ? (double) games / totalMatches * 100.0 : 0.0;
             double avgKda = avgDeaths > 0 ? (avgKills + avgAssists) / avgDeaths : avgKills + avgAssists;
 
             results.add(new GlobalChampionStatsDto(
-                    championName,
+                    row.championName(),
                     (int) games,
                     (int) wins,
                     Math.round(winRate * 10.0) / 10.0,
@@ -56,9 +66,27 @@ public class GlobalStatsService {
     }
 
     public GlobalOverviewDto getOverviewStats() {
-        long totalMatches = matchRecordRepository.countDistinctMatches(null);
-        long totalPlayers = matchRecordRepository.countDistinctPlayers();
-        long totalChampions = matchRecordRepository.countDistinctChampions();
+        long totalMatches = rollupRepository.matches(null);
+        long totalPlayers = rollupRepository.players();
+        long totalChampions = rollupRepository.champions();
         return new GlobalOverviewDto(totalMatches, totalPlayers, totalChampions);
     }
+
+    /** Recompute the rollups from match_records, repairing any drift from concurrent inserts. */
+    @Scheduled(fixedDelayString = "${global-stats.reconcile-interval-ms:21600000}",
+               initialDelayString = "${global-stats.reconcile-interval-ms:21600000}")
+    public void reconcile() {
+        long startedAt = System.currentTimeMillis();
+        try {
+            if (rollupRepository.reconcile()) {
+                log.info("Reconciled global stats rollups in {} ms", System.currentTimeMillis() - startedAt);
+            }
+        } catch (Exception e) {
+            log.warn("Global stats reconciliation failed: {}", e.getMessage());
+        }
+    }
+
+    private static double average(long sum, long games) {
+        return games > 0 ? (double) sum / games : 0.0;
+    }
 }
@@ -0,0 +1,93 @@
+package com.jw.backend.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * JVM-local {@link UserRateLimitStore} keeping the last {@code maxRequests} admission
+ * times of each key in a fixed ring.
+ *
+ * <p>The slot about to be overwritten holds the oldest admission, so a check is one
+ * comparison against it and an admit is one array store; nothing is allocated once a
+ * key has its ring. Each ring is locked on its own, so contention only arises between
+ * calls for the same user.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "ratelimit.backend", havingValue = "memory", matchIfMissing = true)
+public class InMemoryUserRateLimitStore implements UserRateLimitStore {
+
+    private final ConcurrentHashMap<Policy, ConcurrentHashMap<String, Window>> windows = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+
+    /** Admission times of one key, oldest at {@code head}; 0 marks an unused slot. */
+    private static final class Window {
+        final long[] admittedAt;
+        int head;
+        boolean evicted;
+
+        Window(int size) {
+            admittedAt = new long[size];
+        }
+
+        long newest() {
+            return admittedAt[(head + admittedAt.length - 1) % admittedAt.length];
+        }
+    }
+
+    public InMemoryUserRateLimitStore() {
+        this(System::currentTimeMillis);
+    }
+
+    InMemoryUserRateLimitStore(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public boolean tryAcquire(Policy policy, String key) {
+        ConcurrentHashMap<String, Window> byKey = windows.computeIfAbsent(policy, p -> new ConcurrentHashMap<>());
+        while (true) {
+            // get() first: computeIfAbsent would allocate its capturing lambda on every call.
+            Window window = byKey.get(key);
+            if (window == null) {
+                window = byKey.computeIfAbsent(key, k -> new Window(Math.max(1, policy.maxRequests())));
+            }
+            synchronized (window) {
+                // Lost a race with eviction; the next lookup creates a fresh ring.
+                if (window.evicted) continue;
+                long now = clock.getAsLong();
+                long oldest = window.admittedAt[window.head];
+                if (oldest != 0 && now - oldest < policy.windowMs()) {
+                    return false;
+                }
+                window.admittedAt[window.head] = now;
+                window.head = (window.head + 1) % window.admittedAt.length;
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        windows.clear();
+    }
+
+    @Override
+    public void evictStale() {
+        long now = clock.getAsLong();
+        windows.forEach((policy, byKey) -> byKey.values().removeIf(w -> {
+            synchronized (w) {
+                w.evicted = now - w.newest() >= policy.windowMs();
+                return w.evicted;
+            }
+        }));
+    }
+
+    /** Number of keys currently tracked under a policy. */
+    int size(Policy policy) {
+        ConcurrentHashMap<String, Window> byKey = windows.get(policy);
+        return byKey == null ? 0 : byKey.size();
+    }
+}
@@ -0,0 +1,236 @@
+package com.jw.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jw.backend.entity.TrackedPlayer;
+import com.jw.backend.region.RiotRegion;
+import com.jw.backend.repository.MatchRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides when a tracked player is next polled for new matches.
+ *
+ * <p>How recently the player was searched sets the freshness target, the delay after
+ * which a finished game should show up (2 minutes up to 24 hours). Whether the player is
+ * actually playing decides how many polls that target costs:</p>
+ * <ul>
+ *   <li>In a live game: poll shortly after it should end, from the player's usual game
+ *       length, instead of every target interval while it runs.</li>
+ *   <li>In a session (last game ended within 45 minutes) or in an hour of the week they
+ *       usually play: poll at the target.</li>
+ *   <li>Otherwise: double the delay with every poll that found nothing, up to three days,
+ *       but wake up for the next hour in which their history says they usually play.</li>
+ * </ul>
+ *
+ * <p>The weekly pattern is learned from the player's stored match end times. Live-game
+ * checks are a Spectator-v5 call on the platform host, outside the Match-v5 budget, and
+ * are only made when the target is shorter than a game and the player looks active.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "ingestion.enabled", havingValue = "true", matchIfMissing = true)
+public class IngestionScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(IngestionScheduler.class);
+
+    private static final long MINUTE_MS = 60L * 1000;
+    private static final long HOUR_MS = 60 * MINUTE_MS;
+    private static final long DAY_MS = 24 * HOUR_MS;
+    private static final long WEEK_MS = 7 * DAY_MS;
+    static final int HOURS_PER_WEEK = 168;
+
+    // Queue plus champion select between games rarely exceeds this
+    static final long SESSION_GAP_MS = 45 * MINUTE_MS;
+    // Match-v5 usually lists a game a minute or two after it ends
+    static final long LIVE_GAME_BUFFER_MS = 2 * MINUTE_MS;
+    static final long DEFAULT_GAME_MS = 30 * MINUTE_MS;
+    static final long MAX_IDLE_INTERVAL_MS = 3 * DAY_MS;
+    static final int MAX_BACKOFF_DOUBLINGS = 16;
+
+    // Enough history for a weekly pattern, and at least this many games to trust one
+    static final int HISTORY_MATCHES = 100;
+    static final int MIN_PATTERN_MATCHES = 5;
+    // Games per week ending in an hour (with half weight for its neighbours) to call it a usual hour
+    static final double USUAL_HOUR_RATE = 0.25;
+
+    private final MatchRecordRepository matchRecordRepository;
+    private final RiotApiService riotApiService;
+    private final ObjectMapper objectMapper;
+
+    private final LongAdder liveChecks = new LongAdder();
+    private final LongAdder liveGames = new LongAdder();
+    private final LongAdder backedOff = new LongAdder();
+
+    /**
+     * Point-in-time view of scheduling decisions.
+     *
+     * @param liveChecks Spectator-v5 lookups made to time a poll
+     * @param liveGames  lookups that found the player in a game
+     * @param backedOff  polls pushed past the freshness target because the player was idle
+     */
+    public record Stats(long liveChecks, long liveGames, long backedOff) {}
+
+    public IngestionScheduler(MatchRecordRepository matchRecordRepository,
+                              RiotApiService riotApiService,
+                              ObjectMapper objectMapper) {
+        this.matchRecordRepository = matchRecordRepository;
+        this.riotApiService = riotApiService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Pick the player's next poll and update their count of consecutive empty polls.
+     *
+     * @param player     the player just ingested, with its high-water mark already advanced
+     * @param foundGames whether this poll found any new matches
+     * @param now        the time of this poll
+     * @return epoch ms of the next poll
+     */
+    public long nextIngestAt(TrackedPlayer player, boolean foundGames, long now) {
+        player.setIdlePolls(foundGames ? 0 : player.getIdlePolls() + 1);
+        long target = freshnessTarget(player.getLastSearchedAt(), now);
+
+        ActivityProfile profile;
+        try {
+            profile = ActivityProfile.of(matchRecordRepository.findRecentActivity(
+                    player.getPuuid(), PageRequest.of(0, HISTORY_MATCHES)));
+        } catch (Exception e) {
+            log.warn("Failed to load activity for puuid={}, polling at the freshness target: {}",
+                    player.getPuuid(), e.getMessage());
+            return now + target;
+        }
+
+        boolean inSession = player.getLastMatchEndAt() > 0 && now - player.getLastMatchEndAt() < SESSION_GAP_MS;
+        if (inSession || profile.isUsualHour(now)) {
+            if (target < profile.typicalGameMs()) {
+                long liveEnd = expectedLiveGameEnd(player, profile, now);
+                if (liveEnd > 0) return Math.max(now + target, liveEnd + LIVE_GAME_BUFFER_MS);
+            }
+            return now + target;
+        }
+
+        int doublings = Math.min(player.getIdlePolls(), MAX_BACKOFF_DOUBLINGS);
+        long delay = Math.min(MAX_IDLE_INTERVAL_MS, target << doublings);
+        long wake = profile.nextUsualHour(now);
+        if (wake > 0) delay = Math.min(delay, wake - now);
+        delay = Math.max(target, delay);
+        if (delay > target) backedOff.increment();
+        return now + delay;
+    }
+
+    public Stats stats() {
+        return new Stats(liveChecks.sum(), liveGames.sum(), backedOff.sum());
+    }
+
+    /**
+     * Freshness target from how recently the player was searched.
+     * More recently searched players should see new games sooner.
+     */
+    static long freshnessTarget(long lastSearchedAt, long now) {
+        long sinceLast = now - lastSearchedAt;
+        if (sinceLast < HOUR_MS)      return 2 * MINUTE_MS;
+        if (sinceLast < DAY_MS)       return 15 * MINUTE_MS;
+        if (sinceLast < 7 * DAY_MS)   return HOUR_MS;
+        if (sinceLast < 30 * DAY_MS)  return 6 * HOUR_MS;
+        return DAY_MS;
+    }
+
+    /** When the player's current game should end, or 0 if they aren't in one. */
+    private long expectedLiveGameEnd(TrackedPlayer player, ActivityProfile profile, long now) {
+        liveChecks.increment();
+        try {
+            String json = riotApiService.getActiveGame(player.getPuuid(), RiotRegion.valueOf(player.getRegion()));
+            if (json == null) return 0;
+            liveGames.increment();
+            JsonNode root = objectMapper.readTree(json);
+            // gameStartTime is 0 while the game is still loading
+            long startedAt = root.path("gameStartTime").asLong(0);
+            return (startedAt > 0 ? startedAt : now) + profile.typicalGameMs();
+        } catch (Exception e) {
+            log.debug("Live game check failed for puuid={}: {}", player.getPuuid(), e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * A player's weekly rhythm: how often their games end in each hour of the week, and
+     * how long their games usually last.
+     */
+    static final class ActivityProfile {
+
+        private final double[] hourRates;
+        private final long typicalGameMs;
+
+        private ActivityProfile(double[] hourRates, long typicalGameMs) {
+            this.hourRates = hourRates;
+            this.typicalGameMs = typicalGameMs;
+        }
+
+        /**
+         * @param games rows of [gameEndTimestamp, gameDurationSec], newest first
+         */
+        static ActivityProfile of(List<Object[]> games) {
+            List<Long> durations = new ArrayList<>();
+            for (Object[] game : games) {
+                long durationSec = ((Number) game[1]).longValue();
+                if (durationSec > 0) durations.add(durationSec * 1000);
+            }
+            long typical = DEFAULT_GAME_MS;
+            if (!durations.isEmpty()) {
+                Collections.sort(durations);
+                typical = durations.get(durations.size() / 2);
+            }
+
+            double[] rates = new double[HOURS_PER_WEEK];
+            if (games.size() >= MIN_PATTERN_MATCHES) {
+                long newest = ((Number) games.get(0)[0]).longValue();
+                long oldest = ((Number) games.get(games.size() - 1)[0]).longValue();
+                double weeks = Math.max(1.0, (double) (newest - oldest) / WEEK_MS);
+
+                double[] counts = new double[HOURS_PER_WEEK];
+                for (Object[] game : games) {
+                    counts[hourOfWeek(((Number) game[0]).longValue())]++;
+                }
+                for (int h = 0; h < HOURS_PER_WEEK; h++) {
+                    double smoothed = counts[h]
+                            + 0.5 * counts[(h + HOURS_PER_WEEK - 1) % HOURS_PER_WEEK]
+                            + 0.5 * counts[(h + 1) % HOURS_PER_WEEK];
+                    rates[h] = smoothed / weeks;
+                }
+            }
+            return new ActivityProfile(rates, typical);
+        }
+
+        long typicalGameMs() {
+            return typicalGameMs;
+        }
+
+        boolean isUsualHour(long at) {
+            return hourRates[hourOfWeek(at)] >= USUAL_HOUR_RATE;
+        }
+
+        /** Start of the next usual hour after the current one, or 0 if there is none. */
+        long nextUsualHour(long now) {
+            long hour = now / HOUR_MS;
+            for (int k = 1; k <= HOURS_PER_WEEK; k++) {
+                if (hourRates[(int) ((hour + k) % HOURS_PER_WEEK)] >= USUAL_HOUR_RATE) {
+                    return (hour + k) * HOUR_MS;
+                }
+            }
+            return 0;
+        }
+
+        // Hours since the epoch, folded onto one week; UTC, since only the repetition matters
+        private static int hourOfWeek(long epochMs) {
+            return (int) Math.floorMod(epochMs / HOUR_MS, (long) HOURS_PER_WEEK);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.jw.backend.service;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling for line charts.
+ *
+ * <p>Keeps the first and last points and, from each of {@code target - 2} equal-count
+ * buckets in between, the point forming the largest triangle with the previously kept
+ * point and the average of the next bucket. Peaks and troughs survive where a plain
+ * stride would skip them, at one linear pass over the input.</p>
+ */
+public final class LargestTriangleDownsampler {
+
+    private LargestTriangleDownsampler() {}
+
+    /**
+     * Indices of the points to keep, ascending.
+     *
+     * @param x      strictly ordered x values
+     * @param y      y values, same length as {@code x}
+     * @param target how many points to keep; at least 3
+     * @return every index when there are no more than {@code target} points
+     */
+    public static int[] select(long[] x, int[] y, int target) {
+        int n = x.length;
+        if (n <= target) {
+            int[] all = new int[n];
+            for (int i = 0; i < n; i++) all[i] = i;
+            return all;
+        }
+        if (target < 3) throw new IllegalArgumentException("target must be at least 3");
+
+        int[] kept = new int[target];
+        double every = (double) (n - 2) / (target - 2);
+        int a = 0;
+        for (int bucket = 0; bucket < target - 2; bucket++) {
+            int avgStart = (int) Math.floor((bucket + 1) * every) + 1;
+            int avgEnd = Math.min((int) Math.floor((bucket + 2) * every) + 1, n);
+            double avgX = 0;
+            double avgY = 0;
+            for (int j = avgStart; j < avgEnd; j++) {
+                avgX += x[j] - x[a];
+                avgY += y[j];
+            }
+            avgX /= avgEnd - avgStart;
+            avgY /= avgEnd - avgStart;
+
+            int start = (int) Math.floor(bucket * every) + 1;
+            int end = (int) Math.floor((bucket + 1) * every) + 1;
+            double maxArea = -1;
+            int next = start;
+            for (int j = start; j < end; j++) {
+                // Twice the triangle's area, with x measured from the kept point to keep precision
+                double dx = x[j] - x[a];
+                double area = Math.abs(dx * (avgY - y[a]) - avgX * (y[j] - y[a]));
+                if (area > maxArea) {
+                    maxArea = area;
+                    next = j;
+                }
+            }
+            kept[bucket + 1] = next;
+            a = next;
+        }
+        kept[target - 1] = n - 1;
+        return kept;
+    }
+}
@@ -0,0 +1,74 @@
+package com.jw.backend.service;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free fixed-bucket histogram of millisecond durations.
+ *
+ * <p>Recording is a couple of {@link LongAdder} increments, cheap enough for every
+ * rate-limit acquire. Snapshots report cumulative counts per upper bound, the shape
+ * Prometheus-style {@code le} buckets expect.</p>
+ */
+public final class LatencyHistogram {
+
+    /** Default bucket bounds, from "no wait" up to the 10 s acquire timeout. */
+    public static final long[] DEFAULT_BOUNDS_MS = {0, 10, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    private final long[] boundsMs;
+    private final LongAdder[] buckets;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalMs = new LongAdder();
+
+    /**
+     * Point-in-time view of the histogram.
+     *
+     * @param boundsMs         upper bound of each bucket, inclusive
+     * @param cumulativeCounts samples at or below each bound
+     * @param count            all samples, including those above the last bound
+     * @param totalMs          sum of all samples
+     */
+    public record Snapshot(long[] boundsMs, long[] cumulativeCounts, long count, long totalMs) {
+
+        /** Smallest bound covering the given quantile, or -1 if it lies above the last bound. */
+        public long quantileUpperBound(double quantile) {
+            long target = (long) Math.ceil(count * quantile);
+            for (int i = 0; i < boundsMs.length; i++) {
+                if (cumulativeCounts[i] >= target) return boundsMs[i];
+            }
+            return -1;
+        }
+    }
+
+    public LatencyHistogram() {
+        this(DEFAULT_BOUNDS_MS);
+    }
+
+    public LatencyHistogram(long[] boundsMs) {
+        this.boundsMs = boundsMs.clone();
+        this.buckets = new LongAdder[boundsMs.length];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long durationMs) {
+        count.increment();
+        totalMs.add(durationMs);
+        for (int i = 0; i < boundsMs.length; i++) {
+            if (durationMs <= boundsMs[i]) {
+                buckets[i].increment();
+                return;
+            }
+        }
+    }
+
+    public Snapshot snapshot() {
+        long[] cumulative = new long[boundsMs.length];
+        long running = 0;
+        for (int i = 0; i < boundsMs.length; i++) {
+            running += buckets[i].sum();
+            cumulative[i] = running;
+        }
+        return new Snapshot(boundsMs.clone(), cumulative, count.sum(), totalMs.sum());
+    }
+}
@@ -1,6 +1,6 @@
 /**
  * @file LeaderboardService.java
- * @description Business logic for parsing and sorting League-v4 leaderboard data.
+ * @description Business logic for indexing and paging League-v4 leaderboard data.
  * @module backend.service
  */
 package com.jw.backend.service;
@@ -9,107 +9,270 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jw.backend.dto.LeaderboardEntryDto;
 import com.jw.backend.region.RiotRegion;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Serves apex-tier leaderboards from an in-memory index per (tier, queue, region).
+ *
+ * <p>Each ladder's League-v4 JSON is parsed and sorted once into a {@link Ladder}; any
+ * page of any size is then a slice of that array. Riot IDs are resolved through
+ * Account-v1 only for the entries of a requested page that have none yet, and are kept
+ * on the ladder, so every page and page size shares them.</p>
+ *
+ * <p>A ladder older than {@link #LADDER_TTL_MS} (the League-v4 cache TTL) is still
+ * served while a replacement is built in the background; the new ladder inherits the
+ * names already resolved for players still on it and is swapped in atomically. Only the
+ * first request for a ladder waits for Riot, and {@link LeaderboardWarmer} makes that
+ * happen in the background for the apex ladders of every region.</p>
+ */
 @Service
 public class LeaderboardService {
 
     private static final Logger log = LoggerFactory.getLogger(LeaderboardService.class);
-    private static final long CACHE_TTL_MS = 5 * 60 * 1000; // 5 minutes
+    static final long LADDER_TTL_MS = 15 * 60 * 1000; // 15 minutes, same as League-v4 responses
+    private static final long NAME_RESOLUTION_DEADLINE_MS = 10_000;
+    // Warm-up lookups wait behind every other lane for warm-up permits
+    private static final long WARM_NAME_RESOLUTION_DEADLINE_MS = 30_000;
 
     private final RiotApiService riotApiService;
     private final ObjectMapper objectMapper;
-    private final Executor nameResolver = Executors.newFixedThreadPool(8);
+    private final RiotIoExecutor ioExecutor;
+    private final Executor refresher;
+    private final LongSupplier clock;
+
+    private final ConcurrentHashMap<String, Ladder> ladders = new ConcurrentHashMap<>();
 
-    private record CachedPage(LeaderboardPage page, long timestamp) {
-        boolean isExpired() { return System.currentTimeMillis() - timestamp > CACHE_TTL_MS; }
+    /**
+     * One ladder, sorted by LP descending. Entries never change; names are filled in
+     * as pages are requested.
+     */
+    private static final class Ladder {
+        final String tier;
+        final Entry[] entries;
+        final AtomicReferenceArray<String> names;
+        final long loadedAt;
+        final AtomicBoolean refreshing = new AtomicBoolean();
+        // Indexes of players not on the ladder this one replaced, top first; null for a first load
+        int[] newcomers;
+        // Set once the warmer has looked up this ladder's newcomers
+        final AtomicBoolean warmed = new AtomicBoolean();
+
+        Ladder(String tier, Entry[] entries, long loadedAt) {
+            this.tier = tier;
+            this.entries = entries;
+            this.names = new AtomicReferenceArray<>(entries.length);
+            this.loadedAt = loadedAt;
+        }
     }
 
-    private final ConcurrentHashMap<String, CachedPage> pageCache = new ConcurrentHashMap<>();
+    private record Entry(String puuid, String fallbackName, String rank, int lp, int wins, int losses,
+                         double winRate) {}
 
-    public LeaderboardService(RiotApiService riotApiService, ObjectMapper objectMapper) {
+    @Autowired
+    public LeaderboardService(RiotApiService riotApiService, ObjectMapper objectMapper, RiotIoExecutor ioExecutor) {
+        this(riotApiService, objectMapper, ioExecutor,
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("leaderboard-refresh-", 0).factory()),
+                System::currentTimeMillis);
+    }
+
+    LeaderboardService(RiotApiService riotApiService, ObjectMapper objectMapper, RiotIoExecutor ioExecutor,
+                       Executor refresher, LongSupplier clock) {
         this.riotApiService = riotApiService;
         this.objectMapper = objectMapper;
+        this.ioExecutor = ioExecutor;
+        this.refresher = refresher;
+        this.clock = clock;
     }
 
     public record LeaderboardPage(List<LeaderboardEntryDto> entries, int totalEntries) {}
 
     public LeaderboardPage getLeaderboard(String tier, String queue, RiotRegion region, int page, int size) {
-        String cacheKey = tier + ":" + queue + ":" + region.name() + ":" + page + ":" + size;
-        CachedPage cached = pageCache.get(cacheKey);
-        if (cached != null && !cached.isExpired()) {
-            log.debug("Leaderboard cache hit for {}", cacheKey);
-            return cached.page();
+        String key = key(tier, queue, region);
+        Ladder ladder = ladders.get(key);
+        if (ladder == null) {
+            ladder = load(key, tier, queue, region, null);
+        } else if (isExpired(ladder) && ladder.refreshing.compareAndSet(false, true)) {
+            Ladder stale = ladder;
+            refresher.execute(() -> RiotPriority.runAs(RiotPriority.PREFETCH, () -> {
+                try {
+                    load(key, tier, queue, region, stale);
+                } catch (Exception e) {
+                    log.warn("Failed to refresh leaderboard {}: {}", key, e.getMessage());
+                } finally {
+                    stale.refreshing.set(false);
+                }
+            }));
         }
-        // Evict expired entries lazily
-        pageCache.entrySet().removeIf(e -> e.getValue().isExpired());
 
-        String json = riotApiService.getLeagueByTier(tier, queue, region);
-        try {
-            JsonNode root = objectMapper.readTree(json);
-            String leagueTier = root.path("tier").asText(tier.toUpperCase());
-            JsonNode entries = root.path("entries");
-
-            List<RawEntry> rawEntries = new ArrayList<>();
-            for (JsonNode e : entries) {
-                String puuid = e.path("puuid").asText("");
-                String fallbackName = e.path("summonerName").asText("");
-                String rank = e.path("rank").asText("I");
-                int lp = e.path("leaguePoints").asInt(0);
-                int wins = e.path("wins").asInt(0);
-                int losses = e.path("losses").asInt(0);
-                rawEntries.add(new RawEntry(puuid, fallbackName, rank, lp, wins, losses));
+        int from = (int) Math.min((long) page * size, ladder.entries.length);
+        int to = Math.min(from + size, ladder.entries.length);
+        resolveNames(ladder, unnamed(ladder, from, to, size), region, NAME_RESOLUTION_DEADLINE_MS);
+
+        List<LeaderboardEntryDto> entries = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            Entry e = ladder.entries[i];
+            String name = ladder.names.get(i);
+            if (name == null) name = displayName(e);
+            entries.add(new LeaderboardEntryDto(name, e.puuid(), ladder.tier, e.rank(), e.lp(), e.wins(),
+                    e.losses(), e.winRate()));
+        }
+        return new LeaderboardPage(entries, ladder.entries.length);
+    }
+
+    /**
+     * Rebuild a ladder if it is missing or expired, then resolve Riot IDs for up to
+     * {@code maxNames} of the players who joined it since the ladder it replaced, top
+     * first. A first load counts every player as new. Each ladder is warmed once, so
+     * until the next rebuild further calls look nothing up; the rest of the ladder is
+     * named as its pages are requested. Riot calls are made in the caller's
+     * {@link RiotPriority} lane.
+     *
+     * @return how many names were resolved
+     */
+    public int warm(String tier, String queue, RiotRegion region, int maxNames) {
+        String key = key(tier, queue, region);
+        Ladder ladder = ladders.get(key);
+        if (ladder == null) {
+            ladder = load(key, tier, queue, region, null);
+        } else if (isExpired(ladder) && ladder.refreshing.compareAndSet(false, true)) {
+            Ladder stale = ladder;
+            try {
+                ladder = load(key, tier, queue, region, stale);
+            } finally {
+                stale.refreshing.set(false);
             }
+        }
+        if (!ladder.warmed.compareAndSet(false, true)) return 0;
+        return resolveNames(ladder, unnamedNewcomers(ladder, maxNames), region, WARM_NAME_RESOLUTION_DEADLINE_MS);
+    }
+
+    private static String key(String tier, String queue, RiotRegion region) {
+        return tier + ":" + queue + ":" + region.name();
+    }
+
+    private boolean isExpired(Ladder ladder) {
+        return clock.getAsLong() - ladder.loadedAt > LADDER_TTL_MS;
+    }
 
-            // Sort by LP descending
-            rawEntries.sort(Comparator.comparingInt(RawEntry::lp).reversed());
-
-            int totalEntries = rawEntries.size();
-
-            // Paginate: only resolve names for the current page
-            int from = Math.min(page * size, totalEntries);
-            int to = Math.min(from + size, totalEntries);
-            List<RawEntry> pageEntries = rawEntries.subList(from, to);
-
-            // Resolve Riot IDs in parallel via Account-v1 (cached 24h per puuid)
-            List<CompletableFuture<LeaderboardEntryDto>> futures = pageEntries.stream()
-                    .map(raw -> CompletableFuture.supplyAsync(() -> {
-                        String name = resolveName(raw.puuid(), raw.fallbackName(), region);
-                        int total = raw.wins() + raw.losses();
-                        double winRate = total > 0 ? Math.round((double) raw.wins() / total * 1000.0) / 10.0 : 0.0;
-                        return new LeaderboardEntryDto(name, raw.puuid(), leagueTier, raw.rank(), raw.lp(), raw.wins(), raw.losses(), winRate);
-                    }, nameResolver).orTimeout(10, TimeUnit.SECONDS).exceptionally(ex -> {
-                        String name = raw.fallbackName().isEmpty() ? "Unknown" : raw.fallbackName();
-                        int total = raw.wins() + raw.losses();
-                        double winRate = total > 0 ? Math.round((double) raw.wins() / total * 1000.0) / 10.0 : 0.0;
-                        return new LeaderboardEntryDto(name, raw.puuid(), leagueTier, raw.rank(), raw.lp(), raw.wins(), raw.losses(), winRate);
-                    }))
-                    .toList();
-
-            List<LeaderboardEntryDto> resolved = futures.stream().map(CompletableFuture::join).toList();
-            LeaderboardPage result = new LeaderboardPage(resolved, totalEntries);
-            pageCache.put(cacheKey, new CachedPage(result, System.currentTimeMillis()));
-            return result;
+    /**
+     * Fetch, parse and sort a ladder, carry over names from {@code previous} and note who
+     * is new since it, and publish it.
+     */
+    private Ladder load(String key, String tier, String queue, RiotRegion region, Ladder previous) {
+        String json = riotApiService.getLeagueByTier(tier, queue, region);
+        Ladder ladder;
+        try {
+            ladder = parse(json, tier);
         } catch (Exception e) {
             throw new RuntimeException("Failed to parse league JSON for " + tier, e);
         }
+
+        if (previous != null) {
+            // Every previous player maps to their name, or to null if they never got one
+            Map<String, String> known = new HashMap<>();
+            for (int i = 0; i < previous.entries.length; i++) {
+                String puuid = previous.entries[i].puuid();
+                if (!puuid.isEmpty()) known.put(puuid, previous.names.get(i));
+            }
+            int[] newcomers = new int[ladder.entries.length];
+            int n = 0;
+            for (int i = 0; i < ladder.entries.length; i++) {
+                String puuid = ladder.entries[i].puuid();
+                if (!known.containsKey(puuid)) {
+                    newcomers[n++] = i;
+                } else {
+                    String name = known.get(puuid);
+                    if (name != null) ladder.names.compareAndSet(i, null, name);
+                }
+            }
+            ladder.newcomers = Arrays.copyOf(newcomers, n);
+        }
+        ladders.put(key, ladder);
+        return ladder;
     }
 
-    private String resolveName(String puuid, String fallbackName, RiotRegion region) {
-        if (puuid.isEmpty()) {
-            return fallbackName.isEmpty() ? "Unknown" : fallbackName;
+    private Ladder parse(String json, String tier) throws Exception {
+        JsonNode root = objectMapper.readTree(json);
+        String leagueTier = root.path("tier").asText(tier.toUpperCase());
+        JsonNode nodes = root.path("entries");
+
+        Entry[] entries = new Entry[nodes.size()];
+        int n = 0;
+        for (JsonNode e : nodes) {
+            int wins = e.path("wins").asInt(0);
+            int losses = e.path("losses").asInt(0);
+            int total = wins + losses;
+            double winRate = total > 0 ? Math.round((double) wins / total * 1000.0) / 10.0 : 0.0;
+            entries[n++] = new Entry(e.path("puuid").asText(""), e.path("summonerName").asText(""),
+                    e.path("rank").asText("I"), e.path("leaguePoints").asInt(0), wins, losses, winRate);
         }
+        // Sort by LP descending
+        Arrays.sort(entries, Comparator.comparingInt(Entry::lp).reversed());
+
+        Ladder ladder = new Ladder(leagueTier, entries, clock.getAsLong());
+        // Entries without a PUUID can only ever show the name League-v4 gave them
+        for (int i = 0; i < entries.length; i++) {
+            if (entries[i].puuid().isEmpty()) ladder.names.set(i, displayName(entries[i]));
+        }
+        return ladder;
+    }
+
+    private static String displayName(Entry e) {
+        return e.fallbackName().isEmpty() ? "Unknown" : e.fallbackName();
+    }
+
+    /** Indexes in [from, to) of up to {@code limit} entries that have no name yet. */
+    private static List<Integer> unnamed(Ladder ladder, int from, int to, int limit) {
+        List<Integer> missing = new ArrayList<>();
+        for (int i = from; i < to && missing.size() < limit; i++) {
+            if (ladder.names.get(i) == null) missing.add(i);
+        }
+        return missing;
+    }
+
+    /** Up to {@code limit} unnamed newcomers to the ladder, or unnamed entries from the top after a first load. */
+    private static List<Integer> unnamedNewcomers(Ladder ladder, int limit) {
+        if (ladder.newcomers == null) return unnamed(ladder, 0, ladder.entries.length, limit);
+        List<Integer> missing = new ArrayList<>();
+        for (int i : ladder.newcomers) {
+            if (missing.size() >= limit) break;
+            if (ladder.names.get(i) == null) missing.add(i);
+        }
+        return missing;
+    }
+
+    /** Resolve Riot IDs in parallel via Account-v1 (cached 24h per puuid) and keep them on the ladder. */
+    private int resolveNames(Ladder ladder, List<Integer> indexes, RiotRegion region, long deadlineMs) {
+        if (indexes.isEmpty()) return 0;
+        List<Boolean> resolved = ioExecutor.fanOut(indexes, i -> {
+            String name = resolveName(ladder.entries[i].puuid(), region);
+            return name != null && ladder.names.compareAndSet(i, null, name);
+        }, (i, ex) -> false, deadlineMs);
+        int count = 0;
+        for (Boolean r : resolved) {
+            if (Boolean.TRUE.equals(r)) count++;
+        }
+        return count;
+    }
+
+    /** The player's current Riot ID, or null if Account-v1 has none for them right now. */
+    private String resolveName(String puuid, RiotRegion region) {
         try {
             String accountJson = riotApiService.getAccountByPuuid(puuid, region);
             JsonNode account = objectMapper.readTree(accountJson);
@@ -121,8 +284,6 @@ public class LeaderboardService {
         } catch (Exception e) {
             log.debug("Failed to resolve name for puuid {}: {}", puuid, e.getMessage());
         }
-        return fallbackName.isEmpty() ? "Unknown" : fallbackName;
+        return null;
     }
-
-    private record RawEntry(String puuid, String fallbackName, String rank, int lp, int wins, int losses) {}
 }
@@ -0,0 +1,97 @@
+package com.jw.backend.service;
+
+import com.jw.backend.region.RiotRegion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the solo queue apex ladders of every region indexed, so leaderboard requests
+ * never wait on Riot.
+ *
+ * <p>Each run rebuilds the challenger, grandmaster and master ladders whose League-v4
+ * data has expired and resolves Riot IDs for up to {@code names-per-ladder} of the
+ * players who joined each rebuilt ladder since its last refresh. Everything runs in the
+ * warm-up rate-limit lane, whose share of every window is smaller than ingestion's, so
+ * warming never takes permits from users or from background ingestion.</p>
+ *
+ * <p>A run can take minutes when Riot is slow, so it happens on the warmer's own
+ * thread: the scheduled tick only hands it off, and skips if the last run is still
+ * going, leaving the shared scheduler pool to the other jobs.</p>
+ *
+ * <p>Ladders are rebuilt on expiry rather than ahead of it: League-v4 responses are
+ * cached for the same TTL, so an earlier rebuild would only re-read the cached ladder.
+ * Between expiry and the next run, requests get the expired ladder and start a rebuild
+ * without waiting for it.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "leaderboard.warm.enabled", havingValue = "true", matchIfMissing = true)
+public class LeaderboardWarmer {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaderboardWarmer.class);
+
+    static final List<String> TIERS = List.of("challenger", "grandmaster", "master");
+    static final String QUEUE = "RANKED_SOLO_5x5";
+
+    private final LeaderboardService leaderboardService;
+    private final int namesPerLadder;
+    private final Executor runner;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Autowired
+    public LeaderboardWarmer(LeaderboardService leaderboardService,
+                             @Value("${leaderboard.warm.names-per-ladder:20}") int namesPerLadder) {
+        this(leaderboardService, namesPerLadder,
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("leaderboard-warm-", 0).factory()));
+    }
+
+    LeaderboardWarmer(LeaderboardService leaderboardService, int namesPerLadder, Executor runner) {
+        this.leaderboardService = leaderboardService;
+        this.namesPerLadder = Math.max(0, namesPerLadder);
+        this.runner = runner;
+    }
+
+    /** Start a warm-up run on the warmer's thread unless one is already in progress. */
+    @Scheduled(fixedDelayString = "${leaderboard.warm.interval-ms:60000}")
+    public void warmAll() {
+        if (!running.compareAndSet(false, true)) return;
+        try {
+            runner.execute(() -> {
+                try {
+                    warmLadders();
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    /** Warm every apex ladder of every region; one failing ladder does not stop the rest. */
+    private void warmLadders() {
+        RiotPriority.runAs(RiotPriority.WARMUP, () -> {
+            int resolved = 0;
+            for (RiotRegion region : RiotRegion.values()) {
+                for (String tier : TIERS) {
+                    try {
+                        resolved += leaderboardService.warm(tier, QUEUE, region, namesPerLadder);
+                    } catch (Exception e) {
+                        log.warn("Failed to warm {} leaderboard for {}: {}", tier, region, e.getMessage());
+                    }
+                }
+            }
+            if (resolved > 0) log.debug("Leaderboard warm-up resolved {} names", resolved);
+        });
+    }
+}
@@ -8,116 +8,133 @@ import com.jw.backend.dto.RankedEntryDto;
 import com.jw.backend.region.RiotRegion;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 
+/**
+ * Build the live-game view for a player: the spectator payload plus every participant's
+ * Riot ID and solo-queue rank.
+ *
+ * <p>The ten participant lookups (account and ranked entries each) go out together
+ * through {@link RiotReactiveClient}, so a live game holds no thread per participant; a
+ * participant whose lookups fail, or are still pending after {@code riot.io.deadline-ms},
+ * is shown with placeholders instead.</p>
+ */
 @Service
 public class LiveGameService {
 
     private static final Logger log = LoggerFactory.getLogger(LiveGameService.class);
 
-    private final RiotApiService riotApiService;
+    private final RiotReactiveClient reactiveClient;
     private final RankedService rankedService;
     private final ObjectMapper objectMapper;
-    private final Executor executor = Executors.newFixedThreadPool(6);
+    private final Duration participantDeadline;
 
-    public LiveGameService(RiotApiService riotApiService, RankedService rankedService, ObjectMapper objectMapper) {
-        this.riotApiService = riotApiService;
+    private record AccountName(String gameName, String tagLine) {}
+
+    public LiveGameService(RiotReactiveClient reactiveClient, RankedService rankedService, ObjectMapper objectMapper,
+                           @Value("${riot.io.deadline-ms:30000}") long deadlineMs) {
+        this.reactiveClient = reactiveClient;
         this.rankedService = rankedService;
         this.objectMapper = objectMapper;
+        this.participantDeadline = Duration.ofMillis(deadlineMs);
     }
 
     public Optional<LiveGameDto> getActiveGame(String puuid, RiotRegion region) {
-        String spectatorJson = riotApiService.getActiveGame(puuid, region);
-        if (spectatorJson == null) {
-            return Optional.empty();
-        }
-
-        try {
-            JsonNode root = objectMapper.readTree(spectatorJson);
-            long gameId = root.path("gameId").asLong(0);
-            String gameMode = root.path("gameMode").asText("CLASSIC");
-            int queueId = root.path("gameQueueConfigId").asInt(0);
-            long gameStartTime = root.path("gameStartTime").asLong(0);
-            long gameLength = root.path("gameLength").asLong(0);
-
-            JsonNode participantsNode = root.path("participants");
-            List<JsonNode> participantList = new ArrayList<>();
-            for (JsonNode p : participantsNode) {
-                participantList.add(p);
-            }
-
-            List<CompletableFuture<LiveGameParticipantDto>> futures = participantList.stream()
-                    .map(p -> CompletableFuture.supplyAsync(() -> resolveParticipant(p, region), executor)
-                            .exceptionally(ex -> {
-                                log.warn("Failed to resolve participant: {}", ex.getMessage());
-                                return buildFallbackParticipant(p);
-                            }))
-                    .toList();
+        return getActiveGameReactive(puuid, region).blockOptional();
+    }
 
-            List<LiveGameParticipantDto> participants = futures.stream()
-                    .map(CompletableFuture::join)
-                    .toList();
+    /**
+     * Non-blocking {@link #getActiveGame}.
+     *
+     * @return the live game, or empty if the player is not in one
+     */
+    public Mono<LiveGameDto> getActiveGameReactive(String puuid, RiotRegion region) {
+        RiotPriority lane = RiotPriority.current();
+        return reactiveClient.getActiveGame(puuid, region)
+                .flatMap(spectatorJson -> RiotPriority.callAs(lane, () -> buildGame(spectatorJson, region)));
+    }
 
-            return Optional.of(new LiveGameDto(gameId, gameMode, queueId, gameStartTime, gameLength, participants));
+    private Mono<LiveGameDto> buildGame(String spectatorJson, RiotRegion region) {
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(spectatorJson);
         } catch (Exception e) {
-            throw new RuntimeException("Failed to parse active game JSON", e);
+            return Mono.error(new RuntimeException("Failed to parse active game JSON", e));
+        }
+        long gameId = root.path("gameId").asLong(0);
+        String gameMode = root.path("gameMode").asText("CLASSIC");
+        int queueId = root.path("gameQueueConfigId").asInt(0);
+        long gameStartTime = root.path("gameStartTime").asLong(0);
+        long gameLength = root.path("gameLength").asLong(0);
+
+        List<Mono<LiveGameParticipantDto>> participants = new ArrayList<>();
+        for (JsonNode p : root.path("participants")) {
+            // All participants start together, so this is one deadline for the whole game
+            participants.add(resolveParticipant(p, region).timeout(participantDeadline).onErrorResume(ex -> {
+                log.warn("Failed to resolve participant: {}", ex.getMessage());
+                return Mono.just(buildFallbackParticipant(p));
+            }));
         }
+
+        return Flux.mergeSequential(participants)
+                .collectList()
+                .map(resolved -> new LiveGameDto(gameId, gameMode, queueId, gameStartTime, gameLength, resolved));
     }
 
-    private LiveGameParticipantDto resolveParticipant(JsonNode p, RiotRegion region) {
+    private Mono<LiveGameParticipantDto> resolveParticipant(JsonNode p, RiotRegion region) {
         String puuid = p.path("puuid").asText("");
         int championId = p.path("championId").asInt(0);
         int teamId = p.path("teamId").asInt(0);
         int spell1Id = p.path("spell1Id").asInt(0);
         int spell2Id = p.path("spell2Id").asInt(0);
 
-        // Resolve account name
-        String gameName = "Unknown";
-        String tagLine = "";
-        try {
-            String accountJson = riotApiService.getAccountByPuuid(puuid, region);
-            JsonNode accountNode = objectMapper.readTree(accountJson);
-            gameName = accountNode.path("gameName").asText("Unknown");
-            tagLine = accountNode.path("tagLine").asText("");
-        } catch (Exception e) {
-            log.warn("Failed to resolve account for puuid {}: {}", puuid, e.getMessage());
-        }
-
-        // Resolve ranked data
-        String tier = null;
-        String rank = null;
-        int leaguePoints = 0;
-        int wins = 0;
-        int losses = 0;
-        double winRate = 0;
-        try {
-            List<RankedEntryDto> entries = rankedService.getRankedInfo(puuid, region);
-            Optional<RankedEntryDto> soloEntry = entries.stream()
-                    .filter(e -> "RANKED_SOLO_5x5".equals(e.queueType()))
-                    .findFirst();
-            if (soloEntry.isPresent()) {
-                RankedEntryDto e = soloEntry.get();
-                tier = e.tier();
-                rank = e.rank();
-                leaguePoints = e.leaguePoints();
-                wins = e.wins();
-                losses = e.losses();
-                int total = wins + losses;
-                winRate = total > 0 ? Math.round((double) wins / total * 1000.0) / 10.0 : 0;
+        Mono<AccountName> account = reactiveClient.getAccountByPuuid(puuid, region)
+                .map(accountJson -> {
+                    try {
+                        JsonNode accountNode = objectMapper.readTree(accountJson);
+                        return new AccountName(accountNode.path("gameName").asText("Unknown"),
+                                accountNode.path("tagLine").asText(""));
+                    } catch (Exception e) {
+                        throw new RuntimeException("Failed to parse account JSON", e);
+                    }
+                })
+                .onErrorResume(e -> {
+                    log.warn("Failed to resolve account for puuid {}: {}", puuid, e.getMessage());
+                    return Mono.empty();
+                })
+                .defaultIfEmpty(new AccountName("Unknown", ""));
+
+        Mono<Optional<RankedEntryDto>> solo = reactiveClient.getRankedEntriesByPuuid(puuid, region)
+                .map(rankedJson -> rankedService.parseRankedEntries(rankedJson).stream()
+                        .filter(e -> "RANKED_SOLO_5x5".equals(e.queueType()))
+                        .findFirst())
+                .onErrorResume(e -> {
+                    log.warn("Failed to resolve ranked for puuid {}: {}", puuid, e.getMessage());
+                    return Mono.empty();
+                })
+                .defaultIfEmpty(Optional.empty());
+
+        return Mono.zip(account, solo).map(resolved -> {
+            AccountName name = resolved.getT1();
+            Optional<RankedEntryDto> soloEntry = resolved.getT2();
+            if (soloEntry.isEmpty()) {
+                return new LiveGameParticipantDto(puuid, name.gameName(), name.tagLine(), championId, teamId,
+                        spell1Id, spell2Id, null, null, 0, 0, 0, 0);
             }
-        } catch (Exception e) {
-            log.warn("Failed to resolve ranked for puuid {}: {}", puuid, e.getMessage());
-        }
-
-        return new LiveGameParticipantDto(puuid, gameName, tagLine, championId, teamId, spell1Id, spell2Id,
-                tier, rank, leaguePoints, wins, losses, winRate);
+            RankedEntryDto e = soloEntry.get();
+            int total = e.wins() + e.losses();
+            double winRate = total > 0 ? Math.round((double) e.wins() / total * 1000.0) / 10.0 : 0;
+            return new LiveGameParticipantDto(puuid, name.gameName(), name.tagLine(), championId, teamId,
+                    spell1Id, spell2Id, e.tier(), e.rank(), e.leaguePoints(), e.wins(), e.losses(), winRate);
+        });
     }
 
     private LiveGameParticipantDto buildFallbackParticipant(JsonNode p) {
@@ -7,27 +7,60 @@ package com.jw.backend.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.jw.backend.dto.LpSnapshotDto;
+import com.jw.backend.dto.LpSeriesDto;
 import com.jw.backend.entity.LpSnapshot;
 import com.jw.backend.region.RiotRegion;
 import com.jw.backend.repository.LpSnapshotRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * Track LP progression over time by capturing snapshots on rank or LP changes.
  *
  * <p>Snapshots are only persisted when a delta is detected compared to the most recent
  * stored value, preventing timeline bloat from repeated lookups without rank changes.</p>
+ *
+ * <p>The last known rank per (player, queue) is kept in a bounded in-memory map, so change
+ * detection is a lookup; the database is read only for a queue not seen since startup or
+ * evicted. Changed snapshots are queued and written in one batch by {@link #flush} rather
+ * than on the caller's thread. Each replica keeps its own map, so one whose view is
+ * behind another's can add a duplicate point, or skip a point whose rank equals the one
+ * it last saw.</p>
  */
 @Service
 public class LpTrackingService {
 
+    private static final Logger log = LoggerFactory.getLogger(LpTrackingService.class);
+
+    static final int MIN_POINTS = 3;
+    static final int MAX_POINTS = 2000;
+
+    private static final List<String> TIERS = List.of("IRON", "BRONZE", "SILVER", "GOLD", "PLATINUM", "EMERALD",
+            "DIAMOND", "MASTER", "GRANDMASTER", "CHALLENGER");
+    private static final int APEX_TIER = TIERS.indexOf("MASTER");
+    private static final List<String> DIVISIONS = List.of("IV", "III", "II", "I");
+
     private final LpSnapshotRepository lpSnapshotRepository;
     private final RiotApiService riotApiService;
     private final ObjectMapper objectMapper;
+    private final int maxCachedRanks;
+
+    // Access-ordered so the least recently captured (player, queue) is evicted first
+    private final LinkedHashMap<String, Rank> lastKnown = new LinkedHashMap<>(256, 0.75f, true);
+    private final ConcurrentLinkedQueue<LpSnapshot> pending = new ConcurrentLinkedQueue<>();
+
+    private record Rank(String tier, String division, int leaguePoints) {}
 
     /**
      * Construct the service with required dependencies.
@@ -35,20 +68,24 @@ public class LpTrackingService {
      * @param lpSnapshotRepository repository for LP snapshot persistence
      * @param riotApiService       service for fetching ranked data from Riot API
      * @param objectMapper         Jackson mapper for JSON parsing
+     * @param maxCachedRanks       how many (player, queue) ranks to remember
      */
     public LpTrackingService(LpSnapshotRepository lpSnapshotRepository, RiotApiService riotApiService,
-                             ObjectMapper objectMapper) {
+                             ObjectMapper objectMapper,
+                             @Value("${lp.snapshot.max-cached-ranks:100000}") int maxCachedRanks) {
         this.lpSnapshotRepository = lpSnapshotRepository;
         this.riotApiService = riotApiService;
         this.objectMapper = objectMapper;
+        this.maxCachedRanks = maxCachedRanks;
     }
 
     /**
      * Capture an LP snapshot for all ranked queues if the rank or LP has changed.
      *
-     * <p>Compares the current ranked data against the most recent snapshot per queue.
-     * Only persists a new entry when tier, division, or LP differs — this avoids
-     * generating redundant data points on repeated profile lookups.</p>
+     * <p>Compares the current ranked data against the last known rank per queue.
+     * Only queues a new entry when tier, division, or LP differs — this avoids
+     * generating redundant data points on repeated profile lookups. Queued entries
+     * reach the database on the next {@link #flush}.</p>
      *
      * @param puuid  the player's unique identifier
      * @param region the Riot platform region for the League-v4 API call
@@ -68,34 +105,127 @@ public class LpTrackingService {
 
                 if (tier.isEmpty()) continue;
 
-                Optional<LpSnapshot> last = lpSnapshotRepository
-                        .findTopByPuuidAndQueueTypeOrderByCapturedAtDesc(puuid, queueType);
+                if (recordIfChanged(puuid, queueType, new Rank(tier, rank, lp))) {
+                    pending.add(new LpSnapshot(puuid, queueType, tier, rank, lp));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Failed to capture LP snapshot for {}: {}", puuid, e.getMessage());
+        }
+    }
 
-                boolean changed = last.isEmpty()
-                        || !last.get().getTier().equals(tier)
-                        || !last.get().getRankDivision().equals(rank)
-                        || last.get().getLeaguePoints() != lp;
+    /**
+     * Remember {@code current} as the last known rank, reporting whether it differs from
+     * the previous one. Falls back to the latest stored snapshot on a cache miss.
+     */
+    private boolean recordIfChanged(String puuid, String queueType, Rank current) {
+        String key = key(puuid, queueType);
+        Rank previous;
+        synchronized (lastKnown) {
+            previous = lastKnown.get(key);
+        }
+        if (previous == null) {
+            previous = lpSnapshotRepository.findTopByPuuidAndQueueTypeOrderByCapturedAtDesc(puuid, queueType)
+                    .map(s -> new Rank(s.getTier(), s.getRankDivision(), s.getLeaguePoints()))
+                    .orElse(null);
+        }
+        synchronized (lastKnown) {
+            Rank raced = lastKnown.put(key, current);
+            if (raced != null) previous = raced;
+            if (lastKnown.size() > maxCachedRanks) {
+                Iterator<String> eldest = lastKnown.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+        }
+        return !current.equals(previous);
+    }
 
-                if (changed) {
-                    lpSnapshotRepository.save(new LpSnapshot(puuid, queueType, tier, rank, lp));
+    /**
+     * Write queued snapshots in one batch.
+     *
+     * <p>Runs every {@code lp.snapshot.flush-interval-ms} and on shutdown. If the write
+     * fails the batch is dropped and its ranks forgotten, so the next capture of those
+     * queues compares against the database and queues them again.</p>
+     */
+    @Scheduled(fixedDelayString = "${lp.snapshot.flush-interval-ms:1000}")
+    @PreDestroy
+    public void flush() {
+        List<LpSnapshot> batch = new ArrayList<>();
+        for (LpSnapshot s; (s = pending.poll()) != null; ) {
+            batch.add(s);
+        }
+        if (batch.isEmpty()) return;
+        try {
+            lpSnapshotRepository.insertAll(batch);
+        } catch (Exception e) {
+            log.warn("Failed to write {} LP snapshots: {}", batch.size(), e.getMessage());
+            synchronized (lastKnown) {
+                for (LpSnapshot s : batch) {
+                    lastKnown.remove(key(s.getPuuid(), s.getQueueType()));
                 }
             }
-        } catch (Exception e) {
-            System.err.println("Failed to capture LP snapshot: " + e.getMessage());
         }
     }
 
+    private static String key(String puuid, String queueType) {
+        return puuid + '|' + queueType;
+    }
+
     /**
      * Retrieve chronological LP history for a player in a specific queue.
      *
+     * <p>Reads only the snapshots in {@code [from, to)} and, when there are more than
+     * {@code points} of them, keeps the {@code points} that best preserve the line's shape
+     * (see {@link LargestTriangleDownsampler}) plotted as absolute LP. The response size is
+     * bounded by {@code points} however long the player's history is.</p>
+     *
      * @param puuid     the player's unique identifier
      * @param queueType the ranked queue type (e.g., "RANKED_SOLO_5x5")
-     * @return time-ordered list of LP snapshot DTOs from oldest to newest
+     * @param from      inclusive lower bound on capture time, or null for the first snapshot
+     * @param to        exclusive upper bound on capture time, or null for now
+     * @param points    target point count, clamped to [{@value #MIN_POINTS}, {@value #MAX_POINTS}]
+     * @return columnar LP series from oldest to newest
+     */
+    public LpSeriesDto getLpHistory(String puuid, String queueType, Long from, Long to, int points) {
+        List<Object[]> rows = lpSnapshotRepository.findSeries(puuid, queueType,
+                from != null ? from : 0L, to != null ? to : Long.MAX_VALUE);
+        int n = rows.size();
+        long[] capturedAt = new long[n];
+        int[] absoluteLp = new int[n];
+        for (int i = 0; i < n; i++) {
+            Object[] row = rows.get(i);
+            capturedAt[i] = (Long) row[0];
+            absoluteLp[i] = absoluteLp((String) row[1], (String) row[2], (Integer) row[3]);
+        }
+        int[] kept = LargestTriangleDownsampler.select(capturedAt, absoluteLp,
+                Math.max(MIN_POINTS, Math.min(points, MAX_POINTS)));
+
+        Map<String, Integer> tiers = new LinkedHashMap<>();
+        Map<String, Integer> divisions = new LinkedHashMap<>();
+        long[] keptAt = new long[kept.length];
+        int[] leaguePoints = new int[kept.length];
+        int[] tier = new int[kept.length];
+        int[] division = new int[kept.length];
+        for (int i = 0; i < kept.length; i++) {
+            Object[] row = rows.get(kept[i]);
+            keptAt[i] = capturedAt[kept[i]];
+            leaguePoints[i] = (Integer) row[3];
+            tier[i] = tiers.computeIfAbsent((String) row[1], t -> tiers.size());
+            division[i] = divisions.computeIfAbsent((String) row[2], d -> divisions.size());
+        }
+        return new LpSeriesDto(queueType, n, keptAt, leaguePoints, tiers.keySet().toArray(String[]::new), tier,
+                divisions.keySet().toArray(String[]::new), division);
+    }
+
+    /**
+     * Flatten tier, division and LP onto one axis: 400 LP per tier, 100 per division, and
+     * LP stacking directly on a shared base from Master up. Mirrors the frontend's
+     * {@code toAbsoluteLp}.
      */
-    public List<LpSnapshotDto> getLpHistory(String puuid, String queueType) {
-        return lpSnapshotRepository.findByPuuidAndQueueTypeOrderByCapturedAtAsc(puuid, queueType)
-                .stream()
-                .map(s -> new LpSnapshotDto(s.getQueueType(), s.getTier(), s.getRankDivision(), s.getLeaguePoints(), s.getCapturedAt()))
-                .toList();
+    static int absoluteLp(String tier, String division, int leaguePoints) {
+        int t = TIERS.indexOf(tier);
+        if (t >= APEX_TIER) return APEX_TIER * 400 + leaguePoints;
+        return Math.max(t, 0) * 400 + Math.max(DIVISIONS.indexOf(division), 0) * 100 + leaguePoints;
     }
 }
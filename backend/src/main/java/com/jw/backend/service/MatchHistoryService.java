@@ -9,161 +9,221 @@ import com.jw.backend.dto.ChampionStatsDto;
 import com.jw.backend.dto.MatchSummaryDto;
 import com.jw.backend.dto.MatchTrendPointDto;
 import com.jw.backend.entity.MatchRecord;
+import com.jw.backend.repository.ChampionTotals;
 import com.jw.backend.repository.MatchRecordRepository;
+import com.jw.backend.repository.PlayerStatsRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Local persistence layer that decouples analytics queries from live Riot API calls.
  *
  * <p>Match records are stored as they are fetched through the match summary endpoint,
- * enabling trend charts and champion statistics without additional API consumption.</p>
+ * and for every participant of the matches background ingestion fetches, enabling trend
+ * charts and champion statistics without additional API consumption.</p>
  */
 @Service
 public class MatchHistoryService {
 
+    private static final Logger log = LoggerFactory.getLogger(MatchHistoryService.class);
+
+    static final int STREAM_PERSIST_BATCH = 5;
+    static final long STREAM_PERSIST_LINGER_MS = 250;
+    static final int MAX_RECENT_GAMES = 1000;
+    static final int TREND_PAGE_SIZE = 1000;
+
     private final MatchRecordRepository matchRecordRepository;
+    private final PlayerStatsRollupRepository playerStatsRollupRepository;
 
     /**
-     * Construct the service with the match record repository.
+     * Construct the service with the match record repository and per-player rollups.
      *
-     * @param matchRecordRepository JPA repository for match record persistence
+     * @param matchRecordRepository       JPA repository for match record persistence
+     * @param playerStatsRollupRepository per-player champion stats maintained on insert
      */
-    public MatchHistoryService(MatchRecordRepository matchRecordRepository) {
+    public MatchHistoryService(MatchRecordRepository matchRecordRepository,
+                               PlayerStatsRollupRepository playerStatsRollupRepository) {
         this.matchRecordRepository = matchRecordRepository;
+        this.playerStatsRollupRepository = playerStatsRollupRepository;
     }
 
     /**
      * Persist match summaries as local records, skipping duplicates.
      *
-     * <p>Uses an existence check on (puuid, matchId) to achieve idempotent upsert
-     * semantics — Riot match IDs are globally unique so conflicts indicate replays.</p>
+     * <p>All records go out as a single {@code INSERT ... ON CONFLICT DO NOTHING} on
+     * (puuid, matchId), so replays and concurrent writers for the same player are absorbed
+     * by the database rather than checked for first — Riot match IDs are globally unique
+     * so conflicts indicate replays.</p>
      *
      * @param puuid     the player's unique identifier
      * @param region    the Riot region string
      * @param summaries list of match summaries fetched from the Riot API
      */
     public void persistMatchRecords(String puuid, String region, List<MatchSummaryDto> summaries) {
-        List<String> incomingIds = summaries.stream().map(MatchSummaryDto::matchId).toList();
-        Set<String> existingIds = matchRecordRepository.findMatchIdsByPuuidAndMatchIdIn(puuid, incomingIds);
-
-        List<MatchRecord> newRecords = new ArrayList<>();
+        if (summaries.isEmpty()) return;
+        List<MatchRecord> records = new ArrayList<>(summaries.size());
         for (MatchSummaryDto s : summaries) {
-            if (!existingIds.contains(s.matchId())) {
-                MatchRecord r = new MatchRecord();
-                r.setPuuid(puuid);
-                r.setMatchId(s.matchId());
-                r.setRegion(region);
-                r.setChampionName(s.championName());
-                r.setKills(s.kills());
-                r.setDeaths(s.deaths());
-                r.setAssists(s.assists());
-                r.setWin(s.win());
-                r.setGameDurationSec(s.gameDurationSec());
-                r.setGameEndTimestamp(s.gameEndTimestamp());
-                r.setQueueId(s.queueId());
-                r.setTotalDamageDealtToChampions(s.totalDamageDealtToChampions());
-                r.setGoldEarned(s.goldEarned());
-                r.setTotalMinionsKilled(s.totalMinionsKilled());
-                r.setNeutralMinionsKilled(s.neutralMinionsKilled());
-                r.setPlacement(s.placement());
-                r.setTeamTotalKills(s.teamTotalKills());
-                newRecords.add(r);
-            }
-        }
-        if (!newRecords.isEmpty()) {
-            matchRecordRepository.saveAll(newRecords);
+            MatchRecord r = new MatchRecord();
+            r.setPuuid(puuid);
+            r.setMatchId(s.matchId());
+            r.setRegion(region);
+            r.setChampionName(s.championName());
+            r.setKills(s.kills());
+            r.setDeaths(s.deaths());
+            r.setAssists(s.assists());
+            r.setWin(s.win());
+            r.setGameDurationSec(s.gameDurationSec());
+            r.setGameEndTimestamp(s.gameEndTimestamp());
+            r.setQueueId(s.queueId());
+            r.setTotalDamageDealtToChampions(s.totalDamageDealtToChampions());
+            r.setGoldEarned(s.goldEarned());
+            r.setTotalMinionsKilled(s.totalMinionsKilled());
+            r.setNeutralMinionsKilled(s.neutralMinionsKilled());
+            r.setPlacement(s.placement());
+            r.setTeamTotalKills(s.teamTotalKills());
+            records.add(r);
         }
+        matchRecordRepository.insertIgnoringDuplicates(records);
     }
 
     /**
-     * Compute per-champion aggregate statistics from stored match records.
+     * Persist every participant of each match as a local record, skipping duplicates.
      *
-     * <p>Aggregation is performed in-memory, which is acceptable for datasets
-     * under ~10k records per player. Results are sorted by games played descending
-     * to surface the player's most-played champions first.</p>
+     * <p>A fetched Match-v5 payload carries the stats of all ten players (sixteen in
+     * Arena), so one detail call yields a record for each of them instead of only the
+     * searched player. Participants without a PUUID (bots) are skipped.</p>
      *
-     * @param puuid the player's unique identifier
-     * @return list of champion statistics sorted by total games descending
+     * @param region  the Riot region string
+     * @param matches parsed matches keyed by match ID
      */
-    private static final int MAX_RECORDS = 1000;
-
-    public List<ChampionStatsDto> getChampionStats(String puuid, Integer count, Integer queueId) {
-        List<MatchRecord> records = matchRecordRepository.findByPuuidOrderByGameEndTimestampDesc(
-                puuid, PageRequest.of(0, MAX_RECORDS));
-
-        if (queueId != null) {
-            records = records.stream()
-                    .filter(r -> queueId.equals(r.getQueueId()))
-                    .collect(Collectors.toList());
+    public void persistMatches(String region, Map<String, ParsedMatch> matches) {
+        List<MatchRecord> records = new ArrayList<>(matches.size() * 10);
+        for (Map.Entry<String, ParsedMatch> e : matches.entrySet()) {
+            addParticipantRecords(records, e.getKey(), region, e.getValue());
+        }
+        if (!records.isEmpty()) {
+            matchRecordRepository.insertIgnoringDuplicates(records);
         }
+    }
 
-        if (count != null && count > 0 && count < records.size()) {
-            records = records.subList(0, count);
+    private static void addParticipantRecords(List<MatchRecord> records, String matchId, String region,
+                                              ParsedMatch match) {
+        Map<Integer, Integer> teamKills = new HashMap<>();
+        for (ParsedMatch.Participant p : match.participants()) {
+            teamKills.merge(p.teamId(), p.kills(), Integer::sum);
+        }
+        for (ParsedMatch.Participant p : match.participants()) {
+            if (p.puuid() == null || p.puuid().isBlank() || "BOT".equals(p.puuid())) continue;
+            MatchRecord r = new MatchRecord();
+            r.setPuuid(p.puuid());
+            r.setMatchId(matchId);
+            r.setRegion(region);
+            r.setChampionName(p.championName());
+            r.setKills(p.kills());
+            r.setDeaths(p.deaths());
+            r.setAssists(p.assists());
+            r.setWin(p.win());
+            r.setGameDurationSec(match.gameDurationSec());
+            r.setGameEndTimestamp(match.gameEndTimestamp());
+            r.setQueueId(match.queueId());
+            r.setTotalDamageDealtToChampions(p.totalDamageDealtToChampions());
+            r.setGoldEarned(p.goldEarned());
+            r.setTotalMinionsKilled(p.totalMinionsKilled());
+            r.setNeutralMinionsKilled(p.neutralMinionsKilled());
+            r.setPlacement(p.placement());
+            r.setTeamTotalKills(teamKills.get(p.teamId()));
+            records.add(r);
         }
+    }
 
-        Map<String, List<MatchRecord>> byChampion = records.stream()
-                .collect(Collectors.groupingBy(MatchRecord::getChampionName));
+    /**
+     * Persist summaries while they are still arriving, passing each one through untouched.
+     *
+     * <p>Summaries are written in small batches (up to {@value #STREAM_PERSIST_BATCH}, or
+     * whatever arrived within {@value #STREAM_PERSIST_LINGER_MS} ms) on the bounded elastic
+     * scheduler, so the stream is never held up by the database. A failed batch is logged
+     * and skipped; the records are written on the next fetch of those matches.</p>
+     *
+     * @param puuid     the player's unique identifier
+     * @param region    the Riot region string
+     * @param summaries summaries in the order they resolve
+     * @return the same summaries, emitted as soon as they arrive
+     */
+    public Flux<MatchSummaryDto> persistAsTheyArrive(String puuid, String region, Flux<MatchSummaryDto> summaries) {
+        return summaries.publish(shared -> Flux.merge(
+                shared,
+                shared.bufferTimeout(STREAM_PERSIST_BATCH, Duration.ofMillis(STREAM_PERSIST_LINGER_MS))
+                        .concatMap(batch -> Mono.fromRunnable(() -> persistMatchRecords(puuid, region, batch))
+                                .subscribeOn(Schedulers.boundedElastic())
+                                .onErrorResume(e -> {
+                                    log.warn("Failed to persist {} streamed matches for {}: {}",
+                                            batch.size(), puuid, e.getMessage());
+                                    return Mono.empty();
+                                }))
+                        .thenMany(Flux.<MatchSummaryDto>empty())));
+    }
 
-        return byChampion.entrySet().stream()
-                .map(e -> {
-                    String name = e.getKey();
-                    List<MatchRecord> games = e.getValue();
-                    int total = games.size();
-                    int wins = (int) games.stream().filter(MatchRecord::isWin).count();
-                    double winRate = total > 0 ? Math.round((wins * 100.0) / total * 10) / 10.0 : 0;
-                    double avgKills = games.stream().mapToInt(MatchRecord::getKills).average().orElse(0);
-                    double avgDeaths = games.stream().mapToInt(MatchRecord::getDeaths).average().orElse(0);
-                    double avgAssists = games.stream().mapToInt(MatchRecord::getAssists).average().orElse(0);
-                    double avgKda = avgDeaths == 0 ? avgKills + avgAssists : (avgKills + avgAssists) / avgDeaths;
-                    double avgDamage = games.stream().mapToInt(MatchRecord::getTotalDamageDealtToChampions).average().orElse(0);
-                    double avgCs = games.stream().mapToInt(g -> g.getTotalMinionsKilled() + g.getNeutralMinionsKilled()).average().orElse(0);
+    /**
+     * Per-champion statistics for a player, most played first.
+     *
+     * <p>Without {@code count} the whole stored history is read from the per-player
+     * rollup, a handful of rows however many games the player has. With {@code count}
+     * the player's last {@code count} games (in {@code queueId} when set, up to
+     * {@value #MAX_RECENT_GAMES}) are summed in the database; only the totals come back.</p>
+     *
+     * @param puuid   the player's unique identifier
+     * @param count   how many recent games to cover, or null for the whole history
+     * @param queueId queue to restrict to, or null for all queues
+     * @return list of champion statistics sorted by total games descending
+     */
+    public List<ChampionStatsDto> getChampionStats(String puuid, Integer count, Integer queueId) {
+        List<ChampionTotals> totals = count != null && count > 0
+                ? playerStatsRollupRepository.recentChampionTotals(puuid, queueId, Math.min(count, MAX_RECENT_GAMES))
+                : playerStatsRollupRepository.championTotals(puuid, queueId);
+        return totals.stream().map(MatchHistoryService::toChampionStats).toList();
+    }
 
-                    return new ChampionStatsDto(name, total, wins,
-                            Math.round(winRate * 10) / 10.0,
-                            Math.round(avgKills * 10) / 10.0,
-                            Math.round(avgDeaths * 10) / 10.0,
-                            Math.round(avgAssists * 10) / 10.0,
-                            Math.round(avgKda * 100) / 100.0,
-                            Math.round(avgDamage),
-                            Math.round(avgCs * 10) / 10.0);
-                })
-                .sorted(Comparator.comparingInt(ChampionStatsDto::games).reversed())
-                .toList();
+    private static ChampionStatsDto toChampionStats(ChampionTotals t) {
+        double games = t.games();
+        double winRate = Math.round(t.wins() * 100.0 / games * 10) / 10.0;
+        double avgKills = t.kills() / games;
+        double avgDeaths = t.deaths() / games;
+        double avgAssists = t.assists() / games;
+        double avgKda = avgDeaths == 0 ? avgKills + avgAssists : (avgKills + avgAssists) / avgDeaths;
+        return new ChampionStatsDto(t.championName(), (int) t.games(), (int) t.wins(),
+                Math.round(winRate * 10) / 10.0,
+                Math.round(avgKills * 10) / 10.0,
+                Math.round(avgDeaths * 10) / 10.0,
+                Math.round(avgAssists * 10) / 10.0,
+                Math.round(avgKda * 100) / 100.0,
+                Math.round(t.damage() / games),
+                Math.round(t.cs() / games * 10) / 10.0);
     }
 
     /**
-     * Retrieve match trend data points in chronological order for chart rendering.
+     * Retrieve a page of match trend data points in chronological order for chart rendering.
      *
-     * <p>Returns oldest-first ordering since the frontend renders left-to-right time axes.</p>
+     * <p>Returns the {@value #TREND_PAGE_SIZE} most recent matches that ended before
+     * {@code before}, oldest first since the frontend renders left-to-right time axes.
+     * Passing the first point's timestamp as {@code before} fetches the page preceding
+     * it, so the whole history can be walked at a fixed cost per page.</p>
      *
-     * @param puuid the player's unique identifier
+     * @param puuid  the player's unique identifier
+     * @param before exclusive upper bound on the game end timestamp, or null for the latest page
      * @return time-ordered list of match performance data points
      */
-    public List<MatchTrendPointDto> getMatchTrends(String puuid) {
-        List<MatchRecord> records = matchRecordRepository.findByPuuidOrderByGameEndTimestampDesc(
-                puuid, PageRequest.of(0, MAX_RECORDS));
-
-        List<MatchRecord> chronological = new ArrayList<>(records);
-        Collections.reverse(chronological);
-
-        return chronological.stream()
-                .map(r -> new MatchTrendPointDto(
-                        r.getMatchId(),
-                        r.getGameEndTimestamp(),
-                        r.isWin(),
-                        r.getKills(),
-                        r.getDeaths(),
-                        r.getAssists(),
-                        r.getTotalDamageDealtToChampions(),
-                        r.getGoldEarned(),
-                        r.getTotalMinionsKilled() + r.getNeutralMinionsKilled(),
-                        r.getChampionName(),
-                        r.getQueueId()
-                ))
-                .toList();
+    public List<MatchTrendPointDto> getMatchTrends(String puuid, Long before) {
+        List<MatchTrendPointDto> points = new ArrayList<>(matchRecordRepository.findTrendPoints(
+                puuid, before != null ? before : Long.MAX_VALUE, PageRequest.of(0, TREND_PAGE_SIZE)));
+        Collections.reverse(points);
+        return points;
     }
 }
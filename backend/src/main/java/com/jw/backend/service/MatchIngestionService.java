@@ -4,20 +4,58 @@ import com.jw.backend.dto.MatchSummaryDto;
 import com.jw.backend.entity.TrackedPlayer;
 import com.jw.backend.region.RiotRegion;
 import com.jw.backend.repository.TrackedPlayerRepository;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
 
 /**
- * Background worker that continuously ingests new matches for tracked players.
- * Runs on a fixed 10-second schedule, processing a small batch each tick to
- * stay within Riot API rate limits.
+ * Background engine that continuously ingests new matches for tracked players.
+ *
+ * <p>Players are partitioned by Riot routing host (americas, europe, asia), since that is
+ * where the Match-v5 budget lives. Each partition has its own pool of virtual-thread
+ * workers, sized from the background share of that host's rate limit: a host that grants
+ * {@code r} permits a second keeps about {@code r x ingestion.call-latency-ms} calls in
+ * flight, capped at {@code ingestion.max-workers-per-region}. The pool follows limits
+ * learned from Riot's headers, so a production key widens it without a config change.</p>
+ *
+ * <p>A dispatcher tick tops every partition up to its worker count by claiming due players
+ * through {@link PlayerTrackingService#claimDuePlayers}, which leases them across nodes, so
+ * any number of replicas can ingest side by side. Riot calls run in the background lane,
+ * so they never take the headroom reserved for interactive requests.</p>
+ *
+ * <p>Each poll is incremental. A player's high-water mark (last ingested match ID and end
+ * time) filters the ID list by {@code startTime}, so an idle player costs one ID call and
+ * no detail calls. A player with more new games than {@code ingestion.max-backfill}
+ * catches up over several polls, oldest games first, so the mark never passes a match
+ * that was not fetched. Every participant of a fetched match is stored,
+ * so the same detail calls also fill in the other nine players' histories.</p>
+ *
+ * <p>When each player is polled next is up to {@link IngestionScheduler}, which learns
+ * when they play and backs off from players who stopped.</p>
+ *
+ * <p>Per partition the engine tracks throughput, failures, how long claimed players had
+ * been due (lag) and how long each ingest took; the backlog of due players and the age of
+ * the oldest one are refreshed on their own schedule.</p>
  */
 @Service
 @ConditionalOnProperty(name = "ingestion.enabled", havingValue = "true", matchIfMissing = true)
@@ -25,81 +63,311 @@ public class MatchIngestionService {
 
     private static final Logger log = LoggerFactory.getLogger(MatchIngestionService.class);
 
-    private static final long TWO_MINUTES_MS    = 2L * 60 * 1000;
-    private static final long FIFTEEN_MINUTES_MS = 15L * 60 * 1000;
-    private static final long ONE_HOUR_MS        = 60L * 60 * 1000;
-    private static final long SIX_HOURS_MS       = 6L * 60 * 60 * 1000;
-    private static final long TWENTY_FOUR_HOURS_MS = 24L * 60 * 60 * 1000;
-    private static final long SEVEN_DAYS_MS      = 7L * 24 * 60 * 60 * 1000;
-    private static final long THIRTY_DAYS_MS     = 30L * 24 * 60 * 60 * 1000;
+    static final long RETRY_DELAY_MS = 5L * 60 * 1000;
+
+    // Matches taken for a player seen for the first time, matching the profile page's first load
+    static final int INITIAL_MATCHES = 10;
+    // Largest page Match-v5 returns per ID call
+    static final int ID_PAGE_SIZE = 100;
+    // ID pages one poll reads looking for the oldest new match
+    static final int MAX_ID_PAGES = 20;
+
+    // Lag runs to hours when ingestion falls behind, far past the request-latency bounds
+    static final long[] LAG_BOUNDS_MS = {1_000, 5_000, 15_000, 60_000, 300_000, 900_000, 3_600_000, 21_600_000};
+    static final long[] DURATION_BOUNDS_MS = {100, 250, 500, 1_000, 2_500, 5_000, 10_000, 30_000, 60_000};
 
     private final TrackedPlayerRepository trackedPlayerRepository;
+    private final PlayerTrackingService playerTrackingService;
     private final RiotApiService riotApiService;
     private final MatchHistoryService matchHistoryService;
     private final LpTrackingService lpTrackingService;
+    private final IngestionScheduler scheduler;
+    private final RiotRateLimiter rateLimiter;
+    private final int batchSize;
+    private final long leaseMs;
+    private final long callLatencyMs;
+    private final int maxWorkers;
+    private final int maxBackfill;
+    private final LongSupplier clock;
+
+    private final Map<String, Partition> partitions = new LinkedHashMap<>();
+    private volatile Backlog backlog = new Backlog(0, 0);
+    private volatile boolean stopped;
+
+    /**
+     * Point-in-time view of one routing-host partition.
+     *
+     * @param workers  workers the partition may run, from the host's current budget
+     * @param inFlight players being ingested now
+     * @param ingested players ingested successfully
+     * @param failed   players whose ingest failed and was rescheduled
+     * @param lag      how long each claimed player had been due
+     * @param duration time to ingest one player
+     */
+    public record PartitionStats(int workers, int inFlight, long ingested, long failed,
+                                 LatencyHistogram.Snapshot lag, LatencyHistogram.Snapshot duration) {}
+
+    /**
+     * Players waiting to be ingested, as of the last refresh.
+     *
+     * @param due         enabled players whose nextIngestAt has passed and are not leased
+     * @param oldestLagMs how long the longest-waiting of them has been due
+     */
+    public record Backlog(long due, long oldestLagMs) {}
 
-    @Value("${ingestion.batch-size:5}")
-    private int batchSize;
+    private static final class Partition {
+        final List<String> regions = new ArrayList<>();
+        final Executor workers;
+        final AtomicInteger inFlight = new AtomicInteger();
+        volatile int targetWorkers = 1;
+        final LongAdder ingested = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LatencyHistogram lag = new LatencyHistogram(LAG_BOUNDS_MS);
+        final LatencyHistogram duration = new LatencyHistogram(DURATION_BOUNDS_MS);
 
+        Partition(Executor workers) {
+            this.workers = workers;
+        }
+    }
+
+    @Autowired
     public MatchIngestionService(TrackedPlayerRepository trackedPlayerRepository,
+                                 PlayerTrackingService playerTrackingService,
                                  RiotApiService riotApiService,
                                  MatchHistoryService matchHistoryService,
-                                 LpTrackingService lpTrackingService) {
+                                 LpTrackingService lpTrackingService,
+                                 IngestionScheduler scheduler,
+                                 RiotRateLimiter rateLimiter,
+                                 @Value("${ingestion.batch-size:20}") int batchSize,
+                                 @Value("${ingestion.lease-ms:600000}") long leaseMs,
+                                 @Value("${ingestion.call-latency-ms:250}") long callLatencyMs,
+                                 @Value("${ingestion.max-workers-per-region:16}") int maxWorkers,
+                                 @Value("${ingestion.max-backfill:100}") int maxBackfill) {
+        this(trackedPlayerRepository, playerTrackingService, riotApiService, matchHistoryService,
+                lpTrackingService, scheduler, rateLimiter, batchSize, leaseMs, callLatencyMs, maxWorkers, maxBackfill,
+                host -> Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ingest-" + host + "-", 0).factory()),
+                System::currentTimeMillis);
+    }
+
+    MatchIngestionService(TrackedPlayerRepository trackedPlayerRepository,
+                          PlayerTrackingService playerTrackingService,
+                          RiotApiService riotApiService,
+                          MatchHistoryService matchHistoryService,
+                          LpTrackingService lpTrackingService,
+                          IngestionScheduler scheduler,
+                          RiotRateLimiter rateLimiter,
+                          int batchSize, long leaseMs, long callLatencyMs, int maxWorkers, int maxBackfill,
+                          Function<String, Executor> workerPools, LongSupplier clock) {
         this.trackedPlayerRepository = trackedPlayerRepository;
+        this.playerTrackingService = playerTrackingService;
         this.riotApiService = riotApiService;
         this.matchHistoryService = matchHistoryService;
         this.lpTrackingService = lpTrackingService;
+        this.scheduler = scheduler;
+        this.rateLimiter = rateLimiter;
+        this.batchSize = Math.max(1, batchSize);
+        this.leaseMs = leaseMs;
+        this.callLatencyMs = callLatencyMs;
+        this.maxWorkers = Math.max(1, maxWorkers);
+        this.maxBackfill = Math.max(1, maxBackfill);
+        this.clock = clock;
+        for (RiotRegion region : RiotRegion.values()) {
+            partitions.computeIfAbsent(region.routing(), host -> new Partition(workerPools.apply(host)))
+                    .regions.add(region.name());
+        }
     }
 
-    @Scheduled(fixedDelay = 10_000)
-    public void ingestBatch() {
-        long now = System.currentTimeMillis();
-        List<TrackedPlayer> duePlayers = trackedPlayerRepository.findDuePlayers(now, PageRequest.of(0, batchSize));
-
-        if (duePlayers.isEmpty()) return;
+    /**
+     * Top every partition up to its worker count with freshly claimed players.
+     * Runs often and returns quickly; the ingest itself happens on the partition's workers.
+     */
+    @Scheduled(fixedDelayString = "${ingestion.poll-interval-ms:1000}")
+    public void dispatch() {
+        if (stopped) return;
+        long now = clock.getAsLong();
 
-        log.info("Ingesting matches for {} player(s)", duePlayers.size());
+        for (Map.Entry<String, Partition> entry : partitions.entrySet()) {
+            String host = entry.getKey();
+            Partition partition = entry.getValue();
+            partition.targetWorkers = targetWorkers(host);
+            int free = Math.min(partition.targetWorkers - partition.inFlight.get(), batchSize);
+            if (free <= 0) continue;
 
-        for (TrackedPlayer player : duePlayers) {
+            List<PlayerTrackingService.Claim> claims;
             try {
-                ingestPlayer(player, now);
+                claims = playerTrackingService.claimDuePlayers(partition.regions, now, free, leaseMs);
             } catch (Exception e) {
-                log.error("Failed to ingest matches for puuid={}: {}", player.getPuuid(), e.getMessage());
-                // Schedule retry in 5 minutes on failure
-                player.setNextIngestAt(now + 5L * 60 * 1000);
-                trackedPlayerRepository.save(player);
+                log.warn("Failed to claim due players for {}: {}", host, e.getMessage());
+                continue;
+            }
+            if (claims.isEmpty()) continue;
+            log.debug("Claimed {} player(s) for {}", claims.size(), host);
+
+            for (PlayerTrackingService.Claim claim : claims) {
+                partition.lag.record(Math.max(0, now - claim.dueAt()));
+                partition.inFlight.incrementAndGet();
+                try {
+                    partition.workers.execute(() -> ingest(partition, claim.player()));
+                } catch (RejectedExecutionException e) {
+                    // Shutting down; the lease runs out and another node picks the player up
+                    partition.inFlight.decrementAndGet();
+                }
             }
         }
     }
 
+    /** Recount the due backlog for the lag gauges; a count over the partial index, so cheap. */
+    @Scheduled(fixedDelayString = "${ingestion.backlog-refresh-ms:15000}")
+    public void refreshBacklog() {
+        long now = clock.getAsLong();
+        try {
+            List<Object[]> rows = trackedPlayerRepository.dueBacklog(now);
+            Object[] row = rows.isEmpty() ? new Object[]{0L, null} : rows.get(0);
+            long due = ((Number) row[0]).longValue();
+            long oldestLag = row[1] == null ? 0 : Math.max(0, now - ((Number) row[1]).longValue());
+            backlog = new Backlog(due, oldestLag);
+        } catch (Exception e) {
+            log.warn("Failed to refresh ingestion backlog: {}", e.getMessage());
+        }
+    }
+
+    /** Routing hosts the engine partitions players by. */
+    public Set<String> partitions() {
+        return partitions.keySet();
+    }
+
+    public PartitionStats partitionStats(String host) {
+        Partition p = partitions.get(host);
+        if (p == null) {
+            return new PartitionStats(0, 0, 0, 0, new LatencyHistogram(LAG_BOUNDS_MS).snapshot(),
+                    new LatencyHistogram(DURATION_BOUNDS_MS).snapshot());
+        }
+        return new PartitionStats(p.targetWorkers, p.inFlight.get(), p.ingested.sum(), p.failed.sum(),
+                p.lag.snapshot(), p.duration.snapshot());
+    }
+
+    public Backlog backlog() {
+        return backlog;
+    }
+
+    /** Workers a host's background budget keeps busy: permits per second times call latency. */
+    int targetWorkers(String host) {
+        double permitsPerSecond = rateLimiter.sustainedRate(host, RiotPriority.BACKGROUND);
+        long workers = (long) Math.ceil(permitsPerSecond * callLatencyMs / 1000.0);
+        return (int) Math.max(1, Math.min(maxWorkers, workers));
+    }
+
+    private void ingest(Partition partition, TrackedPlayer player) {
+        long startedAt = clock.getAsLong();
+        try {
+            RiotPriority.runAs(RiotPriority.BACKGROUND, () -> ingestPlayer(player, startedAt));
+            partition.ingested.increment();
+        } catch (Exception e) {
+            partition.failed.increment();
+            log.error("Failed to ingest matches for puuid={}: {}", player.getPuuid(), e.getMessage());
+            // Schedule retry in 5 minutes on failure
+            player.setNextIngestAt(startedAt + RETRY_DELAY_MS);
+            try {
+                trackedPlayerRepository.rescheduleIngest(player.getPuuid(), player.getNextIngestAt());
+            } catch (Exception saveError) {
+                log.warn("Failed to reschedule puuid={}, its lease will expire instead: {}",
+                        player.getPuuid(), saveError.getMessage());
+            }
+        } finally {
+            partition.duration.record(clock.getAsLong() - startedAt);
+            partition.inFlight.decrementAndGet();
+        }
+    }
+
     private void ingestPlayer(TrackedPlayer player, long now) {
         RiotRegion region = RiotRegion.valueOf(player.getRegion());
         String puuid = player.getPuuid();
 
-        List<MatchSummaryDto> summaries = riotApiService.getRecentMatchSummaries(puuid, region, 10);
+        List<String> newIds = findNewMatchIds(player, region);
 
-        if (!summaries.isEmpty()) {
-            matchHistoryService.persistMatchRecords(puuid, region.name(), summaries);
-            log.debug("Persisted {} match records for {}", summaries.size(), puuid);
+        if (!newIds.isEmpty()) {
+            Map<String, ParsedMatch> matches = riotApiService.getParsedMatches(region, newIds);
+            List<MatchSummaryDto> summaries = new ArrayList<>(matches.size());
+            matches.forEach((matchId, match) -> summaries.add(match.toSummary(matchId, puuid)));
+            if (!matches.isEmpty()) {
+                // Every participant's line, not just this player's: same detail calls, ten times the rows
+                matchHistoryService.persistMatches(region.name(), matches);
+                log.debug("Persisted {} matches for {}", matches.size(), puuid);
+            }
+            advanceHighWaterMark(player, newIds, summaries);
         }
 
         lpTrackingService.captureSnapshot(puuid, region);
 
         player.setLastIngestedAt(now);
-        player.setNextIngestAt(now + computeInterval(player.getLastSearchedAt(), now));
-        trackedPlayerRepository.save(player);
+        player.setNextIngestAt(scheduler.nextIngestAt(player, !newIds.isEmpty(), now));
+        // The claimed copy is stale by now: a search may have renamed the player meanwhile
+        trackedPlayerRepository.recordIngest(puuid, player.getLastMatchId(), player.getLastMatchEndAt(),
+                player.getIdlePolls(), player.getLastIngestedAt(), player.getNextIngestAt());
+    }
+
+    /**
+     * IDs of the player's matches newer than the high-water mark, newest first.
+     *
+     * <p>Without a mark this is the latest {@value #INITIAL_MATCHES}. With one, the list is
+     * filtered to games started after the last match ended, paged while pages come back
+     * full and cut at the last seen ID, in case Riot's filter lets that match through.
+     * Only the oldest {@code ingestion.max-backfill} are kept, so the mark advances
+     * without a gap and the rest are fetched on the next polls. Riot pages newest first,
+     * so finding the oldest means reading every ID page, up to {@value #MAX_ID_PAGES}.</p>
+     */
+    List<String> findNewMatchIds(TrackedPlayer player, RiotRegion region) {
+        String puuid = player.getPuuid();
+        String lastMatchId = player.getLastMatchId();
+        if (lastMatchId == null) {
+            return riotApiService.getMatchIdsSince(puuid, region, 0, 0, INITIAL_MATCHES);
+        }
+
+        long startTimeSec = player.getLastMatchEndAt() / 1000;
+        List<String> ids = new ArrayList<>();
+        boolean complete = false;
+        for (int pages = 0; pages < MAX_ID_PAGES && !complete; pages++) {
+            List<String> page = riotApiService.getMatchIdsSince(puuid, region, startTimeSec, ids.size(), ID_PAGE_SIZE);
+            int seen = page.indexOf(lastMatchId);
+            ids.addAll(seen >= 0 ? page.subList(0, seen) : page);
+            complete = seen >= 0 || page.size() < ID_PAGE_SIZE;
+        }
+        if (!complete) {
+            log.warn("More than {} new matches for {}; matches older than those are skipped",
+                    MAX_ID_PAGES * ID_PAGE_SIZE, puuid);
+        }
+        return ids.size() > maxBackfill ? ids.subList(ids.size() - maxBackfill, ids.size()) : ids;
     }
 
     /**
-     * Compute the next ingestion interval based on how recently the player was searched.
-     * More recently searched players get polled more frequently.
+     * Move the mark to the newest match below which every new ID was persisted. A match
+     * whose detail failed stays above the mark, so the next poll's startTime filter still
+     * returns it and it gets another attempt.
+     *
+     * @param newIds    the IDs fetched this poll, newest first
+     * @param summaries the summaries that resolved
      */
-    private long computeInterval(long lastSearchedAt, long now) {
-        long sinceLast = now - lastSearchedAt;
-        if (sinceLast < ONE_HOUR_MS)          return TWO_MINUTES_MS;
-        if (sinceLast < TWENTY_FOUR_HOURS_MS) return FIFTEEN_MINUTES_MS;
-        if (sinceLast < SEVEN_DAYS_MS)        return ONE_HOUR_MS;
-        if (sinceLast < THIRTY_DAYS_MS)       return SIX_HOURS_MS;
-        return TWENTY_FOUR_HOURS_MS;
+    static void advanceHighWaterMark(TrackedPlayer player, List<String> newIds, List<MatchSummaryDto> summaries) {
+        Map<String, MatchSummaryDto> resolved = new HashMap<>();
+        for (MatchSummaryDto summary : summaries) resolved.put(summary.matchId(), summary);
+
+        MatchSummaryDto newest = null;
+        for (int i = newIds.size() - 1; i >= 0; i--) {
+            MatchSummaryDto summary = resolved.get(newIds.get(i));
+            if (summary == null) break;
+            newest = summary;
+        }
+        if (newest != null) {
+            player.setLastMatchId(newest.matchId());
+            player.setLastMatchEndAt(newest.gameEndTimestamp());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        stopped = true;
+        for (Partition partition : partitions.values()) {
+            if (partition.workers instanceof ExecutorService pool) pool.shutdownNow();
+        }
     }
 }
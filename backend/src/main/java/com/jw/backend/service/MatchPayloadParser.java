@@ -0,0 +1,344 @@
+package com.jw.backend.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single-pass streaming parser from raw Match-v5 JSON to {@link ParsedMatch}.
+ *
+ * <p>A match payload carries ~150 fields per participant plus a large metadata block,
+ * of which we read about thirty. Walking tokens and skipping whole subtrees we don't
+ * need avoids materialising the full {@code JsonNode} tree and the string-keyed
+ * {@code path()} lookups per field. Missing, null or mistyped values fall back to the
+ * same defaults the tree-based extraction used ({@code 0}, {@code false}, {@code ""}).</p>
+ */
+public class MatchPayloadParser {
+
+    private final JsonFactory jsonFactory;
+
+    public MatchPayloadParser(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    /**
+     * Parse a full Match-v5 payload.
+     *
+     * @param json the raw match JSON
+     * @return the parsed model, empty if the payload has no {@code info} object
+     * @throws IOException if the payload is not valid JSON
+     */
+    public ParsedMatch parse(String json) throws IOException {
+        try (JsonParser p = jsonFactory.createParser(json)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) {
+                p.skipChildren();
+                return ParsedMatch.EMPTY;
+            }
+            ParsedMatch match = ParsedMatch.EMPTY;
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                JsonToken value = p.nextToken();
+                if ("info".equals(field) && value == JsonToken.START_OBJECT) {
+                    match = parseInfo(p);
+                } else {
+                    p.skipChildren();
+                }
+            }
+            return match;
+        }
+    }
+
+    private ParsedMatch parseInfo(JsonParser p) throws IOException {
+        int queueId = 0;
+        long gameDuration = 0;
+        long gameEndTimestamp = 0;
+        String gameMode = "";
+        String gameVersion = "";
+        List<ParsedMatch.Team> teams = List.of();
+        List<ParsedMatch.Participant> participants = List.of();
+
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+            switch (field) {
+                case "queueId" -> queueId = p.getValueAsInt(0);
+                case "gameDuration" -> gameDuration = p.getValueAsLong(0);
+                case "gameEndTimestamp" -> gameEndTimestamp = p.getValueAsLong(0);
+                case "gameMode" -> gameMode = text(p, "");
+                case "gameVersion" -> gameVersion = text(p, "");
+                case "teams" -> {
+                    if (value == JsonToken.START_ARRAY) teams = parseTeams(p);
+                    else p.skipChildren();
+                }
+                case "participants" -> {
+                    if (value == JsonToken.START_ARRAY) participants = parseParticipants(p);
+                    else p.skipChildren();
+                }
+                default -> p.skipChildren();
+            }
+        }
+        return new ParsedMatch(queueId, gameDuration, gameEndTimestamp, gameMode, gameVersion,
+                teams, participants);
+    }
+
+    // --- Teams ---
+
+    private List<ParsedMatch.Team> parseTeams(JsonParser p) throws IOException {
+        List<ParsedMatch.Team> teams = new ArrayList<>(2);
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            if (p.currentToken() == JsonToken.START_OBJECT) {
+                teams.add(parseTeam(p));
+            } else {
+                p.skipChildren();
+                teams.add(new ParsedMatch.Team(0, false, List.of(), 0, 0, 0));
+            }
+        }
+        return teams;
+    }
+
+    private ParsedMatch.Team parseTeam(JsonParser p) throws IOException {
+        int teamId = 0;
+        boolean win = false;
+        List<Integer> bans = new ArrayList<>(5);
+        int[] objectives = new int[3];
+
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+            switch (field) {
+                case "teamId" -> teamId = p.getValueAsInt(0);
+                case "win" -> win = p.getValueAsBoolean(false);
+                case "bans" -> {
+                    if (value == JsonToken.START_ARRAY) parseBans(p, bans);
+                    else p.skipChildren();
+                }
+                case "objectives" -> {
+                    if (value == JsonToken.START_OBJECT) parseObjectives(p, objectives);
+                    else p.skipChildren();
+                }
+                default -> p.skipChildren();
+            }
+        }
+        return new ParsedMatch.Team(teamId, win, List.copyOf(bans), objectives[0], objectives[1], objectives[2]);
+    }
+
+    private void parseBans(JsonParser p, List<Integer> bans) throws IOException {
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            int championId = 0;
+            if (p.currentToken() == JsonToken.START_OBJECT) {
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = p.currentName();
+                    p.nextToken();
+                    if ("championId".equals(field)) championId = p.getValueAsInt(0);
+                    else p.skipChildren();
+                }
+            } else {
+                p.skipChildren();
+            }
+            bans.add(championId);
+        }
+    }
+
+    // objectives[] = {baron, dragon, tower}
+    private void parseObjectives(JsonParser p, int[] objectives) throws IOException {
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+            int slot = switch (field) {
+                case "baron" -> 0;
+                case "dragon" -> 1;
+                case "tower" -> 2;
+                default -> -1;
+            };
+            if (slot >= 0 && value == JsonToken.START_OBJECT) {
+                objectives[slot] = readKills(p);
+            } else {
+                p.skipChildren();
+            }
+        }
+    }
+
+    private int readKills(JsonParser p) throws IOException {
+        int kills = 0;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            p.nextToken();
+            if ("kills".equals(field)) kills = p.getValueAsInt(0);
+            else p.skipChildren();
+        }
+        return kills;
+    }
+
+    // --- Participants ---
+
+    private List<ParsedMatch.Participant> parseParticipants(JsonParser p) throws IOException {
+        List<ParsedMatch.Participant> participants = new ArrayList<>(10);
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            ParticipantFields f = new ParticipantFields();
+            if (p.currentToken() == JsonToken.START_OBJECT) {
+                parseParticipant(p, f);
+            } else {
+                p.skipChildren();
+            }
+            participants.add(f.build());
+        }
+        return participants;
+    }
+
+    private void parseParticipant(JsonParser p, ParticipantFields f) throws IOException {
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+            switch (field) {
+                case "puuid" -> f.puuid = text(p, "");
+                case "riotIdGameName" -> f.riotIdGameName = text(p, null);
+                case "summonerName" -> f.summonerName = text(p, null);
+                case "riotIdTagline" -> f.riotIdTagline = text(p, "");
+                case "championName" -> f.championName = text(p, "Unknown");
+                case "individualPosition" -> f.individualPosition = text(p, "");
+                case "teamId" -> f.teamId = p.getValueAsInt(0);
+                case "kills" -> f.kills = p.getValueAsInt(0);
+                case "deaths" -> f.deaths = p.getValueAsInt(0);
+                case "assists" -> f.assists = p.getValueAsInt(0);
+                case "champLevel" -> f.champLevel = p.getValueAsInt(0);
+                case "totalDamageDealtToChampions" -> f.totalDamageDealtToChampions = p.getValueAsInt(0);
+                case "totalDamageTaken" -> f.totalDamageTaken = p.getValueAsInt(0);
+                case "goldEarned" -> f.goldEarned = p.getValueAsInt(0);
+                case "item0" -> f.items[0] = p.getValueAsInt(0);
+                case "item1" -> f.items[1] = p.getValueAsInt(0);
+                case "item2" -> f.items[2] = p.getValueAsInt(0);
+                case "item3" -> f.items[3] = p.getValueAsInt(0);
+                case "item4" -> f.items[4] = p.getValueAsInt(0);
+                case "item5" -> f.items[5] = p.getValueAsInt(0);
+                case "item6" -> f.items[6] = p.getValueAsInt(0);
+                case "playerAugment1" -> f.augments[0] = p.getValueAsInt(0);
+                case "playerAugment2" -> f.augments[1] = p.getValueAsInt(0);
+                case "playerAugment3" -> f.augments[2] = p.getValueAsInt(0);
+                case "playerAugment4" -> f.augments[3] = p.getValueAsInt(0);
+                case "totalMinionsKilled" -> f.totalMinionsKilled = p.getValueAsInt(0);
+                case "neutralMinionsKilled" -> f.neutralMinionsKilled = p.getValueAsInt(0);
+                case "summoner1Id" -> f.summoner1Id = p.getValueAsInt(0);
+                case "summoner2Id" -> f.summoner2Id = p.getValueAsInt(0);
+                case "wardsPlaced" -> f.wardsPlaced = p.getValueAsInt(0);
+                case "wardsKilled" -> f.wardsKilled = p.getValueAsInt(0);
+                case "visionWardsBoughtInGame" -> f.visionWardsBoughtInGame = p.getValueAsInt(0);
+                case "doubleKills" -> f.doubleKills = p.getValueAsInt(0);
+                case "tripleKills" -> f.tripleKills = p.getValueAsInt(0);
+                case "quadraKills" -> f.quadraKills = p.getValueAsInt(0);
+                case "pentaKills" -> f.pentaKills = p.getValueAsInt(0);
+                case "win" -> f.win = p.getValueAsBoolean(false);
+                case "placement" -> f.placement = p.getValueAsInt(0);
+                case "playerSubteamId" -> f.playerSubteamId = p.getValueAsInt(0);
+                case "perks" -> {
+                    if (value == JsonToken.START_OBJECT) parsePerks(p, f);
+                    else p.skipChildren();
+                }
+                default -> p.skipChildren();
+            }
+        }
+    }
+
+    // Primary keystone = styles[0].selections[0].perk; secondary tree = styles[1].style
+    private void parsePerks(JsonParser p, ParticipantFields f) throws IOException {
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+            if (!"styles".equals(field) || value != JsonToken.START_ARRAY) {
+                p.skipChildren();
+                continue;
+            }
+            int index = 0;
+            while (p.nextToken() != JsonToken.END_ARRAY) {
+                if (p.currentToken() == JsonToken.START_OBJECT && index == 0) {
+                    f.primaryRuneId = readPrimaryKeystone(p);
+                } else if (p.currentToken() == JsonToken.START_OBJECT && index == 1) {
+                    f.secondaryRuneStyleId = readIntField(p, "style");
+                } else {
+                    p.skipChildren();
+                }
+                index++;
+            }
+        }
+    }
+
+    private int readPrimaryKeystone(JsonParser p) throws IOException {
+        int perk = 0;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+            if (!"selections".equals(field) || value != JsonToken.START_ARRAY) {
+                p.skipChildren();
+                continue;
+            }
+            boolean first = true;
+            while (p.nextToken() != JsonToken.END_ARRAY) {
+                if (first && p.currentToken() == JsonToken.START_OBJECT) {
+                    perk = readIntField(p, "perk");
+                } else {
+                    p.skipChildren();
+                }
+                first = false;
+            }
+        }
+        return perk;
+    }
+
+    /** Read one int field from the current object, skipping everything else. */
+    private int readIntField(JsonParser p, String name) throws IOException {
+        int result = 0;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            p.nextToken();
+            if (name.equals(field)) result = p.getValueAsInt(0);
+            else p.skipChildren();
+        }
+        return result;
+    }
+
+    private static String text(JsonParser p, String defaultValue) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.VALUE_NULL) return defaultValue;
+        if (token.isScalarValue()) return p.getText();
+        p.skipChildren();
+        return defaultValue;
+    }
+
+    /** Mutable accumulator for one participant object; defaults match the tree-walk code. */
+    private static final class ParticipantFields {
+        String puuid = "";
+        String riotIdGameName;
+        String summonerName;
+        String riotIdTagline = "";
+        String championName = "Unknown";
+        String individualPosition = "";
+        int teamId, kills, deaths, assists, champLevel;
+        int totalDamageDealtToChampions, totalDamageTaken, goldEarned;
+        final int[] items = new int[7];
+        final int[] augments = new int[4];
+        int totalMinionsKilled, neutralMinionsKilled, summoner1Id, summoner2Id;
+        int primaryRuneId, secondaryRuneStyleId;
+        int wardsPlaced, wardsKilled, visionWardsBoughtInGame;
+        int doubleKills, tripleKills, quadraKills, pentaKills;
+        boolean win;
+        int placement, playerSubteamId;
+
+        ParsedMatch.Participant build() {
+            String name = riotIdGameName != null ? riotIdGameName
+                    : summonerName != null ? summonerName : "Unknown";
+            return new ParsedMatch.Participant(
+                    puuid, name, riotIdTagline, championName, teamId,
+                    kills, deaths, assists, champLevel,
+                    totalDamageDealtToChampions, totalDamageTaken, goldEarned,
+                    items, augments,
+                    totalMinionsKilled, neutralMinionsKilled, summoner1Id, summoner2Id,
+                    primaryRuneId, secondaryRuneStyleId,
+                    wardsPlaced, wardsKilled, visionWardsBoughtInGame,
+                    doubleKills, tripleKills, quadraKills, pentaKills,
+                    win, placement, playerSubteamId, individualPosition);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/**
+ * @file MatchPayloadStore.java
+ * @description Durable, compressed storage for immutable Match-v5 payloads.
+ * @module backend.service
+ */
+package com.jw.backend.service;
+
+import com.jw.backend.repository.MatchPayloadRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keep every fetched Match-v5 payload permanently in PostgreSQL, gzip-compressed.
+ *
+ * <p>Finished matches never change, so once a payload is stored it can be served
+ * forever without spending a Riot permit or Redis memory. Match JSON is highly
+ * repetitive and typically compresses 8–10x, so even a large history stays small.</p>
+ *
+ * <p>Like the Redis helpers in {@link RiotApiService}, database failures degrade to
+ * a miss rather than failing the request. The insert runs in its own transaction inside
+ * the try block, so failing to open or commit it is caught here too.</p>
+ */
+@Service
+public class MatchPayloadStore {
+
+    private static final Logger log = LoggerFactory.getLogger(MatchPayloadStore.class);
+
+    private final MatchPayloadRepository matchPayloadRepository;
+
+    private volatile SizeReport lastReport = new SizeReport(0, 0, 0, 0);
+
+    /**
+     * Storage accounting for the payload table.
+     *
+     * @param matches         number of stored matches
+     * @param rawBytes        total uncompressed JSON size
+     * @param compressedBytes total gzip size as stored
+     * @param tableBytes      on-disk size including TOAST and indexes
+     */
+    public record SizeReport(long matches, long rawBytes, long compressedBytes, long tableBytes) {
+        public double compressionRatio() {
+            return compressedBytes > 0 ? (double) rawBytes / compressedBytes : 0.0;
+        }
+    }
+
+    public MatchPayloadStore(MatchPayloadRepository matchPayloadRepository) {
+        this.matchPayloadRepository = matchPayloadRepository;
+    }
+
+    /**
+     * Look up a stored payload.
+     *
+     * @param matchId the Riot match identifier
+     * @return the decompressed JSON, or empty if not stored or the database is unavailable
+     */
+    public Optional<String> find(String matchId) {
+        try {
+            return matchPayloadRepository.findById(matchId).map(p -> decompress(p.getPayload()));
+        } catch (Exception e) {
+            log.warn("Match payload lookup failed for {}, treating as miss", matchId, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Store a payload if it is not already present.
+     *
+     * @param matchId the Riot match identifier
+     * @param region  the region the match was fetched from
+     * @param json    the raw Match-v5 JSON
+     * @return true if the payload is now durably stored (inserted or already present)
+     */
+    public boolean save(String matchId, String region, String json) {
+        if (json == null || json.isEmpty()) return false;
+        try {
+            byte[] raw = json.getBytes(StandardCharsets.UTF_8);
+            byte[] compressed = compress(raw);
+            matchPayloadRepository.insertIfAbsent(matchId, region, compressed,
+                    raw.length, compressed.length, System.currentTimeMillis());
+            return true;
+        } catch (Exception e) {
+            log.warn("Match payload store failed for {}, falling back to TTL cache", matchId, e);
+            return false;
+        }
+    }
+
+    /**
+     * Compute current storage figures. Runs an aggregate over the whole table,
+     * so callers on a hot path should use {@link #lastReport()} instead.
+     *
+     * @return fresh size report
+     */
+    public SizeReport sizeReport() {
+        List<Object[]> rows = matchPayloadRepository.sumSizes();
+        Object[] row = rows.isEmpty() ? new Object[]{0L, 0L, 0L} : rows.get(0);
+        long tableBytes = matchPayloadRepository.totalRelationSize();
+        return new SizeReport(
+                ((Number) row[0]).longValue(),
+                ((Number) row[1]).longValue(),
+                ((Number) row[2]).longValue(),
+                tableBytes);
+    }
+
+    /** Most recent report from the hourly refresh; cheap enough for metrics scrapes. */
+    public SizeReport lastReport() {
+        return lastReport;
+    }
+
+    @Scheduled(initialDelay = 60_000, fixedRate = 3_600_000)
+    void refreshSizeReport() {
+        try {
+            SizeReport report = sizeReport();
+            lastReport = report;
+            log.info("Match payload store: {} matches, {} MB raw, {} MB compressed ({}x), {} MB on disk",
+                    report.matches(),
+                    report.rawBytes() / (1024 * 1024),
+                    report.compressedBytes() / (1024 * 1024),
+                    String.format("%.1f", report.compressionRatio()),
+                    report.tableBytes() / (1024 * 1024));
+        } catch (Exception e) {
+            log.warn("Failed to compute match payload size report: {}", e.getMessage());
+        }
+    }
+
+    static byte[] compress(byte[] raw) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 6 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(raw);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    static String decompress(byte[] compressed) {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
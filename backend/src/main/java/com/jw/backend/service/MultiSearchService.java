@@ -10,9 +10,6 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 
 @Service
 public class MultiSearchService {
@@ -22,24 +19,23 @@ public class MultiSearchService {
     private final RiotApiService riotApiService;
     private final RankedService rankedService;
     private final ObjectMapper objectMapper;
-    private final Executor executor = Executors.newFixedThreadPool(6);
+    private final RiotIoExecutor ioExecutor;
 
-    public MultiSearchService(RiotApiService riotApiService, RankedService rankedService, ObjectMapper objectMapper) {
+    public MultiSearchService(RiotApiService riotApiService, RankedService rankedService, ObjectMapper objectMapper,
+                              RiotIoExecutor ioExecutor) {
         this.riotApiService = riotApiService;
         this.rankedService = rankedService;
         this.objectMapper = objectMapper;
+        this.ioExecutor = ioExecutor;
     }
 
     public List<MultiSearchPlayerDto> lookup(List<String[]> nameTagPairs, RiotRegion region) {
-        List<CompletableFuture<MultiSearchPlayerDto>> futures = nameTagPairs.stream()
-                .map(pair -> CompletableFuture.supplyAsync(() -> lookupSingle(pair[0], pair[1], region), executor)
-                        .exceptionally(ex -> {
-                            log.warn("Multi-search lookup failed for {}#{}: {}", pair[0], pair[1], ex.getMessage());
-                            return new MultiSearchPlayerDto(pair[0], pair[1], null, 0, List.of(), "Player not found");
-                        }))
-                .toList();
-
-        return futures.stream().map(CompletableFuture::join).toList();
+        return ioExecutor.fanOut(nameTagPairs,
+                pair -> lookupSingle(pair[0], pair[1], region),
+                (pair, ex) -> {
+                    log.warn("Multi-search lookup failed for {}#{}: {}", pair[0], pair[1], ex.getMessage());
+                    return new MultiSearchPlayerDto(pair[0], pair[1], null, 0, List.of(), "Player not found");
+                });
     }
 
     private MultiSearchPlayerDto lookupSingle(String gameName, String tagLine, RiotRegion region) {
@@ -0,0 +1,143 @@
+package com.jw.backend.service;
+
+import com.jw.backend.dto.MatchDetailDto;
+import com.jw.backend.dto.MatchDetailParticipantDto;
+import com.jw.backend.dto.MatchParticipantDto;
+import com.jw.backend.dto.MatchSummaryDto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact, pre-parsed view of a Match-v5 payload holding only the fields the app reads.
+ *
+ * <p>Built once per payload by {@link MatchPayloadParser} and cached alongside the raw
+ * JSON, so the per-player summary and the full scoreboard are cheap projections instead
+ * of two separate tree parses. Instances are shared between requests; the projections
+ * copy arrays so callers cannot mutate the cached model.</p>
+ */
+public record ParsedMatch(
+        int queueId,
+        long gameDurationSec,
+        long gameEndTimestamp,
+        String gameMode,
+        String gameVersion,
+        List<Team> teams,
+        List<Participant> participants
+) {
+
+    static final ParsedMatch EMPTY = new ParsedMatch(0, 0, 0, "", "", List.of(), List.of());
+
+    public record Team(int teamId, boolean win, List<Integer> bans,
+                       int baronKills, int dragonKills, int towerKills) {}
+
+    /**
+     * One player's line in the match. {@code summonerName} already has the
+     * riotIdGameName → summonerName → "Unknown" fallback applied.
+     */
+    public record Participant(
+            String puuid,
+            String summonerName,
+            String riotIdTagline,
+            String championName,
+            int teamId,
+            int kills,
+            int deaths,
+            int assists,
+            int champLevel,
+            int totalDamageDealtToChampions,
+            int totalDamageTaken,
+            int goldEarned,
+            int[] items,
+            int[] augments,
+            int totalMinionsKilled,
+            int neutralMinionsKilled,
+            int summoner1Id,
+            int summoner2Id,
+            int primaryRuneId,
+            int secondaryRuneStyleId,
+            int wardsPlaced,
+            int wardsKilled,
+            int visionWardsBoughtInGame,
+            int doubleKills,
+            int tripleKills,
+            int quadraKills,
+            int pentaKills,
+            boolean win,
+            int placement,
+            int playerSubteamId,
+            String individualPosition
+    ) {}
+
+    /** Find a participant by PUUID, or null if the player is not in this match. */
+    public Participant participant(String puuid) {
+        for (Participant p : participants) {
+            if (puuid.equals(p.puuid())) return p;
+        }
+        return null;
+    }
+
+    /**
+     * Project a single player's perspective, splitting the other participants into
+     * allies and enemies by team ID.
+     */
+    public MatchSummaryDto toSummary(String matchId, String puuid) {
+        Participant me = participant(puuid);
+        int myTeamId = me != null ? me.teamId() : 0;
+
+        int teamTotalKills = 0;
+        List<MatchParticipantDto> allies = new ArrayList<>();
+        List<MatchParticipantDto> enemies = new ArrayList<>();
+        for (Participant p : participants) {
+            var dto = new MatchParticipantDto(p.summonerName(), p.riotIdTagline(), p.championName(), p.puuid());
+            if (p.teamId() == myTeamId) {
+                teamTotalKills += p.kills();
+                if (!p.puuid().equals(puuid)) {
+                    allies.add(dto);
+                }
+            } else {
+                enemies.add(dto);
+            }
+        }
+
+        if (me == null) {
+            return new MatchSummaryDto(
+                    matchId, "Unknown", 0, 0, 0, false, gameDurationSec, gameEndTimestamp,
+                    0, 0, 0, new int[7], 0, 0, queueId, teamTotalKills,
+                    allies, enemies, 0, 0, new int[4], 0, 0, 0, "");
+        }
+        return new MatchSummaryDto(
+                matchId, me.championName(), me.kills(), me.deaths(), me.assists(), me.win(),
+                gameDurationSec, gameEndTimestamp,
+                me.champLevel(), me.summoner1Id(), me.summoner2Id(), me.items().clone(),
+                me.totalMinionsKilled(), me.neutralMinionsKilled(), queueId, teamTotalKills,
+                allies, enemies,
+                me.primaryRuneId(), me.secondaryRuneStyleId(), me.augments().clone(), me.placement(),
+                me.totalDamageDealtToChampions(), me.goldEarned(), me.individualPosition());
+    }
+
+    /** Project the full scoreboard with teams, objectives and all participants. */
+    public MatchDetailDto toDetail(String matchId) {
+        List<MatchDetailDto.TeamDto> teamDtos = new ArrayList<>(teams.size());
+        for (Team t : teams) {
+            teamDtos.add(new MatchDetailDto.TeamDto(t.teamId(), t.win(), t.bans(),
+                    new MatchDetailDto.ObjectivesDto(t.baronKills(), t.dragonKills(), t.towerKills())));
+        }
+
+        List<MatchDetailParticipantDto> participantDtos = new ArrayList<>(participants.size());
+        for (Participant p : participants) {
+            participantDtos.add(new MatchDetailParticipantDto(
+                    p.summonerName(), p.riotIdTagline(), p.championName(), p.puuid(), p.teamId(),
+                    p.kills(), p.deaths(), p.assists(), p.champLevel(),
+                    p.totalDamageDealtToChampions(), p.totalDamageTaken(), p.goldEarned(), p.items().clone(),
+                    p.totalMinionsKilled(), p.neutralMinionsKilled(), p.summoner1Id(), p.summoner2Id(),
+                    p.primaryRuneId(), p.secondaryRuneStyleId(),
+                    p.wardsPlaced(), p.wardsKilled(), p.visionWardsBoughtInGame(),
+                    p.doubleKills(), p.tripleKills(), p.quadraKills(), p.pentaKills(), p.win(),
+                    p.placement(), p.playerSubteamId()));
+        }
+
+        return new MatchDetailDto(matchId, queueId, gameDurationSec, gameEndTimestamp,
+                gameMode, gameVersion, teamDtos, participantDtos);
+    }
+}
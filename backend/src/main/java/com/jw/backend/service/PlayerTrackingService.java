@@ -2,68 +2,88 @@ package com.jw.backend.service;
 
 import com.jw.backend.entity.TrackedPlayer;
 import com.jw.backend.repository.TrackedPlayerRepository;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Manages the tracked_players table — upserts a row every time a player is searched,
- * ensuring the background ingestion worker knows about them.
+ * ensuring the background ingestion worker knows about them. Searches arrive in batches
+ * from {@link SearchSideEffects}.
  */
 @Service
 public class PlayerTrackingService {
 
-    private static final Logger log = LoggerFactory.getLogger(PlayerTrackingService.class);
-
     private final TrackedPlayerRepository trackedPlayerRepository;
 
+    /**
+     * A tracked player leased to one ingestion worker.
+     *
+     * @param player the player, with nextIngestAt and leasedUntil already at the end of the lease
+     * @param dueAt  when the player was due before it was claimed
+     */
+    public record Claim(TrackedPlayer player, long dueAt) {}
+
+    /** A profile lookup of one player, as recorded by {@link #trackPlayers}. */
+    public record Search(String puuid, String region, String gameName, String tagLine) {}
+
     public PlayerTrackingService(TrackedPlayerRepository trackedPlayerRepository) {
         this.trackedPlayerRepository = trackedPlayerRepository;
     }
 
     /**
-     * Upsert a tracked player. On first search, creates a new row with immediate ingestion.
-     * On subsequent searches, refreshes lastSearchedAt and bumps nextIngestAt to now
-     * so the worker picks them up quickly.
+     * Upsert searched players in one statement. New players get a row with immediate
+     * ingestion; players already tracked get their Riot ID and region refreshed and
+     * nextIngestAt bumped to now so the worker picks them up quickly, unless a worker
+     * holds them right now.
+     *
+     * @param searches searches to record, at most one per puuid
      */
-    @Transactional
-    public void trackPlayer(String puuid, String region, String gameName, String tagLine) {
+    public void trackPlayers(Collection<Search> searches) {
         long now = System.currentTimeMillis();
-        Optional<TrackedPlayer> existing = trackedPlayerRepository.findByPuuid(puuid);
-
-        TrackedPlayer player;
-        if (existing.isPresent()) {
-            player = existing.get();
-            player.setRegion(region);
-            player.setGameName(gameName);
-            player.setTagLine(tagLine);
-            player.setLastSearchedAt(now);
-            player.setNextIngestAt(now);
-        } else {
-            player = new TrackedPlayer();
-            player.setPuuid(puuid);
-            player.setRegion(region);
-            player.setGameName(gameName);
-            player.setTagLine(tagLine);
+        List<TrackedPlayer> players = new ArrayList<>(searches.size());
+        for (Search search : searches) {
+            TrackedPlayer player = new TrackedPlayer();
+            player.setPuuid(search.puuid());
+            player.setRegion(search.region());
+            player.setGameName(search.gameName());
+            player.setTagLine(search.tagLine());
             player.setLastSearchedAt(now);
             player.setNextIngestAt(now);
+            players.add(player);
         }
+        trackedPlayerRepository.upsertSearched(players);
+    }
+
+    /**
+     * Lease up to {@code limit} due players in the given regions for ingestion.
+     *
+     * <p>Rows are locked with {@code FOR UPDATE SKIP LOCKED}, so nodes claiming at the same
+     * time get disjoint players, and each claimed row's nextIngestAt is pushed to the end of
+     * the lease before the locks are released. A node that dies mid-ingest only delays its
+     * players until their lease runs out.</p>
+     *
+     * @param regions region names to claim from
+     * @param now     current time; players due at or before it are eligible
+     * @param limit   maximum players to claim
+     * @param leaseMs how long the claimed players stay hidden from other claims
+     * @return the claimed players, oldest due first
+     */
+    @Transactional
+    public List<Claim> claimDuePlayers(Collection<String> regions, long now, int limit, long leaseMs) {
+        List<TrackedPlayer> due = trackedPlayerRepository.findDuePlayers(regions, now, limit);
+        if (due.isEmpty()) return List.of();
 
-        try {
-            trackedPlayerRepository.save(player);
-        } catch (DataIntegrityViolationException e) {
-            log.debug("Concurrent insert for puuid={}, retrying as update", puuid);
-            TrackedPlayer retried = trackedPlayerRepository.findByPuuid(puuid).orElseThrow();
-            retried.setRegion(region);
-            retried.setGameName(gameName);
-            retried.setTagLine(tagLine);
-            retried.setLastSearchedAt(now);
-            retried.setNextIngestAt(now);
-            trackedPlayerRepository.save(retried);
+        List<Claim> claims = new ArrayList<>(due.size());
+        for (TrackedPlayer player : due) {
+            claims.add(new Claim(player, player.getNextIngestAt()));
+            player.setNextIngestAt(now + leaseMs);
+            player.setLeasedUntil(now + leaseMs);
         }
+        trackedPlayerRepository.saveAll(due);
+        return claims;
     }
 }
@@ -43,7 +43,17 @@ public class RankedService {
      * @throws RuntimeException if the Riot API response cannot be parsed
      */
     public List<RankedEntryDto> getRankedInfo(String puuid, RiotRegion region) {
-        String rankedJson = riotApiService.getRankedEntriesByPuuid(puuid, region);
+        return parseRankedEntries(riotApiService.getRankedEntriesByPuuid(puuid, region));
+    }
+
+    /**
+     * Parse a League-v4 entries payload, however it was fetched.
+     *
+     * @param rankedJson raw JSON array from League-v4
+     * @return list of ranked entries with tier, rank, LP, and win/loss data
+     * @throws RuntimeException if the payload cannot be parsed
+     */
+    public List<RankedEntryDto> parseRankedEntries(String rankedJson) {
         try {
             JsonNode arr = objectMapper.readTree(rankedJson);
             List<RankedEntryDto> entries = new ArrayList<>();
@@ -9,17 +9,15 @@ import com.jw.backend.exception.RateLimitException;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * Enforce per-user rate limits using an in-memory sliding time window.
+ * Enforce per-user rate limits using a sliding time window.
  *
  * <p>Free-tier users are limited to a fixed number of requests per minute.
- * PRO-tier users bypass rate limiting entirely. The in-memory approach is
- * suitable for single-instance deployments; a distributed cache (e.g., Redis)
- * would be needed for horizontal scaling.</p>
+ * PRO-tier users bypass rate limiting entirely. Requests are counted by a
+ * {@link UserRateLimitStore}: in memory by default, or in Redis when
+ * {@code ratelimit.backend=redis} so that every replica enforces the same limit.</p>
  */
 @Service
 public class RateLimitService {
@@ -30,14 +28,29 @@ public class RateLimitService {
     private static final int AI_MAX_REQUESTS = 20;
     private static final long AI_WINDOW_MS = 3_600_000;
 
-    private final ConcurrentHashMap<String, List<Long>> requestLog = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, List<Long>> aiRequestLog = new ConcurrentHashMap<>();
+    static final UserRateLimitStore.Policy FREE_POLICY =
+            new UserRateLimitStore.Policy("free", FREE_MAX_REQUESTS, WINDOW_MS);
+    static final UserRateLimitStore.Policy AI_POLICY =
+            new UserRateLimitStore.Policy("ai", AI_MAX_REQUESTS, AI_WINDOW_MS);
+
+    private final UserRateLimitStore store;
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /** Point-in-time view of the limiter counters. */
+    public record Stats(long allowed, long rejected, boolean degraded) {}
+
+    public RateLimitService(UserRateLimitStore store) {
+        this.store = store;
+    }
 
     /**
      * Verify the user has not exceeded their rate limit within the current window.
      *
      * <p>PRO-tier users (tier == 1) are exempt from rate limiting. For free-tier
-     * users, expired timestamps are purged before checking the count against the limit.</p>
+     * users, the request is admitted and recorded only if fewer than the allowed
+     * number of requests fall inside the window.</p>
      *
      * @param userIdentifier unique key for the user (username or "anon-{puuid}")
      * @param tier           the user's subscription tier (0 = free, 1 = PRO)
@@ -46,18 +59,9 @@ public class RateLimitService {
     public void checkRateLimit(String userIdentifier, int tier) {
         if (tier == 1) return;
 
-        long now = System.currentTimeMillis();
-        long windowStart = now - WINDOW_MS;
-
-        List<Long> timestamps = requestLog.computeIfAbsent(userIdentifier, k -> new CopyOnWriteArrayList<>());
-
-        timestamps.removeIf(t -> t < windowStart);
-
-        if (timestamps.size() >= FREE_MAX_REQUESTS) {
+        if (!acquire(FREE_POLICY, userIdentifier)) {
             throw new RateLimitException("Rate limit exceeded. FREE users are limited to " + FREE_MAX_REQUESTS + " requests per minute.");
         }
-
-        timestamps.add(now);
     }
 
     /**
@@ -67,38 +71,27 @@ public class RateLimitService {
      * @throws RateLimitException if the user exceeds the allowed AI request count
      */
     public void checkAiRateLimit(String userIdentifier) {
-        long now = System.currentTimeMillis();
-        long windowStart = now - AI_WINDOW_MS;
-
-        List<Long> timestamps = aiRequestLog.computeIfAbsent(userIdentifier, k -> new CopyOnWriteArrayList<>());
-
-        timestamps.removeIf(t -> t < windowStart);
-
-        if (timestamps.size() >= AI_MAX_REQUESTS) {
+        if (!acquire(AI_POLICY, userIdentifier)) {
             throw new RateLimitException("AI rate limit exceeded. Limited to " + AI_MAX_REQUESTS + " requests per hour.");
         }
-
-        timestamps.add(now);
     }
 
     public void reset() {
-        requestLog.clear();
-        aiRequestLog.clear();
+        store.clear();
+    }
+
+    public Stats stats() {
+        return new Stats(allowed.sum(), rejected.sum(), store.isDegraded());
     }
 
     @Scheduled(fixedRate = 60000)
     void evictStaleEntries() {
-        long now = System.currentTimeMillis();
-        evictFrom(requestLog, now - WINDOW_MS);
-        evictFrom(aiRequestLog, now - AI_WINDOW_MS);
+        store.evictStale();
     }
 
-    private void evictFrom(ConcurrentHashMap<String, List<Long>> log, long cutoff) {
-        log.forEach((key, timestamps) -> {
-            timestamps.removeIf(t -> t < cutoff);
-            if (timestamps.isEmpty()) {
-                log.remove(key);
-            }
-        });
+    private boolean acquire(UserRateLimitStore.Policy policy, String userIdentifier) {
+        boolean admitted = store.tryAcquire(policy, userIdentifier);
+        (admitted ? allowed : rejected).increment();
+        return admitted;
     }
 }
@@ -0,0 +1,129 @@
+package com.jw.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link UserRateLimitStore} shared by every replica through Redis.
+ *
+ * <p>Each key is a sorted set of admission times on the Redis clock, trimmed and checked
+ * by one Lua script, so a check costs a single round trip and replicas can't race each
+ * other past the limit. When Redis refuses a key, the time until its oldest admission
+ * leaves the window is remembered locally and further calls for that key are rejected
+ * without a round trip, which keeps a client hammering the API off Redis entirely.</p>
+ *
+ * <p>If Redis is unreachable the store falls back to an {@link InMemoryUserRateLimitStore},
+ * so limits are still enforced per node, and Redis is retried a few seconds later.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "ratelimit.backend", havingValue = "redis")
+public class RedisUserRateLimitStore implements UserRateLimitStore {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisUserRateLimitStore.class);
+
+    static final String KEY_PREFIX = "ratelimit:";
+    private static final long REDIS_RETRY_MS = 5_000;
+
+    // KEYS: the user's set. ARGV: maxRequests, windowMs, unique member.
+    // Returns 0 if admitted, otherwise milliseconds until the oldest admission expires.
+    private static final RedisScript<Long> ACQUIRE_SCRIPT = new DefaultRedisScript<>("""
+            local t = redis.call('TIME')
+            local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000)
+            local max = tonumber(ARGV[1])
+            local window = tonumber(ARGV[2])
+            redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', now - window)
+            if redis.call('ZCARD', KEYS[1]) >= max then
+              local oldest = redis.call('ZRANGE', KEYS[1], 0, 0, 'WITHSCORES')
+              return math.max(1, tonumber(oldest[2]) + window - now)
+            end
+            redis.call('ZADD', KEYS[1], now, ARGV[3])
+            redis.call('PEXPIRE', KEYS[1], window)
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final InMemoryUserRateLimitStore fallback;
+    private final LongSupplier clock;
+
+    private final String memberPrefix = UUID.randomUUID() + ":";
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConcurrentHashMap<String, Long> deniedUntil = new ConcurrentHashMap<>();
+    private volatile long redisRetryAt;
+
+    @Autowired
+    public RedisUserRateLimitStore(StringRedisTemplate redisTemplate) {
+        this(redisTemplate, System::currentTimeMillis);
+    }
+
+    RedisUserRateLimitStore(StringRedisTemplate redisTemplate, LongSupplier clock) {
+        this.redisTemplate = redisTemplate;
+        this.fallback = new InMemoryUserRateLimitStore(clock);
+        this.clock = clock;
+    }
+
+    @Override
+    public boolean tryAcquire(Policy policy, String key) {
+        long now = clock.getAsLong();
+        if (now < redisRetryAt) {
+            return fallback.tryAcquire(policy, key);
+        }
+
+        String redisKey = KEY_PREFIX + policy.name() + ":" + key;
+        Long blockedUntil = deniedUntil.get(redisKey);
+        if (blockedUntil != null) {
+            if (now < blockedUntil) return false;
+            deniedUntil.remove(redisKey, blockedUntil);
+        }
+
+        Long waitMs;
+        try {
+            waitMs = redisTemplate.execute(ACQUIRE_SCRIPT, List.of(redisKey),
+                    String.valueOf(policy.maxRequests()), String.valueOf(policy.windowMs()),
+                    memberPrefix + sequence.incrementAndGet());
+        } catch (Exception e) {
+            waitMs = null;
+            log.warn("Redis user rate limiting unavailable, enforcing per node for {} ms: {}",
+                    REDIS_RETRY_MS, e.getMessage());
+        }
+        if (waitMs == null) {
+            redisRetryAt = now + REDIS_RETRY_MS;
+            return fallback.tryAcquire(policy, key);
+        }
+        if (waitMs > 0) {
+            deniedUntil.put(redisKey, now + waitMs);
+            return false;
+        }
+        return true;
+    }
+
+    /** Forget locally cached denials and fallback counts; the shared Redis state is left alone. */
+    @Override
+    public void clear() {
+        deniedUntil.clear();
+        fallback.clear();
+    }
+
+    @Override
+    public void evictStale() {
+        long now = clock.getAsLong();
+        deniedUntil.values().removeIf(until -> until <= now);
+        fallback.evictStale();
+    }
+
+    @Override
+    public boolean isDegraded() {
+        return clock.getAsLong() < redisRetryAt;
+    }
+}
@@ -0,0 +1,245 @@
+package com.jw.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Riot rate-limit budget shared by every replica through Redis.
+ *
+ * <p>Riot counts requests per API key, not per JVM, so each replica enforcing the
+ * full limit on its own would multiply our traffic by the replica count. Here every
+ * limit window of a host/method pair is a counter in Redis, stamped with the window's
+ * index on the Redis clock, and a Lua script checks and increments all of them atomically.</p>
+ *
+ * <p>The script touches only the keys it is given. Every key of one host shares the
+ * {@code {host}} hash tag, so a call's keys map to one Redis Cluster slot.</p>
+ *
+ * <p>To keep Redis off the per-request path, a replica leases a few permits at a time
+ * and hands them out locally until they run out or the shortest window they were counted
+ * in rolls over. If Redis is unreachable, callers fall back to their local buckets scaled
+ * down by {@code riot.rate-limit.cluster.fallback-share} and Redis is retried a few seconds
+ * later.</p>
+ *
+ * <p>Windows are fixed and aligned to the epoch, so a burst at the end of one window
+ * and another at the start of the next can send up to twice a limit within one window's
+ * length. Each replica's local buckets slide and still bound its own traffic; the lane
+ * shares and the fallback share are what keep the cluster as a whole clear of Riot's
+ * limits across a boundary.</p>
+ *
+ * <p>A lease is guarded by a {@link ReentrantLock} rather than a monitor because it is
+ * held across the Redis round trip, and a virtual thread blocking inside
+ * {@code synchronized} would pin its carrier.</p>
+ */
+@Component
+public class RiotClusterBudget {
+
+    private static final Logger log = LoggerFactory.getLogger(RiotClusterBudget.class);
+
+    /** Returned by {@link #take} when Redis can't be reached and the caller must fall back. */
+    public static final long UNAVAILABLE = -1;
+
+    static final String KEY_PREFIX = "riot:ratelimit:";
+    private static final long REDIS_RETRY_MS = 5_000;
+
+    // KEYS: one hash per window, holding the current window index and its count.
+    // ARGV: wanted, lane share, then limit/windowMs per key.
+    // Returns {granted, waitMs, validMs}; validMs is how long granted permits stay in the
+    // windows they were counted against. Windows are fixed, see the class comment for
+    // what that allows across a boundary.
+    @SuppressWarnings("unchecked")
+    private static final RedisScript<List<Long>> TAKE_SCRIPT = new DefaultRedisScript<>("""
+            local t = redis.call('TIME')
+            local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000)
+            local grant = tonumber(ARGV[1])
+            local share = tonumber(ARGV[2])
+            local wait = 0
+            local valid = 9007199254740991
+            local windows = {}
+            local used = {}
+            for i, key in ipairs(KEYS) do
+              local limit = math.max(1, math.floor(tonumber(ARGV[2 * i + 1]) * share))
+              local window = tonumber(ARGV[2 * i + 2])
+              local index = math.floor(now / window)
+              local state = redis.call('HMGET', key, 'window', 'count')
+              windows[i] = index
+              used[i] = 0
+              if tonumber(state[1]) == index then used[i] = tonumber(state[2]) or 0 end
+              local free = limit - used[i]
+              local left = window - (now % window)
+              if free < grant then grant = free end
+              if free <= 0 and left > wait then wait = left end
+              if left < valid then valid = left end
+            end
+            if grant <= 0 then
+              return {0, wait, 0}
+            end
+            for i, key in ipairs(KEYS) do
+              redis.call('HSET', key, 'window', windows[i], 'count', used[i] + grant)
+              redis.call('PEXPIRE', key, tonumber(ARGV[2 * i + 2]) * 2)
+            end
+            return {grant, 0, valid}
+            """, (Class<List<Long>>) (Class<?>) List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final boolean enabled;
+    private final int leaseSize;
+    private final double fallbackShare;
+    private final LongSupplier clock;
+
+    private final ConcurrentHashMap<String, Lease> leases = new ConcurrentHashMap<>();
+    private volatile long redisRetryAt;
+
+    private final LongAdder redisCalls = new LongAdder();
+    private final LongAdder denied = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    /** Permits leased from Redis for one host/method/lane, valid until {@code expiresAt}. */
+    private static final class Lease {
+        final ReentrantLock lock = new ReentrantLock();
+        int remaining;
+        long expiresAt;
+        long deniedUntil;
+    }
+
+    /** Point-in-time view of the budget counters. */
+    public record Stats(long redisCalls, long denied, long fallbacks, boolean fallbackActive) {}
+
+    @Autowired
+    public RiotClusterBudget(StringRedisTemplate redisTemplate,
+                             @Value("${riot.rate-limit.cluster.enabled:true}") boolean enabled,
+                             @Value("${riot.rate-limit.cluster.lease-size:5}") int leaseSize,
+                             @Value("${riot.rate-limit.cluster.fallback-share:0.5}") double fallbackShare) {
+        this(redisTemplate, enabled, leaseSize, fallbackShare, System::currentTimeMillis);
+    }
+
+    RiotClusterBudget(StringRedisTemplate redisTemplate, boolean enabled, int leaseSize,
+                      double fallbackShare, LongSupplier clock) {
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled && redisTemplate != null;
+        this.leaseSize = Math.max(1, leaseSize);
+        this.fallbackShare = fallbackShare;
+        this.clock = clock;
+    }
+
+    /** A budget that never consults Redis, for single-instance use and tests. */
+    public static RiotClusterBudget localOnly() {
+        return new RiotClusterBudget(null, false, 1, 1.0, System::currentTimeMillis);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Multiplier applied to local lane shares while Redis is unreachable. */
+    public double fallbackShare() {
+        return fallbackShare;
+    }
+
+    /**
+     * Take one permit from the shared budget, leasing more from Redis if needed.
+     *
+     * @param host         the Riot host
+     * @param method       the endpoint family
+     * @param priority     the caller's lane; leases are not shared between lanes
+     * @param share        the lane's share of each window
+     * @param appLimits    the host's application limits
+     * @param methodLimits the method's limits, possibly empty
+     * @return 0 if granted, the milliseconds to wait if the cluster is out of budget,
+     *         or {@link #UNAVAILABLE} if Redis could not be reached
+     */
+    public long take(String host, String method, RiotPriority priority, double share,
+                     List<RiotRateLimiter.Limit> appLimits, List<RiotRateLimiter.Limit> methodLimits) {
+        Lease lease = leases.computeIfAbsent(host + '|' + method + '|' + priority, k -> new Lease());
+        lease.lock.lock();
+        try {
+            long now = clock.getAsLong();
+            if (lease.remaining > 0 && now < lease.expiresAt) {
+                lease.remaining--;
+                return 0;
+            }
+            if (now < redisRetryAt) {
+                fallbacks.increment();
+                return UNAVAILABLE;
+            }
+            if (now < lease.deniedUntil) {
+                return lease.deniedUntil - now;
+            }
+
+            List<String> keys = new ArrayList<>();
+            List<String> args = new ArrayList<>();
+            args.add(String.valueOf(leaseSize));
+            args.add(String.valueOf(share));
+            String hostKey = KEY_PREFIX + '{' + host + "}:";
+            for (RiotRateLimiter.Limit l : appLimits) {
+                keys.add(hostKey + "app:" + l.windowMs());
+                args.add(String.valueOf(l.count()));
+                args.add(String.valueOf(l.windowMs()));
+            }
+            for (RiotRateLimiter.Limit l : methodLimits) {
+                keys.add(hostKey + method + ":" + l.windowMs());
+                args.add(String.valueOf(l.count()));
+                args.add(String.valueOf(l.windowMs()));
+            }
+            if (keys.isEmpty()) return 0;
+
+            List<Long> result;
+            try {
+                redisCalls.increment();
+                result = redisTemplate.execute(TAKE_SCRIPT, keys, args.toArray());
+            } catch (Exception e) {
+                redisRetryAt = now + REDIS_RETRY_MS;
+                fallbacks.increment();
+                log.warn("Redis rate-limit budget unavailable, using local fallback for {} ms: {}",
+                        REDIS_RETRY_MS, e.getMessage());
+                return UNAVAILABLE;
+            }
+
+            long granted = result.get(0);
+            if (granted <= 0) {
+                denied.increment();
+                long waitMs = Math.max(1, result.get(1));
+                lease.deniedUntil = now + waitMs;
+                return waitMs;
+            }
+            lease.remaining = (int) granted - 1;
+            lease.expiresAt = now + result.get(2);
+            return 0;
+        } finally {
+            lease.lock.unlock();
+        }
+    }
+
+    /**
+     * Return a permit that was taken but not used, e.g. because a local bucket refused
+     * the call afterwards. Ignored if its lease has already expired.
+     */
+    public void giveBack(String host, String method, RiotPriority priority) {
+        Lease lease = leases.get(host + '|' + method + '|' + priority);
+        if (lease == null) return;
+        lease.lock.lock();
+        try {
+            if (clock.getAsLong() < lease.expiresAt) {
+                lease.remaining++;
+            }
+        } finally {
+            lease.lock.unlock();
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(redisCalls.sum(), denied.sum(), fallbacks.sum(), clock.getAsLong() < redisRetryAt);
+    }
+}
@@ -0,0 +1,284 @@
+package com.jw.backend.service;
+
+import io.netty.channel.ChannelOption;
+import io.netty.handler.ssl.SslContextBuilder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.ReactorClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.Http11SslContextSpec;
+import reactor.netty.http.Http2SslContextSpec;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.tcp.SslProvider;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * HTTP transport shared by every Riot API call.
+ *
+ * <p>All region hosts go through one Reactor Netty client whose connection pool holds at
+ * most {@code riot.http.max-connections-per-host} connections per host, keeps idle ones
+ * alive for {@code riot.http.max-idle-ms} and recycles them after
+ * {@code riot.http.max-life-ms}. HTTP/2 is negotiated over ALPN where Riot offers it
+ * ({@code riot.http.protocol=h2}, the default), responses are requested and decoded as
+ * gzip, and a single TLS context with a session cache lets reconnects to a host resume
+ * their TLS session instead of a full handshake.</p>
+ *
+ * <p>Blocking callers use {@link #client(String)}, reactive ones {@link #webClient(String)};
+ * both share the pool. Per host the transport tracks pool occupancy, requests, body bytes
+ * read (after decompression) and time to first byte, measured from sending the request
+ * until the response headers arrive.</p>
+ */
+@Component
+public class RiotHttpTransport {
+
+    static final String HOST_SUFFIX = ".api.riotgames.com";
+
+    private static final int TLS_SESSION_CACHE_SIZE = 256;
+    private static final long TLS_SESSION_TIMEOUT_SECONDS = 3600;
+    // Largest response body WebClient will buffer; Match-v5 payloads run to a few hundred KB
+    private static final int MAX_BODY_BYTES = 4 * 1024 * 1024;
+
+    private final ConnectionProvider connectionProvider;
+    private final HttpClient httpClient;
+    private final ReactorClientHttpRequestFactory requestFactory;
+    private final ReactorClientHttpConnector connector;
+
+    private final ConcurrentHashMap<String, RestClient> clients = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, WebClient> webClients = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, HostCounters> hosts = new ConcurrentHashMap<>();
+
+    /**
+     * Point-in-time view of one Riot host.
+     *
+     * @param activeConnections connections (or HTTP/2 streams) currently serving a request
+     * @param idleConnections   open connections waiting in the pool
+     * @param pendingAcquires   requests waiting for a connection
+     * @param requests          requests that got a response
+     * @param bytesRead         response body bytes read, after decompression
+     * @param timeToFirstByte   time from sending a request to its response headers
+     */
+    public record HostStats(int activeConnections, int idleConnections, int pendingAcquires,
+                            long requests, long bytesRead, LatencyHistogram.Snapshot timeToFirstByte) {}
+
+    private static final class HostCounters {
+        volatile ConnectionPoolMetrics pool;
+        final LongAdder requests = new LongAdder();
+        final LongAdder bytesRead = new LongAdder();
+        final LatencyHistogram timeToFirstByte = new LatencyHistogram();
+    }
+
+    public RiotHttpTransport(@Value("${riot.http.protocol:h2}") String protocol,
+                             @Value("${riot.http.max-connections-per-host:20}") int maxConnectionsPerHost,
+                             @Value("${riot.http.pending-acquire-timeout-ms:10000}") long pendingAcquireTimeoutMs,
+                             @Value("${riot.http.max-idle-ms:60000}") long maxIdleMs,
+                             @Value("${riot.http.max-life-ms:300000}") long maxLifeMs,
+                             @Value("${riot.http.connect-timeout-ms:3000}") long connectTimeoutMs,
+                             @Value("${riot.http.read-timeout-ms:10000}") long readTimeoutMs) {
+        this.connectionProvider = ConnectionProvider.builder("riot")
+                .maxConnections(Math.max(1, maxConnectionsPerHost))
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(maxIdleMs))
+                .maxLifeTime(Duration.ofMillis(maxLifeMs))
+                .evictInBackground(Duration.ofSeconds(30))
+                .metrics(true, () -> new PoolRegistrar())
+                .build();
+
+        boolean h2 = !"http1".equalsIgnoreCase(protocol);
+        Consumer<SslContextBuilder> tls = builder -> builder
+                .sessionCacheSize(TLS_SESSION_CACHE_SIZE)
+                .sessionTimeout(TLS_SESSION_TIMEOUT_SECONDS);
+        SslProvider.ProtocolSslContextSpec sslSpec = h2
+                ? Http2SslContextSpec.forClient().configure(tls)
+                : Http11SslContextSpec.forClient().configure(tls);
+
+        this.httpClient = HttpClient.create(connectionProvider)
+                .protocol(h2 ? new HttpProtocol[] {HttpProtocol.H2, HttpProtocol.HTTP11}
+                        : new HttpProtocol[] {HttpProtocol.HTTP11})
+                .secure(spec -> spec.sslContext(sslSpec))
+                .compress(true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeoutMs)
+                .responseTimeout(Duration.ofMillis(readTimeoutMs));
+
+        this.requestFactory = new ReactorClientHttpRequestFactory(httpClient);
+        requestFactory.setConnectTimeout(Duration.ofMillis(connectTimeoutMs));
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        this.connector = new ReactorClientHttpConnector(httpClient);
+    }
+
+    /**
+     * The client for one region host, created on first use.
+     *
+     * @param host the routing or platform host prefix, e.g. {@code americas} or {@code na1}
+     * @return a client with that host's base URL
+     */
+    public RestClient client(String host) {
+        return clients.computeIfAbsent(host, h -> RestClient.builder()
+                .baseUrl("https://" + h + HOST_SUFFIX)
+                .requestFactory(requestFactory)
+                .requestInterceptor(interceptor(h))
+                .build());
+    }
+
+    /**
+     * The non-blocking client for one region host, on the same connection pool as
+     * {@link #client(String)} and counted in the same host stats.
+     *
+     * @param host the routing or platform host prefix
+     * @return a WebClient with that host's base URL
+     */
+    public WebClient webClient(String host) {
+        return webClients.computeIfAbsent(host, h -> WebClient.builder()
+                .baseUrl("https://" + h + HOST_SUFFIX)
+                .clientConnector(connector)
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(MAX_BODY_BYTES))
+                .filter(exchangeFilter(h))
+                .build());
+    }
+
+    public HostStats hostStats(String host) {
+        HostCounters counters = hosts.get(host);
+        if (counters == null) {
+            return new HostStats(0, 0, 0, 0, 0, new LatencyHistogram().snapshot());
+        }
+        ConnectionPoolMetrics pool = counters.pool;
+        int active = pool == null ? 0 : pool.acquiredSize();
+        int idle = pool == null ? 0 : pool.idleSize();
+        int pending = pool == null ? 0 : pool.pendingAcquireSize();
+        return new HostStats(active, idle, pending, counters.requests.sum(), counters.bytesRead.sum(),
+                counters.timeToFirstByte.snapshot());
+    }
+
+    // Times the exchange up to the response headers and counts the body as it's read
+    ClientHttpRequestInterceptor interceptor(String host) {
+        return (request, body, execution) -> {
+            HostCounters counters = counters(host);
+            long startedAt = System.nanoTime();
+            ClientHttpResponse response = execution.execute(request, body);
+            counters.timeToFirstByte.record((System.nanoTime() - startedAt) / 1_000_000);
+            counters.requests.increment();
+            return new CountingResponse(response, counters.bytesRead);
+        };
+    }
+
+    ExchangeFilterFunction exchangeFilter(String host) {
+        return (request, next) -> Mono.defer(() -> {
+            HostCounters counters = counters(host);
+            long startedAt = System.nanoTime();
+            return next.exchange(request).map(response -> {
+                counters.timeToFirstByte.record((System.nanoTime() - startedAt) / 1_000_000);
+                counters.requests.increment();
+                return response.mutate()
+                        .body(body -> body.doOnNext(buffer -> counters.bytesRead.add(buffer.readableByteCount())))
+                        .build();
+            });
+        });
+    }
+
+    private HostCounters counters(String host) {
+        return hosts.computeIfAbsent(host, h -> new HostCounters());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        connectionProvider.dispose();
+    }
+
+    /** Hands each host's pool gauges to its counters; the pool is keyed by remote address. */
+    private final class PoolRegistrar implements ConnectionProvider.MeterRegistrar {
+
+        @Override
+        public void registerMetrics(String poolName, String id, SocketAddress remoteAddress,
+                                    ConnectionPoolMetrics metrics) {
+            String host = hostOf(remoteAddress);
+            if (host != null) counters(host).pool = metrics;
+        }
+
+        @Override
+        public void deRegisterMetrics(String poolName, String id, SocketAddress remoteAddress) {
+            String host = hostOf(remoteAddress);
+            HostCounters counters = host == null ? null : hosts.get(host);
+            if (counters != null) counters.pool = null;
+        }
+
+        private String hostOf(SocketAddress address) {
+            if (!(address instanceof InetSocketAddress inet)) return null;
+            String name = inet.getHostString();
+            return name.endsWith(HOST_SUFFIX) ? name.substring(0, name.length() - HOST_SUFFIX.length()) : name;
+        }
+    }
+
+    private static final class CountingResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final LongAdder bytesRead;
+        private InputStream body;
+
+        CountingResponse(ClientHttpResponse delegate, LongAdder bytesRead) {
+            this.delegate = delegate;
+            this.bytesRead = bytesRead;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new FilterInputStream(delegate.getBody()) {
+                    @Override
+                    public int read() throws IOException {
+                        int b = super.read();
+                        if (b >= 0) bytesRead.increment();
+                        return b;
+                    }
+
+                    @Override
+                    public int read(byte[] buffer, int off, int len) throws IOException {
+                        int n = super.read(buffer, off, len);
+                        if (n > 0) bytesRead.add(n);
+                        return n;
+                    }
+                };
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+}
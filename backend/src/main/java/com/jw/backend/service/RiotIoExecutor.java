@@ -0,0 +1,209 @@
+package com.jw.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Shared executor for blocking Riot I/O fanned out on behalf of one request.
+ *
+ * <p>Each {@link #fanOut} call drains its own inputs with at most
+ * {@code riot.io.per-caller-concurrency} workers, so one caller's 20-match page can
+ * occupy only that many threads and never starves the next caller. In the default
+ * {@code virtual} mode every worker is a virtual thread and nothing queues at all; the
+ * {@code platform} mode keeps a fixed pool of {@code riot.io.platform-threads}, which
+ * then serves {@code threads / per-caller-concurrency} callers side by side.</p>
+ *
+ * <p>A fan-out has a deadline: inputs that haven't finished by then get their fallback
+ * and the workers still on them are interrupted. The caller's {@link RiotPriority} lane
+ * is carried onto the workers.</p>
+ */
+@Component
+public class RiotIoExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(RiotIoExecutor.class);
+
+    /** Stands in for a {@code null} result in the results array, where null means "not done". */
+    private static final Object NULL_RESULT = new Object();
+
+    /** Claims a slot that missed the deadline, so a worker finishing later cannot fill it. */
+    private static final Object TIMED_OUT = new Object();
+
+    private final ExecutorService executor;
+    private final boolean virtual;
+    private final int perCallerConcurrency;
+    private final long defaultDeadlineMs;
+    private final LongSupplier clock;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LatencyHistogram startDelays = new LatencyHistogram();
+
+    /**
+     * Point-in-time view of the executor.
+     *
+     * @param inFlight    tasks running now
+     * @param waiting     tasks of running fan-outs not started yet
+     * @param completed   tasks that returned a result
+     * @param failed      tasks that threw and got their fallback
+     * @param timedOut    tasks that missed their fan-out's deadline
+     * @param poolQueued  tasks queued in the platform pool, always 0 in virtual mode
+     * @param startDelays time from a fan-out's start to each of its tasks starting
+     */
+    public record Stats(int inFlight, int waiting, long completed, long failed, long timedOut,
+                        int poolQueued, LatencyHistogram.Snapshot startDelays) {}
+
+    @Autowired
+    public RiotIoExecutor(@Value("${riot.io.mode:virtual}") String mode,
+                          @Value("${riot.io.platform-threads:32}") int platformThreads,
+                          @Value("${riot.io.per-caller-concurrency:10}") int perCallerConcurrency,
+                          @Value("${riot.io.deadline-ms:30000}") long defaultDeadlineMs) {
+        this(mode, platformThreads, perCallerConcurrency, defaultDeadlineMs, System::currentTimeMillis);
+    }
+
+    RiotIoExecutor(String mode, int platformThreads, int perCallerConcurrency, long defaultDeadlineMs,
+                   LongSupplier clock) {
+        this.virtual = !"platform".equalsIgnoreCase(mode);
+        this.executor = virtual
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("riot-io-", 0).factory())
+                : Executors.newFixedThreadPool(Math.max(1, platformThreads),
+                        Thread.ofPlatform().name("riot-io-", 0).daemon(true).factory());
+        this.perCallerConcurrency = Math.max(1, perCallerConcurrency);
+        this.defaultDeadlineMs = defaultDeadlineMs;
+        this.clock = clock;
+    }
+
+    /** Fan out with the configured default deadline. */
+    public <I, R> List<R> fanOut(List<I> inputs, Function<I, R> task, BiFunction<I, Throwable, R> fallback) {
+        return fanOut(inputs, task, fallback, defaultDeadlineMs);
+    }
+
+    /**
+     * Run {@code task} for every input and wait for all of them, or for the deadline.
+     *
+     * @param inputs     the inputs, one task each
+     * @param task       the blocking work for one input
+     * @param fallback   the result for an input whose task threw or missed the deadline
+     * @param deadlineMs how long the whole fan-out may take
+     * @return one result per input, in input order; may contain {@code null}s if the
+     *         task or fallback returns them
+     */
+    @SuppressWarnings("unchecked")
+    public <I, R> List<R> fanOut(List<I> inputs, Function<I, R> task, BiFunction<I, Throwable, R> fallback,
+                                 long deadlineMs) {
+        int n = inputs.size();
+        if (n == 0) return List.of();
+
+        long startedAt = clock.getAsLong();
+        long deadline = startedAt + deadlineMs;
+        AtomicReferenceArray<Object> results = new AtomicReferenceArray<>(n);
+        AtomicInteger next = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(n);
+        RiotPriority lane = RiotPriority.current();
+        waiting.addAndGet(n);
+
+        Runnable worker = () -> RiotPriority.runAs(lane, () -> {
+            int i;
+            while (clock.getAsLong() < deadline && (i = next.getAndIncrement()) < n) {
+                waiting.decrementAndGet();
+                startDelays.record(clock.getAsLong() - startedAt);
+                inFlight.incrementAndGet();
+                I input = inputs.get(i);
+                Object result;
+                try {
+                    result = task.apply(input);
+                    completed.increment();
+                } catch (Throwable t) {
+                    failed.increment();
+                    result = fallback.apply(input, t);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+                results.compareAndSet(i, null, result == null ? NULL_RESULT : result);
+                done.countDown();
+            }
+        });
+
+        List<Future<?>> workers = new ArrayList<>();
+        try {
+            for (int w = 0; w < Math.min(n, perCallerConcurrency); w++) {
+                workers.add(executor.submit(worker));
+            }
+        } catch (RejectedExecutionException e) {
+            log.warn("Riot I/O executor rejected work: {}", e.getMessage());
+        }
+
+        boolean finished;
+        try {
+            finished = !workers.isEmpty()
+                    && done.await(Math.max(0, deadline - clock.getAsLong()), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finished = false;
+        }
+
+        // Claim whatever no worker started, so none starts late
+        int unstarted = n - next.getAndSet(n);
+        if (unstarted > 0) waiting.addAndGet(-unstarted);
+        if (!finished) {
+            // Mark every unfinished slot before interrupting the workers, so a task that
+            // returns once interrupted cannot publish its result after the deadline
+            for (int i = 0; i < n; i++) {
+                results.compareAndSet(i, null, TIMED_OUT);
+            }
+            workers.forEach(f -> f.cancel(true));
+        }
+
+        Object[] out = new Object[n];
+        for (int i = 0; i < n; i++) {
+            Object r = results.get(i);
+            if (r == TIMED_OUT) {
+                timedOut.increment();
+                out[i] = fallback.apply(inputs.get(i),
+                        new TimeoutException("Riot fan-out exceeded its " + deadlineMs + " ms deadline"));
+            } else {
+                out[i] = r == NULL_RESULT ? null : r;
+            }
+        }
+        return (List<R>) Arrays.asList(out);
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    public Stats stats() {
+        int poolQueued = executor instanceof ThreadPoolExecutor pool ? pool.getQueue().size() : 0;
+        return new Stats(inFlight.get(), waiting.get(), completed.sum(), failed.sum(),
+                timedOut.sum(), poolQueued, startDelays.snapshot());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
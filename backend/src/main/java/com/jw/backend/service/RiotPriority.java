@@ -0,0 +1,67 @@
+package com.jw.backend.service;
+
+import java.util.function.Supplier;
+
+/**
+ * Priority lane for outbound Riot calls.
+ *
+ * <p>The lane is carried per thread so deep call chains (ingestion → match summaries →
+ * match detail) don't need a parameter threaded through every method. Work that hops to
+ * another executor must capture it with {@link #propagate(Supplier)}. Threads that never
+ * set a lane are treated as interactive, since they are serving a user request.</p>
+ */
+public enum RiotPriority {
+
+    /** A user is waiting on the response. */
+    INTERACTIVE,
+
+    /** Speculative loads a user is likely to need soon. */
+    PREFETCH,
+
+    /** Scheduled ingestion and other work nobody is waiting on. */
+    BACKGROUND,
+
+    /** Cache warm-up; only runs in what is left of a window once ingestion has its share. */
+    WARMUP;
+
+    private static final ThreadLocal<RiotPriority> CURRENT = ThreadLocal.withInitial(() -> INTERACTIVE);
+
+    public static RiotPriority current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Run work in the given lane, restoring the caller's lane afterwards.
+     *
+     * @param priority the lane for Riot calls made by {@code work}
+     * @param work     the work to run
+     * @return the work's result
+     */
+    public static <T> T callAs(RiotPriority priority, Supplier<T> work) {
+        RiotPriority previous = CURRENT.get();
+        CURRENT.set(priority);
+        try {
+            return work.get();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+
+    public static void runAs(RiotPriority priority, Runnable work) {
+        callAs(priority, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Bind work to the calling thread's current lane, for handing to another executor.
+     *
+     * @param work the work to run later, possibly on another thread
+     * @return a supplier that runs {@code work} in the captured lane
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> work) {
+        RiotPriority captured = current();
+        return () -> callAs(captured, work);
+    }
+}
@@ -2,60 +2,494 @@ package com.jw.backend.service;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
-import java.util.concurrent.Semaphore;
-import java.util.concurrent.TimeUnit;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
 
 /**
- * Semaphore-based token bucket that enforces Riot API rate limits (100 req / 2 min)
- * across all outbound requests. Permits are consumed before each HTTP call and
- * refilled on a fixed schedule (~1 permit per 1.2 seconds).
+ * Riot API rate limiter with separate buckets per region host and per method.
+ *
+ * <p>Riot enforces limits at two levels: an application limit per region host
+ * (e.g. {@code 20:1,100:120} — 20 per second and 100 per two minutes) and a method
+ * limit per endpoint on that host. Every request must fit both. Each limit is tracked
+ * as a sliding window over the timestamps of the last {@code limit} grants, so a call
+ * is allowed once the oldest of those has left the window.</p>
+ *
+ * <p>Application limits start from {@code riot.rate-limit.app-limits}; both levels are
+ * then learned from the {@code X-App-Rate-Limit} / {@code X-Method-Rate-Limit} headers
+ * (and their {@code -Count} companions) on every response. A 429 blocks the offending
+ * bucket for the {@code Retry-After} period.</p>
+ *
+ * <p>Callers are split into {@link RiotPriority} lanes. Interactive calls may use a
+ * whole window; prefetch, background and warm-up calls only a configured share of it,
+ * so the rest of every window is held back for users even while ingestion runs at its
+ * full budget. Warm-up gets the smallest share, so it stops as soon as ingestion has
+ * filled that much of a window. Per-lane queue depth and wait-time histograms are kept for metrics.</p>
+ *
+ * <p>Local buckets pace this JVM; the {@link RiotClusterBudget} keeps the replicas
+ * together under one key-wide budget. A permit needs both. If Redis is unreachable
+ * the local shares shrink to the budget's fallback share until it comes back.</p>
  */
 @Component
 public class RiotRateLimiter {
 
     private static final Logger log = LoggerFactory.getLogger(RiotRateLimiter.class);
-    private static final int MAX_PERMITS = 100;
-    private static final long ACQUIRE_TIMEOUT_SECONDS = 10;
 
-    private final Semaphore semaphore = new Semaphore(MAX_PERMITS, true);
+    static final String APP_LIMIT_HEADER = "X-App-Rate-Limit";
+    static final String APP_COUNT_HEADER = "X-App-Rate-Limit-Count";
+    static final String METHOD_LIMIT_HEADER = "X-Method-Rate-Limit";
+    static final String METHOD_COUNT_HEADER = "X-Method-Rate-Limit-Count";
+    static final String LIMIT_TYPE_HEADER = "X-Rate-Limit-Type";
+
+    private static final long DEFAULT_RETRY_AFTER_MS = 1000;
+
+    private final List<Limit> defaultAppLimits;
+    private final long acquireTimeoutMs;
+    // Share of each window a lane may fill, indexed by RiotPriority ordinal
+    private final double[] laneShares;
+    private final RiotClusterBudget clusterBudget;
+    private final LongSupplier clock;
+
+    private final ConcurrentHashMap<String, HostBuckets> hosts = new ConcurrentHashMap<>();
+
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+
+    private final LaneState[] lanes = new LaneState[RiotPriority.values().length];
+
+    private static final class LaneState {
+        final AtomicInteger queued = new AtomicInteger();
+        final LatencyHistogram waits = new LatencyHistogram();
+    }
+
+    /** One {@code count:seconds} pair from a Riot rate-limit header. */
+    record Limit(int count, long windowMs) {}
+
+    /** Point-in-time view of the limiter counters. */
+    public record Stats(long acquired, long throttled, long rejected, long rateLimited, int hosts) {}
 
     /**
-     * Acquire a permit with a timeout. Waits up to 10 seconds for a permit
-     * to become available; throws if none is available within the deadline.
+     * Point-in-time view of one priority lane.
+     *
+     * @param queued callers currently waiting for a permit
+     * @param waits  time from acquire() to permit for granted calls
      */
-    public void acquire() {
+    public record LaneStats(int queued, LatencyHistogram.Snapshot waits) {}
+
+    @Autowired
+    public RiotRateLimiter(@Value("${riot.rate-limit.app-limits:20:1,100:120}") String appLimits,
+                           @Value("${riot.rate-limit.acquire-timeout-ms:10000}") long acquireTimeoutMs,
+                           @Value("${riot.rate-limit.prefetch-share:0.85}") double prefetchShare,
+                           @Value("${riot.rate-limit.background-share:0.7}") double backgroundShare,
+                           @Value("${riot.rate-limit.warmup-share:0.3}") double warmupShare,
+                           RiotClusterBudget clusterBudget) {
+        this(appLimits, acquireTimeoutMs, prefetchShare, backgroundShare, warmupShare, clusterBudget,
+                System::currentTimeMillis);
+    }
+
+    RiotRateLimiter(String appLimits, long acquireTimeoutMs, double prefetchShare, double backgroundShare,
+                    double warmupShare, RiotClusterBudget clusterBudget, LongSupplier clock) {
+        this.defaultAppLimits = parseLimits(appLimits);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.laneShares = new double[]{1.0, prefetchShare, backgroundShare, warmupShare};
+        this.clusterBudget = clusterBudget;
+        this.clock = clock;
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new LaneState();
+        }
+    }
+
+    /**
+     * Take a permit in the calling thread's {@link RiotPriority} lane.
+     *
+     * @see #acquire(String, String, RiotPriority)
+     */
+    public void acquire(String host, String method) {
+        acquire(host, method, RiotPriority.current());
+    }
+
+    /**
+     * Take a permit for one call, waiting up to the acquire timeout for both the
+     * host and the method bucket to have room within the lane's share.
+     *
+     * @param host     the Riot host the call goes to (e.g. "americas", "na1")
+     * @param method   the endpoint family (e.g. "match-v5.match")
+     * @param priority the lane the call belongs to
+     * @throws RuntimeException if no permit frees up before the deadline
+     */
+    public void acquire(String host, String method, RiotPriority priority) {
+        long start = clock.getAsLong();
+        long waitMs = tryAcquire(host, method, priority);
+        if (waitMs == 0) {
+            lanes[priority.ordinal()].waits.record(0);
+            return;
+        }
+
+        LaneState lane = lanes[priority.ordinal()];
+        long deadline = start + acquireTimeoutMs;
+        lane.queued.incrementAndGet();
         try {
-            boolean acquired = semaphore.tryAcquire(ACQUIRE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
-            if (!acquired) {
-                throw new RuntimeException("Riot API rate limit exhausted. Please try again shortly.");
+            while (waitMs > 0) {
+                if (clock.getAsLong() + waitMs > deadline) {
+                    rejected.increment();
+                    throw new RuntimeException("Riot API rate limit exhausted. Please try again shortly.");
+                }
+                try {
+                    Thread.sleep(waitMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Rate limiter interrupted", e);
+                }
+                waitMs = tryAcquire(host, method, priority);
             }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Rate limiter interrupted", e);
+        } finally {
+            lane.queued.decrementAndGet();
         }
+        throttled.increment();
+        lane.waits.record(clock.getAsLong() - start);
     }
 
     /**
-     * Non-blocking acquire — used by user-initiated requests so they fail fast
-     * rather than queue behind background work.
+     * Non-blocking {@link #acquire(String, String, RiotPriority)}: completes once a permit
+     * is taken, or errors at the acquire timeout. Waits are timer delays, not sleeping
+     * threads. While the cluster budget is on, each check may need a Redis lease, so the
+     * checks (not the waits) run on the bounded elastic scheduler.
      *
-     * @return true if a permit was acquired, false if none available
+     * @param host     the Riot host the call goes to
+     * @param method   the endpoint family
+     * @param priority the lane the call belongs to
+     * @return a Mono completing empty when the permit is held
      */
-    public boolean tryAcquire() {
-        return semaphore.tryAcquire();
+    public Mono<Void> acquireReactive(String host, String method, RiotPriority priority) {
+        return Mono.defer(() -> {
+            long start = clock.getAsLong();
+            LaneState lane = lanes[priority.ordinal()];
+            return check(host, method, priority).flatMap(waitMs -> {
+                if (waitMs == 0) {
+                    lane.waits.record(0);
+                    return Mono.<Void>empty();
+                }
+                lane.queued.incrementAndGet();
+                return waitThenRetry(host, method, priority, waitMs, start + acquireTimeoutMs)
+                        .doOnSuccess(v -> {
+                            throttled.increment();
+                            lane.waits.record(clock.getAsLong() - start);
+                        })
+                        .doFinally(signal -> lane.queued.decrementAndGet());
+            });
+        });
+    }
+
+    private Mono<Void> waitThenRetry(String host, String method, RiotPriority priority, long waitMs, long deadline) {
+        if (clock.getAsLong() + waitMs > deadline) {
+            rejected.increment();
+            return Mono.error(new RuntimeException("Riot API rate limit exhausted. Please try again shortly."));
+        }
+        return Mono.delay(Duration.ofMillis(waitMs))
+                .then(check(host, method, priority))
+                .flatMap(next -> next == 0 ? Mono.<Void>empty() : waitThenRetry(host, method, priority, next, deadline));
+    }
+
+    private Mono<Long> check(String host, String method, RiotPriority priority) {
+        Mono<Long> check = Mono.fromCallable(() -> tryAcquire(host, method, priority));
+        return clusterBudget.isEnabled() ? check.subscribeOn(Schedulers.boundedElastic()) : check;
+    }
+
+    /**
+     * Take a permit in the calling thread's lane if one is available right now.
+     *
+     * @see #tryAcquire(String, String, RiotPriority)
+     */
+    public long tryAcquire(String host, String method) {
+        return tryAcquire(host, method, RiotPriority.current());
+    }
+
+    /**
+     * Take a permit if one is available right now.
+     *
+     * @param host     the Riot host
+     * @param method   the endpoint family
+     * @param priority the lane the call belongs to
+     * @return 0 if a permit was taken, otherwise the milliseconds until one may be free
+     */
+    public long tryAcquire(String host, String method, RiotPriority priority) {
+        HostBuckets buckets = buckets(host);
+        double share = laneShares[priority.ordinal()];
+
+        boolean clusterPermit = false;
+        if (clusterBudget.isEnabled()) {
+            long clusterWait = clusterBudget.take(host, method, priority, share,
+                    buckets.appLimits(), buckets.methodLimits(method));
+            if (clusterWait == RiotClusterBudget.UNAVAILABLE) {
+                share *= clusterBudget.fallbackShare();
+            } else if (clusterWait > 0) {
+                return clusterWait;
+            } else {
+                clusterPermit = true;
+            }
+        }
+
+        long waitMs = buckets.reserve(method, clock.getAsLong(), share);
+        if (waitMs == 0) {
+            acquired.increment();
+        } else if (clusterPermit) {
+            clusterBudget.giveBack(host, method, priority);
+        }
+        return waitMs;
+    }
+
+    /**
+     * Learn limits and current counts from a Riot response. Safe to call with the
+     * headers of error responses too; missing headers are ignored.
+     *
+     * @param host    the Riot host that answered
+     * @param method  the endpoint family
+     * @param headers the response headers, may be null
+     */
+    public void onResponse(String host, String method, HttpHeaders headers) {
+        if (headers == null) return;
+        HostBuckets buckets = buckets(host);
+        long now = clock.getAsLong();
+        buckets.learn(null, headers.getFirst(APP_LIMIT_HEADER), headers.getFirst(APP_COUNT_HEADER), now);
+        buckets.learn(method, headers.getFirst(METHOD_LIMIT_HEADER), headers.getFirst(METHOD_COUNT_HEADER), now);
     }
 
     /**
-     * Refill one permit every 1200ms (~50 per minute, staying within Riot's 100/2min limit).
-     * Never exceeds MAX_PERMITS.
+     * Back off after a 429. Riot says which limit was hit in {@code X-Rate-Limit-Type};
+     * an application limit pauses the whole host, anything else (method, or the
+     * underlying service) pauses only that method.
+     *
+     * @param host    the Riot host that answered
+     * @param method  the endpoint family
+     * @param headers the 429 response headers, may be null
+     * @return how long the bucket is now blocked, in milliseconds
      */
-    @Scheduled(fixedRate = 1200)
-    public void refill() {
-        if (semaphore.availablePermits() < MAX_PERMITS) {
-            semaphore.release();
+    public long onRateLimited(String host, String method, HttpHeaders headers) {
+        rateLimited.increment();
+        onResponse(host, method, headers);
+
+        long retryAfterMs = DEFAULT_RETRY_AFTER_MS;
+        String limitType = null;
+        if (headers != null) {
+            retryAfterMs = parseRetryAfter(headers.getFirst(HttpHeaders.RETRY_AFTER));
+            limitType = headers.getFirst(LIMIT_TYPE_HEADER);
+        }
+        boolean appLimit = "application".equalsIgnoreCase(limitType);
+        buckets(host).block(appLimit ? null : method, clock.getAsLong() + retryAfterMs);
+        log.warn("Riot 429 on {} {} ({} limit), backing off {} ms",
+                host, method, limitType != null ? limitType : "unknown", retryAfterMs);
+        return retryAfterMs;
+    }
+
+    /**
+     * Steady-state permits per second a lane can get on a host: the tightest application
+     * window, cut to the lane's share. Follows limits learned from response headers, so
+     * callers sizing work by it pick up a production key's higher limits on their own.
+     *
+     * @param host     the Riot host
+     * @param priority the lane asking
+     * @return permits per second, or infinity if the host has no application limit
+     */
+    public double sustainedRate(String host, RiotPriority priority) {
+        double share = laneShares[priority.ordinal()];
+        double rate = Double.POSITIVE_INFINITY;
+        for (Limit limit : buckets(host).appLimits()) {
+            int allowed = Math.max(1, (int) (limit.count() * share));
+            rate = Math.min(rate, allowed * 1000.0 / limit.windowMs());
+        }
+        return rate;
+    }
+
+    public Stats stats() {
+        return new Stats(acquired.sum(), throttled.sum(), rejected.sum(), rateLimited.sum(), hosts.size());
+    }
+
+    public LaneStats laneStats(RiotPriority priority) {
+        LaneState lane = lanes[priority.ordinal()];
+        return new LaneStats(lane.queued.get(), lane.waits.snapshot());
+    }
+
+    private HostBuckets buckets(String host) {
+        return hosts.computeIfAbsent(host, h -> new HostBuckets(defaultAppLimits));
+    }
+
+    static List<Limit> parseLimits(String header) {
+        List<Limit> limits = new ArrayList<>();
+        if (header == null || header.isBlank()) return limits;
+        for (String part : header.split(",")) {
+            String[] pair = part.trim().split(":");
+            if (pair.length != 2) continue;
+            try {
+                int count = Integer.parseInt(pair[0].trim());
+                long seconds = Long.parseLong(pair[1].trim());
+                if (count > 0 && seconds > 0) {
+                    limits.add(new Limit(count, seconds * 1000));
+                }
+            } catch (NumberFormatException ignored) {
+                // Skip malformed pairs rather than dropping the whole header
+            }
+        }
+        return limits;
+    }
+
+    private static long parseRetryAfter(String value) {
+        if (value == null) return DEFAULT_RETRY_AFTER_MS;
+        try {
+            return Math.max(0, Long.parseLong(value.trim())) * 1000;
+        } catch (NumberFormatException e) {
+            return DEFAULT_RETRY_AFTER_MS;
+        }
+    }
+
+    /**
+     * Sliding window over the last {@code limit} grant timestamps. A ring buffer holds
+     * them oldest-first from {@code head}; a slot is free once its timestamp has aged
+     * out of the window.
+     */
+    private static final class Window {
+        final Limit limit;
+        final long[] grants;
+        int head;
+
+        Window(Limit limit) {
+            this.limit = limit;
+            this.grants = new long[limit.count()];
+            Arrays.fill(grants, Long.MIN_VALUE / 2);
+        }
+
+        /**
+         * Time until this window has room for one more grant when a caller may fill
+         * only {@code share} of it: the slot that must have aged out is the
+         * {@code floor(limit * share)}-th most recent grant.
+         */
+        long waitMs(long now, double share) {
+            int allowed = Math.max(1, (int) (grants.length * share));
+            int slot = (head + grants.length - allowed) % grants.length;
+            return Math.max(0, grants[slot] + limit.windowMs() - now);
+        }
+
+        void record(long now) {
+            grants[head] = now;
+            head = (head + 1) % grants.length;
+        }
+
+        /** Count of grants still inside the window. */
+        int inWindow(long now) {
+            int n = 0;
+            for (long t : grants) {
+                if (t + limit.windowMs() > now) n++;
+            }
+            return n;
+        }
+    }
+
+    /** Buckets for one region host: the application windows plus one set per method. */
+    private static final class HostBuckets {
+        private List<Window> appWindows;
+        private long appBlockedUntil;
+        private final Map<String, List<Window>> methodWindows = new HashMap<>();
+        private final Map<String, Long> methodBlockedUntil = new HashMap<>();
+
+        HostBuckets(List<Limit> appLimits) {
+            this.appWindows = windows(appLimits);
+        }
+
+        synchronized long reserve(String method, long now, double share) {
+            List<Window> methods = methodWindows.getOrDefault(method, List.of());
+            long wait = Math.max(appBlockedUntil - now, methodBlockedUntil.getOrDefault(method, 0L) - now);
+            for (Window w : appWindows) wait = Math.max(wait, w.waitMs(now, share));
+            for (Window w : methods) wait = Math.max(wait, w.waitMs(now, share));
+            if (wait > 0) return wait;
+
+            for (Window w : appWindows) w.record(now);
+            for (Window w : methods) w.record(now);
+            return 0;
+        }
+
+        /**
+         * Adopt the limits in a header if they differ from ours, and catch up with
+         * Riot's count if it is ahead (e.g. calls made before a restart).
+         *
+         * @param method null for the application level
+         */
+        synchronized void learn(String method, String limitHeader, String countHeader, long now) {
+            List<Limit> limits = parseLimits(limitHeader);
+            List<Window> current = method == null ? appWindows : methodWindows.get(method);
+
+            if (!limits.isEmpty() && (current == null || !limitsOf(current).equals(limits))) {
+                List<Window> replaced = windows(limits);
+                if (current != null) carryOver(current, replaced, now);
+                if (method == null) appWindows = replaced;
+                else methodWindows.put(method, replaced);
+                current = replaced;
+            }
+            if (current == null) return;
+
+            for (Limit reported : parseLimits(countHeader)) {
+                for (Window w : current) {
+                    if (w.limit.windowMs() != reported.windowMs()) continue;
+                    int behind = Math.min(reported.count(), w.limit.count()) - w.inWindow(now);
+                    for (int i = 0; i < behind; i++) w.record(now);
+                }
+            }
+        }
+
+        synchronized List<Limit> appLimits() {
+            return limitsOf(appWindows);
+        }
+
+        synchronized List<Limit> methodLimits(String method) {
+            List<Window> windows = methodWindows.get(method);
+            return windows == null ? List.of() : limitsOf(windows);
+        }
+
+        synchronized void block(String method, long until) {
+            if (method == null) {
+                appBlockedUntil = Math.max(appBlockedUntil, until);
+            } else {
+                methodBlockedUntil.merge(method, until, Math::max);
+            }
+        }
+
+        private static List<Window> windows(List<Limit> limits) {
+            List<Window> windows = new ArrayList<>(limits.size());
+            for (Limit l : limits) windows.add(new Window(l));
+            return windows;
+        }
+
+        private static List<Limit> limitsOf(List<Window> windows) {
+            List<Limit> limits = new ArrayList<>(windows.size());
+            for (Window w : windows) limits.add(w.limit);
+            return limits;
+        }
+
+        // Keep recent grants when limits change so a limit update can't reset the budget
+        private static void carryOver(List<Window> from, List<Window> to, long now) {
+            for (Window target : to) {
+                int used = 0;
+                for (Window source : from) {
+                    if (source.limit.windowMs() <= target.limit.windowMs()) {
+                        used = Math.max(used, source.inWindow(now));
+                    }
+                }
+                for (int i = 0; i < Math.min(used, target.limit.count()); i++) target.record(now);
+            }
         }
     }
 }
@@ -0,0 +1,414 @@
+package com.jw.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jw.backend.dto.MatchSummaryDto;
+import com.jw.backend.region.RiotRegion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking Riot API client with Redis-backed response caching; {@link RiotApiService}
+ * is its blocking face.
+ *
+ * <p>Riot enforces strict rate limits per region host and per method (see
+ * {@link RiotRateLimiter}), so every response is cached with a TTL tuned to how often
+ * the underlying data changes:</p>
+ *
+ * <ul>
+ *   <li>Account lookups — 24h (PUUIDs don't change)</li>
+ *   <li>Match IDs list — 30s (new games appear frequently)</li>
+ *   <li>Match details — kept permanently in {@link MatchPayloadStore} (immutable once the
+ *       game ends); Redis holds them for 10min only if the store write fails</li>
+ *   <li>Summoner/Ranked — 30min (changes infrequently)</li>
+ * </ul>
+ *
+ * <p>A small byte-bounded in-process L1 ({@link RiotResponseCache}) sits in front of
+ * Redis with the same TTLs. If Redis is unreachable, cache operations degrade to a miss
+ * and the call goes to Riot rather than failing.</p>
+ *
+ * <p>Every call returns a {@link Mono} and holds no thread while it waits: rate-limit
+ * waits are timer delays ({@link RiotRateLimiter#acquireReactive}), Redis goes through
+ * the reactive template and HTTP through {@link RiotHttpTransport#webClient}. Only the
+ * JDBC match store is blocking, so it runs on the bounded elastic scheduler.</p>
+ *
+ * <p>The caller's {@link RiotPriority} lane is read when a method is called, not when the
+ * Mono is subscribed.</p>
+ */
+@Service
+public class RiotReactiveClient {
+
+    private static final Logger log = LoggerFactory.getLogger(RiotReactiveClient.class);
+
+    private static final long ACCOUNT_TTL_MS = 24L * 60 * 60 * 1000;
+    private static final long MATCH_IDS_TTL_MS = 30_000;
+    private static final long MATCH_DETAIL_TTL_MS = 10L * 60 * 1000;
+    private static final long SUMMONER_TTL_MS = 30L * 60 * 1000;
+    private static final long LEAGUE_TTL_MS = 15L * 60 * 1000;
+    private static final long SPECTATOR_TTL_MS = 30_000;
+
+    // Rough retained size of a ParsedMatch (10 participants, two teams), charged to its L1 entry
+    private static final long PARSED_MATCH_WEIGHT_BYTES = 8 * 1024;
+
+    private static final int MAX_RATE_LIMIT_RETRIES = 1;
+
+    private final String apiKey;
+    private final ObjectMapper objectMapper;
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final RiotRateLimiter riotRateLimiter;
+    private final RiotResponseCache localCache;
+    private final MatchPayloadStore matchPayloadStore;
+    private final RiotRequestCoalescer coalescer;
+    private final RiotHttpTransport transport;
+    private final MatchPayloadParser matchPayloadParser;
+    private final int fanOutConcurrency;
+    private final long defaultDeadlineMs;
+
+    public RiotReactiveClient(@Value("${riot.api.key}") String apiKey,
+                              ObjectMapper objectMapper,
+                              ReactiveStringRedisTemplate redisTemplate,
+                              RiotRateLimiter riotRateLimiter,
+                              RiotResponseCache localCache,
+                              MatchPayloadStore matchPayloadStore,
+                              RiotRequestCoalescer coalescer,
+                              RiotHttpTransport transport,
+                              @Value("${riot.io.reactive-concurrency:20}") int fanOutConcurrency,
+                              @Value("${riot.io.deadline-ms:30000}") long defaultDeadlineMs) {
+        this.apiKey = apiKey;
+        this.objectMapper = objectMapper;
+        this.redisTemplate = redisTemplate;
+        this.riotRateLimiter = riotRateLimiter;
+        this.localCache = localCache;
+        this.matchPayloadStore = matchPayloadStore;
+        this.coalescer = coalescer;
+        this.transport = transport;
+        this.matchPayloadParser = new MatchPayloadParser(objectMapper.getFactory());
+        this.fanOutConcurrency = Math.max(1, fanOutConcurrency);
+        this.defaultDeadlineMs = defaultDeadlineMs;
+    }
+
+    /** Account-v1 reverse lookup by PUUID. */
+    public Mono<String> getAccountByPuuid(String puuid, RiotRegion region) {
+        RiotPriority lane = RiotPriority.current();
+        String host = region.routing();
+        return fetchCached("account-puuid:" + host + ":" + puuid, ACCOUNT_TTL_MS,
+                () -> riotGet(host, "account-v1.by-puuid", lane,
+                        "/riot/account/v1/accounts/by-puuid/{puuid}", puuid));
+    }
+
+    /** Account-v1 lookup by Riot ID. */
+    public Mono<String> getAccountByRiotId(String gameName, String tagLine, RiotRegion region) {
+        RiotPriority lane = RiotPriority.current();
+        String host = region.routing();
+        String cacheKey = "account:" + host + ":" + gameName.toLowerCase() + "#" + tagLine.toLowerCase();
+        return fetchCached(cacheKey, ACCOUNT_TTL_MS, () -> riotGet(host, "account-v1.by-riot-id", lane,
+                "/riot/account/v1/accounts/by-riot-id/{gameName}/{tagLine}", gameName, tagLine));
+    }
+
+    /** Match-v5 IDs. */
+    public Mono<String> getRecentMatchIds(String puuid, RiotRegion region, int count, int start) {
+        RiotPriority lane = RiotPriority.current();
+        String host = region.routing();
+        String cacheKey = "matchIds:" + host + ":" + puuid + ":start=" + start + ":count=" + count;
+        return fetchCached(cacheKey, MATCH_IDS_TTL_MS, () -> riotGet(host, "match-v5.ids", lane,
+                "/lol/match/v5/matches/by-puuid/{puuid}/ids?start={start}&count={count}", puuid, start, count));
+    }
+
+    /**
+     * Match-v5 IDs of games that started at or after {@code startTimeSec}, newest first.
+     * Not cached: ingestion asks once per poll and needs Riot's current answer.
+     *
+     * @param startTimeSec epoch seconds; 0 for no lower bound
+     */
+    public Mono<List<String>> getMatchIdsSince(String puuid, RiotRegion region, long startTimeSec, int start, int count) {
+        RiotPriority lane = RiotPriority.current();
+        String host = region.routing();
+        Mono<String> ids = startTimeSec > 0
+                ? riotGet(host, "match-v5.ids", lane,
+                        "/lol/match/v5/matches/by-puuid/{puuid}/ids?startTime={startTime}&start={start}&count={count}",
+                        puuid, startTimeSec, start, count)
+                : riotGet(host, "match-v5.ids", lane,
+                        "/lol/match/v5/matches/by-puuid/{puuid}/ids?start={start}&count={count}", puuid, start, count);
+        return ids.map(this::parseMatchIds);
+    }
+
+    /** Match-v5 detail. Lookup order: L1, durable store, Redis, Riot. */
+    public Mono<String> getMatchDetail(String matchId, RiotRegion region) {
+        RiotPriority lane = RiotPriority.current();
+        String host = region.routing();
+        String cacheKey = "matchDetail:" + host + ":" + matchId;
+
+        return Mono.defer(() -> {
+            String cached = localCache.get(cacheKey);
+            if (cached != null) return Mono.just(cached);
+
+            return coalescer.executeReactive(cacheKey, lane, () -> {
+                String raced = localCache.peek(cacheKey);
+                if (raced != null) return Mono.just(raced);
+
+                // Deferred so a durable-store hit never touches Redis or Riot
+                Mono<String> fromRiot = Mono.defer(() -> riotGet(host, "match-v5.match", lane,
+                        "/lol/match/v5/matches/{matchId}", matchId)
+                        .flatMap(result -> {
+                            localCache.put(cacheKey, result, MATCH_DETAIL_TTL_MS);
+                            return blocking(() -> matchPayloadStore.save(matchId, region.name(), result))
+                                    .flatMap(saved -> saved ? Mono.<Void>empty() : putCached(cacheKey, result, MATCH_DETAIL_TTL_MS))
+                                    .thenReturn(result);
+                        }));
+
+                // Payloads cached in Redis before the durable store existed migrate on first read
+                Mono<String> legacy = Mono.defer(() -> getCached(cacheKey).flatMap(json ->
+                        blocking(() -> matchPayloadStore.save(matchId, region.name(), json))
+                                .doOnNext(saved -> localCache.put(cacheKey, json, MATCH_DETAIL_TTL_MS))
+                                .thenReturn(json)));
+
+                return blocking(() -> matchPayloadStore.find(matchId))
+                        .flatMap(stored -> stored.map(json -> {
+                            localCache.put(cacheKey, json, MATCH_DETAIL_TTL_MS);
+                            return Mono.just(json);
+                        }).orElseGet(Mono::empty))
+                        .switchIfEmpty(legacy)
+                        .switchIfEmpty(fromRiot);
+            });
+        });
+    }
+
+    /** Parse-once view of a match, sharing the parsed model attached to the L1 entry. */
+    public Mono<ParsedMatch> getParsedMatch(String matchId, RiotRegion region) {
+        String cacheKey = "matchDetail:" + region.routing() + ":" + matchId;
+        Mono<String> detail = getMatchDetail(matchId, region);
+        return Mono.defer(() -> {
+            ParsedMatch parsed = localCache.getDerived(cacheKey, ParsedMatch.class);
+            if (parsed != null) return Mono.just(parsed);
+
+            return detail.map(json -> {
+                ParsedMatch fresh = parseMatch(json, matchId);
+                localCache.attachDerived(cacheKey, fresh, PARSED_MATCH_WEIGHT_BYTES);
+                return fresh;
+            });
+        });
+    }
+
+    /** Summoner-v4. */
+    public Mono<String> getSummonerByPuuid(String puuid, RiotRegion region) {
+        RiotPriority lane = RiotPriority.current();
+        String host = region.platform();
+        return fetchCached("summoner:" + host + ":" + puuid, SUMMONER_TTL_MS,
+                () -> riotGet(host, "summoner-v4.by-puuid", lane,
+                        "/lol/summoner/v4/summoners/by-puuid/{puuid}", puuid));
+    }
+
+    /** League-v4 ranked entries. */
+    public Mono<String> getRankedEntriesByPuuid(String puuid, RiotRegion region) {
+        RiotPriority lane = RiotPriority.current();
+        String host = region.platform();
+        return fetchCached("ranked:" + host + ":" + puuid, SUMMONER_TTL_MS,
+                () -> riotGet(host, "league-v4.entries", lane,
+                        "/lol/league/v4/entries/by-puuid/{puuid}", puuid));
+    }
+
+    /** League-v4 apex tier league data. */
+    public Mono<String> getLeagueByTier(String tier, String queue, RiotRegion region) {
+        RiotPriority lane = RiotPriority.current();
+        String host = region.platform();
+        return fetchCached("league:" + host + ":" + tier + ":" + queue, LEAGUE_TTL_MS,
+                () -> riotGet(host, "league-v4.apex", lane,
+                        "/lol/league/v4/{tier}leagues/by-queue/{queue}", tier, queue));
+    }
+
+    /** Spectator-v5 active game; empty if the player is not in a game (Riot returns 404). */
+    public Mono<String> getActiveGame(String puuid, RiotRegion region) {
+        RiotPriority lane = RiotPriority.current();
+        String host = region.platform();
+        return fetchCached("spectator:" + host + ":" + puuid, SPECTATOR_TTL_MS,
+                () -> riotGet(host, "spectator-v5.active-game", lane,
+                        "/lol/spectator/v5/active-games/by-summoner/{puuid}", puuid))
+                .onErrorResume(HttpClientErrorException.NotFound.class, e -> Mono.empty());
+    }
+
+    /**
+     * One page of match summaries. Up to {@code riot.io.reactive-concurrency} details are
+     * in flight at once and none of them holds a thread. Results keep the match-ID order;
+     * matches that fail or miss the {@code riot.io.deadline-ms} deadline are left out.
+     */
+    public Mono<List<MatchSummaryDto>> getRecentMatchSummaries(String puuid, RiotRegion region, int count, int start) {
+        return summaries(puuid, region, count, start, true).collectList();
+    }
+
+    /**
+     * The same page as {@link #getRecentMatchSummaries}, but each summary is emitted as soon
+     * as its detail resolves, so the order is completion order rather than match-ID order.
+     */
+    public Flux<MatchSummaryDto> streamRecentMatchSummaries(String puuid, RiotRegion region, int count, int start) {
+        return summaries(puuid, region, count, start, false);
+    }
+
+    /**
+     * Parsed matches for known match IDs, keyed by ID in the given order, for callers that
+     * need every participant rather than one player's summary. Fetched like a page of
+     * {@link #getRecentMatchSummaries}; matches that fail are left out.
+     */
+    public Mono<Map<String, ParsedMatch>> getParsedMatches(RiotRegion region, List<String> matchIds) {
+        if (matchIds.isEmpty()) return Mono.just(Map.of());
+        return perMatch(region, Flux.fromIterable(matchIds), RiotPriority.current(), true, Map::entry)
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue, LinkedHashMap::new);
+    }
+
+    private Flux<MatchSummaryDto> summaries(String puuid, RiotRegion region, int count, int start, boolean ordered) {
+        Mono<String> ids = getRecentMatchIds(puuid, region, Math.max(count, 1), start);
+        return perMatch(region, ids.flatMapIterable(this::parseMatchIds).take(count), RiotPriority.current(),
+                ordered, (matchId, parsed) -> parsed.toSummary(matchId, puuid));
+    }
+
+    // Resolve each match under one shared deadline and project it; failures are dropped
+    private <T> Flux<T> perMatch(RiotRegion region, Flux<String> matchIds, RiotPriority lane, boolean ordered,
+                                 BiFunction<String, ParsedMatch, T> projection) {
+        return Flux.defer(() -> {
+            long deadline = System.currentTimeMillis() + defaultDeadlineMs;
+            Function<String, Mono<T>> resolve = matchId ->
+                    RiotPriority.callAs(lane, () -> getParsedMatch(matchId, region))
+                            .map(parsed -> projection.apply(matchId, parsed))
+                            .timeout(Duration.ofMillis(Math.max(0, deadline - System.currentTimeMillis())))
+                            .onErrorResume(ex -> {
+                                log.warn("Failed to fetch match {}: {}", matchId, ex.getMessage());
+                                return Mono.empty();
+                            });
+            return ordered
+                    ? matchIds.flatMapSequential(resolve, fanOutConcurrency)
+                    : matchIds.flatMap(resolve, fanOutConcurrency);
+        });
+    }
+
+    // --- Two-tier cache-aside ---
+    // L1 is checked first; an L2 (Redis) hit is copied into L1 with the endpoint TTL,
+    // so a value can outlive its Redis entry by at most one TTL on this node.
+    // Everything behind an L1 miss runs single-flight per key, so concurrent misses
+    // share one Redis GET and at most one rate-limit permit and Riot call.
+
+    private Mono<String> fetchCached(String cacheKey, long ttlMs, Supplier<Mono<String>> riotCall) {
+        RiotPriority lane = RiotPriority.current();
+        return Mono.defer(() -> {
+            String cached = localCache.get(cacheKey);
+            if (cached != null) return Mono.just(cached);
+
+            return coalescer.executeReactive(cacheKey, lane, () -> {
+                String raced = localCache.peek(cacheKey);
+                if (raced != null) return Mono.just(raced);
+
+                return getCached(cacheKey)
+                        .doOnNext(remote -> localCache.put(cacheKey, remote, ttlMs))
+                        .switchIfEmpty(Mono.defer(riotCall).flatMap(result -> {
+                            localCache.put(cacheKey, result, ttlMs);
+                            return putCached(cacheKey, result, ttlMs).thenReturn(result);
+                        }));
+            });
+        });
+    }
+
+    // --- Riot calls ---
+    // Every outbound request goes through here so the limiter sees each host/method pair
+    // and learns the real limits from the response headers, including those on errors.
+    // The wait for a permit and the 429 retry hold no thread.
+
+    private Mono<String> riotGet(String host, String method, RiotPriority lane, String uriTemplate, Object... uriVariables) {
+        return riotGet(host, method, lane, 0, uriTemplate, uriVariables);
+    }
+
+    private Mono<String> riotGet(String host, String method, RiotPriority lane, int attempt,
+                                 String uriTemplate, Object... uriVariables) {
+        return riotRateLimiter.acquireReactive(host, method, lane)
+                .then(Mono.defer(() -> transport.webClient(host).get()
+                        .uri(uriTemplate, uriVariables)
+                        .header("X-Riot-Token", apiKey)
+                        .retrieve()
+                        .toEntity(String.class)))
+                .onErrorMap(WebClientResponseException.class, RiotReactiveClient::toStatusCodeException)
+                .mapNotNull(response -> {
+                    riotRateLimiter.onResponse(host, method, response.getHeaders());
+                    return response.getBody();
+                })
+                .doOnError(e -> e instanceof HttpStatusCodeException && !(e instanceof HttpClientErrorException.TooManyRequests),
+                        e -> riotRateLimiter.onResponse(host, method, ((HttpStatusCodeException) e).getResponseHeaders()))
+                .onErrorResume(HttpClientErrorException.TooManyRequests.class, e -> {
+                    // The bucket is now blocked for Retry-After, so the retry waits in acquireReactive()
+                    riotRateLimiter.onRateLimited(host, method, e.getResponseHeaders());
+                    if (attempt >= MAX_RATE_LIMIT_RETRIES) return Mono.error(e);
+                    return riotGet(host, method, lane, attempt + 1, uriTemplate, uriVariables);
+                });
+    }
+
+    // Raise the same exceptions as RestClient, so the exception handler and checks like the
+    // spectator 404 see RiotApiService's long-standing exception types
+    private static HttpStatusCodeException toStatusCodeException(WebClientResponseException e) {
+        return e.getStatusCode().is5xxServerError()
+                ? HttpServerErrorException.create(e.getStatusCode(), e.getStatusText(), e.getHeaders(),
+                        e.getResponseBodyAsByteArray(), null)
+                : HttpClientErrorException.create(e.getStatusCode(), e.getStatusText(), e.getHeaders(),
+                        e.getResponseBodyAsByteArray(), null);
+    }
+
+    // --- Redis cache-aside helpers ---
+    // On Redis failure, we log and degrade to a cache miss (hit Riot directly).
+    // This keeps the app functional even if Redis goes down temporarily.
+
+    private Mono<String> getCached(String key) {
+        return redisTemplate.opsForValue().get(key)
+                .onErrorResume(e -> {
+                    log.warn("Redis GET failed for key [{}], treating as cache miss", key, e);
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> putCached(String key, String value, long ttlMs) {
+        return redisTemplate.opsForValue().set(key, value, Duration.ofMillis(ttlMs))
+                .onErrorResume(e -> {
+                    log.warn("Redis SET failed for key [{}], response will not be cached", key, e);
+                    return Mono.just(false);
+                })
+                .then();
+    }
+
+    private static <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private List<String> parseMatchIds(String idsJson) {
+        List<String> ids = new ArrayList<>();
+        try {
+            for (JsonNode n : objectMapper.readTree(idsJson)) {
+                ids.add(n.asText());
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to parse match ids JSON", e);
+        }
+        return ids;
+    }
+
+    private ParsedMatch parseMatch(String detailJson, String matchId) {
+        try {
+            return matchPayloadParser.parse(detailJson);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to parse match detail JSON for " + matchId, e);
+        }
+    }
+}
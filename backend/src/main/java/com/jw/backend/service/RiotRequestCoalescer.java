@@ -0,0 +1,150 @@
+package com.jw.backend.service;
+
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight deduplication for Riot lookups that miss the local cache.
+ *
+ * <p>When a popular player is searched, many requests miss the same key at once.
+ * Without coalescing each one would spend its own rate-limit permit on an identical
+ * HTTP call. Here the first caller for a key runs the lookup and every concurrent
+ * caller for that key waits on the same future and shares its result (or its
+ * exception). The key is released as soon as the call completes, so later callers
+ * go back through the caches as usual.</p>
+ *
+ * <p>A caller only joins a call made in its own {@link RiotPriority} lane or a more
+ * urgent one. Otherwise an interactive request could end up waiting behind a
+ * background call's rate-limit permit; instead it makes its own call, which the
+ * rate limiter serves first.</p>
+ */
+@Component
+public class RiotRequestCoalescer {
+
+    private static final RiotPriority[] LANES = RiotPriority.values();
+
+    // Keyed by cache key and the lane of the call
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    /** Point-in-time view of the coalescer counters. */
+    public record Stats(long executions, long coalesced, int inFlight) {}
+
+    /**
+     * Run the call for this key, or join one already running in this lane or a more urgent one.
+     *
+     * @param key  the cache key identifying the outbound request
+     * @param lane the caller's priority lane
+     * @param call the lookup to run if no identical call is in flight
+     * @return the shared result
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, RiotPriority lane, Supplier<T> call) {
+        String flightKey = flightKey(key, lane);
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = join(key, lane, flightKey, mine);
+        if (existing != null) {
+            coalesced.increment();
+            return (T) await(existing);
+        }
+
+        executions.increment();
+        try {
+            T result = call.get();
+            mine.complete(result);
+            return result;
+        } catch (Throwable t) {
+            mine.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.remove(flightKey, mine);
+        }
+    }
+
+    /**
+     * Reactive {@link #execute}: the first subscriber for a key starts the call, concurrent
+     * ones share its outcome. Blocking and reactive callers share one in-flight map, so a
+     * key fetched on either path is fetched once. The call runs on its own subscription,
+     * so a caller that cancels (a closed stream, a per-match timeout) only stops waiting;
+     * the call still completes for everyone else who joined it, the first caller included.
+     *
+     * @param key  the cache key identifying the outbound request
+     * @param lane the caller's priority lane
+     * @param call the lookup to subscribe to if no identical call is in flight
+     * @return the shared result; empty if the call completed empty
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> executeReactive(String key, RiotPriority lane, Supplier<Mono<T>> call) {
+        String flightKey = flightKey(key, lane);
+        return Mono.defer(() -> {
+            CompletableFuture<Object> mine = new CompletableFuture<>();
+            CompletableFuture<Object> existing = join(key, lane, flightKey, mine);
+            if (existing != null) {
+                coalesced.increment();
+                return Mono.fromFuture(existing, true).map(result -> (T) result);
+            }
+
+            executions.increment();
+            // The key is released before the future completes, so nobody joins a finished call
+            Mono.defer(call).subscribe(
+                    result -> {
+                        inFlight.remove(flightKey, mine);
+                        mine.complete(result);
+                    },
+                    error -> {
+                        inFlight.remove(flightKey, mine);
+                        mine.completeExceptionally(error);
+                    },
+                    () -> {
+                        inFlight.remove(flightKey, mine);
+                        mine.complete(null);
+                    });
+            return Mono.fromFuture(mine, true).map(result -> (T) result);
+        });
+    }
+
+    public Stats stats() {
+        return new Stats(executions.sum(), coalesced.sum(), inFlight.size());
+    }
+
+    private static String flightKey(String key, RiotPriority lane) {
+        return lane.ordinal() + "|" + key;
+    }
+
+    /**
+     * The call to join: one in flight in this lane or a more urgent one. If there is none,
+     * {@code mine} is registered for this lane and null is returned.
+     */
+    private CompletableFuture<Object> join(String key, RiotPriority lane, String flightKey,
+                                           CompletableFuture<Object> mine) {
+        for (int i = 0; i < lane.ordinal(); i++) {
+            CompletableFuture<Object> urgent = inFlight.get(flightKey(key, LANES[i]));
+            if (urgent != null) return urgent;
+        }
+        return inFlight.putIfAbsent(flightKey, mine);
+    }
+
+    // Rethrow the leader's original exception so callers can still catch e.g. NotFound
+    private static Object await(CompletableFuture<Object> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted waiting for in-flight Riot request", e);
+        } catch (ExecutionException | CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException re) throw re;
+            if (cause instanceof Error err) throw err;
+            throw new RuntimeException(cause);
+        }
+    }
+}
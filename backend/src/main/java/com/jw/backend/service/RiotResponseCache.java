@@ -0,0 +1,206 @@
+package com.jw.backend.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process L1 cache for raw Riot API responses, sitting in front of the Redis L2.
+ *
+ * <p>Match payloads are several hundred KB each, so the cache is bounded by total
+ * byte weight rather than entry count: a 20-match history page can be served
+ * entirely from memory without one large entry crowding out hundreds of small
+ * account/ranked lookups. Eviction is least-recently-used once the byte budget
+ * is exceeded.</p>
+ *
+ * <p>Each entry carries its own TTL, supplied by the caller so it mirrors the
+ * per-endpoint Redis TTL. Expired entries are dropped lazily on read and swept
+ * once a minute.</p>
+ *
+ * <p>An entry may also carry a derived object built from its raw value (e.g. a
+ * {@link ParsedMatch}), so hot payloads are parsed once rather than per request.
+ * The derived object shares the entry's TTL and LRU slot and counts toward its weight.</p>
+ */
+@Component
+public class RiotResponseCache {
+
+    /** Approximate fixed cost of a map node, entry object and key header. */
+    private static final long ENTRY_OVERHEAD_BYTES = 96;
+
+    private final long maxBytes;
+    private final LongSupplier clock;
+
+    // Access-ordered so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long weightBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // derived: optional parsed form of value, evicted together with it
+    private record Entry(String value, Object derived, long weight, long expiresAt) {}
+
+    /** Point-in-time view of the cache counters. */
+    public record Stats(long hits, long misses, long evictions, long weightBytes, int entries) {}
+
+    @Autowired
+    public RiotResponseCache(@Value("${riot.cache.l1.max-bytes:67108864}") long maxBytes) {
+        this(maxBytes, System::currentTimeMillis);
+    }
+
+    RiotResponseCache(long maxBytes, LongSupplier clock) {
+        this.maxBytes = maxBytes;
+        this.clock = clock;
+    }
+
+    /**
+     * Look up a cached response.
+     *
+     * @param key the Riot cache key (same key space as Redis)
+     * @return the cached value, or null on miss or expiry
+     */
+    public synchronized String get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAt() <= clock.getAsLong()) {
+            remove(key);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value();
+    }
+
+    /**
+     * Look up a cached response without touching the hit/miss counters.
+     * Used to re-check the cache after winning a single-flight race.
+     *
+     * @param key the Riot cache key
+     * @return the cached value, or null if absent or expired
+     */
+    public synchronized String peek(String key) {
+        Entry entry = entries.get(key);
+        return entry != null && entry.expiresAt() > clock.getAsLong() ? entry.value() : null;
+    }
+
+    /**
+     * Store a response, evicting least-recently-used entries until it fits.
+     * Values larger than the whole budget are not cached.
+     *
+     * @param key   the Riot cache key
+     * @param value the raw response body
+     * @param ttlMs time-to-live in milliseconds
+     */
+    public synchronized void put(String key, String value, long ttlMs) {
+        if (value == null || ttlMs <= 0) return;
+
+        long weight = weigh(key, value);
+        if (weight > maxBytes) return;
+
+        remove(key);
+        entries.put(key, new Entry(value, null, weight, clock.getAsLong() + ttlMs));
+        weightBytes += weight;
+        evictUntilFits(key);
+    }
+
+    /**
+     * Look up the derived object attached to a live entry. A hit counts like one from
+     * {@link #get(String)}; a miss is not counted, since the caller goes on to look up
+     * the raw value, and that lookup records the outcome.
+     *
+     * @param key  the Riot cache key
+     * @param type expected type of the derived object
+     * @return the derived object, or null if the entry is absent, expired or has none of that type
+     */
+    public synchronized <T> T getDerived(String key, Class<T> type) {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.expiresAt() <= clock.getAsLong() || !type.isInstance(entry.derived())) {
+            return null;
+        }
+        hits.increment();
+        return type.cast(entry.derived());
+    }
+
+    /**
+     * Attach a derived object to an existing live entry, replacing any previous one.
+     * Does nothing if the raw value is no longer cached.
+     *
+     * @param key     the Riot cache key
+     * @param derived the object derived from the entry's raw value
+     * @param weight  approximate retained size of the derived object in bytes
+     */
+    public synchronized void attachDerived(String key, Object derived, long weight) {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.expiresAt() <= clock.getAsLong()) return;
+
+        long baseWeight = weigh(key, entry.value());
+        long newWeight = baseWeight + Math.max(0, weight);
+        if (newWeight > maxBytes) return;
+
+        entries.put(key, new Entry(entry.value(), derived, newWeight, entry.expiresAt()));
+        weightBytes += newWeight - entry.weight();
+        evictUntilFits(key);
+    }
+
+    public synchronized void invalidate(String key) {
+        remove(key);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        weightBytes = 0;
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), weightBytes, entries.size());
+    }
+
+    /** Drop expired entries so idle keys do not hold memory until they are next read. */
+    @Scheduled(fixedRate = 60000)
+    synchronized void purgeExpired() {
+        long now = clock.getAsLong();
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (entry.expiresAt() <= now) {
+                weightBytes -= entry.weight();
+                it.remove();
+            }
+        }
+    }
+
+    private void evictUntilFits(String keep) {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (weightBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, Entry> eldest = it.next();
+            if (eldest.getKey().equals(keep)) continue;
+            weightBytes -= eldest.getValue().weight();
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    private void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            weightBytes -= removed.weight();
+        }
+    }
+
+    // Two bytes per char: a payload with one non-Latin-1 character (e.g. a Korean Riot ID)
+    // is stored as UTF-16, so counting one byte would let the heap grow past the budget
+    private static long weigh(String key, String value) {
+        return ENTRY_OVERHEAD_BYTES + (long) Character.BYTES * (key.length() + value.length());
+    }
+}
@@ -0,0 +1,82 @@
+package com.jw.backend.service;
+
+import com.jw.backend.region.RiotRegion;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Side effects of a profile lookup, taken off the request path.
+ *
+ * <p>{@link #playerSearched} only records the search; every
+ * {@code search-events.window-ms} {@link #flush} upserts all players searched since the
+ * last flush into tracked_players in one statement, then captures their LP snapshots
+ * on the shared Riot I/O executor in the prefetch lane. Repeated searches of one
+ * player within a window coalesce into one upsert and one League call.</p>
+ *
+ * <p>Pending searches live in memory and are flushed on shutdown. A crash loses at most
+ * one window of them, which only delays that player's next ingestion and LP point:
+ * the durable state is the tracked_players row, which ingestion already revisits.</p>
+ */
+@Component
+public class SearchSideEffects {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchSideEffects.class);
+
+    private final PlayerTrackingService playerTrackingService;
+    private final LpTrackingService lpTrackingService;
+    private final RiotIoExecutor ioExecutor;
+
+    private final ConcurrentHashMap<String, Pending> pending = new ConcurrentHashMap<>();
+
+    private record Pending(RiotRegion region, String gameName, String tagLine) {}
+
+    public SearchSideEffects(PlayerTrackingService playerTrackingService, LpTrackingService lpTrackingService,
+                             RiotIoExecutor ioExecutor) {
+        this.playerTrackingService = playerTrackingService;
+        this.lpTrackingService = lpTrackingService;
+        this.ioExecutor = ioExecutor;
+    }
+
+    /**
+     * Record a profile lookup; the latest Riot ID wins if the player is searched again
+     * before the next flush.
+     */
+    public void playerSearched(String puuid, RiotRegion region, String gameName, String tagLine) {
+        pending.put(puuid, new Pending(region, gameName, tagLine));
+    }
+
+    /** Track and capture LP for every player searched since the last flush. */
+    @Scheduled(fixedDelayString = "${search-events.window-ms:1000}")
+    @PreDestroy
+    public void flush() {
+        if (pending.isEmpty()) return;
+        List<Map.Entry<String, Pending>> batch = new ArrayList<>(pending.size());
+        for (String puuid : List.copyOf(pending.keySet())) {
+            Pending p = pending.remove(puuid);
+            if (p != null) batch.add(Map.entry(puuid, p));
+        }
+        if (batch.isEmpty()) return;
+
+        try {
+            playerTrackingService.trackPlayers(batch.stream()
+                    .map(e -> new PlayerTrackingService.Search(e.getKey(), e.getValue().region().name(),
+                            e.getValue().gameName(), e.getValue().tagLine()))
+                    .toList());
+        } catch (Exception e) {
+            log.warn("Failed to track {} searched players: {}", batch.size(), e.getMessage());
+        }
+
+        RiotPriority.runAs(RiotPriority.PREFETCH, () -> ioExecutor.fanOut(batch, e -> {
+            lpTrackingService.captureSnapshot(e.getKey(), e.getValue().region());
+            return null;
+        }, (e, t) -> null));
+    }
+}
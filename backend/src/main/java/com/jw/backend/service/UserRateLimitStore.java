@@ -0,0 +1,42 @@
+package com.jw.backend.service;
+
+/**
+ * Backend that counts user requests for {@link RateLimitService}.
+ *
+ * <p>Implementations enforce a sliding window: a request is admitted if fewer than
+ * {@code maxRequests} requests under the same policy and key were admitted in the last
+ * {@code windowMs} milliseconds. Admitted requests are recorded; rejected ones are not.
+ * The in-memory store is selected by default; set {@code ratelimit.backend=redis} to
+ * share counts across replicas.</p>
+ */
+public interface UserRateLimitStore {
+
+    /**
+     * A named limit. The name keeps keys of different limits apart in a shared backend.
+     *
+     * @param name        short identifier used in storage keys
+     * @param maxRequests requests allowed per window
+     * @param windowMs    window length in milliseconds
+     */
+    record Policy(String name, int maxRequests, long windowMs) {}
+
+    /**
+     * Admit and record one request if the key is under its limit.
+     *
+     * @param policy the limit to enforce
+     * @param key    the user identifier
+     * @return {@code true} if the request was admitted
+     */
+    boolean tryAcquire(Policy policy, String key);
+
+    /** Forget every recorded request. */
+    void clear();
+
+    /** Drop bookkeeping for keys with no request inside their window. */
+    void evictStale();
+
+    /** Whether the store is running on a fallback and limits are only enforced per node. */
+    default boolean isDegraded() {
+        return false;
+    }
+}
@@ -0,0 +1,3 @@
+-- V10: Consecutive polls that found no new matches, for backing off from inactive players
+
+ALTER TABLE tracked_players ADD COLUMN idle_polls INTEGER NOT NULL DEFAULT 0;
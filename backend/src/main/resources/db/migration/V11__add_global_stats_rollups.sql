@@ -0,0 +1,41 @@
+-- V11: Pre-aggregated global stats, kept current by the match record bulk insert and
+-- periodically recomputed from match_records
+
+CREATE TABLE champion_stats (
+    champion_name VARCHAR(255) NOT NULL,
+    queue_id      INTEGER      NOT NULL,
+    games         BIGINT       NOT NULL DEFAULT 0,
+    wins          BIGINT       NOT NULL DEFAULT 0,
+    kills         BIGINT       NOT NULL DEFAULT 0,
+    deaths        BIGINT       NOT NULL DEFAULT 0,
+    assists       BIGINT       NOT NULL DEFAULT 0,
+    cs            BIGINT       NOT NULL DEFAULT 0,
+    damage        BIGINT       NOT NULL DEFAULT 0,
+    gold          BIGINT       NOT NULL DEFAULT 0,
+    PRIMARY KEY (champion_name, queue_id)
+);
+
+CREATE TABLE queue_stats (
+    queue_id INTEGER PRIMARY KEY,
+    matches  BIGINT  NOT NULL DEFAULT 0
+);
+
+CREATE TABLE stats_counters (
+    name  VARCHAR(64) PRIMARY KEY,
+    value BIGINT      NOT NULL DEFAULT 0
+);
+
+-- The insert checks whether a match is new by its ID alone
+CREATE INDEX idx_match_records_match_id ON match_records (match_id);
+
+INSERT INTO champion_stats (champion_name, queue_id, games, wins, kills, deaths, assists, cs, damage, gold)
+SELECT champion_name, queue_id, COUNT(*), COUNT(*) FILTER (WHERE win), SUM(kills), SUM(deaths), SUM(assists),
+       SUM(total_minions_killed + neutral_minions_killed), SUM(total_damage_dealt_to_champions), SUM(gold_earned)
+FROM match_records
+GROUP BY champion_name, queue_id;
+
+INSERT INTO queue_stats (queue_id, matches)
+SELECT queue_id, COUNT(DISTINCT match_id) FROM match_records GROUP BY queue_id;
+
+INSERT INTO stats_counters (name, value)
+SELECT 'players', COUNT(DISTINCT puuid) FROM match_records;
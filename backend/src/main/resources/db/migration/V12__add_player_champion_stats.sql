@@ -0,0 +1,22 @@
+-- V12: Per-player champion stats by queue, kept current by the match record bulk insert
+
+CREATE TABLE player_champion_stats (
+    puuid         VARCHAR(255) NOT NULL,
+    champion_name VARCHAR(255) NOT NULL,
+    queue_id      INTEGER      NOT NULL,
+    games         BIGINT       NOT NULL DEFAULT 0,
+    wins          BIGINT       NOT NULL DEFAULT 0,
+    kills         BIGINT       NOT NULL DEFAULT 0,
+    deaths        BIGINT       NOT NULL DEFAULT 0,
+    assists       BIGINT       NOT NULL DEFAULT 0,
+    cs            BIGINT       NOT NULL DEFAULT 0,
+    damage        BIGINT       NOT NULL DEFAULT 0,
+    gold          BIGINT       NOT NULL DEFAULT 0,
+    PRIMARY KEY (puuid, champion_name, queue_id)
+);
+
+INSERT INTO player_champion_stats (puuid, champion_name, queue_id, games, wins, kills, deaths, assists, cs, damage, gold)
+SELECT puuid, champion_name, queue_id, COUNT(*), COUNT(*) FILTER (WHERE win), SUM(kills), SUM(deaths), SUM(assists),
+       SUM(total_minions_killed + neutral_minions_killed), SUM(total_damage_dealt_to_champions), SUM(gold_earned)
+FROM match_records
+GROUP BY puuid, champion_name, queue_id;
@@ -0,0 +1,6 @@
+-- V13: Serve LP history range reads from one covering index in (player, queue, time) order
+
+DROP INDEX idx_lp_snapshots_puuid_queue;
+
+CREATE INDEX idx_lp_snapshots_series ON lp_snapshots (puuid, queue_type, captured_at)
+    INCLUDE (tier, rank_division, league_points);
@@ -0,0 +1,3 @@
+-- V14: When an ingestion lease ends, so a search can tell a lease apart from a scheduled poll
+
+ALTER TABLE tracked_players ADD COLUMN leased_until BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,13 @@
+-- V7: Durable store for immutable Match-v5 payloads (gzip-compressed JSON, one row per match)
+
+CREATE TABLE match_payloads (
+    match_id        VARCHAR(64) PRIMARY KEY,
+    region          VARCHAR(10) NOT NULL,
+    payload         BYTEA       NOT NULL,
+    raw_size        INTEGER     NOT NULL,
+    compressed_size INTEGER     NOT NULL,
+    stored_at       BIGINT      NOT NULL
+);
+
+-- Payloads are already gzip-compressed; skip TOAST's own compression attempt
+ALTER TABLE match_payloads ALTER COLUMN payload SET STORAGE EXTERNAL;
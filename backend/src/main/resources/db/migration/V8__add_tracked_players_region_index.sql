@@ -0,0 +1,3 @@
+-- V8: Ingestion claims due players per routing region; index the region alongside the due time
+
+CREATE INDEX idx_tracked_region_next ON tracked_players (region, next_ingest_at) WHERE enabled = TRUE;
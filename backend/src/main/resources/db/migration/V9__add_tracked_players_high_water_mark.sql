@@ -0,0 +1,4 @@
+-- V9: Per-player high-water mark so ingestion only fetches matches it hasn't seen
+
+ALTER TABLE tracked_players ADD COLUMN last_match_id VARCHAR(64);
+ALTER TABLE tracked_players ADD COLUMN last_match_end_at BIGINT NOT NULL DEFAULT 0;
@@ -17,9 +17,13 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -102,12 +106,9 @@ class MatchControllerTest {
     /** Verify that valid matchId and region return match detail DTO. */
     @Test
     void getMatchDetail_withValidParams_returnsOk() throws Exception {
-        String fakeMatchDetail = "{\"matchId\":\"NA1_123\",\"info\":{}}";
         MatchDetailDto fakeDto = new MatchDetailDto("NA1_123", 420, 1800, 1700000000000L, "CLASSIC", "14.1", List.of(), List.of());
 
-        when(riotApiService.getMatchDetail("NA1_123", RiotRegion.NA))
-            .thenReturn(fakeMatchDetail);
-        when(riotApiService.extractFullMatchDetail(fakeMatchDetail, "NA1_123"))
+        when(riotApiService.getFullMatchDetail("NA1_123", RiotRegion.NA))
             .thenReturn(fakeDto);
 
         mockMvc.perform(
@@ -220,4 +221,55 @@ class MatchControllerTest {
             )
             .andExpect(status().isBadRequest());
     }
+
+    /** Verify that the streaming endpoint sends one NDJSON line per match, then a completion line. */
+    @Test
+    void streamMatchSummaries_emitsMatchesThenCompletion() throws Exception {
+        MatchSummaryDto summary = new MatchSummaryDto("NA1_123", "Ahri", 10, 2, 8, true, 1800L, 1700000000000L,
+            18, 4, 14, new int[]{1001,1002,1003,0,0,0,3340}, 150, 30, 420, 30, List.of(), List.of(),
+            8005, 8200, new int[]{0,0,0,0}, 0, 15000, 12000, "MIDDLE");
+
+        when(riotApiService.streamRecentMatchSummaries("test-puuid", RiotRegion.NA, 20, 0))
+            .thenReturn(Flux.just(summary));
+        when(matchHistoryService.persistAsTheyArrive(eq("test-puuid"), eq("NA"), any()))
+            .thenAnswer(inv -> inv.getArgument(2));
+
+        MvcResult result = mockMvc.perform(
+                get("/api/matches/summary/stream")
+                    .param("puuid", "test-puuid")
+                    .param("region", "NA")
+            )
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        result.getAsyncResult(5000);
+
+        String[] lines = result.getResponse().getContentAsString().trim().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"type\":\"match\""));
+        assertTrue(lines[0].contains("\"matchId\":\"NA1_123\""));
+        assertTrue(lines[1].contains("\"type\":\"complete\""));
+        assertTrue(lines[1].contains("\"count\":1"));
+    }
+
+    /** Verify that the streaming endpoint clamps count like the regular summary endpoint. */
+    @Test
+    void streamMatchSummaries_clampsCount() throws Exception {
+        when(riotApiService.streamRecentMatchSummaries("test-puuid", RiotRegion.NA, 100, 0))
+            .thenReturn(Flux.empty());
+        when(matchHistoryService.persistAsTheyArrive(eq("test-puuid"), eq("NA"), any()))
+            .thenAnswer(inv -> inv.getArgument(2));
+
+        MvcResult result = mockMvc.perform(
+                get("/api/matches/summary/stream")
+                    .param("puuid", "test-puuid")
+                    .param("region", "NA")
+                    .param("count", "500")
+            )
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        result.getAsyncResult(5000);
+
+        verify(riotApiService).streamRecentMatchSummaries("test-puuid", RiotRegion.NA, 100, 0);
+        assertTrue(result.getResponse().getContentAsString().contains("\"count\":0"));
+    }
 }
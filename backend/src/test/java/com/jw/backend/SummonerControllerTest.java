@@ -6,15 +6,18 @@
 package com.jw.backend;
 
 import com.jw.backend.region.RiotRegion;
-import com.jw.backend.service.LpTrackingService;
-import com.jw.backend.service.PlayerTrackingService;
 import com.jw.backend.service.RiotApiService;
+import com.jw.backend.service.RiotReactiveClient;
+import com.jw.backend.service.SearchSideEffects;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.http.HttpStatus;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import reactor.core.publisher.Mono;
 import com.jw.backend.security.JwtUtil;
 
 import static org.mockito.Mockito.*;
@@ -39,10 +42,10 @@ class SummonerControllerTest {
     private RiotApiService riotApiService;
 
     @MockitoBean
-    private LpTrackingService lpTrackingService;
+    private RiotReactiveClient reactiveClient;
 
     @MockitoBean
-    private PlayerTrackingService playerTrackingService;
+    private SearchSideEffects searchSideEffects;
 
     /** Verify that a valid gameName, tag, and region return a merged summoner profile. */
     @Test
@@ -65,6 +68,46 @@ class SummonerControllerTest {
             .andExpect(jsonPath("$.puuid").value("abc123"))
             .andExpect(jsonPath("$.gameName").value("Faker"))
             .andExpect(jsonPath("$.profileIconId").value(4567));
+
+        verify(searchSideEffects).playerSearched("abc123", RiotRegion.KR, "Faker", "KR1");
+    }
+
+    /** Verify that a PUUID lookup merges both Riot responses and queues the search. */
+    @Test
+    void getSummonerByPuuid_withValidParams_returnsOk() throws Exception {
+        when(reactiveClient.getAccountByPuuid("abc123", RiotRegion.KR))
+            .thenReturn(Mono.just("{\"puuid\":\"abc123\",\"gameName\":\"Faker\",\"tagLine\":\"KR1\"}"));
+        when(reactiveClient.getSummonerByPuuid("abc123", RiotRegion.KR))
+            .thenReturn(Mono.just("{\"profileIconId\":4567}"));
+
+        mockMvc.perform(
+                get("/api/summoner/by-puuid")
+                    .param("puuid", "abc123")
+                    .param("region", "KR")
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.gameName").value("Faker"))
+            .andExpect(jsonPath("$.profileIconId").value(4567));
+
+        verify(searchSideEffects).playerSearched("abc123", RiotRegion.KR, "Faker", "KR1");
+    }
+
+    /** Verify that a Riot API client error from a parallel call keeps its status. */
+    @Test
+    void getSummonerByPuuid_unknownPlayer_passesThroughStatus() throws Exception {
+        when(reactiveClient.getAccountByPuuid("missing", RiotRegion.KR))
+            .thenReturn(Mono.error(new HttpClientErrorException(HttpStatus.NOT_FOUND)));
+        when(reactiveClient.getSummonerByPuuid("missing", RiotRegion.KR))
+            .thenReturn(Mono.just("{\"profileIconId\":1}"));
+
+        mockMvc.perform(
+                get("/api/summoner/by-puuid")
+                    .param("puuid", "missing")
+                    .param("region", "KR")
+            )
+            .andExpect(status().isNotFound());
+
+        verifyNoInteractions(searchSideEffects);
     }
 
     /** Verify that a missing gameName parameter returns HTTP 400. */
@@ -6,7 +6,7 @@
 package com.jw.backend;
 
 import com.jw.backend.dto.ChampionStatsDto;
-import com.jw.backend.dto.LpSnapshotDto;
+import com.jw.backend.dto.LpSeriesDto;
 import com.jw.backend.dto.MatchTrendPointDto;
 import com.jw.backend.security.JwtUtil;
 import com.jw.backend.service.LpTrackingService;
@@ -86,7 +86,7 @@ class TrendsControllerTest {
         List<MatchTrendPointDto> trends = List.of(
             new MatchTrendPointDto("NA1_123", 1700000000000L, true, 10, 2, 8, 20000, 15000, 200, "Ahri", 420)
         );
-        when(matchHistoryService.getMatchTrends("test-puuid")).thenReturn(trends);
+        when(matchHistoryService.getMatchTrends("test-puuid", null)).thenReturn(trends);
 
         mockMvc.perform(get("/api/trends/matches").param("puuid", "test-puuid"))
             .andExpect(status().isOk())
@@ -94,6 +94,19 @@ class TrendsControllerTest {
             .andExpect(jsonPath("$[0].matchId").value("NA1_123"));
     }
 
+    /** Verify that the before cursor is passed through for paging back in history. */
+    @Test
+    void getMatchTrends_withBefore_passesCursor() throws Exception {
+        when(matchHistoryService.getMatchTrends("test-puuid", 1700000000000L)).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/trends/matches")
+                .param("puuid", "test-puuid")
+                .param("before", "1700000000000"))
+            .andExpect(status().isOk());
+
+        verify(matchHistoryService).getMatchTrends("test-puuid", 1700000000000L);
+    }
+
     /** Verify that a missing puuid for match trends returns HTTP 400. */
     @Test
     void getMatchTrends_missingPuuid_returnsBadRequest() throws Exception {
@@ -101,33 +114,38 @@ class TrendsControllerTest {
             .andExpect(status().isBadRequest());
     }
 
-    /** Verify that LP history defaults to RANKED_SOLO_5x5 queue type. */
+    /** Verify that LP history defaults to RANKED_SOLO_5x5, the whole history and 500 points. */
     @Test
     void getLpHistory_withDefaultQueueType_returnsOk() throws Exception {
-        List<LpSnapshotDto> snapshots = List.of(
-            new LpSnapshotDto("RANKED_SOLO_5x5", "GOLD", "I", 75, 1700000000000L)
-        );
-        when(lpTrackingService.getLpHistory("test-puuid", "RANKED_SOLO_5x5")).thenReturn(snapshots);
+        LpSeriesDto series = new LpSeriesDto("RANKED_SOLO_5x5", 1, new long[]{1700000000000L}, new int[]{75},
+            new String[]{"GOLD"}, new int[]{0}, new String[]{"I"}, new int[]{0});
+        when(lpTrackingService.getLpHistory("test-puuid", "RANKED_SOLO_5x5", null, null, 500)).thenReturn(series);
 
         mockMvc.perform(get("/api/trends/lp").param("puuid", "test-puuid"))
             .andExpect(status().isOk())
-            .andExpect(jsonPath("$.length()").value(1))
-            .andExpect(jsonPath("$[0].tier").value("GOLD"));
+            .andExpect(jsonPath("$.capturedAt.length()").value(1))
+            .andExpect(jsonPath("$.leaguePoints[0]").value(75))
+            .andExpect(jsonPath("$.tiers[0]").value("GOLD"));
 
-        verify(lpTrackingService).getLpHistory("test-puuid", "RANKED_SOLO_5x5");
+        verify(lpTrackingService).getLpHistory("test-puuid", "RANKED_SOLO_5x5", null, null, 500);
     }
 
-    /** Verify that a custom queueType parameter is passed through correctly. */
+    /** Verify that queueType, range and point count parameters are passed through correctly. */
     @Test
-    void getLpHistory_withCustomQueueType_returnsOk() throws Exception {
-        when(lpTrackingService.getLpHistory("test-puuid", "RANKED_FLEX_SR")).thenReturn(List.of());
+    void getLpHistory_withCustomParams_returnsOk() throws Exception {
+        LpSeriesDto empty = new LpSeriesDto("RANKED_FLEX_SR", 0, new long[0], new int[0],
+            new String[0], new int[0], new String[0], new int[0]);
+        when(lpTrackingService.getLpHistory("test-puuid", "RANKED_FLEX_SR", 1000L, 2000L, 50)).thenReturn(empty);
 
         mockMvc.perform(get("/api/trends/lp")
                 .param("puuid", "test-puuid")
-                .param("queueType", "RANKED_FLEX_SR"))
+                .param("queueType", "RANKED_FLEX_SR")
+                .param("from", "1000")
+                .param("to", "2000")
+                .param("points", "50"))
             .andExpect(status().isOk());
 
-        verify(lpTrackingService).getLpHistory("test-puuid", "RANKED_FLEX_SR");
+        verify(lpTrackingService).getLpHistory("test-puuid", "RANKED_FLEX_SR", 1000L, 2000L, 50);
     }
 
     /** Verify that a missing puuid for LP history returns HTTP 400. */
@@ -0,0 +1,95 @@
+package com.jw.backend.config;
+
+import com.jw.backend.repository.TrackedPlayerRepository;
+import com.jw.backend.service.IngestionScheduler;
+import com.jw.backend.service.LpTrackingService;
+import com.jw.backend.service.MatchHistoryService;
+import com.jw.backend.service.MatchIngestionService;
+import com.jw.backend.service.PlayerTrackingService;
+import com.jw.backend.service.RiotApiService;
+import com.jw.backend.service.RiotClusterBudget;
+import com.jw.backend.service.RiotRateLimiter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Run the real ingestion dispatcher on the configured scheduler next to a job that never
+ * returns, and check that dispatch keeps ticking.
+ */
+@SpringJUnitConfig(SchedulingConfigTest.Config.class)
+@TestPropertySource(properties = "ingestion.poll-interval-ms=10")
+class SchedulingConfigTest {
+
+    @Configuration
+    @EnableScheduling
+    @Import(SchedulingConfig.class)
+    static class Config {
+
+        @Bean
+        PlayerTrackingService playerTrackingService() {
+            return mock(PlayerTrackingService.class);
+        }
+
+        @Bean
+        MatchIngestionService matchIngestionService(PlayerTrackingService playerTrackingService) {
+            RiotRateLimiter rateLimiter = new RiotRateLimiter("20:1,100:120", 10_000, 0.85, 0.7, 0.3,
+                    RiotClusterBudget.localOnly());
+            return new MatchIngestionService(mock(TrackedPlayerRepository.class), playerTrackingService,
+                    mock(RiotApiService.class), mock(MatchHistoryService.class), mock(LpTrackingService.class),
+                    mock(IngestionScheduler.class), rateLimiter, 20, 600_000, 250, 16, 100);
+        }
+
+        @Bean
+        StuckJob stuckJob() {
+            return new StuckJob();
+        }
+    }
+
+    /** Stands in for a slow job such as the stats reconcile: its first run never returns. */
+    static class StuckJob {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Scheduled(fixedDelay = 10)
+        void run() throws InterruptedException {
+            started.countDown();
+            release.await();
+        }
+    }
+
+    @Autowired
+    private PlayerTrackingService playerTrackingService;
+
+    @Autowired
+    private StuckJob stuckJob;
+
+    @AfterEach
+    void releaseStuckJob() {
+        stuckJob.release.countDown();
+    }
+
+    @Test
+    void dispatch_keepsRunningWhileAnotherJobBlocks() throws InterruptedException {
+        assertTrue(stuckJob.started.await(5, TimeUnit.SECONDS));
+        clearInvocations(playerTrackingService);
+
+        // Three routing hosts per tick, so this is several ticks after the job got stuck
+        verify(playerTrackingService, timeout(5_000).atLeast(9))
+                .claimDuePlayers(anyCollection(), anyLong(), anyInt(), anyLong());
+    }
+}
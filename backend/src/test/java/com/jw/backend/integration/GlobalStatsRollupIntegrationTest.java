@@ -0,0 +1,115 @@
+/**
+ * @file GlobalStatsRollupIntegrationTest.java
+ * @description Integration tests for the global stats rollups against PostgreSQL.
+ * @module backend.test
+ */
+package com.jw.backend.integration;
+
+import com.jw.backend.entity.MatchRecord;
+import com.jw.backend.repository.ChampionTotals;
+import com.jw.backend.repository.GlobalStatsRollupRepository;
+import com.jw.backend.repository.MatchRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Validate that the match record bulk insert keeps the rollups in step with
+ * {@code match_records}, and that reconciliation recomputes them.
+ */
+class GlobalStatsRollupIntegrationTest extends BaseIntegrationSupport {
+
+    @Autowired
+    private MatchRecordRepository matchRecordRepository;
+
+    @Autowired
+    private GlobalStatsRollupRepository rollupRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void clearRecords() {
+        matchRecordRepository.deleteAll();
+        rollupRepository.reconcile();
+    }
+
+    private static MatchRecord record(String puuid, String matchId, String champion, int queueId, boolean win, int kills) {
+        MatchRecord r = new MatchRecord();
+        r.setPuuid(puuid);
+        r.setMatchId(matchId);
+        r.setRegion("NA");
+        r.setChampionName(champion);
+        r.setKills(kills);
+        r.setDeaths(2);
+        r.setAssists(4);
+        r.setWin(win);
+        r.setQueueId(queueId);
+        r.setTotalMinionsKilled(100);
+        r.setNeutralMinionsKilled(20);
+        r.setTotalDamageDealtToChampions(10000);
+        r.setGoldEarned(9000);
+        return r;
+    }
+
+    /** Verify that inserts add to the rollups and replays add nothing. */
+    @Test
+    void insert_updatesRollupsIncrementally() {
+        matchRecordRepository.insertIgnoringDuplicates(List.of(
+                record("a", "NA1_1", "Ahri", 420, true, 5),
+                record("b", "NA1_1", "Zed", 420, false, 3),
+                record("a", "NA1_2", "Ahri", 450, false, 7)));
+        // A replay plus one new player in a known match
+        matchRecordRepository.insertIgnoringDuplicates(List.of(
+                record("a", "NA1_1", "Ahri", 420, true, 5),
+                record("c", "NA1_1", "Lux", 420, true, 1)));
+
+        assertEquals(2, rollupRepository.matches(null));
+        assertEquals(1, rollupRepository.matches(420));
+        assertEquals(3, rollupRepository.players());
+        assertEquals(3, rollupRepository.champions());
+
+        ChampionTotals ahri = rollupRepository.championTotals(null).get(0);
+        assertEquals(new ChampionTotals("Ahri", 2, 1, 12, 4, 8, 240, 20000, 18000), ahri);
+        assertEquals(1, rollupRepository.championTotals(420).get(0).games());
+    }
+
+    /** Verify that reconciliation repairs rollups that drifted from match_records. */
+    @Test
+    void reconcile_recomputesFromMatchRecords() {
+        matchRecordRepository.insertIgnoringDuplicates(List.of(
+                record("a", "NA1_1", "Ahri", 420, true, 5),
+                record("b", "NA1_1", "Zed", 420, false, 3)));
+        jdbcTemplate.update("UPDATE queue_stats SET matches = 7");
+        jdbcTemplate.update("UPDATE champion_stats SET games = 99 WHERE champion_name = 'Zed'");
+
+        assertTrue(rollupRepository.reconcile());
+
+        assertEquals(1, rollupRepository.matches(null));
+        assertEquals(2, rollupRepository.players());
+        assertEquals(1, rollupRepository.championTotals(420).stream()
+                .filter(c -> c.championName().equals("Zed")).findFirst().orElseThrow().games());
+    }
+
+    /** Verify that reconcile zeroes rollups for records that no longer exist and fills in missing ones. */
+    @Test
+    void reconcile_correctsDriftInBothDirections() {
+        matchRecordRepository.insertIgnoringDuplicates(List.of(record("a", "NA1_1", "Ahri", 420, true, 5)));
+        jdbcTemplate.update("INSERT INTO champion_stats (champion_name, queue_id, games, wins) VALUES ('Lux', 450, 3, 1)");
+        jdbcTemplate.update("DELETE FROM queue_stats");
+        jdbcTemplate.update("UPDATE stats_counters SET value = 0 WHERE name = 'players'");
+
+        assertTrue(rollupRepository.reconcile());
+
+        assertEquals(List.of("Ahri"), rollupRepository.championTotals(null).stream()
+                .map(ChampionTotals::championName).toList());
+        assertEquals(1, rollupRepository.matches(420));
+        assertEquals(1, rollupRepository.players());
+        assertEquals(1, rollupRepository.champions());
+    }
+}
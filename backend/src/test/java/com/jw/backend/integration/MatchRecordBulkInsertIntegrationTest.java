@@ -0,0 +1,119 @@
+/**
+ * @file MatchRecordBulkInsertIntegrationTest.java
+ * @description Integration tests for the bulk match record insert against PostgreSQL.
+ * @module backend.test
+ */
+package com.jw.backend.integration;
+
+import com.jw.backend.entity.MatchRecord;
+import com.jw.backend.repository.MatchRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Validate that {@link MatchRecordRepository#insertIgnoringDuplicates} writes every
+ * column and skips rows that conflict on (puuid, match_id).
+ */
+class MatchRecordBulkInsertIntegrationTest extends BaseIntegrationSupport {
+
+    @Autowired
+    private MatchRecordRepository matchRecordRepository;
+
+    @BeforeEach
+    void clearRecords() {
+        matchRecordRepository.deleteAll();
+    }
+
+    private static MatchRecord record(String puuid, String matchId, int kills) {
+        MatchRecord r = new MatchRecord();
+        r.setPuuid(puuid);
+        r.setMatchId(matchId);
+        r.setRegion("EUW");
+        r.setChampionName("Ahri");
+        r.setKills(kills);
+        r.setDeaths(2);
+        r.setAssists(8);
+        r.setWin(true);
+        r.setGameDurationSec(1800);
+        r.setGameEndTimestamp(1_700_000_000_000L + kills);
+        r.setQueueId(420);
+        r.setTotalDamageDealtToChampions(15000);
+        r.setGoldEarned(12000);
+        r.setTotalMinionsKilled(150);
+        r.setNeutralMinionsKilled(30);
+        r.setPlacement(0);
+        r.setTeamTotalKills(30);
+        return r;
+    }
+
+    /** Verify that all columns round-trip and the database assigns ids. */
+    @Test
+    void insertIgnoringDuplicates_writesAllColumns() {
+        int inserted = matchRecordRepository.insertIgnoringDuplicates(List.of(record("p1", "EUW1_1", 10)));
+
+        assertEquals(1, inserted);
+        MatchRecord stored = matchRecordRepository.findByPuuidOrderByGameEndTimestampDesc("p1").get(0);
+        assertNotNull(stored.getId());
+        assertEquals("EUW1_1", stored.getMatchId());
+        assertEquals("EUW", stored.getRegion());
+        assertEquals("Ahri", stored.getChampionName());
+        assertEquals(10, stored.getKills());
+        assertTrue(stored.isWin());
+        assertEquals(1800, stored.getGameDurationSec());
+        assertEquals(1_700_000_000_010L, stored.getGameEndTimestamp());
+        assertEquals(30, stored.getNeutralMinionsKilled());
+        assertEquals(30, stored.getTeamTotalKills());
+    }
+
+    /** Verify that rows are inserted in (puuid, match_id) order whatever order they are passed in. */
+    @Test
+    void insertIgnoringDuplicates_insertsInKeyOrder() {
+        matchRecordRepository.insertIgnoringDuplicates(List.of(
+                record("p2", "EUW1_1", 1),
+                record("p1", "EUW1_2", 2),
+                record("p1", "EUW1_1", 3)));
+
+        List<MatchRecord> byId = new ArrayList<>(matchRecordRepository.findAll());
+        byId.sort(Comparator.comparing(MatchRecord::getId));
+        assertEquals(List.of("p1/EUW1_1", "p1/EUW1_2", "p2/EUW1_1"),
+                byId.stream().map(r -> r.getPuuid() + "/" + r.getMatchId()).toList());
+    }
+
+    /** Verify that rows already stored, or repeated within the batch, are skipped. */
+    @Test
+    void insertIgnoringDuplicates_skipsConflicts() {
+        matchRecordRepository.insertIgnoringDuplicates(List.of(record("p1", "EUW1_1", 10)));
+
+        int inserted = matchRecordRepository.insertIgnoringDuplicates(List.of(
+                record("p1", "EUW1_1", 99),
+                record("p1", "EUW1_2", 5),
+                record("p1", "EUW1_2", 6),
+                record("p2", "EUW1_1", 7)));
+
+        assertEquals(2, inserted);
+        assertEquals(3, matchRecordRepository.count());
+        // The original row is kept, not overwritten
+        assertEquals(10, matchRecordRepository.findByPuuidOrderByGameEndTimestampDesc("p1").stream()
+                .filter(r -> r.getMatchId().equals("EUW1_1")).findFirst().orElseThrow().getKills());
+    }
+
+    /** Verify that a large batch goes through as one statement. */
+    @Test
+    void insertIgnoringDuplicates_largeBatch() {
+        List<MatchRecord> records = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            records.add(record("p1", "EUW1_" + i, i % 20));
+        }
+
+        assertEquals(5000, matchRecordRepository.insertIgnoringDuplicates(records));
+        assertEquals(0, matchRecordRepository.insertIgnoringDuplicates(List.of()));
+        assertEquals(5000, matchRecordRepository.count());
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * @file PlayerStatsRollupIntegrationTest.java
+ * @description Integration tests for the per-player stats rollup and trend queries against PostgreSQL.
+ * @module backend.test
+ */
+package com.jw.backend.integration;
+
+import com.jw.backend.dto.MatchTrendPointDto;
+import com.jw.backend.entity.MatchRecord;
+import com.jw.backend.repository.ChampionTotals;
+import com.jw.backend.repository.MatchRecordRepository;
+import com.jw.backend.repository.PlayerStatsRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Validate that the match record bulk insert keeps each player's champion rollup in
+ * step with {@code match_records}, and that recent-game totals and trend pages are
+ * read correctly from the database.
+ */
+class PlayerStatsRollupIntegrationTest extends BaseIntegrationSupport {
+
+    @Autowired
+    private MatchRecordRepository matchRecordRepository;
+
+    @Autowired
+    private PlayerStatsRollupRepository playerStatsRollupRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void clearRecords() {
+        matchRecordRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM player_champion_stats");
+    }
+
+    private static MatchRecord record(String puuid, String matchId, String champion, int queueId, boolean win,
+                                      int kills, long endTimestamp) {
+        MatchRecord r = new MatchRecord();
+        r.setPuuid(puuid);
+        r.setMatchId(matchId);
+        r.setRegion("NA");
+        r.setChampionName(champion);
+        r.setKills(kills);
+        r.setDeaths(2);
+        r.setAssists(4);
+        r.setWin(win);
+        r.setGameEndTimestamp(endTimestamp);
+        r.setQueueId(queueId);
+        r.setTotalMinionsKilled(100);
+        r.setNeutralMinionsKilled(20);
+        r.setTotalDamageDealtToChampions(10000);
+        r.setGoldEarned(9000);
+        return r;
+    }
+
+    /** Verify that inserts add to the player's rollup and replays add nothing. */
+    @Test
+    void insert_updatesPlayerRollup() {
+        matchRecordRepository.insertIgnoringDuplicates(List.of(
+                record("a", "NA1_1", "Ahri", 420, true, 5, 1000L),
+                record("b", "NA1_1", "Zed", 420, false, 3, 1000L),
+                record("a", "NA1_2", "Ahri", 450, false, 7, 2000L),
+                record("a", "NA1_3", "Lux", 420, true, 1, 3000L)));
+        matchRecordRepository.insertIgnoringDuplicates(List.of(
+                record("a", "NA1_1", "Ahri", 420, true, 5, 1000L)));
+
+        List<ChampionTotals> all = playerStatsRollupRepository.championTotals("a", null);
+        assertEquals(List.of(
+                new ChampionTotals("Ahri", 2, 1, 12, 4, 8, 240, 20000, 18000),
+                new ChampionTotals("Lux", 1, 1, 1, 2, 4, 120, 10000, 9000)), all);
+        assertEquals(List.of("Ahri", "Lux"), playerStatsRollupRepository.championTotals("a", 420).stream()
+                .map(ChampionTotals::championName).toList());
+        assertEquals("Zed", playerStatsRollupRepository.championTotals("b", null).get(0).championName());
+    }
+
+    /** Verify that recent totals cover only the newest games in the requested queue. */
+    @Test
+    void recentChampionTotals_sumsNewestGames() {
+        matchRecordRepository.insertIgnoringDuplicates(List.of(
+                record("a", "NA1_1", "Ahri", 420, true, 5, 1000L),
+                record("a", "NA1_2", "Ahri", 450, false, 7, 2000L),
+                record("a", "NA1_3", "Lux", 420, true, 1, 3000L)));
+
+        assertEquals(List.of(new ChampionTotals("Lux", 1, 1, 1, 2, 4, 120, 10000, 9000)),
+                playerStatsRollupRepository.recentChampionTotals("a", 420, 1));
+        List<ChampionTotals> lastTwo = playerStatsRollupRepository.recentChampionTotals("a", null, 2);
+        assertEquals(List.of("Ahri", "Lux"), lastTwo.stream().map(ChampionTotals::championName).toList());
+        assertEquals(7, lastTwo.get(0).kills());
+    }
+
+    /** Verify that trend points are projected newest first and paged by end timestamp. */
+    @Test
+    void findTrendPoints_pagesByTimestamp() {
+        matchRecordRepository.insertIgnoringDuplicates(List.of(
+                record("a", "NA1_1", "Ahri", 420, true, 5, 1000L),
+                record("a", "NA1_2", "Ahri", 450, false, 7, 2000L),
+                record("a", "NA1_3", "Lux", 420, true, 1, 3000L)));
+
+        List<MatchTrendPointDto> latest = matchRecordRepository.findTrendPoints("a", Long.MAX_VALUE,
+                PageRequest.of(0, 2));
+        assertEquals(List.of("NA1_3", "NA1_2"), latest.stream().map(MatchTrendPointDto::matchId).toList());
+        assertEquals(120, latest.get(0).cs());
+
+        List<MatchTrendPointDto> older = matchRecordRepository.findTrendPoints("a",
+                latest.get(1).gameEndTimestamp(), PageRequest.of(0, 2));
+        assertEquals(List.of("NA1_1"), older.stream().map(MatchTrendPointDto::matchId).toList());
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ * @file TrackedPlayerUpsertIntegrationTest.java
+ * @description Integration tests for the batched tracked player upsert against PostgreSQL.
+ * @module backend.test
+ */
+package com.jw.backend.integration;
+
+import com.jw.backend.entity.TrackedPlayer;
+import com.jw.backend.repository.TrackedPlayerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Validate that {@link TrackedPlayerRepository#upsertSearched} inserts new players and
+ * refreshes the search fields of tracked ones without touching their ingestion state or
+ * a running lease, and that recording an ingest leaves the search fields alone.
+ */
+class TrackedPlayerUpsertIntegrationTest extends BaseIntegrationSupport {
+
+    @Autowired
+    private TrackedPlayerRepository trackedPlayerRepository;
+
+    @BeforeEach
+    void clearPlayers() {
+        trackedPlayerRepository.deleteAll();
+    }
+
+    private static TrackedPlayer searched(String puuid, String region, String gameName, long at) {
+        TrackedPlayer p = new TrackedPlayer();
+        p.setPuuid(puuid);
+        p.setRegion(region);
+        p.setGameName(gameName);
+        p.setTagLine("NA1");
+        p.setLastSearchedAt(at);
+        p.setNextIngestAt(at);
+        return p;
+    }
+
+    /** Verify that new players are inserted as enabled with default ingestion state. */
+    @Test
+    void upsertSearched_insertsNewPlayers() {
+        trackedPlayerRepository.upsertSearched(List.of(
+                searched("a", "NA", "Alpha", 1_000L),
+                searched("b", "KR", "Beta", 1_000L)));
+
+        TrackedPlayer a = trackedPlayerRepository.findByPuuid("a").orElseThrow();
+        assertEquals("NA", a.getRegion());
+        assertEquals("Alpha", a.getGameName());
+        assertEquals(1_000L, a.getNextIngestAt());
+        assertTrue(a.isEnabled());
+        assertEquals(0L, a.getLastIngestedAt());
+        assertEquals(2, trackedPlayerRepository.count());
+    }
+
+    /** Verify that a repeat search updates the Riot ID and due time but keeps ingestion progress. */
+    @Test
+    void upsertSearched_updatesTrackedPlayer() {
+        TrackedPlayer existing = searched("a", "EUW", "OldName", 1_000L);
+        existing.setNextIngestAt(60_000L);
+        existing.setLastIngestedAt(500L);
+        existing.setLastMatchId("EUW1_9");
+        existing.setIdlePolls(3);
+        trackedPlayerRepository.save(existing);
+
+        trackedPlayerRepository.upsertSearched(List.of(searched("a", "NA", "NewName", 2_000L)));
+
+        TrackedPlayer a = trackedPlayerRepository.findByPuuid("a").orElseThrow();
+        assertEquals("NA", a.getRegion());
+        assertEquals("NewName", a.getGameName());
+        assertEquals(2_000L, a.getLastSearchedAt());
+        assertEquals(2_000L, a.getNextIngestAt());
+        assertEquals(500L, a.getLastIngestedAt());
+        assertEquals("EUW1_9", a.getLastMatchId());
+        assertEquals(3, a.getIdlePolls());
+        assertEquals(1, trackedPlayerRepository.count());
+    }
+
+    /** Verify that a search never pushes back a player who is already overdue. */
+    @Test
+    void upsertSearched_overduePlayer_keepsEarlierDueTime() {
+        trackedPlayerRepository.save(searched("a", "NA", "Alpha", 1_000L));
+
+        trackedPlayerRepository.upsertSearched(List.of(searched("a", "NA", "Alpha", 2_000L)));
+
+        assertEquals(1_000L, trackedPlayerRepository.findByPuuid("a").orElseThrow().getNextIngestAt());
+    }
+
+    /** Verify that a search leaves a running lease alone, so no second worker claims the player. */
+    @Test
+    void upsertSearched_activeLease_keepsLease() {
+        TrackedPlayer leased = searched("a", "NA", "OldName", 1_000L);
+        leased.setNextIngestAt(61_000L);
+        leased.setLeasedUntil(61_000L);
+        trackedPlayerRepository.save(leased);
+
+        trackedPlayerRepository.upsertSearched(List.of(searched("a", "NA", "NewName", 2_000L)));
+
+        TrackedPlayer a = trackedPlayerRepository.findByPuuid("a").orElseThrow();
+        assertEquals(61_000L, a.getNextIngestAt());
+        assertEquals("NewName", a.getGameName());
+    }
+
+    /** Verify that a lease which ran out (its worker died) no longer holds back a search. */
+    @Test
+    void upsertSearched_expiredLease_bumpsDueTime() {
+        TrackedPlayer player = searched("a", "NA", "Alpha", 1_000L);
+        player.setNextIngestAt(900_000L);
+        player.setLeasedUntil(61_000L);
+        trackedPlayerRepository.save(player);
+
+        trackedPlayerRepository.upsertSearched(List.of(searched("a", "NA", "Alpha", 62_000L)));
+
+        assertEquals(62_000L, trackedPlayerRepository.findByPuuid("a").orElseThrow().getNextIngestAt());
+    }
+
+    /** Verify that recording an ingest keeps the Riot ID a search wrote during the lease. */
+    @Test
+    void recordIngest_keepsSearchedFieldsAndReleasesLease() {
+        TrackedPlayer leased = searched("a", "NA", "OldName", 1_000L);
+        leased.setNextIngestAt(61_000L);
+        leased.setLeasedUntil(61_000L);
+        trackedPlayerRepository.save(leased);
+        trackedPlayerRepository.upsertSearched(List.of(searched("a", "NA", "NewName", 2_000L)));
+
+        trackedPlayerRepository.recordIngest("a", "NA1_7", 1_500L, 0, 3_000L, 120_000L);
+
+        TrackedPlayer a = trackedPlayerRepository.findByPuuid("a").orElseThrow();
+        assertEquals("NewName", a.getGameName());
+        assertEquals(2_000L, a.getLastSearchedAt());
+        assertEquals("NA1_7", a.getLastMatchId());
+        assertEquals(1_500L, a.getLastMatchEndAt());
+        assertEquals(3_000L, a.getLastIngestedAt());
+        assertEquals(120_000L, a.getNextIngestAt());
+        assertEquals(0L, a.getLeasedUntil());
+    }
+}
@@ -2,14 +2,14 @@ package com.jw.backend.service;
 
 import com.jw.backend.dto.GlobalChampionStatsDto;
 import com.jw.backend.dto.GlobalOverviewDto;
-import com.jw.backend.repository.MatchRecordRepository;
+import com.jw.backend.repository.ChampionTotals;
+import com.jw.backend.repository.GlobalStatsRollupRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -19,61 +19,56 @@ import static org.mockito.Mockito.*;
 class GlobalStatsServiceTest {
 
     @Mock
-    private MatchRecordRepository matchRecordRepository;
+    private GlobalStatsRollupRepository rollupRepository;
 
     private GlobalStatsService globalStatsService;
 
     @BeforeEach
     void setUp() {
-        globalStatsService = new GlobalStatsService(matchRecordRepository);
-    }
-
-    private List<Object[]> rowList(Object[]... rows) {
-        List<Object[]> list = new ArrayList<>();
-        for (Object[] row : rows) {
-            list.add(row);
-        }
-        return list;
+        globalStatsService = new GlobalStatsService(rollupRepository);
     }
 
     @Test
     void getGlobalChampionStats_computesWinRateAndPickRate() {
-        Object[] ahriRow = new Object[]{"Ahri", 40L, 24L, 5.5, 3.0, 8.0, 180.0, 15000.0, 11000.0};
-        when(matchRecordRepository.aggregateChampionStats(null)).thenReturn(rowList(ahriRow));
-        when(matchRecordRepository.countDistinctMatches(null)).thenReturn(200L);
+        ChampionTotals ahri = new ChampionTotals("Ahri", 40, 24, 220, 120, 320, 7200, 600_000, 440_000);
+        when(rollupRepository.championTotals(null)).thenReturn(List.of(ahri));
+        when(rollupRepository.matches(null)).thenReturn(200L);
 
         List<GlobalChampionStatsDto> result = globalStatsService.getGlobalChampionStats(null);
 
         assertEquals(1, result.size());
-        GlobalChampionStatsDto ahri = result.get(0);
-        assertEquals("Ahri", ahri.championName());
-        assertEquals(40, ahri.games());
-        assertEquals(24, ahri.wins());
-        assertEquals(60.0, ahri.winRate());
-        assertEquals(20.0, ahri.pickRate());  // 40/200 * 100
-        assertEquals(5.5, ahri.avgKills());
-        assertEquals(3.0, ahri.avgDeaths());
-        assertEquals(8.0, ahri.avgAssists());
-        assertEquals(4.5, ahri.avgKda());     // (5.5 + 8.0) / 3.0
+        GlobalChampionStatsDto dto = result.get(0);
+        assertEquals("Ahri", dto.championName());
+        assertEquals(40, dto.games());
+        assertEquals(24, dto.wins());
+        assertEquals(60.0, dto.winRate());
+        assertEquals(20.0, dto.pickRate());  // 40/200 * 100
+        assertEquals(5.5, dto.avgKills());
+        assertEquals(3.0, dto.avgDeaths());
+        assertEquals(8.0, dto.avgAssists());
+        assertEquals(4.5, dto.avgKda());     // (5.5 + 8.0) / 3.0
+        assertEquals(180.0, dto.avgCs());
+        assertEquals(15000.0, dto.avgDamage());
+        assertEquals(11000.0, dto.avgGold());
     }
 
     @Test
     void getGlobalChampionStats_withQueueFilter_passesFilterToRepo() {
-        when(matchRecordRepository.aggregateChampionStats(420)).thenReturn(List.of());
-        when(matchRecordRepository.countDistinctMatches(420)).thenReturn(0L);
+        when(rollupRepository.championTotals(420)).thenReturn(List.of());
+        when(rollupRepository.matches(420)).thenReturn(0L);
 
         List<GlobalChampionStatsDto> result = globalStatsService.getGlobalChampionStats(420);
 
         assertTrue(result.isEmpty());
-        verify(matchRecordRepository).aggregateChampionStats(420);
-        verify(matchRecordRepository).countDistinctMatches(420);
+        verify(rollupRepository).championTotals(420);
+        verify(rollupRepository).matches(420);
     }
 
     @Test
     void getGlobalChampionStats_zeroDeaths_returnsKillsPlusAssists() {
-        Object[] row = new Object[]{"Yuumi", 10L, 8L, 2.0, 0.0, 15.0, 20.0, 5000.0, 8000.0};
-        when(matchRecordRepository.aggregateChampionStats(null)).thenReturn(rowList(row));
-        when(matchRecordRepository.countDistinctMatches(null)).thenReturn(100L);
+        ChampionTotals yuumi = new ChampionTotals("Yuumi", 10, 8, 20, 0, 150, 200, 50_000, 80_000);
+        when(rollupRepository.championTotals(null)).thenReturn(List.of(yuumi));
+        when(rollupRepository.matches(null)).thenReturn(100L);
 
         List<GlobalChampionStatsDto> result = globalStatsService.getGlobalChampionStats(null);
 
@@ -82,9 +77,9 @@ class GlobalStatsServiceTest {
 
     @Test
     void getGlobalChampionStats_zeroTotalMatches_pickRateIsZero() {
-        Object[] row = new Object[]{"Aatrox", 5L, 3L, 6.0, 4.0, 5.0, 190.0, 20000.0, 13000.0};
-        when(matchRecordRepository.aggregateChampionStats(null)).thenReturn(rowList(row));
-        when(matchRecordRepository.countDistinctMatches(null)).thenReturn(0L);
+        ChampionTotals aatrox = new ChampionTotals("Aatrox", 5, 3, 30, 20, 25, 950, 100_000, 65_000);
+        when(rollupRepository.championTotals(null)).thenReturn(List.of(aatrox));
+        when(rollupRepository.matches(null)).thenReturn(0L);
 
         List<GlobalChampionStatsDto> result = globalStatsService.getGlobalChampionStats(null);
 
@@ -93,11 +88,11 @@ class GlobalStatsServiceTest {
 
     @Test
     void getGlobalChampionStats_multipleChampions_returnedInOrder() {
-        Object[] row1 = new Object[]{"Ahri", 50L, 30L, 5.0, 3.0, 7.0, 170.0, 14000.0, 10000.0};
-        Object[] row2 = new Object[]{"Zed", 30L, 18L, 9.0, 4.0, 3.0, 210.0, 22000.0, 13000.0};
-        Object[] row3 = new Object[]{"Lux", 20L, 10L, 3.0, 2.5, 12.0, 160.0, 16000.0, 9000.0};
-        when(matchRecordRepository.aggregateChampionStats(null)).thenReturn(rowList(row1, row2, row3));
-        when(matchRecordRepository.countDistinctMatches(null)).thenReturn(100L);
+        when(rollupRepository.championTotals(null)).thenReturn(List.of(
+                new ChampionTotals("Ahri", 50, 30, 250, 150, 350, 8500, 700_000, 500_000),
+                new ChampionTotals("Zed", 30, 18, 270, 120, 90, 6300, 660_000, 390_000),
+                new ChampionTotals("Lux", 20, 10, 60, 50, 240, 3200, 320_000, 180_000)));
+        when(rollupRepository.matches(null)).thenReturn(100L);
 
         List<GlobalChampionStatsDto> result = globalStatsService.getGlobalChampionStats(null);
 
@@ -109,9 +104,9 @@ class GlobalStatsServiceTest {
 
     @Test
     void getOverviewStats_returnsTotals() {
-        when(matchRecordRepository.countDistinctMatches(null)).thenReturn(500L);
-        when(matchRecordRepository.countDistinctPlayers()).thenReturn(15L);
-        when(matchRecordRepository.countDistinctChampions()).thenReturn(90L);
+        when(rollupRepository.matches(null)).thenReturn(500L);
+        when(rollupRepository.players()).thenReturn(15L);
+        when(rollupRepository.champions()).thenReturn(90L);
 
         GlobalOverviewDto overview = globalStatsService.getOverviewStats();
 
@@ -119,4 +114,11 @@ class GlobalStatsServiceTest {
         assertEquals(15, overview.totalPlayers());
         assertEquals(90, overview.totalChampions());
     }
+
+    @Test
+    void reconcile_failureIsLoggedNotThrown() {
+        when(rollupRepository.reconcile()).thenThrow(new RuntimeException("db down"));
+
+        assertDoesNotThrow(() -> globalStatsService.reconcile());
+    }
 }
@@ -0,0 +1,95 @@
+package com.jw.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryUserRateLimitStoreTest {
+
+    private static final UserRateLimitStore.Policy POLICY = new UserRateLimitStore.Policy("free", 3, 1000);
+
+    private AtomicLong now;
+    private InMemoryUserRateLimitStore store;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(1_000_000);
+        store = new InMemoryUserRateLimitStore(now::get);
+    }
+
+    @Test
+    void tryAcquire_slidesWindowOneAdmissionAtATime() {
+        assertTrue(store.tryAcquire(POLICY, "u"));
+        now.addAndGet(400);
+        assertTrue(store.tryAcquire(POLICY, "u"));
+        assertTrue(store.tryAcquire(POLICY, "u"));
+        assertFalse(store.tryAcquire(POLICY, "u"));
+
+        // The first admission leaves the window; the other two are still inside it.
+        now.addAndGet(600);
+        assertTrue(store.tryAcquire(POLICY, "u"));
+        assertFalse(store.tryAcquire(POLICY, "u"));
+    }
+
+    @Test
+    void tryAcquire_rejectionsAreNotRecorded() {
+        for (int i = 0; i < 3; i++) store.tryAcquire(POLICY, "u");
+        for (int i = 0; i < 10; i++) store.tryAcquire(POLICY, "u");
+
+        now.addAndGet(1000);
+        assertTrue(store.tryAcquire(POLICY, "u"));
+    }
+
+    @Test
+    void tryAcquire_policiesAreIndependent() {
+        UserRateLimitStore.Policy other = new UserRateLimitStore.Policy("ai", 1, 1000);
+        for (int i = 0; i < 3; i++) store.tryAcquire(POLICY, "u");
+
+        assertTrue(store.tryAcquire(other, "u"));
+        assertFalse(store.tryAcquire(other, "u"));
+    }
+
+    @Test
+    void evictStale_dropsOnlyExpiredKeys() {
+        store.tryAcquire(POLICY, "old");
+        now.addAndGet(500);
+        store.tryAcquire(POLICY, "recent");
+        now.addAndGet(500);
+
+        store.evictStale();
+
+        assertEquals(1, store.size(POLICY));
+    }
+
+    @Test
+    void tryAcquire_neverAdmitsMoreThanLimitUnderContention() throws Exception {
+        UserRateLimitStore.Policy policy = new UserRateLimitStore.Policy("free", 50, 60_000);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Integer>> tasks = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                tasks.add(() -> {
+                    int admitted = 0;
+                    for (int i = 0; i < 1000; i++) {
+                        if (store.tryAcquire(policy, "hot")) admitted++;
+                    }
+                    return admitted;
+                });
+            }
+            int total = 0;
+            for (Future<Integer> f : pool.invokeAll(tasks)) total += f.get();
+            assertEquals(50, total);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.jw.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jw.backend.entity.TrackedPlayer;
+import com.jw.backend.region.RiotRegion;
+import com.jw.backend.repository.MatchRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IngestionSchedulerTest {
+
+    private static final long MINUTE = 60_000;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long DAY = 24 * HOUR;
+    private static final long WEEK = 7 * DAY;
+    // A Monday, 10:20 UTC
+    private static final long NOW = 1_700_475_600_000L;
+
+    @Mock private MatchRecordRepository matchRecordRepository;
+    @Mock private RiotApiService riotApiService;
+
+    private IngestionScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new IngestionScheduler(matchRecordRepository, riotApiService, new ObjectMapper());
+    }
+
+    private TrackedPlayer player(long lastSearchedAt, long lastMatchEndAt, int idlePolls) {
+        TrackedPlayer player = new TrackedPlayer();
+        player.setPuuid("p1");
+        player.setRegion("NA");
+        player.setLastSearchedAt(lastSearchedAt);
+        player.setLastMatchEndAt(lastMatchEndAt);
+        player.setIdlePolls(idlePolls);
+        return player;
+    }
+
+    private void history(List<Object[]> rows) {
+        when(matchRecordRepository.findRecentActivity(eq("p1"), any(Pageable.class))).thenReturn(rows);
+    }
+
+    @Test
+    void freshnessTarget_followsSearchRecency() {
+        assertEquals(2 * MINUTE, IngestionScheduler.freshnessTarget(NOW - 10 * MINUTE, NOW));
+        assertEquals(15 * MINUTE, IngestionScheduler.freshnessTarget(NOW - 3 * HOUR, NOW));
+        assertEquals(HOUR, IngestionScheduler.freshnessTarget(NOW - 2 * DAY, NOW));
+        assertEquals(6 * HOUR, IngestionScheduler.freshnessTarget(NOW - 10 * DAY, NOW));
+        assertEquals(DAY, IngestionScheduler.freshnessTarget(NOW - 60 * DAY, NOW));
+    }
+
+    @Test
+    void inSession_notInGame_pollsAtTarget() {
+        history(List.of());
+        TrackedPlayer player = player(NOW, NOW - 10 * MINUTE, 3);
+
+        assertEquals(NOW + 2 * MINUTE, scheduler.nextIngestAt(player, true, NOW));
+        assertEquals(0, player.getIdlePolls());
+        assertEquals(1, scheduler.stats().liveChecks());
+        assertEquals(0, scheduler.stats().liveGames());
+    }
+
+    @Test
+    void inLiveGame_pollsJustAfterExpectedEnd() {
+        history(List.<Object[]>of(new Object[]{NOW - 40 * MINUTE, 1500L}));
+        long startedAt = NOW - 5 * MINUTE;
+        when(riotApiService.getActiveGame("p1", RiotRegion.NA))
+                .thenReturn("{\"gameStartTime\":" + startedAt + ",\"gameLength\":300}");
+        TrackedPlayer player = player(NOW, NOW - 40 * MINUTE, 0);
+
+        // Their games last 25 minutes; Match-v5 has it two minutes after that
+        assertEquals(startedAt + 25 * MINUTE + IngestionScheduler.LIVE_GAME_BUFFER_MS,
+                scheduler.nextIngestAt(player, false, NOW));
+        assertEquals(1, scheduler.stats().liveGames());
+    }
+
+    @Test
+    void longTarget_skipsLiveCheck() {
+        history(List.of());
+        TrackedPlayer player = player(NOW - 2 * DAY, NOW - 10 * MINUTE, 0);
+
+        assertEquals(NOW + HOUR, scheduler.nextIngestAt(player, true, NOW));
+        verifyNoInteractions(riotApiService);
+    }
+
+    @Test
+    void idlePlayer_backsOffExponentially() {
+        history(List.of());
+        TrackedPlayer player = player(NOW, NOW - 10 * DAY, 2);
+
+        // Third empty poll in a row: 2 minutes doubled three times
+        assertEquals(NOW + 16 * MINUTE, scheduler.nextIngestAt(player, false, NOW));
+        assertEquals(3, player.getIdlePolls());
+        assertEquals(1, scheduler.stats().backedOff());
+        verifyNoInteractions(riotApiService);
+    }
+
+    @Test
+    void idlePlayer_backoffIsCapped() {
+        history(List.of());
+        TrackedPlayer player = player(NOW - 60 * DAY, NOW - 60 * DAY, 40);
+
+        assertEquals(NOW + IngestionScheduler.MAX_IDLE_INTERVAL_MS, scheduler.nextIngestAt(player, false, NOW));
+    }
+
+    @Test
+    void idlePlayer_wakesForTheirUsualHour() {
+        // Eight weeks of games ending five hours from now; with neighbour smoothing the
+        // hour before counts as usual too, so the player is woken four hours from now
+        history(weeklyGames(NOW + 5 * HOUR, 8));
+        TrackedPlayer player = player(NOW, NOW - 2 * DAY, 10);
+
+        long nextHourStart = (NOW / HOUR + 4) * HOUR;
+        assertEquals(nextHourStart, scheduler.nextIngestAt(player, false, NOW));
+    }
+
+    @Test
+    void usualHour_pollsAtTargetEvenWhenIdle() {
+        history(weeklyGames(NOW, 8));
+        TrackedPlayer player = player(NOW, NOW - 2 * DAY, 10);
+
+        assertEquals(NOW + 2 * MINUTE, scheduler.nextIngestAt(player, false, NOW));
+        assertEquals(0, scheduler.stats().backedOff());
+    }
+
+    @Test
+    void sparseHistory_hasNoUsualHours() {
+        history(weeklyGames(NOW, IngestionScheduler.MIN_PATTERN_MATCHES - 1));
+        TrackedPlayer player = player(NOW, NOW - 2 * DAY, 0);
+
+        assertEquals(NOW + 4 * MINUTE, scheduler.nextIngestAt(player, false, NOW));
+    }
+
+    @Test
+    void historyFailure_pollsAtTarget() {
+        when(matchRecordRepository.findRecentActivity(eq("p1"), any(Pageable.class)))
+                .thenThrow(new RuntimeException("db down"));
+        TrackedPlayer player = player(NOW, NOW - 10 * DAY, 5);
+
+        assertEquals(NOW + 2 * MINUTE, scheduler.nextIngestAt(player, false, NOW));
+    }
+
+    // Games ending at the same hour of the week for the given number of past weeks, newest first
+    private static List<Object[]> weeklyGames(long at, int weeks) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int w = 1; w <= weeks; w++) {
+            rows.add(new Object[]{at - w * WEEK, 1800L});
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,41 @@
+package com.jw.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LargestTriangleDownsamplerTest {
+
+    @Test
+    void select_keepsEveryPointWhenUnderTarget() {
+        int[] kept = LargestTriangleDownsampler.select(new long[]{1, 2, 3}, new int[]{5, 6, 7}, 10);
+
+        assertArrayEquals(new int[]{0, 1, 2}, kept);
+    }
+
+    @Test
+    void select_keepsEndsAndSpikes() {
+        long[] x = new long[100];
+        int[] y = new int[100];
+        for (int i = 0; i < 100; i++) x[i] = i * 1000L;
+        y[37] = 500;
+        y[71] = -400;
+
+        int[] kept = LargestTriangleDownsampler.select(x, y, 10);
+
+        assertEquals(10, kept.length);
+        assertEquals(0, kept[0]);
+        assertEquals(99, kept[9]);
+        for (int i = 1; i < kept.length; i++) assertTrue(kept[i] > kept[i - 1]);
+        assertTrue(Arrays.stream(kept).anyMatch(i -> i == 37));
+        assertTrue(Arrays.stream(kept).anyMatch(i -> i == 71));
+    }
+
+    @Test
+    void select_rejectsTargetBelowThree() {
+        assertThrows(IllegalArgumentException.class,
+                () -> LargestTriangleDownsampler.select(new long[]{1, 2, 3}, new int[]{1, 2, 3}, 2));
+    }
+}
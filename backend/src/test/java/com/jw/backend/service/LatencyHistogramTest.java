@@ -0,0 +1,38 @@
+package com.jw.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void snapshot_reportsCumulativeBuckets() {
+        LatencyHistogram histogram = new LatencyHistogram(new long[]{0, 10, 100});
+        histogram.record(0);
+        histogram.record(5);
+        histogram.record(10);
+        histogram.record(50);
+        histogram.record(500);
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertArrayEquals(new long[]{1, 3, 4}, snapshot.cumulativeCounts());
+        assertEquals(5, snapshot.count());
+        assertEquals(565, snapshot.totalMs());
+    }
+
+    @Test
+    void quantileUpperBound_findsCoveringBucket() {
+        LatencyHistogram histogram = new LatencyHistogram(new long[]{0, 10, 100});
+        for (int i = 0; i < 98; i++) histogram.record(0);
+        histogram.record(50);
+        histogram.record(1000);
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(0, snapshot.quantileUpperBound(0.5));
+        assertEquals(100, snapshot.quantileUpperBound(0.99));
+        assertEquals(-1, snapshot.quantileUpperBound(1.0));
+    }
+}
@@ -10,8 +10,11 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -22,9 +25,28 @@ class LeaderboardServiceTest {
 
     private LeaderboardService leaderboardService;
 
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    private static final String THREE_PLAYERS = """
+        {
+            "tier": "CHALLENGER",
+            "entries": [
+                {"puuid": "p1", "summonerName": "A", "rank": "I", "leaguePoints": 500, "wins": 10, "losses": 5},
+                {"puuid": "p2", "summonerName": "B", "rank": "I", "leaguePoints": 400, "wins": 10, "losses": 5},
+                {"puuid": "p3", "summonerName": "C", "rank": "I", "leaguePoints": 300, "wins": 10, "losses": 5}
+            ]
+        }
+        """;
+
     @BeforeEach
     void setUp() {
-        leaderboardService = new LeaderboardService(riotApiService, new ObjectMapper());
+        // Refreshes run inline so tests can observe the swapped-in ladder deterministically
+        leaderboardService = new LeaderboardService(riotApiService, new ObjectMapper(),
+                new RiotIoExecutor("virtual", 0, 10, 30_000), Runnable::run, now::get);
+    }
+
+    private static String account(String gameName) {
+        return "{\"gameName\": \"" + gameName + "\", \"tagLine\": \"NA1\"}";
     }
 
     @Test
@@ -177,4 +199,173 @@ class LeaderboardServiceTest {
         assertEquals(1, page1.entries().size());
         assertEquals(300, page1.entries().get(0).leaguePoints());
     }
+
+    @Test
+    void getLeaderboard_servesEveryPageAndSizeFromOneFetch() {
+        when(riotApiService.getLeagueByTier("challenger", "RANKED_SOLO_5x5", RiotRegion.NA)).thenReturn(THREE_PLAYERS);
+
+        leaderboardService.getLeaderboard("challenger", "RANKED_SOLO_5x5", RiotRegion.NA, 0, 2);
+        leaderboardService.getLeaderboard("challenger", "RANKED_SOLO_5x5", RiotRegion.NA, 1, 2);
+        var all = leaderboardService.getLeaderboard("challenger", "RANKED_SOLO_5x5", RiotRegion.NA, 0, 3);
+        var beyond = leaderboardService.getLeaderboard("challenger", "RANKED_SOLO_5x5", RiotRegion.NA, 5, 50);
+
+        assertEquals(3, all.entries().size());
+        assertTrue(beyond.entries().isEmpty());
+        assertEquals(3, beyond.totalEntries());
+        verify(riotApiService, times(1)).getLeagueByTier(anyString(), anyString(), any());
+    }
+
+    @Test
+    void getLeaderboard_resolvesEachNameOnceAcrossPageSizes() {
+        when(riotApiService.getLeagueByTier("challenger", "RANKED_SOLO_5x5", RiotRegion.NA)).thenReturn(THREE_PLAYERS);
+        when(riotApiService.getAccountByPuuid("p1", RiotRegion.NA)).thenReturn(account("First"));
+        when(riotApiService.getAccountByPuuid("p2", RiotRegion.NA)).thenReturn(account("Second"));
+        when(riotApiService.getAccountByPuuid("p3", RiotRegion.NA)).thenReturn(account("Third"));
+
+        leaderboardService.getLeaderboard("challenger", "RANKED_SOLO_5x5", RiotRegion.NA, 0, 2);
+        var all = leaderboardService.getLeaderboard("challenger", "RANKED_SOLO_5x5", RiotRegion.NA, 0, 3);
+
+        assertEquals(List.of("First#NA1", "Second#NA1", "Third#NA1"),
+                all.entries().stream().map(LeaderboardEntryDto::summonerName).toList());
+        verify(riotApiService, times(1)).getAccountByPuuid("p1", RiotRegion.NA);
+        verify(riotApiService, times(1)).getAccountByPuuid("p2", RiotRegion.NA);
+        verify(riotApiService, times(1)).getAccountByPuuid("p3", RiotRegion.NA);
+    }
+
+    @Test
+    void getLeaderboard_failedNameResolution_isRetriedOnNextRequest() {
+        when(riotApiService.getLeagueByTier("challenger", "RANKED_SOLO_5x5", RiotRegion.NA)).thenReturn(THREE_PLAYERS);
+        when(riotApiService.getAccountByPuuid("p1", RiotRegion.NA))
+            .thenThrow(new RuntimeException("rate limited"))
+            .thenReturn(account("First"));
+
+        var first = leaderboardService.getLeaderboard("challenger", "RANKED_SOLO_5x5", RiotRegion.NA, 0, 1);
+        var second = leaderboardService.getLeaderboard("challenger", "RANKED_SOLO_5x5", RiotRegion.NA, 0, 1);
+
+        assertEquals("A", first.entries().get(0).summonerName());
+        assertEquals("First#NA1", second.entries().get(0).summonerName());
+    }
+
+    @Test
+    void getLeaderboard_expiredLadder_isServedThenReplacedKeepingNames() {
+        String updated = """
+            {
+                "tier": "CHALLENGER",
+                "entries": [
+                    {"puuid": "p1", "summonerName": "A", "rank": "I", "leaguePoints": 700, "wins": 12, "losses": 5},
+                    {"puuid": "p4", "summonerName": "D", "rank": "I", "leaguePoints": 600, "wins": 10, "losses": 5}
+                ]
+            }
+            """;
+        when(riotApiService.getLeagueByTier("challenger", "RANKED_SOLO_5x5", RiotRegion.NA))
+            .thenReturn(THREE_PLAYERS)
+            .thenReturn(updated);
+        when(riotApiService.getAccountByPuuid("p1", RiotRegion.NA)).thenReturn(account("First"));
+        when(riotApiService.getAccountByPuuid("p4", RiotRegion.NA)).thenReturn(account("Fourth"));
+
+        leaderboardService.getLeaderboard("challenger", "RANKED_SOLO_5x5", RiotRegion.NA, 0, 1);
+        now.addAndGet(LeaderboardService.LADDER_TTL_MS + 1);
+
+        var stale = leaderboardService.getLeaderboard("challenger", "RANKED_SOLO_5x5", RiotRegion.NA, 0, 1);
+        var fresh = leaderboardService.getLeaderboard("challenger", "RANKED_SOLO_5x5", RiotRegion.NA, 0, 2);
+
+        assertEquals(500, stale.entries().get(0).leaguePoints());
+        assertEquals(2, fresh.totalEntries());
+        assertEquals(700, fresh.entries().get(0).leaguePoints());
+        assertEquals("Fourth#NA1", fresh.entries().get(1).summonerName());
+        verify(riotApiService, times(1)).getAccountByPuuid("p1", RiotRegion.NA);
+    }
+
+    @Test
+    void getLeaderboard_failedRefresh_keepsServingExpiredLadder() {
+        when(riotApiService.getLeagueByTier("challenger", "RANKED_SOLO_5x5", RiotRegion.NA))
+            .thenReturn(THREE_PLAYERS)
+            .thenThrow(new RuntimeException("Riot down"))
+            .thenReturn(THREE_PLAYERS);
+
+        leaderboardService.getLeaderboard("challenger", "RANKED_SOLO_5x5", RiotRegion.NA, 0, 3);
+        now.addAndGet(LeaderboardService.LADDER_TTL_MS + 1);
+
+        var page = leaderboardService.getLeaderboard("challenger", "RANKED_SOLO_5x5", RiotRegion.NA, 0, 3);
+        leaderboardService.getLeaderboard("challenger", "RANKED_SOLO_5x5", RiotRegion.NA, 0, 3);
+
+        assertEquals(3, page.entries().size());
+        verify(riotApiService, times(3)).getLeagueByTier("challenger", "RANKED_SOLO_5x5", RiotRegion.NA);
+    }
+
+    @Test
+    void warm_indexesLadderAndResolvesTopPlayersOnce() {
+        when(riotApiService.getLeagueByTier("challenger", "RANKED_SOLO_5x5", RiotRegion.NA)).thenReturn(THREE_PLAYERS);
+        when(riotApiService.getAccountByPuuid("p1", RiotRegion.NA)).thenReturn(account("First"));
+        when(riotApiService.getAccountByPuuid("p2", RiotRegion.NA)).thenReturn(account("Second"));
+        when(riotApiService.getAccountByPuuid("p3", RiotRegion.NA)).thenReturn(account("Third"));
+
+        assertEquals(2, leaderboardService.warm("challenger", "RANKED_SOLO_5x5", RiotRegion.NA, 2));
+        assertEquals(0, leaderboardService.warm("challenger", "RANKED_SOLO_5x5", RiotRegion.NA, 2));
+        verify(riotApiService, never()).getAccountByPuuid("p3", RiotRegion.NA);
+
+        var page = leaderboardService.getLeaderboard("challenger", "RANKED_SOLO_5x5", RiotRegion.NA, 0, 3);
+
+        assertEquals("Third#NA1", page.entries().get(2).summonerName());
+        verify(riotApiService, times(1)).getLeagueByTier(anyString(), anyString(), any());
+        verify(riotApiService, times(3)).getAccountByPuuid(anyString(), any());
+    }
+
+    @Test
+    void warm_expiredLadder_rebuildsAndResolvesOnlyNewPlayers() {
+        String updated = """
+            {
+                "tier": "CHALLENGER",
+                "entries": [
+                    {"puuid": "p4", "summonerName": "D", "rank": "I", "leaguePoints": 900, "wins": 10, "losses": 5},
+                    {"puuid": "p2", "summonerName": "B", "rank": "I", "leaguePoints": 450, "wins": 11, "losses": 5},
+                    {"puuid": "p1", "summonerName": "A", "rank": "I", "leaguePoints": 420, "wins": 10, "losses": 6}
+                ]
+            }
+            """;
+        when(riotApiService.getLeagueByTier("challenger", "RANKED_SOLO_5x5", RiotRegion.NA))
+            .thenReturn(THREE_PLAYERS)
+            .thenReturn(updated);
+        when(riotApiService.getAccountByPuuid("p1", RiotRegion.NA)).thenReturn(account("First"));
+        when(riotApiService.getAccountByPuuid("p2", RiotRegion.NA)).thenReturn(account("Second"));
+        when(riotApiService.getAccountByPuuid("p3", RiotRegion.NA)).thenReturn(account("Third"));
+        when(riotApiService.getAccountByPuuid("p4", RiotRegion.NA)).thenReturn(account("Fourth"));
+
+        leaderboardService.warm("challenger", "RANKED_SOLO_5x5", RiotRegion.NA, 100);
+        now.addAndGet(LeaderboardService.LADDER_TTL_MS + 1);
+
+        assertEquals(1, leaderboardService.warm("challenger", "RANKED_SOLO_5x5", RiotRegion.NA, 100));
+        var page = leaderboardService.getLeaderboard("challenger", "RANKED_SOLO_5x5", RiotRegion.NA, 0, 3);
+
+        assertEquals(List.of("Fourth#NA1", "Second#NA1", "First#NA1"),
+                page.entries().stream().map(LeaderboardEntryDto::summonerName).toList());
+        verify(riotApiService, times(1)).getAccountByPuuid("p1", RiotRegion.NA);
+        verify(riotApiService, times(1)).getAccountByPuuid("p4", RiotRegion.NA);
+    }
+
+    @Test
+    void warm_rebuiltLadder_skipsReturningPlayersWhoWereNeverNamed() {
+        String updated = """
+            {
+                "tier": "CHALLENGER",
+                "entries": [
+                    {"puuid": "p4", "summonerName": "D", "rank": "I", "leaguePoints": 900, "wins": 10, "losses": 5},
+                    {"puuid": "p2", "summonerName": "B", "rank": "I", "leaguePoints": 450, "wins": 11, "losses": 5},
+                    {"puuid": "p1", "summonerName": "A", "rank": "I", "leaguePoints": 420, "wins": 10, "losses": 6}
+                ]
+            }
+            """;
+        when(riotApiService.getLeagueByTier("challenger", "RANKED_SOLO_5x5", RiotRegion.NA))
+            .thenReturn(THREE_PLAYERS)
+            .thenReturn(updated);
+        when(riotApiService.getAccountByPuuid("p1", RiotRegion.NA)).thenReturn(account("First"));
+        when(riotApiService.getAccountByPuuid("p4", RiotRegion.NA)).thenReturn(account("Fourth"));
+
+        assertEquals(1, leaderboardService.warm("challenger", "RANKED_SOLO_5x5", RiotRegion.NA, 1));
+        now.addAndGet(LeaderboardService.LADDER_TTL_MS + 1);
+
+        assertEquals(1, leaderboardService.warm("challenger", "RANKED_SOLO_5x5", RiotRegion.NA, 100));
+        verify(riotApiService, never()).getAccountByPuuid("p2", RiotRegion.NA);
+        verify(riotApiService, times(1)).getAccountByPuuid("p4", RiotRegion.NA);
+    }
 }
@@ -0,0 +1,74 @@
+package com.jw.backend.service;
+
+import com.jw.backend.region.RiotRegion;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LeaderboardWarmerTest {
+
+    @Mock
+    private LeaderboardService leaderboardService;
+
+    @Test
+    void warmAll_warmsEveryApexLadderOfEveryRegionInWarmupLane() {
+        List<RiotPriority> lanes = new ArrayList<>();
+        when(leaderboardService.warm(anyString(), anyString(), any(RiotRegion.class), anyInt())).thenAnswer(i -> {
+            lanes.add(RiotPriority.current());
+            return 0;
+        });
+
+        new LeaderboardWarmer(leaderboardService, 25, Runnable::run).warmAll();
+
+        for (RiotRegion region : RiotRegion.values()) {
+            for (String tier : LeaderboardWarmer.TIERS) {
+                verify(leaderboardService).warm(tier, "RANKED_SOLO_5x5", region, 25);
+            }
+        }
+        assertEquals(RiotRegion.values().length * 3, lanes.size());
+        assertTrue(lanes.stream().allMatch(lane -> lane == RiotPriority.WARMUP));
+    }
+
+    @Test
+    void warmAll_failingLadder_doesNotStopTheRest() {
+        when(leaderboardService.warm(anyString(), anyString(), any(RiotRegion.class), anyInt())).thenReturn(0);
+        when(leaderboardService.warm(eq("challenger"), anyString(), eq(RiotRegion.NA), anyInt()))
+            .thenThrow(new RuntimeException("Riot down"));
+
+        assertDoesNotThrow(() -> new LeaderboardWarmer(leaderboardService, 25, Runnable::run).warmAll());
+
+        verify(leaderboardService).warm("master", "RANKED_SOLO_5x5", RiotRegion.NA, 25);
+        verify(leaderboardService).warm("challenger", "RANKED_SOLO_5x5", RiotRegion.KR, 25);
+    }
+
+    @Test
+    void warmAll_runsOnItsOwnExecutorAndSkipsWhileARunIsInProgress() {
+        when(leaderboardService.warm(anyString(), anyString(), any(RiotRegion.class), anyInt())).thenReturn(0);
+        List<Runnable> submitted = new ArrayList<>();
+        LeaderboardWarmer warmer = new LeaderboardWarmer(leaderboardService, 25, submitted::add);
+
+        warmer.warmAll();
+        warmer.warmAll();
+
+        assertEquals(1, submitted.size());
+        verifyNoInteractions(leaderboardService);
+
+        submitted.get(0).run();
+        warmer.warmAll();
+
+        assertEquals(2, submitted.size());
+        verify(leaderboardService, times(RiotRegion.values().length * 3))
+            .warm(anyString(), anyString(), any(RiotRegion.class), anyInt());
+    }
+}
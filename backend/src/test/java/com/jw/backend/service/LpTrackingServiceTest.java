@@ -6,7 +6,7 @@
 package com.jw.backend.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.jw.backend.dto.LpSnapshotDto;
+import com.jw.backend.dto.LpSeriesDto;
 import com.jw.backend.entity.LpSnapshot;
 import com.jw.backend.region.RiotRegion;
 import com.jw.backend.repository.LpSnapshotRepository;
@@ -16,6 +16,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -40,10 +41,10 @@ class LpTrackingServiceTest {
 
     @BeforeEach
     void setUp() {
-        service = new LpTrackingService(lpSnapshotRepository, riotApiService, new ObjectMapper());
+        service = new LpTrackingService(lpSnapshotRepository, riotApiService, new ObjectMapper(), 100);
     }
 
-    /** Verify that a new snapshot is saved when no previous data exists. */
+    /** Verify that a new snapshot is written when no previous data exists. */
     @Test
     void captureSnapshot_withNewData_savesSnapshot() {
         String json = """
@@ -54,11 +55,12 @@ class LpTrackingServiceTest {
             .thenReturn(Optional.empty());
 
         service.captureSnapshot("puuid", RiotRegion.NA);
+        service.flush();
 
-        verify(lpSnapshotRepository).save(any(LpSnapshot.class));
+        verify(lpSnapshotRepository).insertAll(argThat(batch -> batch.size() == 1));
     }
 
-    /** Verify that no snapshot is saved when LP data is unchanged. */
+    /** Verify that no snapshot is written when LP data is unchanged. */
     @Test
     void captureSnapshot_withUnchangedData_skipsSave() {
         String json = """
@@ -71,11 +73,12 @@ class LpTrackingServiceTest {
             .thenReturn(Optional.of(existing));
 
         service.captureSnapshot("puuid", RiotRegion.NA);
+        service.flush();
 
-        verify(lpSnapshotRepository, never()).save(any());
+        verify(lpSnapshotRepository, never()).insertAll(any());
     }
 
-    /** Verify that a snapshot is saved when LP value has changed. */
+    /** Verify that a snapshot is written when LP value has changed. */
     @Test
     void captureSnapshot_withChangedLp_savesSnapshot() {
         String json = """
@@ -88,11 +91,12 @@ class LpTrackingServiceTest {
             .thenReturn(Optional.of(existing));
 
         service.captureSnapshot("puuid", RiotRegion.NA);
+        service.flush();
 
-        verify(lpSnapshotRepository).save(any(LpSnapshot.class));
+        verify(lpSnapshotRepository).insertAll(argThat(batch -> batch.size() == 1));
     }
 
-    /** Verify that a snapshot is saved when the tier has changed. */
+    /** Verify that a snapshot is written when the tier has changed. */
     @Test
     void captureSnapshot_withChangedTier_savesSnapshot() {
         String json = """
@@ -105,11 +109,12 @@ class LpTrackingServiceTest {
             .thenReturn(Optional.of(existing));
 
         service.captureSnapshot("puuid", RiotRegion.NA);
+        service.flush();
 
-        verify(lpSnapshotRepository).save(any(LpSnapshot.class));
+        verify(lpSnapshotRepository).insertAll(argThat(batch -> batch.size() == 1));
     }
 
-    /** Verify that entries with an empty tier are skipped without saving. */
+    /** Verify that entries with an empty tier are skipped without writing. */
     @Test
     void captureSnapshot_withEmptyTier_skipsEntry() {
         String json = """
@@ -118,8 +123,9 @@ class LpTrackingServiceTest {
         when(riotApiService.getRankedEntriesByPuuid("puuid", RiotRegion.NA)).thenReturn(json);
 
         service.captureSnapshot("puuid", RiotRegion.NA);
+        service.flush();
 
-        verify(lpSnapshotRepository, never()).save(any());
+        verify(lpSnapshotRepository, never()).insertAll(any());
     }
 
     /** Verify that non-array JSON responses are ignored without error. */
@@ -128,8 +134,9 @@ class LpTrackingServiceTest {
         when(riotApiService.getRankedEntriesByPuuid("puuid", RiotRegion.NA)).thenReturn("{}");
 
         service.captureSnapshot("puuid", RiotRegion.NA);
+        service.flush();
 
-        verify(lpSnapshotRepository, never()).save(any());
+        verify(lpSnapshotRepository, never()).insertAll(any());
     }
 
     /** Verify that API exceptions are caught and do not propagate. */
@@ -140,29 +147,100 @@ class LpTrackingServiceTest {
         assertDoesNotThrow(() -> service.captureSnapshot("puuid", RiotRegion.NA));
     }
 
-    /** Verify that LP history is returned as correctly mapped DTOs. */
+    /** Verify that repeat captures compare against the cached rank and batch their writes. */
     @Test
-    void getLpHistory_returnsSnapshotsAsDtos() {
-        LpSnapshot snap = new LpSnapshot("puuid", "RANKED_SOLO_5x5", "GOLD", "I", 75);
-        when(lpSnapshotRepository.findByPuuidAndQueueTypeOrderByCapturedAtAsc("puuid", "RANKED_SOLO_5x5"))
-            .thenReturn(List.of(snap));
+    void captureSnapshot_afterFirstCapture_usesCachedRank() {
+        String json = """
+            [{"queueType":"RANKED_SOLO_5x5","tier":"GOLD","rank":"I","leaguePoints":75}]
+            """;
+        when(riotApiService.getRankedEntriesByPuuid("puuid", RiotRegion.NA))
+            .thenReturn(json, json, json.replace("75", "95"));
+        when(lpSnapshotRepository.findTopByPuuidAndQueueTypeOrderByCapturedAtDesc("puuid", "RANKED_SOLO_5x5"))
+            .thenReturn(Optional.empty());
+
+        service.captureSnapshot("puuid", RiotRegion.NA);
+        service.captureSnapshot("puuid", RiotRegion.NA);
+        service.captureSnapshot("puuid", RiotRegion.NA);
+        service.flush();
+
+        verify(lpSnapshotRepository, times(1)).findTopByPuuidAndQueueTypeOrderByCapturedAtDesc(any(), any());
+        verify(lpSnapshotRepository).insertAll(argThat(batch ->
+            batch.stream().map(LpSnapshot::getLeaguePoints).toList().equals(List.of(75, 95))));
+    }
+
+    /** Verify that a failed write forgets the rank so the next capture queues it again. */
+    @Test
+    void flush_withWriteFailure_requeuesOnNextCapture() {
+        String json = """
+            [{"queueType":"RANKED_SOLO_5x5","tier":"GOLD","rank":"I","leaguePoints":75}]
+            """;
+        when(riotApiService.getRankedEntriesByPuuid("puuid", RiotRegion.NA)).thenReturn(json);
+        when(lpSnapshotRepository.findTopByPuuidAndQueueTypeOrderByCapturedAtDesc("puuid", "RANKED_SOLO_5x5"))
+            .thenReturn(Optional.empty());
+        doThrow(new RuntimeException("db down")).doNothing().when(lpSnapshotRepository).insertAll(any());
 
-        List<LpSnapshotDto> result = service.getLpHistory("puuid", "RANKED_SOLO_5x5");
+        service.captureSnapshot("puuid", RiotRegion.NA);
+        service.flush();
+        service.captureSnapshot("puuid", RiotRegion.NA);
+        service.flush();
 
-        assertEquals(1, result.size());
-        assertEquals("GOLD", result.get(0).tier());
-        assertEquals("I", result.get(0).rankDivision());
-        assertEquals(75, result.get(0).leaguePoints());
+        verify(lpSnapshotRepository, times(2)).insertAll(argThat(batch -> batch.size() == 1));
     }
 
-    /** Verify that an empty history returns an empty list. */
+    /** Verify that LP history is returned as dictionary-encoded columns. */
     @Test
-    void getLpHistory_withEmptyHistory_returnsEmptyList() {
-        when(lpSnapshotRepository.findByPuuidAndQueueTypeOrderByCapturedAtAsc("puuid", "RANKED_SOLO_5x5"))
+    void getLpHistory_returnsColumnarSeries() {
+        when(lpSnapshotRepository.findSeries("puuid", "RANKED_SOLO_5x5", 0L, Long.MAX_VALUE))
+            .thenReturn(List.of(
+                new Object[]{1000L, "GOLD", "I", 75},
+                new Object[]{2000L, "PLATINUM", "IV", 0},
+                new Object[]{3000L, "GOLD", "I", 90}));
+
+        LpSeriesDto result = service.getLpHistory("puuid", "RANKED_SOLO_5x5", null, null, 500);
+
+        assertEquals(3, result.total());
+        assertArrayEquals(new long[]{1000L, 2000L, 3000L}, result.capturedAt());
+        assertArrayEquals(new int[]{75, 0, 90}, result.leaguePoints());
+        assertArrayEquals(new String[]{"GOLD", "PLATINUM"}, result.tiers());
+        assertArrayEquals(new int[]{0, 1, 0}, result.tier());
+        assertArrayEquals(new String[]{"I", "IV"}, result.divisions());
+        assertArrayEquals(new int[]{0, 1, 0}, result.division());
+    }
+
+    /** Verify that a long history is downsampled to the requested point count, keeping its ends. */
+    @Test
+    void getLpHistory_withLongHistory_downsamples() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            rows.add(new Object[]{1000L * i, "GOLD", "II", i % 100});
+        }
+        when(lpSnapshotRepository.findSeries("puuid", "RANKED_SOLO_5x5", 5L, 10_000_000L)).thenReturn(rows);
+
+        LpSeriesDto result = service.getLpHistory("puuid", "RANKED_SOLO_5x5", 5L, 10_000_000L, 50);
+
+        assertEquals(1000, result.total());
+        assertEquals(50, result.capturedAt().length);
+        assertEquals(0L, result.capturedAt()[0]);
+        assertEquals(999_000L, result.capturedAt()[49]);
+    }
+
+    /** Verify that an empty history returns an empty series. */
+    @Test
+    void getLpHistory_withEmptyHistory_returnsEmptySeries() {
+        when(lpSnapshotRepository.findSeries("puuid", "RANKED_SOLO_5x5", 0L, Long.MAX_VALUE))
             .thenReturn(List.of());
 
-        List<LpSnapshotDto> result = service.getLpHistory("puuid", "RANKED_SOLO_5x5");
+        LpSeriesDto result = service.getLpHistory("puuid", "RANKED_SOLO_5x5", null, null, 500);
 
-        assertTrue(result.isEmpty());
+        assertEquals(0, result.total());
+        assertEquals(0, result.capturedAt().length);
+    }
+
+    /** Verify that tiers, divisions and apex LP flatten onto one axis like the frontend does. */
+    @Test
+    void absoluteLp_matchesFrontendScale() {
+        assertEquals(1445, LpTrackingService.absoluteLp("GOLD", "II", 45));
+        assertEquals(2950, LpTrackingService.absoluteLp("MASTER", "I", 150));
+        assertEquals(3800, LpTrackingService.absoluteLp("CHALLENGER", "I", 1000));
     }
 }
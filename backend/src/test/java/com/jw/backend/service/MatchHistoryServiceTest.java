@@ -9,17 +9,22 @@ import com.jw.backend.dto.ChampionStatsDto;
 import com.jw.backend.dto.MatchSummaryDto;
 import com.jw.backend.dto.MatchTrendPointDto;
 import com.jw.backend.entity.MatchRecord;
+import com.jw.backend.repository.ChampionTotals;
 import com.jw.backend.repository.MatchRecordRepository;
+import com.jw.backend.repository.PlayerStatsRollupRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import org.springframework.data.domain.PageRequest;
+import reactor.core.publisher.Flux;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -35,93 +40,171 @@ class MatchHistoryServiceTest {
     @Mock
     private MatchRecordRepository matchRecordRepository;
 
+    @Mock
+    private PlayerStatsRollupRepository playerStatsRollupRepository;
+
     private MatchHistoryService service;
 
     @BeforeEach
     void setUp() {
-        service = new MatchHistoryService(matchRecordRepository);
+        service = new MatchHistoryService(matchRecordRepository, playerStatsRollupRepository);
     }
 
-    private MatchRecord makeRecord(String matchId, String champion, int kills, int deaths, int assists,
-                                    boolean win, long timestamp) {
-        MatchRecord r = new MatchRecord();
-        r.setPuuid("puuid");
-        r.setMatchId(matchId);
-        r.setRegion("NA");
-        r.setChampionName(champion);
-        r.setKills(kills);
-        r.setDeaths(deaths);
-        r.setAssists(assists);
-        r.setWin(win);
-        r.setGameDurationSec(1800);
-        r.setGameEndTimestamp(timestamp);
-        r.setQueueId(420);
-        r.setTotalDamageDealtToChampions(15000);
-        r.setGoldEarned(12000);
-        r.setTotalMinionsKilled(150);
-        r.setNeutralMinionsKilled(30);
-        r.setPlacement(0);
-        r.setTeamTotalKills(30);
-        return r;
+    /** Verify that summaries are mapped to records and written in one bulk insert. */
+    @Test
+    @SuppressWarnings("unchecked")
+    void persistMatchRecords_insertsAllInOneBatch() {
+        MatchSummaryDto first = new MatchSummaryDto("NA1_1", "Ahri", 10, 2, 8, true, 1800L, 1700000000000L,
+                18, 4, 14, new int[7], 150, 30, 420, 30, List.of(), List.of(),
+                8005, 8200, new int[4], 0, 15000, 12000, "MIDDLE");
+        MatchSummaryDto second = new MatchSummaryDto("NA1_2", "Lux", 3, 6, 12, false, 1500L, 1700000100000L,
+                4, 2, 2, new int[7], 40, 0, 440, 22, List.of(), List.of(),
+                8214, 8300, new int[4], 0, 9000, 8000, "UTILITY");
+
+        service.persistMatchRecords("puuid", "NA", List.of(first, second));
+
+        ArgumentCaptor<List<MatchRecord>> captor = ArgumentCaptor.forClass(List.class);
+        verify(matchRecordRepository).insertIgnoringDuplicates(captor.capture());
+        verify(matchRecordRepository, never()).saveAll(anyList());
+        List<MatchRecord> records = captor.getValue();
+        assertEquals(2, records.size());
+        MatchRecord r = records.get(1);
+        assertEquals("puuid", r.getPuuid());
+        assertEquals("NA1_2", r.getMatchId());
+        assertEquals("NA", r.getRegion());
+        assertEquals("Lux", r.getChampionName());
+        assertFalse(r.isWin());
+        assertEquals(440, r.getQueueId());
+        assertEquals(22, r.getTeamTotalKills());
+        assertNull(r.getId());
     }
 
-    /** Verify that new match records are persisted to the repository. */
+    /** Verify that an empty page never reaches the database. */
     @Test
-    void persistMatchRecords_savesNewRecords() {
-        when(matchRecordRepository.findMatchIdsByPuuidAndMatchIdIn(eq("puuid"), anyList()))
-                .thenReturn(Set.of());
+    void persistMatchRecords_empty_skipsInsert() {
+        service.persistMatchRecords("puuid", "NA", List.of());
 
-        MatchSummaryDto summary = new MatchSummaryDto("NA1_1", "Ahri", 10, 2, 8, true, 1800L, 1700000000000L,
-                18, 4, 14, new int[7], 150, 30, 420, 30, List.of(), List.of(),
-                8005, 8200, new int[4], 0, 15000, 12000, "MIDDLE");
+        verifyNoInteractions(matchRecordRepository);
+    }
 
-        service.persistMatchRecords("puuid", "NA", List.of(summary));
+    private static ParsedMatch.Participant participant(String puuid, String champion, int teamId, int kills, boolean win) {
+        return new ParsedMatch.Participant(puuid, "Player", "NA1", champion, teamId, kills, 3, 4, 16,
+                20000, 18000, 11000, new int[7], new int[4], 160, 10, 4, 14, 8112, 8200,
+                10, 2, 1, 0, 0, 0, 0, win, 0, 0, "MIDDLE");
+    }
 
-        verify(matchRecordRepository).saveAll(anyList());
+    /** Verify that every participant of a match becomes a record, with their own team's kills. */
+    @Test
+    @SuppressWarnings("unchecked")
+    void persistMatches_writesEveryParticipant() {
+        ParsedMatch match = new ParsedMatch(420, 1800, 1700000000000L, "CLASSIC", "14.1", List.of(), List.of(
+                participant("a", "Ahri", 100, 7, true),
+                participant("b", "Lux", 100, 3, true),
+                participant("c", "Zed", 200, 5, false),
+                participant("BOT", "Annie", 200, 1, false)));
+
+        service.persistMatches("NA", Map.of("NA1_1", match));
+
+        ArgumentCaptor<List<MatchRecord>> captor = ArgumentCaptor.forClass(List.class);
+        verify(matchRecordRepository).insertIgnoringDuplicates(captor.capture());
+        List<MatchRecord> records = captor.getValue();
+        assertEquals(List.of("a", "b", "c"), records.stream().map(MatchRecord::getPuuid).toList());
+        MatchRecord zed = records.get(2);
+        assertEquals("NA1_1", zed.getMatchId());
+        assertEquals("NA", zed.getRegion());
+        assertEquals("Zed", zed.getChampionName());
+        assertFalse(zed.isWin());
+        assertEquals(420, zed.getQueueId());
+        assertEquals(1700000000000L, zed.getGameEndTimestamp());
+        assertEquals(6, zed.getTeamTotalKills());
+        assertEquals(10, records.get(0).getTeamTotalKills());
     }
 
-    /** Verify that duplicate match records are skipped without saving. */
+    /** Verify that matches without participants never reach the database. */
     @Test
-    void persistMatchRecords_skipsDuplicates() {
-        when(matchRecordRepository.findMatchIdsByPuuidAndMatchIdIn(eq("puuid"), anyList()))
-                .thenReturn(Set.of("NA1_1"));
+    void persistMatches_noParticipants_skipsInsert() {
+        service.persistMatches("NA", Map.of("NA1_1", ParsedMatch.EMPTY));
+
+        verifyNoInteractions(matchRecordRepository);
+    }
+
+    /** Verify that streamed summaries pass through unchanged and are persisted in batches. */
+    @Test
+    void persistAsTheyArrive_passesThroughAndPersists() {
+        List<MatchSummaryDto> summaries = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            summaries.add(new MatchSummaryDto("NA1_" + i, "Ahri", 10, 2, 8, true, 1800L, 1700000000000L + i,
+                    18, 4, 14, new int[7], 150, 30, 420, 30, List.of(), List.of(),
+                    8005, 8200, new int[4], 0, 15000, 12000, "MIDDLE"));
+        }
+
+        List<MatchSummaryDto> emitted = service.persistAsTheyArrive("puuid", "NA", Flux.fromIterable(summaries))
+                .collectList().block();
+
+        assertEquals(summaries, emitted);
+        // 7 summaries in batches of 5: one full batch and the remainder
+        verify(matchRecordRepository, times(2)).insertIgnoringDuplicates(anyList());
+    }
+
+    /** Verify that a failed batch write does not break the stream. */
+    @Test
+    void persistAsTheyArrive_persistFailure_keepsStreaming() {
+        when(matchRecordRepository.insertIgnoringDuplicates(anyList()))
+                .thenThrow(new RuntimeException("db down"));
 
         MatchSummaryDto summary = new MatchSummaryDto("NA1_1", "Ahri", 10, 2, 8, true, 1800L, 1700000000000L,
                 18, 4, 14, new int[7], 150, 30, 420, 30, List.of(), List.of(),
                 8005, 8200, new int[4], 0, 15000, 12000, "MIDDLE");
 
-        service.persistMatchRecords("puuid", "NA", List.of(summary));
+        List<MatchSummaryDto> emitted = service.persistAsTheyArrive("puuid", "NA", Flux.just(summary))
+                .collectList().block();
 
-        verify(matchRecordRepository, never()).saveAll(anyList());
+        assertEquals(List.of(summary), emitted);
     }
 
-    /** Verify that champion stats are aggregated correctly across multiple matches. */
+    /** Verify that the whole history is read from the per-player rollup and averaged per game. */
     @Test
-    void getChampionStats_aggregatesCorrectly() {
-        List<MatchRecord> records = List.of(
-            makeRecord("NA1_1", "Ahri", 10, 2, 8, true, 1000L),
-            makeRecord("NA1_2", "Ahri", 5, 5, 3, false, 2000L),
-            makeRecord("NA1_3", "Zed", 15, 1, 2, true, 3000L)
-        );
-        when(matchRecordRepository.findByPuuidOrderByGameEndTimestampDesc(eq("puuid"), any(PageRequest.class))).thenReturn(records);
+    void getChampionStats_withoutCount_readsRollup() {
+        when(playerStatsRollupRepository.championTotals("puuid", null)).thenReturn(List.of(
+            new ChampionTotals("Ahri", 2, 1, 15, 7, 11, 360, 30001, 24000),
+            new ChampionTotals("Zed", 1, 1, 15, 1, 2, 200, 20000, 11000)));
 
         List<ChampionStatsDto> result = service.getChampionStats("puuid", null, null);
 
         assertEquals(2, result.size());
-        assertEquals("Ahri", result.get(0).championName());
-        assertEquals(2, result.get(0).games());
-        assertEquals(1, result.get(0).wins());
+        ChampionStatsDto ahri = result.get(0);
+        assertEquals("Ahri", ahri.championName());
+        assertEquals(2, ahri.games());
+        assertEquals(1, ahri.wins());
+        assertEquals(50.0, ahri.winRate());
+        assertEquals(7.5, ahri.avgKills());
+        assertEquals(3.5, ahri.avgDeaths());
+        assertEquals(5.5, ahri.avgAssists());
+        assertEquals(3.71, ahri.avgKda());
+        assertEquals(15001.0, ahri.avgDamage());
+        assertEquals(180.0, ahri.avgCs());
         assertEquals("Zed", result.get(1).championName());
-        assertEquals(1, result.get(1).games());
+        verify(playerStatsRollupRepository, never()).recentChampionTotals(any(), any(), anyInt());
+    }
+
+    /** Verify that a count sums only the most recent games, capped at the recent-games limit. */
+    @Test
+    void getChampionStats_withCount_readsRecentTotals() {
+        when(playerStatsRollupRepository.recentChampionTotals("puuid", 420, 20)).thenReturn(List.of(
+            new ChampionTotals("Ahri", 1, 1, 10, 2, 8, 180, 15000, 12000)));
+        when(playerStatsRollupRepository.recentChampionTotals("puuid", null, MatchHistoryService.MAX_RECENT_GAMES))
+            .thenReturn(List.of());
+
+        assertEquals(1, service.getChampionStats("puuid", 20, 420).size());
+        assertTrue(service.getChampionStats("puuid", 50_000, null).isEmpty());
+        verify(playerStatsRollupRepository, never()).championTotals(any(), any());
     }
 
     /** Verify that zero deaths produces a perfect KDA calculation. */
     @Test
     void getChampionStats_withZeroDeaths_handlesPerfectKda() {
-        List<MatchRecord> records = List.of(
-            makeRecord("NA1_1", "Ahri", 10, 0, 5, true, 1000L)
-        );
-        when(matchRecordRepository.findByPuuidOrderByGameEndTimestampDesc(eq("puuid"), any(PageRequest.class))).thenReturn(records);
+        when(playerStatsRollupRepository.championTotals("puuid", null)).thenReturn(List.of(
+            new ChampionTotals("Ahri", 1, 1, 10, 0, 5, 180, 15000, 12000)));
 
         List<ChampionStatsDto> result = service.getChampionStats("puuid", null, null);
 
@@ -129,10 +212,10 @@ class MatchHistoryServiceTest {
         assertEquals(15.0, result.get(0).avgKda());
     }
 
-    /** Verify that an empty record list returns an empty champion stats list. */
+    /** Verify that a player without stored games gets an empty champion stats list. */
     @Test
     void getChampionStats_withEmptyRecords_returnsEmptyList() {
-        when(matchRecordRepository.findByPuuidOrderByGameEndTimestampDesc(eq("puuid"), any(PageRequest.class))).thenReturn(List.of());
+        when(playerStatsRollupRepository.championTotals("puuid", null)).thenReturn(List.of());
 
         List<ChampionStatsDto> result = service.getChampionStats("puuid", null, null);
 
@@ -142,29 +225,31 @@ class MatchHistoryServiceTest {
     /** Verify that match trends are returned in chronological (ascending) order. */
     @Test
     void getMatchTrends_returnsChronologicalOrder() {
-        List<MatchRecord> records = List.of(
-            makeRecord("NA1_2", "Ahri", 5, 5, 3, false, 2000L),
-            makeRecord("NA1_1", "Zed", 10, 2, 8, true, 1000L)
-        );
-        when(matchRecordRepository.findByPuuidOrderByGameEndTimestampDesc(eq("puuid"), any(PageRequest.class))).thenReturn(records);
+        when(matchRecordRepository.findTrendPoints(eq("puuid"), eq(Long.MAX_VALUE), any(PageRequest.class)))
+            .thenReturn(List.of(trendPoint("NA1_2", 2000L), trendPoint("NA1_1", 1000L)));
 
-        List<MatchTrendPointDto> result = service.getMatchTrends("puuid");
+        List<MatchTrendPointDto> result = service.getMatchTrends("puuid", null);
 
         assertEquals(2, result.size());
         assertEquals("NA1_1", result.get(0).matchId());
         assertEquals("NA1_2", result.get(1).matchId());
     }
 
-    /** Verify that total CS is calculated as minions plus neutral minions killed. */
+    /** Verify that the before cursor bounds the page read from the repository. */
     @Test
-    void getMatchTrends_calculatesTotalCs() {
-        MatchRecord record = makeRecord("NA1_1", "Ahri", 10, 2, 8, true, 1000L);
-        record.setTotalMinionsKilled(150);
-        record.setNeutralMinionsKilled(30);
-        when(matchRecordRepository.findByPuuidOrderByGameEndTimestampDesc(eq("puuid"), any(PageRequest.class))).thenReturn(List.of(record));
+    void getMatchTrends_withBefore_readsOlderPage() {
+        when(matchRecordRepository.findTrendPoints(eq("puuid"), eq(2000L), any(PageRequest.class)))
+            .thenReturn(List.of(trendPoint("NA1_1", 1000L)));
+
+        List<MatchTrendPointDto> result = service.getMatchTrends("puuid", 2000L);
 
-        List<MatchTrendPointDto> result = service.getMatchTrends("puuid");
+        assertEquals(List.of(trendPoint("NA1_1", 1000L)), result);
+        ArgumentCaptor<PageRequest> page = ArgumentCaptor.forClass(PageRequest.class);
+        verify(matchRecordRepository).findTrendPoints(eq("puuid"), eq(2000L), page.capture());
+        assertEquals(MatchHistoryService.TREND_PAGE_SIZE, page.getValue().getPageSize());
+    }
 
-        assertEquals(180, result.get(0).cs());
+    private static MatchTrendPointDto trendPoint(String matchId, long timestamp) {
+        return new MatchTrendPointDto(matchId, timestamp, true, 10, 2, 8, 15000, 12000, 180, "Ahri", 420);
     }
 }
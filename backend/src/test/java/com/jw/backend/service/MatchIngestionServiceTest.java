@@ -2,15 +2,22 @@ package com.jw.backend.service;
 
 import com.jw.backend.dto.MatchSummaryDto;
 import com.jw.backend.entity.TrackedPlayer;
+import com.jw.backend.region.RiotRegion;
 import com.jw.backend.repository.TrackedPlayerRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -19,92 +26,305 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class MatchIngestionServiceTest {
 
+    private static final long LEASE_MS = 600_000;
+
     @Mock private TrackedPlayerRepository trackedPlayerRepository;
+    @Mock private PlayerTrackingService playerTrackingService;
     @Mock private RiotApiService riotApiService;
     @Mock private MatchHistoryService matchHistoryService;
     @Mock private LpTrackingService lpTrackingService;
+    @Mock private IngestionScheduler scheduler;
 
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+    private RiotRateLimiter rateLimiter;
     private MatchIngestionService service;
 
     @BeforeEach
-    void setUp() throws Exception {
-        service = new MatchIngestionService(
-            trackedPlayerRepository, riotApiService, matchHistoryService, lpTrackingService);
-        // Set batchSize via reflection since @Value won't be injected in unit test
-        var field = MatchIngestionService.class.getDeclaredField("batchSize");
-        field.setAccessible(true);
-        field.setInt(service, 5);
+    void setUp() {
+        rateLimiter = new RiotRateLimiter("20:1,100:120", 10_000, 0.85, 0.7, 0.3, RiotClusterBudget.localOnly());
+        service = newService(Runnable::run);
+    }
+
+    private MatchIngestionService newService(Executor workers) {
+        return new MatchIngestionService(trackedPlayerRepository, playerTrackingService, riotApiService,
+                matchHistoryService, lpTrackingService, scheduler, rateLimiter, 20, LEASE_MS, 250, 16, 100,
+                host -> workers, now::get);
+    }
+
+    private TrackedPlayer player(String puuid, String region) {
+        TrackedPlayer player = new TrackedPlayer();
+        player.setPuuid(puuid);
+        player.setRegion(region);
+        player.setLastSearchedAt(now.get());
+        return player;
+    }
+
+    private static MatchSummaryDto summary(String matchId, long gameEndTimestamp) {
+        return new MatchSummaryDto(
+            matchId, "Ahri", 5, 2, 3, true, 1800, gameEndTimestamp,
+            18, 4, 14, new int[7], 200, 20, 420, 15,
+            List.of(), List.of(), 8112, 8200, new int[4], 0, 25000, 16000, "MID"
+        );
+    }
+
+    private static ParsedMatch parsedMatch(String puuid, long gameEndTimestamp) {
+        ParsedMatch.Participant me = new ParsedMatch.Participant(
+            puuid, "Player", "NA1", "Ahri", 100, 5, 2, 3, 18, 25000, 20000, 16000,
+            new int[7], new int[4], 200, 20, 4, 14, 8112, 8200, 10, 2, 1, 0, 0, 0, 0, true, 0, 0, "MIDDLE");
+        return new ParsedMatch(420, 1800, gameEndTimestamp, "CLASSIC", "14.1", List.of(), List.of(me));
+    }
+
+    // Hands the player to whichever partition claims its region; the others find nothing due
+    private void claimFor(String region, TrackedPlayer player, long dueAt) {
+        when(playerTrackingService.claimDuePlayers(anyCollection(), anyLong(), anyInt(), anyLong()))
+            .thenAnswer(inv -> inv.<Collection<String>>getArgument(0).contains(region)
+                    ? List.of(new PlayerTrackingService.Claim(player, dueAt))
+                    : List.of());
     }
 
     @Test
-    void ingestBatch_doesNothingWhenNoPlayersDue() {
-        when(trackedPlayerRepository.findDuePlayers(anyLong(), any(PageRequest.class)))
+    void dispatch_doesNothingWhenNoPlayersDue() {
+        when(playerTrackingService.claimDuePlayers(anyCollection(), anyLong(), anyInt(), anyLong()))
             .thenReturn(List.of());
 
-        service.ingestBatch();
+        service.dispatch();
 
-        verify(riotApiService, never()).getRecentMatchSummaries(anyString(), any(), anyInt());
+        verify(riotApiService, never()).getMatchIdsSince(anyString(), any(), anyLong(), anyInt(), anyInt());
     }
 
     @Test
-    void ingestBatch_processesPlayerAndPersistsMatches() {
-        TrackedPlayer player = new TrackedPlayer();
-        player.setPuuid("puuid-1");
-        player.setRegion("NA");
-        player.setLastSearchedAt(System.currentTimeMillis());
+    void dispatch_claimsEachRoutingHostSeparately() {
+        when(playerTrackingService.claimDuePlayers(anyCollection(), anyLong(), anyInt(), anyLong()))
+            .thenReturn(List.of());
 
-        when(trackedPlayerRepository.findDuePlayers(anyLong(), any(PageRequest.class)))
-            .thenReturn(List.of(player));
+        service.dispatch();
 
-        MatchSummaryDto summary = new MatchSummaryDto(
-            "NA1_1", "Ahri", 5, 2, 3, true, 1800, 1700000000000L,
-            18, 4, 14, new int[7], 200, 20, 420, 15,
-            List.of(), List.of(), 8112, 8200, new int[4], 0, 25000, 16000, "MID"
-        );
-        when(riotApiService.getRecentMatchSummaries("puuid-1", com.jw.backend.region.RiotRegion.NA, 10))
-            .thenReturn(List.of(summary));
+        verify(playerTrackingService).claimDuePlayers(eq(List.of("NA", "BR", "OCE")), eq(now.get()), eq(1), eq(LEASE_MS));
+        verify(playerTrackingService).claimDuePlayers(eq(List.of("EUW")), eq(now.get()), eq(1), eq(LEASE_MS));
+        verify(playerTrackingService).claimDuePlayers(eq(List.of("KR", "JP")), eq(now.get()), eq(1), eq(LEASE_MS));
+        assertEquals(List.of("americas", "europe", "asia"), new ArrayList<>(service.partitions()));
+    }
 
-        service.ingestBatch();
+    @Test
+    void dispatch_processesPlayerAndPersistsMatches() {
+        TrackedPlayer player = player("puuid-1", "NA");
+        claimFor("NA", player, now.get() - 30_000);
+
+        when(riotApiService.getMatchIdsSince("puuid-1", RiotRegion.NA, 0, 0, 10))
+            .thenReturn(List.of("NA1_1"));
+        Map<String, ParsedMatch> matches = Map.of("NA1_1", parsedMatch("puuid-1", 1700000000000L));
+        when(riotApiService.getParsedMatches(RiotRegion.NA, List.of("NA1_1"))).thenReturn(matches);
+        when(scheduler.nextIngestAt(player, true, now.get())).thenReturn(now.get() + 120_000);
+
+        service.dispatch();
 
-        verify(matchHistoryService).persistMatchRecords(eq("puuid-1"), eq("NA"), anyList());
-        verify(lpTrackingService).captureSnapshot(eq("puuid-1"), eq(com.jw.backend.region.RiotRegion.NA));
-        verify(trackedPlayerRepository).save(player);
+        verify(matchHistoryService).persistMatches("NA", matches);
+        verify(lpTrackingService).captureSnapshot(eq("puuid-1"), eq(RiotRegion.NA));
+        verify(trackedPlayerRepository).recordIngest("puuid-1", "NA1_1", 1700000000000L, 0, now.get(),
+                now.get() + 120_000);
+        verify(trackedPlayerRepository, never()).save(any());
+        assertEquals(now.get(), player.getLastIngestedAt());
+        assertEquals(now.get() + 120_000, player.getNextIngestAt());
+        assertEquals("NA1_1", player.getLastMatchId());
+        assertEquals(1700000000000L, player.getLastMatchEndAt());
+
+        MatchIngestionService.PartitionStats stats = service.partitionStats("americas");
+        assertEquals(1, stats.ingested());
+        assertEquals(0, stats.inFlight());
+        assertEquals(1, stats.lag().count());
+        assertEquals(30_000, stats.lag().totalMs());
+        assertEquals(0, service.partitionStats("europe").ingested());
     }
 
     @Test
-    void ingestBatch_skipsEmptyMatchList() {
-        TrackedPlayer player = new TrackedPlayer();
-        player.setPuuid("puuid-2");
-        player.setRegion("KR");
-        player.setLastSearchedAt(System.currentTimeMillis());
-
-        when(trackedPlayerRepository.findDuePlayers(anyLong(), any(PageRequest.class)))
-            .thenReturn(List.of(player));
-        when(riotApiService.getRecentMatchSummaries("puuid-2", com.jw.backend.region.RiotRegion.KR, 10))
+    void dispatch_skipsEmptyMatchList() {
+        TrackedPlayer player = player("puuid-2", "KR");
+        claimFor("KR", player, now.get());
+        when(riotApiService.getMatchIdsSince("puuid-2", RiotRegion.KR, 0, 0, 10))
             .thenReturn(List.of());
 
-        service.ingestBatch();
+        service.dispatch();
 
-        verify(matchHistoryService, never()).persistMatchRecords(anyString(), anyString(), anyList());
-        verify(lpTrackingService).captureSnapshot("puuid-2", com.jw.backend.region.RiotRegion.KR);
+        verify(riotApiService, never()).getParsedMatches(any(), anyList());
+        verify(matchHistoryService, never()).persistMatches(anyString(), anyMap());
+        verify(lpTrackingService).captureSnapshot("puuid-2", RiotRegion.KR);
+        verify(scheduler).nextIngestAt(player, false, now.get());
+        assertNull(player.getLastMatchId());
     }
 
     @Test
-    void ingestBatch_schedulesRetryOnFailure() {
-        TrackedPlayer player = new TrackedPlayer();
-        player.setPuuid("puuid-3");
-        player.setRegion("NA");
-        player.setLastSearchedAt(System.currentTimeMillis());
+    void dispatch_idlePlayerCostsOneIdCall() {
+        TrackedPlayer player = player("puuid-6", "NA");
+        player.setLastMatchId("NA1_9");
+        player.setLastMatchEndAt(1_699_999_000_500L);
+        claimFor("NA", player, now.get());
+        when(riotApiService.getMatchIdsSince("puuid-6", RiotRegion.NA, 1_699_999_000L, 0, 100))
+            .thenReturn(List.of());
+
+        service.dispatch();
+
+        verify(riotApiService).getMatchIdsSince(anyString(), any(), anyLong(), anyInt(), anyInt());
+        verify(riotApiService, never()).getParsedMatches(any(), anyList());
+        assertEquals("NA1_9", player.getLastMatchId());
+    }
 
-        when(trackedPlayerRepository.findDuePlayers(anyLong(), any(PageRequest.class)))
-            .thenReturn(List.of(player));
-        when(riotApiService.getRecentMatchSummaries("puuid-3", com.jw.backend.region.RiotRegion.NA, 10))
+    @Test
+    void dispatch_schedulesRetryOnFailure() {
+        TrackedPlayer player = player("puuid-3", "NA");
+        claimFor("NA", player, now.get());
+        when(riotApiService.getMatchIdsSince("puuid-3", RiotRegion.NA, 0, 0, 10))
             .thenThrow(new RuntimeException("API error"));
 
-        service.ingestBatch();
+        service.dispatch();
+
+        verify(trackedPlayerRepository).rescheduleIngest("puuid-3", now.get() + MatchIngestionService.RETRY_DELAY_MS);
+        verify(trackedPlayerRepository, never()).save(any());
+        assertEquals(now.get() + MatchIngestionService.RETRY_DELAY_MS, player.getNextIngestAt());
+        assertEquals(1, service.partitionStats("americas").failed());
+        assertEquals(0, service.partitionStats("americas").inFlight());
+    }
+
+    @Test
+    void dispatch_callsRiotInBackgroundLane() {
+        TrackedPlayer player = player("puuid-4", "NA");
+        claimFor("NA", player, now.get());
+        List<RiotPriority> seen = new ArrayList<>();
+        when(riotApiService.getMatchIdsSince("puuid-4", RiotRegion.NA, 0, 0, 10))
+            .thenAnswer(inv -> {
+                seen.add(RiotPriority.current());
+                return List.of();
+            });
+
+        service.dispatch();
+
+        assertEquals(List.of(RiotPriority.BACKGROUND), seen);
+        assertEquals(RiotPriority.INTERACTIVE, RiotPriority.current());
+    }
+
+    @Test
+    void dispatch_doesNotClaimBeyondBusyWorkers() {
+        List<Runnable> parked = new ArrayList<>();
+        service = newService(parked::add);
+        claimFor("NA", player("puuid-5", "NA"), now.get());
+
+        service.dispatch();
+        service.dispatch();
+
+        // The only americas worker is still busy, so the second tick skips that partition
+        verify(playerTrackingService, times(1)).claimDuePlayers(eq(List.of("NA", "BR", "OCE")), anyLong(), anyInt(), anyLong());
+        assertEquals(1, service.partitionStats("americas").inFlight());
+
+        parked.forEach(Runnable::run);
+        assertEquals(0, service.partitionStats("americas").inFlight());
+    }
+
+    @Test
+    void findNewMatchIds_cutsAtLastSeenMatch() {
+        TrackedPlayer player = player("puuid-7", "NA");
+        player.setLastMatchId("NA1_2");
+        player.setLastMatchEndAt(2_000_000L);
+        when(riotApiService.getMatchIdsSince("puuid-7", RiotRegion.NA, 2_000, 0, 100))
+            .thenReturn(List.of("NA1_4", "NA1_3", "NA1_2", "NA1_1"));
+
+        assertEquals(List.of("NA1_4", "NA1_3"), service.findNewMatchIds(player, RiotRegion.NA));
+    }
+
+    @Test
+    void findNewMatchIds_pagesBackWhilePagesAreFull() {
+        TrackedPlayer player = player("puuid-8", "NA");
+        player.setLastMatchId("NA1_0");
+        player.setLastMatchEndAt(5_000L);
+        List<String> full = Collections.nCopies(100, "NA1_x");
+        when(riotApiService.getMatchIdsSince("puuid-8", RiotRegion.NA, 5, 0, 100)).thenReturn(full);
+        when(riotApiService.getMatchIdsSince("puuid-8", RiotRegion.NA, 5, 100, 100)).thenReturn(List.of("NA1_y"));
+
+        // Trimmed to max-backfill 100 from the oldest end
+        List<String> ids = service.findNewMatchIds(player, RiotRegion.NA);
+        assertEquals(100, ids.size());
+        assertEquals("NA1_y", ids.get(99));
+    }
+
+    @Test
+    void findNewMatchIds_overBackfillKeepsOldest() {
+        service = new MatchIngestionService(trackedPlayerRepository, playerTrackingService, riotApiService,
+                matchHistoryService, lpTrackingService, scheduler, rateLimiter, 20, LEASE_MS, 250, 16, 150,
+                host -> Runnable::run, now::get);
+        TrackedPlayer player = player("puuid-11", "NA");
+        player.setLastMatchId("NA1_0");
+        player.setLastMatchEndAt(5_000L);
+        List<String> newest = new ArrayList<>();
+        for (int i = 250; i > 0; i--) newest.add("NA1_" + i);
+        when(riotApiService.getMatchIdsSince("puuid-11", RiotRegion.NA, 5, 0, 100)).thenReturn(newest.subList(0, 100));
+        when(riotApiService.getMatchIdsSince("puuid-11", RiotRegion.NA, 5, 100, 100)).thenReturn(newest.subList(100, 200));
+        List<String> last = new ArrayList<>(newest.subList(200, 250));
+        last.add("NA1_0");
+        when(riotApiService.getMatchIdsSince("puuid-11", RiotRegion.NA, 5, 200, 100)).thenReturn(last);
+
+        // max-backfill 150: the newest 100 wait for the next poll, so the mark can't skip past the rest
+        List<String> ids = service.findNewMatchIds(player, RiotRegion.NA);
+        assertEquals(150, ids.size());
+        assertEquals("NA1_150", ids.get(0));
+        assertEquals("NA1_1", ids.get(149));
+    }
+
+    @Test
+    void advanceHighWaterMark_stopsBelowFailedMatch() {
+        TrackedPlayer player = player("puuid-9", "NA");
+        player.setLastMatchId("NA1_1");
+        player.setLastMatchEndAt(1_000);
+
+        // NA1_4 failed: the mark may only move up to NA1_3, so NA1_4 is fetched again next poll
+        MatchIngestionService.advanceHighWaterMark(player, List.of("NA1_5", "NA1_4", "NA1_3", "NA1_2"),
+                List.of(summary("NA1_5", 5_000), summary("NA1_3", 3_000), summary("NA1_2", 2_000)));
+
+        assertEquals("NA1_3", player.getLastMatchId());
+        assertEquals(3_000, player.getLastMatchEndAt());
+    }
+
+    @Test
+    void advanceHighWaterMark_oldestFailedKeepsMark() {
+        TrackedPlayer player = player("puuid-10", "NA");
+        player.setLastMatchId("NA1_1");
+        player.setLastMatchEndAt(1_000);
+
+        MatchIngestionService.advanceHighWaterMark(player, List.of("NA1_3", "NA1_2"),
+                List.of(summary("NA1_3", 3_000)));
+
+        assertEquals("NA1_1", player.getLastMatchId());
+        assertEquals(1_000, player.getLastMatchEndAt());
+    }
+
+    @Test
+    void targetWorkers_followsLearnedHostBudget() {
+        // Development key: 70 background permits per two minutes keep one call busy
+        assertEquals(1, service.targetWorkers("americas"));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(RiotRateLimiter.APP_LIMIT_HEADER, "500:10,30000:600");
+        rateLimiter.onResponse("americas", "match-v5.match", headers);
+
+        // 35 background permits per second at 250 ms each
+        assertEquals(9, service.targetWorkers("americas"));
+        assertEquals(1, service.targetWorkers("europe"));
+    }
+
+    @Test
+    void refreshBacklog_reportsDueCountAndOldestLag() {
+        when(trackedPlayerRepository.dueBacklog(now.get()))
+            .thenReturn(List.<Object[]>of(new Object[]{42L, now.get() - 90_000}));
+
+        service.refreshBacklog();
+
+        assertEquals(new MatchIngestionService.Backlog(42, 90_000), service.backlog());
+    }
+
+    @Test
+    void refreshBacklog_emptyBacklogHasNoLag() {
+        when(trackedPlayerRepository.dueBacklog(now.get()))
+            .thenReturn(List.<Object[]>of(new Object[]{0L, null}));
+
+        service.refreshBacklog();
 
-        verify(trackedPlayerRepository).save(player);
-        // nextIngestAt should be set ~5 minutes from now
-        assertTrue(player.getNextIngestAt() > 0);
+        assertEquals(new MatchIngestionService.Backlog(0, 0), service.backlog());
     }
 }
@@ -0,0 +1,416 @@
+package com.jw.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jw.backend.dto.MatchDetailDto;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchPayloadParserTest {
+
+    private final MatchPayloadParser parser = new MatchPayloadParser(new ObjectMapper().getFactory());
+
+    @Test
+    void parse_readsInfoTeamsAndParticipants() throws IOException {
+        String json = """
+                {
+                  "metadata": {"matchId": "NA1_1", "participants": ["p1", "p2"]},
+                  "info": {
+                    "queueId": 420, "gameDuration": 1800, "gameEndTimestamp": 1700000000000,
+                    "gameMode": "CLASSIC", "gameVersion": "14.1.1",
+                    "frames": [{"nested": {"deep": [1, 2, 3]}}],
+                    "teams": [
+                      {"teamId": 100, "win": true, "bans": [{"championId": 1}, {"championId": 2}],
+                       "objectives": {"baron": {"first": true, "kills": 1}, "dragon": {"kills": 3}, "tower": {"kills": 9}}}
+                    ],
+                    "participants": [
+                      {"puuid": "p1", "riotIdGameName": "Player", "riotIdTagline": "NA1", "championName": "Ahri",
+                       "teamId": 100, "kills": 10, "deaths": 2, "assists": 8, "item0": 3157, "item6": 3340,
+                       "playerAugment2": 77, "challenges": {"kda": 9.0, "list": [1, 2]},
+                       "perks": {"statPerks": {"defense": 1},
+                                 "styles": [{"style": 8100, "selections": [{"perk": 8112}, {"perk": 8139}]},
+                                            {"style": 8300, "selections": [{"perk": 8304}]}]},
+                       "win": true, "individualPosition": "MIDDLE"},
+                      {"puuid": "p2", "summonerName": "Legacy", "teamId": 200}
+                    ]
+                  }
+                }
+                """;
+
+        ParsedMatch match = parser.parse(json);
+
+        assertEquals(420, match.queueId());
+        assertEquals(1800, match.gameDurationSec());
+        assertEquals(1700000000000L, match.gameEndTimestamp());
+        assertEquals("CLASSIC", match.gameMode());
+        assertEquals("14.1.1", match.gameVersion());
+
+        ParsedMatch.Team team = match.teams().get(0);
+        assertEquals(List.of(1, 2), team.bans());
+        assertEquals(1, team.baronKills());
+        assertEquals(3, team.dragonKills());
+        assertEquals(9, team.towerKills());
+
+        ParsedMatch.Participant p1 = match.participant("p1");
+        assertEquals("Player", p1.summonerName());
+        assertEquals("Ahri", p1.championName());
+        assertEquals(3157, p1.items()[0]);
+        assertEquals(3340, p1.items()[6]);
+        assertEquals(77, p1.augments()[1]);
+        assertEquals(8112, p1.primaryRuneId());
+        assertEquals(8300, p1.secondaryRuneStyleId());
+        assertTrue(p1.win());
+        assertEquals("MIDDLE", p1.individualPosition());
+
+        ParsedMatch.Participant p2 = match.participant("p2");
+        assertEquals("Legacy", p2.summonerName());
+        assertEquals("Unknown", p2.championName());
+        assertEquals("", p2.riotIdTagline());
+    }
+
+    @Test
+    void parse_missingInfo_returnsEmpty() throws IOException {
+        assertSame(ParsedMatch.EMPTY, parser.parse("{\"metadata\":{}}"));
+        assertSame(ParsedMatch.EMPTY, parser.parse("[1, 2]"));
+    }
+
+    @Test
+    void parse_nullValues_useDefaults() throws IOException {
+        ParsedMatch match = parser.parse(
+                "{\"info\":{\"gameMode\":null,\"participants\":[{\"puuid\":\"p1\",\"riotIdGameName\":null,\"kills\":null}]}}");
+
+        assertEquals("", match.gameMode());
+        ParsedMatch.Participant p = match.participant("p1");
+        assertEquals("Unknown", p.summonerName());
+        assertEquals(0, p.kills());
+    }
+
+    @Test
+    void parse_invalidJson_throws() {
+        assertThrows(IOException.class, () -> parser.parse("{\"info\": {"));
+    }
+
+    @Test
+    void toSummary_splitsAlliesAndEnemiesAndCopiesArrays() throws IOException {
+        ParsedMatch match = parser.parse("""
+                {"info": {"participants": [
+                  {"puuid": "me", "teamId": 100, "kills": 4, "item0": 1},
+                  {"puuid": "ally", "teamId": 100, "kills": 6},
+                  {"puuid": "enemy", "teamId": 200, "kills": 9}
+                ]}}
+                """);
+
+        var summary = match.toSummary("NA1_1", "me");
+        assertEquals(10, summary.teamTotalKills());
+        assertEquals(1, summary.allies().size());
+        assertEquals(1, summary.enemies().size());
+
+        summary.items()[0] = 999;
+        assertEquals(1, match.participant("me").items()[0]);
+    }
+
+    @Test
+    void toDetail_parsesCorrectly() throws IOException {
+        String json = """
+            {
+                "info": {
+                    "queueId": 420,
+                    "gameDuration": 1800,
+                    "gameEndTimestamp": 1700000000000,
+                    "gameMode": "CLASSIC",
+                    "gameVersion": "14.1",
+                    "teams": [
+                        {
+                            "teamId": 100,
+                            "win": true,
+                            "bans": [{"championId": 1}, {"championId": 2}],
+                            "objectives": {
+                                "baron": {"kills": 1},
+                                "dragon": {"kills": 3},
+                                "tower": {"kills": 8}
+                            }
+                        },
+                        {
+                            "teamId": 200,
+                            "win": false,
+                            "bans": [],
+                            "objectives": {
+                                "baron": {"kills": 0},
+                                "dragon": {"kills": 1},
+                                "tower": {"kills": 3}
+                            }
+                        }
+                    ],
+                    "participants": [
+                        {
+                            "riotIdGameName": "Faker",
+                            "riotIdTagline": "KR1",
+                            "championName": "Ahri",
+                            "puuid": "puuid-1",
+                            "teamId": 100,
+                            "kills": 10,
+                            "deaths": 2,
+                            "assists": 8,
+                            "champLevel": 18,
+                            "totalDamageDealtToChampions": 25000,
+                            "totalDamageTaken": 15000,
+                            "goldEarned": 16000,
+                            "item0": 3089, "item1": 3020, "item2": 3165, "item3": 0, "item4": 0, "item5": 0, "item6": 3340,
+                            "totalMinionsKilled": 200,
+                            "neutralMinionsKilled": 20,
+                            "summoner1Id": 4,
+                            "summoner2Id": 14,
+                            "perks": {
+                                "styles": [
+                                    {
+                                        "style": 8100,
+                                        "selections": [{"perk": 8112}]
+                                    },
+                                    {
+                                        "style": 8200
+                                    }
+                                ]
+                            },
+                            "wardsPlaced": 15,
+                            "wardsKilled": 5,
+                            "visionWardsBoughtInGame": 3,
+                            "doubleKills": 2,
+                            "tripleKills": 1,
+                            "quadraKills": 0,
+                            "pentaKills": 0,
+                            "win": true,
+                            "placement": 0,
+                            "playerSubteamId": 0
+                        }
+                    ]
+                }
+            }
+            """;
+
+        MatchDetailDto result = parser.parse(json).toDetail("NA1_123");
+
+        assertEquals("NA1_123", result.matchId());
+        assertEquals(420, result.queueId());
+        assertEquals(1800, result.gameDurationSec());
+        assertEquals("CLASSIC", result.gameMode());
+        assertEquals("14.1", result.gameVersion());
+
+        assertEquals(2, result.teams().size());
+        assertTrue(result.teams().get(0).win());
+        assertEquals(2, result.teams().get(0).bans().size());
+        assertEquals(1, result.teams().get(0).objectives().baronKills());
+        assertEquals(3, result.teams().get(0).objectives().dragonKills());
+        assertEquals(8, result.teams().get(0).objectives().towerKills());
+
+        assertEquals(1, result.participants().size());
+        var p = result.participants().get(0);
+        assertEquals("Faker", p.summonerName());
+        assertEquals("KR1", p.riotIdTagline());
+        assertEquals("Ahri", p.championName());
+        assertEquals(10, p.kills());
+        assertEquals(2, p.deaths());
+        assertEquals(8, p.assists());
+        assertEquals(18, p.championLevel());
+        assertEquals(25000, p.totalDamageDealtToChampions());
+        assertEquals(15000, p.totalDamageTaken());
+        assertEquals(16000, p.goldEarned());
+        assertEquals(200, p.totalMinionsKilled());
+        assertEquals(20, p.neutralMinionsKilled());
+        assertEquals(4, p.summoner1Id());
+        assertEquals(14, p.summoner2Id());
+        assertEquals(8112, p.primaryRuneId());
+        assertEquals(8200, p.secondaryRuneStyleId());
+        assertEquals(15, p.wardsPlaced());
+        assertEquals(5, p.wardsKilled());
+        assertEquals(3, p.visionWardsBoughtInGame());
+        assertEquals(2, p.doubleKills());
+        assertEquals(1, p.tripleKills());
+        assertTrue(p.win());
+    }
+
+    @Test
+    void toDetail_withNoTeamsOrParticipants_handlesGracefully() throws IOException {
+        String json = """
+            {
+                "info": {
+                    "queueId": 420,
+                    "gameDuration": 1800,
+                    "gameEndTimestamp": 1700000000000,
+                    "gameMode": "CLASSIC",
+                    "gameVersion": "14.1",
+                    "teams": [],
+                    "participants": []
+                }
+            }
+            """;
+
+        MatchDetailDto result = parser.parse(json).toDetail("NA1_123");
+
+        assertTrue(result.teams().isEmpty());
+        assertTrue(result.participants().isEmpty());
+    }
+
+    @Test
+    void toDetail_withMinimalPerks_parsesDefaultRunes() throws IOException {
+        String json = """
+            {
+                "info": {
+                    "queueId": 420,
+                    "gameDuration": 1800,
+                    "gameEndTimestamp": 1700000000000,
+                    "gameMode": "CLASSIC",
+                    "gameVersion": "14.1",
+                    "teams": [],
+                    "participants": [
+                        {
+                            "riotIdGameName": "Player1",
+                            "riotIdTagline": "NA1",
+                            "championName": "Zed",
+                            "puuid": "puuid-1",
+                            "teamId": 100,
+                            "kills": 5, "deaths": 3, "assists": 2,
+                            "champLevel": 15,
+                            "totalDamageDealtToChampions": 20000,
+                            "totalDamageTaken": 18000,
+                            "goldEarned": 14000,
+                            "item0": 0, "item1": 0, "item2": 0, "item3": 0, "item4": 0, "item5": 0, "item6": 0,
+                            "totalMinionsKilled": 150,
+                            "neutralMinionsKilled": 10,
+                            "summoner1Id": 4, "summoner2Id": 14,
+                            "perks": {"styles": []},
+                            "wardsPlaced": 0, "wardsKilled": 0, "visionWardsBoughtInGame": 0,
+                            "doubleKills": 0, "tripleKills": 0, "quadraKills": 0, "pentaKills": 0,
+                            "win": false, "placement": 0, "playerSubteamId": 0
+                        }
+                    ]
+                }
+            }
+            """;
+
+        MatchDetailDto result = parser.parse(json).toDetail("NA1_123");
+        assertEquals(0, result.participants().get(0).primaryRuneId());
+        assertEquals(0, result.participants().get(0).secondaryRuneStyleId());
+    }
+
+    @Test
+    void toDetail_fallsBackToSummonerName() throws IOException {
+        String json = """
+            {
+                "info": {
+                    "queueId": 420,
+                    "gameDuration": 1800,
+                    "gameEndTimestamp": 1700000000000,
+                    "gameMode": "CLASSIC",
+                    "gameVersion": "14.1",
+                    "teams": [],
+                    "participants": [
+                        {
+                            "summonerName": "OldName",
+                            "championName": "Ahri",
+                            "puuid": "puuid-1",
+                            "teamId": 100,
+                            "kills": 5, "deaths": 3, "assists": 2,
+                            "champLevel": 15,
+                            "totalDamageDealtToChampions": 20000,
+                            "totalDamageTaken": 18000,
+                            "goldEarned": 14000,
+                            "item0": 0, "item1": 0, "item2": 0, "item3": 0, "item4": 0, "item5": 0, "item6": 0,
+                            "totalMinionsKilled": 150,
+                            "neutralMinionsKilled": 10,
+                            "summoner1Id": 4, "summoner2Id": 14,
+                            "perks": {"styles": [{"style": 8100, "selections": [{"perk": 8005}]}, {"style": 8300}]},
+                            "wardsPlaced": 10, "wardsKilled": 3, "visionWardsBoughtInGame": 2,
+                            "doubleKills": 0, "tripleKills": 0, "quadraKills": 0, "pentaKills": 0,
+                            "win": true, "placement": 0, "playerSubteamId": 0
+                        }
+                    ]
+                }
+            }
+            """;
+
+        MatchDetailDto result = parser.parse(json).toDetail("NA1_123");
+        assertEquals("OldName", result.participants().get(0).summonerName());
+    }
+
+    @Test
+    void toDetail_withTeamBansAndObjectives() throws IOException {
+        String json = """
+            {
+                "info": {
+                    "queueId": 420,
+                    "gameDuration": 1800,
+                    "gameEndTimestamp": 1700000000000,
+                    "gameMode": "CLASSIC",
+                    "gameVersion": "14.1",
+                    "teams": [
+                        {
+                            "teamId": 100,
+                            "win": true,
+                            "bans": [{"championId": 157}, {"championId": 238}, {"championId": 84}, {"championId": 91}, {"championId": 55}],
+                            "objectives": {
+                                "baron": {"kills": 2},
+                                "dragon": {"kills": 4},
+                                "tower": {"kills": 11}
+                            }
+                        }
+                    ],
+                    "participants": []
+                }
+            }
+            """;
+
+        MatchDetailDto result = parser.parse(json).toDetail("NA1_123");
+        assertEquals(5, result.teams().get(0).bans().size());
+        assertEquals(157, result.teams().get(0).bans().get(0));
+        assertEquals(2, result.teams().get(0).objectives().baronKills());
+        assertEquals(4, result.teams().get(0).objectives().dragonKills());
+        assertEquals(11, result.teams().get(0).objectives().towerKills());
+    }
+
+    @Test
+    void toDetail_withSingleRuneStyle_handlesGracefully() throws IOException {
+        String json = """
+            {
+                "info": {
+                    "queueId": 420,
+                    "gameDuration": 1800,
+                    "gameEndTimestamp": 1700000000000,
+                    "gameMode": "CLASSIC",
+                    "gameVersion": "14.1",
+                    "teams": [],
+                    "participants": [
+                        {
+                            "riotIdGameName": "Player1",
+                            "riotIdTagline": "NA1",
+                            "championName": "Ahri",
+                            "puuid": "puuid-1",
+                            "teamId": 100,
+                            "kills": 5, "deaths": 3, "assists": 2,
+                            "champLevel": 15,
+                            "totalDamageDealtToChampions": 20000,
+                            "totalDamageTaken": 18000,
+                            "goldEarned": 14000,
+                            "item0": 0, "item1": 0, "item2": 0, "item3": 0, "item4": 0, "item5": 0, "item6": 0,
+                            "totalMinionsKilled": 150,
+                            "neutralMinionsKilled": 10,
+                            "summoner1Id": 4, "summoner2Id": 14,
+                            "perks": {"styles": [{"style": 8100, "selections": [{"perk": 8112}]}]},
+                            "wardsPlaced": 0, "wardsKilled": 0, "visionWardsBoughtInGame": 0,
+                            "doubleKills": 0, "tripleKills": 0, "quadraKills": 0, "pentaKills": 0,
+                            "win": false, "placement": 3, "playerSubteamId": 2
+                        }
+                    ]
+                }
+            }
+            """;
+
+        MatchDetailDto result = parser.parse(json).toDetail("NA1_123");
+        assertEquals(8112, result.participants().get(0).primaryRuneId());
+        assertEquals(0, result.participants().get(0).secondaryRuneStyleId());
+        assertEquals(3, result.participants().get(0).placement());
+        assertEquals(2, result.participants().get(0).playerSubteamId());
+    }
+}
@@ -0,0 +1,114 @@
+package com.jw.backend.service;
+
+import com.jw.backend.entity.MatchPayload;
+import com.jw.backend.repository.MatchPayloadRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MatchPayloadStoreTest {
+
+    @Mock
+    private MatchPayloadRepository matchPayloadRepository;
+
+    private MatchPayloadStore store;
+
+    private static final String JSON = "{\"info\":{\"participants\":[" +
+            "{\"championName\":\"Ahri\"},".repeat(50) + "{\"championName\":\"Zed\"}]}}";
+
+    @BeforeEach
+    void setUp() {
+        store = new MatchPayloadStore(matchPayloadRepository);
+    }
+
+    @Test
+    void compress_roundTripsAndShrinksRepetitiveJson() {
+        byte[] raw = JSON.getBytes(StandardCharsets.UTF_8);
+        byte[] compressed = MatchPayloadStore.compress(raw);
+
+        assertTrue(compressed.length < raw.length / 4);
+        assertEquals(JSON, MatchPayloadStore.decompress(compressed));
+    }
+
+    @Test
+    void save_insertsCompressedPayloadWithSizes() {
+        assertTrue(store.save("NA1_1", "NA", JSON));
+
+        ArgumentCaptor<byte[]> payload = ArgumentCaptor.forClass(byte[].class);
+        ArgumentCaptor<Integer> compressedSize = ArgumentCaptor.forClass(Integer.class);
+        verify(matchPayloadRepository).insertIfAbsent(eq("NA1_1"), eq("NA"), payload.capture(),
+                eq(JSON.length()), compressedSize.capture(), anyLong());
+        assertEquals(payload.getValue().length, compressedSize.getValue());
+        assertEquals(JSON, MatchPayloadStore.decompress(payload.getValue()));
+    }
+
+    @Test
+    void save_databaseFailure_returnsFalse() {
+        when(matchPayloadRepository.insertIfAbsent(any(), any(), any(), anyInt(), anyInt(), anyLong()))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+
+        assertFalse(store.save("NA1_1", "NA", JSON));
+    }
+
+    @Test
+    void save_emptyPayload_isIgnored() {
+        assertFalse(store.save("NA1_1", "NA", ""));
+        verifyNoInteractions(matchPayloadRepository);
+    }
+
+    @Test
+    void find_returnsDecompressedJson() {
+        MatchPayload row = new MatchPayload();
+        row.setMatchId("NA1_1");
+        row.setPayload(MatchPayloadStore.compress(JSON.getBytes(StandardCharsets.UTF_8)));
+        when(matchPayloadRepository.findById("NA1_1")).thenReturn(Optional.of(row));
+
+        assertEquals(Optional.of(JSON), store.find("NA1_1"));
+    }
+
+    @Test
+    void find_databaseFailure_degradesToMiss() {
+        when(matchPayloadRepository.findById("NA1_1")).thenThrow(new DataAccessResourceFailureException("down"));
+
+        assertTrue(store.find("NA1_1").isEmpty());
+    }
+
+    @Test
+    void sizeReport_combinesTotalsAndTableSize() {
+        List<Object[]> rows = List.<Object[]>of(new Object[]{4L, 4_000_000L, 500_000L});
+        when(matchPayloadRepository.sumSizes()).thenReturn(rows);
+        when(matchPayloadRepository.totalRelationSize()).thenReturn(600_000L);
+
+        MatchPayloadStore.SizeReport report = store.sizeReport();
+
+        assertEquals(4, report.matches());
+        assertEquals(4_000_000L, report.rawBytes());
+        assertEquals(500_000L, report.compressedBytes());
+        assertEquals(600_000L, report.tableBytes());
+        assertEquals(8.0, report.compressionRatio(), 0.001);
+    }
+
+    @Test
+    void refreshSizeReport_updatesLastReport() {
+        List<Object[]> rows = List.<Object[]>of(new Object[]{1L, 100L, 20L});
+        when(matchPayloadRepository.sumSizes()).thenReturn(rows);
+        when(matchPayloadRepository.totalRelationSize()).thenReturn(8192L);
+
+        store.refreshSizeReport();
+
+        assertEquals(1, store.lastReport().matches());
+    }
+}
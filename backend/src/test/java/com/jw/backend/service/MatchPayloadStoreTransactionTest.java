@@ -0,0 +1,38 @@
+package com.jw.backend.service;
+
+import com.jw.backend.repository.MatchPayloadRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Put {@link MatchPayloadRepository} behind Spring's transaction interceptor, reading its
+ * own {@code @Transactional} annotations, with a database that cannot open a transaction,
+ * and check that {@link MatchPayloadStore} still degrades to a miss.
+ */
+class MatchPayloadStoreTransactionTest {
+
+    @Test
+    void save_transactionCannotStart_returnsFalse() {
+        PlatformTransactionManager manager = mock(PlatformTransactionManager.class);
+        when(manager.getTransaction(any())).thenThrow(new CannotCreateTransactionException("db down"));
+        MatchPayloadRepository target = mock(MatchPayloadRepository.class);
+
+        ProxyFactory factory = new ProxyFactory(target);
+        factory.addInterface(MatchPayloadRepository.class);
+        factory.addAdvice(new TransactionInterceptor(manager, new AnnotationTransactionAttributeSource()));
+        MatchPayloadStore store = new MatchPayloadStore((MatchPayloadRepository) factory.getProxy());
+
+        assertFalse(store.save("NA1_1", "NA", "{\"info\":{}}"));
+        // The insert's transaction failed to open, so the call never reached the repository
+        verify(manager).getTransaction(any());
+        verifyNoInteractions(target);
+    }
+}
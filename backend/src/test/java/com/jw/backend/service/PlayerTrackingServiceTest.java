@@ -8,12 +8,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.dao.DataIntegrityViolationException;
 
-import java.util.Optional;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,62 +32,58 @@ class PlayerTrackingServiceTest {
     }
 
     @Test
-    void trackPlayer_createsNewPlayerWhenNotExists() {
-        when(trackedPlayerRepository.findByPuuid("new-puuid")).thenReturn(Optional.empty());
-        when(trackedPlayerRepository.save(any())).thenAnswer(i -> i.getArgument(0));
-
-        service.trackPlayer("new-puuid", "NA", "NewPlayer", "NA1");
-
-        ArgumentCaptor<TrackedPlayer> captor = ArgumentCaptor.forClass(TrackedPlayer.class);
-        verify(trackedPlayerRepository).save(captor.capture());
-
-        TrackedPlayer saved = captor.getValue();
-        assertEquals("new-puuid", saved.getPuuid());
-        assertEquals("NA", saved.getRegion());
-        assertEquals("NewPlayer", saved.getGameName());
-        assertEquals("NA1", saved.getTagLine());
-        assertTrue(saved.getLastSearchedAt() > 0);
-        assertTrue(saved.getNextIngestAt() > 0);
+    @SuppressWarnings("unchecked")
+    void trackPlayers_upsertsEverySearchWithImmediateIngest() {
+        long before = System.currentTimeMillis();
+
+        service.trackPlayers(List.of(
+                new PlayerTrackingService.Search("new-puuid", "NA", "NewPlayer", "NA1"),
+                new PlayerTrackingService.Search("other-puuid", "EUW", "Other", "EUW1")));
+
+        ArgumentCaptor<List<TrackedPlayer>> captor = ArgumentCaptor.forClass(List.class);
+        verify(trackedPlayerRepository).upsertSearched(captor.capture());
+
+        List<TrackedPlayer> upserted = captor.getValue();
+        assertEquals(2, upserted.size());
+        TrackedPlayer first = upserted.get(0);
+        assertEquals("new-puuid", first.getPuuid());
+        assertEquals("NA", first.getRegion());
+        assertEquals("NewPlayer", first.getGameName());
+        assertEquals("NA1", first.getTagLine());
+        assertTrue(first.getLastSearchedAt() >= before);
+        assertEquals(first.getLastSearchedAt(), first.getNextIngestAt());
+        assertEquals("EUW", upserted.get(1).getRegion());
     }
 
     @Test
-    void trackPlayer_updatesExistingPlayer() {
-        TrackedPlayer existing = new TrackedPlayer();
-        existing.setPuuid("existing-puuid");
-        existing.setRegion("EUW");
-        existing.setGameName("OldName");
-        existing.setTagLine("EUW1");
-
-        when(trackedPlayerRepository.findByPuuid("existing-puuid")).thenReturn(Optional.of(existing));
-        when(trackedPlayerRepository.save(any())).thenAnswer(i -> i.getArgument(0));
-
-        service.trackPlayer("existing-puuid", "NA", "NewName", "NA1");
-
-        verify(trackedPlayerRepository).save(existing);
-        assertEquals("NA", existing.getRegion());
-        assertEquals("NewName", existing.getGameName());
-        assertEquals("NA1", existing.getTagLine());
+    void trackPlayers_noSearches_upsertsEmptyBatch() {
+        service.trackPlayers(List.of());
+
+        verify(trackedPlayerRepository).upsertSearched(List.of());
     }
 
     @Test
-    void trackPlayer_retriesOnConcurrentInsert() {
-        when(trackedPlayerRepository.findByPuuid("race-puuid"))
-            .thenReturn(Optional.empty())
-            .thenReturn(Optional.of(createPlayer("race-puuid")));
-
-        when(trackedPlayerRepository.save(any()))
-            .thenThrow(new DataIntegrityViolationException("Duplicate key"))
-            .thenAnswer(i -> i.getArgument(0));
-
-        service.trackPlayer("race-puuid", "NA", "RacePlayer", "NA1");
-
-        verify(trackedPlayerRepository, times(2)).save(any());
+    void claimDuePlayers_leasesClaimedRowsAndKeepsDueTime() {
+        TrackedPlayer player = new TrackedPlayer();
+        player.setPuuid("due-puuid");
+        player.setRegion("NA");
+        player.setNextIngestAt(1_000);
+        when(trackedPlayerRepository.findDuePlayers(List.of("NA", "BR"), 5_000, 3)).thenReturn(List.of(player));
+
+        List<PlayerTrackingService.Claim> claims = service.claimDuePlayers(List.of("NA", "BR"), 5_000, 3, 60_000);
+
+        assertEquals(1, claims.size());
+        assertEquals(1_000, claims.get(0).dueAt());
+        assertEquals(65_000, player.getNextIngestAt());
+        assertEquals(65_000, player.getLeasedUntil());
+        verify(trackedPlayerRepository).saveAll(List.of(player));
     }
 
-    private TrackedPlayer createPlayer(String puuid) {
-        TrackedPlayer p = new TrackedPlayer();
-        p.setPuuid(puuid);
-        p.setRegion("NA");
-        return p;
+    @Test
+    void claimDuePlayers_nothingDue_writesNothing() {
+        when(trackedPlayerRepository.findDuePlayers(anyCollection(), anyLong(), anyInt())).thenReturn(List.of());
+
+        assertTrue(service.claimDuePlayers(List.of("KR"), 5_000, 3, 60_000).isEmpty());
+        verify(trackedPlayerRepository, never()).saveAll(any());
     }
 }
@@ -21,7 +21,7 @@ class RateLimitServiceTest {
 
     @BeforeEach
     void setUp() {
-        rateLimitService = new RateLimitService();
+        rateLimitService = new RateLimitService(new InMemoryUserRateLimitStore());
     }
 
     /** Verify that PRO-tier users are never rate limited. */
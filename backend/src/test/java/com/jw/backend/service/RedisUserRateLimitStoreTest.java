@@ -0,0 +1,88 @@
+package com.jw.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("unchecked")
+class RedisUserRateLimitStoreTest {
+
+    private static final UserRateLimitStore.Policy POLICY = new UserRateLimitStore.Policy("free", 2, 60_000);
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private AtomicLong now;
+    private RedisUserRateLimitStore store;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(1_000_000);
+        store = new RedisUserRateLimitStore(redisTemplate, now::get);
+    }
+
+    private void redisReturns(Long waitMs) {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(waitMs);
+    }
+
+    @Test
+    void tryAcquire_admitsWhenScriptReturnsZero() {
+        redisReturns(0L);
+
+        assertTrue(store.tryAcquire(POLICY, "u"));
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("ratelimit:free:u")),
+                eq("2"), eq("60000"), anyString());
+    }
+
+    @Test
+    void tryAcquire_cachesDenialUntilWindowFrees() {
+        redisReturns(5_000L);
+
+        assertFalse(store.tryAcquire(POLICY, "u"));
+        assertFalse(store.tryAcquire(POLICY, "u"));
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(), any(Object[].class));
+
+        now.addAndGet(5_000);
+        store.tryAcquire(POLICY, "u");
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+
+    @Test
+    void tryAcquire_fallsBackToLocalLimitWhenRedisFails() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        assertTrue(store.tryAcquire(POLICY, "u"));
+        assertTrue(store.isDegraded());
+        assertTrue(store.tryAcquire(POLICY, "u"));
+        assertFalse(store.tryAcquire(POLICY, "u"));
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+
+    @Test
+    void tryAcquire_retriesRedisAfterBackoff() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("down"))
+                .thenReturn(0L);
+        store.tryAcquire(POLICY, "u");
+
+        now.addAndGet(5_000);
+
+        assertTrue(store.tryAcquire(POLICY, "u"));
+        assertFalse(store.isDegraded());
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+}
@@ -0,0 +1,128 @@
+package com.jw.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RiotClusterBudgetTest {
+
+    private static final List<RiotRateLimiter.Limit> APP = List.of(new RiotRateLimiter.Limit(20, 1000));
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private AtomicLong now;
+    private RiotClusterBudget budget;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(1_000_000);
+        budget = new RiotClusterBudget(redisTemplate, true, 5, 0.5, now::get);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void redisReturns(long granted, long waitMs, long validMs) {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of(granted, waitMs, validMs));
+    }
+
+    private long take() {
+        return budget.take("na1", "summoner", RiotPriority.INTERACTIVE, 1.0, APP, List.of());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void take_servesLeaseLocallyUntilSpent() {
+        redisReturns(5, 0, 800);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, take());
+        }
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(), any(Object[].class));
+
+        take();
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void take_leaseExpiresWithItsWindow() {
+        redisReturns(5, 0, 800);
+        take();
+
+        now.addAndGet(800);
+        take();
+
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void take_deniedReturnsWaitWithoutAskingAgain() {
+        redisReturns(0, 300, 0);
+
+        assertEquals(300, take());
+        assertEquals(300, take());
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(), any(Object[].class));
+        assertEquals(1, budget.stats().denied());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void take_redisDown_fallsBackAndRetriesLater() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        assertEquals(RiotClusterBudget.UNAVAILABLE, take());
+        assertEquals(RiotClusterBudget.UNAVAILABLE, take());
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(), any(Object[].class));
+        assertTrue(budget.stats().fallbackActive());
+
+        now.addAndGet(5_000);
+        take();
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void take_sendsOneHashTaggedKeyPerWindow() {
+        redisReturns(5, 0, 800);
+
+        budget.take("americas", "match-v5.match", RiotPriority.BACKGROUND, 0.7,
+                List.of(new RiotRateLimiter.Limit(20, 1000), new RiotRateLimiter.Limit(100, 120_000)),
+                List.of(new RiotRateLimiter.Limit(2000, 10_000)));
+
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(
+                "riot:ratelimit:{americas}:app:1000",
+                "riot:ratelimit:{americas}:app:120000",
+                "riot:ratelimit:{americas}:match-v5.match:10000")), any(Object[].class));
+    }
+
+    @Test
+    void giveBack_returnsPermitToLease() {
+        redisReturns(1, 0, 800);
+        take();
+
+        budget.giveBack("na1", "summoner", RiotPriority.INTERACTIVE);
+
+        assertEquals(0, take());
+    }
+
+    @Test
+    void localOnly_isDisabled() {
+        assertFalse(RiotClusterBudget.localOnly().isEnabled());
+    }
+}
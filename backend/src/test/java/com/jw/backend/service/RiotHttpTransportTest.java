@@ -0,0 +1,59 @@
+package com.jw.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RiotHttpTransportTest {
+
+    private final RiotHttpTransport transport = new RiotHttpTransport("h2", 20, 10_000, 60_000, 300_000, 3_000, 10_000);
+
+    @AfterEach
+    void tearDown() {
+        transport.shutdown();
+    }
+
+    @Test
+    void client_isReusedPerHost() {
+        assertSame(transport.client("na1"), transport.client("na1"));
+        assertNotSame(transport.client("na1"), transport.client("americas"));
+    }
+
+    @Test
+    void hostStats_emptyForUnusedHost() {
+        RiotHttpTransport.HostStats stats = transport.hostStats("kr");
+
+        assertEquals(0, stats.requests());
+        assertEquals(0, stats.bytesRead());
+        assertEquals(0, stats.activeConnections());
+        assertEquals(0, stats.timeToFirstByte().count());
+    }
+
+    @Test
+    void interceptor_recordsRequestAndCountsBodyBytes() throws Exception {
+        byte[] payload = "{\"metadata\":{\"matchId\":\"NA1_1\"}}".getBytes(StandardCharsets.UTF_8);
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET,
+                URI.create("https://americas.api.riotgames.com/lol/match/v5/matches/NA1_1"));
+
+        try (ClientHttpResponse response = transport.interceptor("americas").intercept(request, new byte[0],
+                (req, body) -> new MockClientHttpResponse(payload, HttpStatus.OK))) {
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertArrayEquals(payload, response.getBody().readAllBytes());
+        }
+
+        RiotHttpTransport.HostStats stats = transport.hostStats("americas");
+        assertEquals(1, stats.requests());
+        assertEquals(payload.length, stats.bytesRead());
+        assertEquals(1, stats.timeToFirstByte().count());
+        assertEquals(0, transport.hostStats("na1").requests());
+    }
+}
@@ -0,0 +1,111 @@
+package com.jw.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RiotIoExecutorTest {
+
+    private RiotIoExecutor executor = new RiotIoExecutor("virtual", 0, 4, 5_000);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void fanOut_returnsResultsInInputOrder() {
+        List<Integer> results = executor.fanOut(List.of(1, 2, 3, 4, 5, 6), i -> i * 10, (i, ex) -> -1);
+
+        assertEquals(List.of(10, 20, 30, 40, 50, 60), results);
+        assertEquals(6, executor.stats().completed());
+        assertEquals(0, executor.stats().inFlight());
+        assertEquals(0, executor.stats().waiting());
+    }
+
+    @Test
+    void fanOut_failedTaskGetsFallback() {
+        List<String> results = executor.fanOut(List.of("a", "b"), s -> {
+            if (s.equals("b")) throw new IllegalStateException("boom");
+            return s.toUpperCase();
+        }, (s, ex) -> "fallback:" + ex.getMessage());
+
+        assertEquals(List.of("A", "fallback:boom"), results);
+        assertEquals(1, executor.stats().failed());
+    }
+
+    @Test
+    void fanOut_keepsNullResults() {
+        List<String> results = executor.fanOut(List.of("a", "b"), s -> s.equals("a") ? null : s, (s, ex) -> "x");
+
+        assertNull(results.get(0));
+        assertEquals("b", results.get(1));
+    }
+
+    @Test
+    void fanOut_capsWorkersPerCaller() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        executor.fanOut(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12), i -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            sleep(20);
+            running.decrementAndGet();
+            return i;
+        }, (i, ex) -> i);
+
+        assertTrue(peak.get() <= 4, "peak concurrency was " + peak.get());
+    }
+
+    @Test
+    void fanOut_deadlineFallsBackForUnfinishedTasks() {
+        CountDownLatch never = new CountDownLatch(1);
+
+        List<String> results = executor.fanOut(List.of("fast", "slow"), s -> {
+            if (s.equals("slow")) {
+                try {
+                    never.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "late";
+            }
+            return s;
+        }, (s, ex) -> ex instanceof TimeoutException ? "timeout" : "error", 100);
+
+        assertEquals(List.of("fast", "timeout"), results);
+        assertEquals(1, executor.stats().timedOut());
+    }
+
+    @Test
+    void fanOut_carriesCallerLaneToWorkers() {
+        List<RiotPriority> lanes = RiotPriority.callAs(RiotPriority.BACKGROUND, () ->
+                executor.fanOut(List.of(1, 2, 3), i -> RiotPriority.current(), (i, ex) -> null));
+
+        assertEquals(List.of(RiotPriority.BACKGROUND, RiotPriority.BACKGROUND, RiotPriority.BACKGROUND), lanes);
+    }
+
+    @Test
+    void platformMode_usesFixedPool() {
+        executor.shutdown();
+        executor = new RiotIoExecutor("platform", 2, 2, 5_000);
+
+        assertFalse(executor.isVirtual());
+        assertEquals(List.of(1, 2, 3), executor.fanOut(List.of(1, 2, 3), i -> i, (i, ex) -> -1));
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
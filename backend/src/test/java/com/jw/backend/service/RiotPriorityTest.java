@@ -0,0 +1,46 @@
+package com.jw.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RiotPriorityTest {
+
+    @Test
+    void current_defaultsToInteractive() {
+        assertEquals(RiotPriority.INTERACTIVE, RiotPriority.current());
+    }
+
+    @Test
+    void callAs_restoresPreviousLane() {
+        RiotPriority inside = RiotPriority.callAs(RiotPriority.BACKGROUND, RiotPriority::current);
+
+        assertEquals(RiotPriority.BACKGROUND, inside);
+        assertEquals(RiotPriority.INTERACTIVE, RiotPriority.current());
+    }
+
+    @Test
+    void callAs_restoresLaneWhenWorkThrows() {
+        assertThrows(IllegalStateException.class, () -> RiotPriority.runAs(RiotPriority.PREFETCH, () -> {
+            throw new IllegalStateException("boom");
+        }));
+        assertEquals(RiotPriority.INTERACTIVE, RiotPriority.current());
+    }
+
+    @Test
+    void propagate_carriesLaneToAnotherThread() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            RiotPriority seen = RiotPriority.callAs(RiotPriority.BACKGROUND, () ->
+                    CompletableFuture.supplyAsync(RiotPriority.propagate(RiotPriority::current), executor).join());
+
+            assertEquals(RiotPriority.BACKGROUND, seen);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -2,62 +2,234 @@ package com.jw.backend.service;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
 
 class RiotRateLimiterTest {
 
+    private AtomicLong now;
     private RiotRateLimiter limiter;
 
     @BeforeEach
     void setUp() {
-        limiter = new RiotRateLimiter();
+        now = new AtomicLong(1_000_000);
+        limiter = new RiotRateLimiter("20:1,100:120", 10_000, 0.85, 0.7, 0.3, RiotClusterBudget.localOnly(),
+                now::get);
+    }
+
+    private int drain(String host, String method) {
+        int count = 0;
+        while (limiter.tryAcquire(host, method) == 0) {
+            count++;
+        }
+        return count;
+    }
+
+    private static HttpHeaders headers(String... pairs) {
+        HttpHeaders headers = new HttpHeaders();
+        for (int i = 0; i < pairs.length; i += 2) {
+            headers.add(pairs[i], pairs[i + 1]);
+        }
+        return headers;
     }
 
     @Test
-    void acquire_consumesPermit() {
-        limiter.acquire();
-        // Should not throw — permits are available (starts with 100)
-        assertTrue(limiter.tryAcquire());
+    void tryAcquire_enforcesShortWindow() {
+        assertEquals(20, drain("na1", "summoner"));
+
+        long wait = limiter.tryAcquire("na1", "summoner");
+        assertTrue(wait > 0 && wait <= 1000);
+
+        now.addAndGet(1000);
+        assertEquals(0, limiter.tryAcquire("na1", "summoner"));
     }
 
     @Test
-    void tryAcquire_returnsTrueWhenPermitsAvailable() {
-        assertTrue(limiter.tryAcquire());
+    void tryAcquire_enforcesLongWindow() {
+        int granted = 0;
+        for (int second = 0; second < 10; second++) {
+            granted += drain("na1", "summoner");
+            now.addAndGet(1000);
+        }
+        assertEquals(100, granted);
+        assertTrue(limiter.tryAcquire("na1", "summoner") > 1000);
     }
 
     @Test
-    void tryAcquire_returnsFalseWhenExhausted() {
-        // Exhaust all 100 permits
-        for (int i = 0; i < 100; i++) {
-            assertTrue(limiter.tryAcquire());
+    void hosts_haveIndependentBuckets() {
+        drain("americas", "match");
+
+        assertEquals(0, limiter.tryAcquire("europe", "match"));
+        assertEquals(0, limiter.tryAcquire("na1", "summoner"));
+    }
+
+    @Test
+    void onResponse_learnsMethodLimit() {
+        limiter.onResponse("na1", "league", headers(RiotRateLimiter.METHOD_LIMIT_HEADER, "3:10"));
+
+        assertEquals(3, drain("na1", "league"));
+        // Other methods on the same host still have application budget
+        assertEquals(0, limiter.tryAcquire("na1", "summoner"));
+    }
+
+    @Test
+    void onResponse_learnsApplicationLimitAndCount() {
+        limiter.onResponse("na1", "summoner", headers(
+                RiotRateLimiter.APP_LIMIT_HEADER, "50:1",
+                RiotRateLimiter.APP_COUNT_HEADER, "45:1"));
+
+        assertEquals(5, drain("na1", "summoner"));
+    }
+
+    @Test
+    void onRateLimited_methodLimit_blocksOnlyThatMethod() {
+        long backoff = limiter.onRateLimited("na1", "league", headers(
+                HttpHeaders.RETRY_AFTER, "5",
+                RiotRateLimiter.LIMIT_TYPE_HEADER, "method"));
+
+        assertEquals(5000, backoff);
+        assertTrue(limiter.tryAcquire("na1", "league") > 4000);
+        assertEquals(0, limiter.tryAcquire("na1", "summoner"));
+
+        now.addAndGet(5000);
+        assertEquals(0, limiter.tryAcquire("na1", "league"));
+    }
+
+    @Test
+    void onRateLimited_applicationLimit_blocksWholeHost() {
+        limiter.onRateLimited("na1", "league", headers(
+                HttpHeaders.RETRY_AFTER, "2",
+                RiotRateLimiter.LIMIT_TYPE_HEADER, "application"));
+
+        assertTrue(limiter.tryAcquire("na1", "summoner") > 0);
+        assertEquals(0, limiter.tryAcquire("kr", "summoner"));
+        assertEquals(1, limiter.stats().rateLimited());
+    }
+
+    @Test
+    void acquire_throwsWhenWaitExceedsTimeout() {
+        limiter.onRateLimited("na1", "league", headers(HttpHeaders.RETRY_AFTER, "30"));
+
+        assertThrows(RuntimeException.class, () -> limiter.acquire("na1", "league"));
+        assertEquals(1, limiter.stats().rejected());
+    }
+
+    @Test
+    void parseLimits_skipsMalformedPairs() {
+        assertEquals(List.of(new RiotRateLimiter.Limit(20, 1000), new RiotRateLimiter.Limit(100, 120_000)),
+                RiotRateLimiter.parseLimits("20:1, bad, 100:120, 0:5"));
+    }
+
+    @Test
+    void sustainedRate_usesTightestWindowAndLaneShare() {
+        // 100 per 120 s is tighter than 20 per second; background gets 70 of those 100
+        assertEquals(100 / 120.0, limiter.sustainedRate("na1", RiotPriority.INTERACTIVE), 1e-9);
+        assertEquals(70 / 120.0, limiter.sustainedRate("na1", RiotPriority.BACKGROUND), 1e-9);
+
+        limiter.onResponse("na1", "match", headers(RiotRateLimiter.APP_LIMIT_HEADER, "500:10,30000:600"));
+
+        assertEquals(350 / 10.0, limiter.sustainedRate("na1", RiotPriority.BACKGROUND), 1e-9);
+    }
+
+    @Test
+    void backgroundLane_leavesHeadroomForInteractive() {
+        int background = 0;
+        while (limiter.tryAcquire("na1", "match", RiotPriority.BACKGROUND) == 0) {
+            background++;
+        }
+        int prefetch = 0;
+        while (limiter.tryAcquire("na1", "match", RiotPriority.PREFETCH) == 0) {
+            prefetch++;
+        }
+        int interactive = 0;
+        while (limiter.tryAcquire("na1", "match", RiotPriority.INTERACTIVE) == 0) {
+            interactive++;
         }
-        assertFalse(limiter.tryAcquire());
+
+        assertEquals(14, background);
+        assertEquals(3, prefetch);
+        assertEquals(3, interactive);
     }
 
     @Test
-    void refill_addsPermitWhenBelowMax() {
-        // Exhaust all permits
-        for (int i = 0; i < 100; i++) {
-            limiter.tryAcquire();
+    void warmupLane_stopsOnceBackgroundHasFilledItsShare() {
+        int warmup = 0;
+        while (limiter.tryAcquire("na1", "account", RiotPriority.WARMUP) == 0) {
+            warmup++;
         }
-        assertFalse(limiter.tryAcquire());
+        assertEquals(6, warmup);
 
-        // Refill one
-        limiter.refill();
-        assertTrue(limiter.tryAcquire());
+        int background = 0;
+        while (limiter.tryAcquire("na1", "match", RiotPriority.BACKGROUND) == 0) {
+            background++;
+        }
+        assertEquals(8, background);
+        assertTrue(limiter.tryAcquire("na1", "account", RiotPriority.WARMUP) > 0);
     }
 
     @Test
-    void refill_doesNotExceedMaxPermits() {
-        // At full capacity, refill should be a no-op
-        limiter.refill();
-        limiter.refill();
-        // Still should have exactly 100 permits, not more
-        int count = 0;
-        while (limiter.tryAcquire()) {
-            count++;
+    void acquire_recordsWaitPerLane() {
+        limiter.acquire("na1", "match", RiotPriority.BACKGROUND);
+        limiter.acquire("na1", "match");
+
+        assertEquals(1, limiter.laneStats(RiotPriority.BACKGROUND).waits().count());
+        assertEquals(1, limiter.laneStats(RiotPriority.INTERACTIVE).waits().count());
+        assertEquals(0, limiter.laneStats(RiotPriority.PREFETCH).waits().count());
+        assertEquals(0, limiter.laneStats(RiotPriority.INTERACTIVE).queued());
+    }
+
+    @Test
+    void clusterBudget_denialIsReturnedAsWait() {
+        RiotClusterBudget cluster = mock(RiotClusterBudget.class);
+        when(cluster.isEnabled()).thenReturn(true);
+        when(cluster.take(eq("na1"), eq("match"), any(), anyDouble(), anyList(), anyList()))
+                .thenReturn(250L);
+        RiotRateLimiter clustered = new RiotRateLimiter("20:1", 10_000, 0.85, 0.7, 0.3, cluster, now::get);
+
+        assertEquals(250, clustered.tryAcquire("na1", "match"));
+    }
+
+    @Test
+    void clusterBudget_unavailable_shrinksLocalShare() {
+        RiotClusterBudget cluster = mock(RiotClusterBudget.class);
+        when(cluster.isEnabled()).thenReturn(true);
+        when(cluster.fallbackShare()).thenReturn(0.5);
+        when(cluster.take(anyString(), anyString(), any(), anyDouble(), anyList(), anyList()))
+                .thenReturn(RiotClusterBudget.UNAVAILABLE);
+        RiotRateLimiter clustered = new RiotRateLimiter("20:1", 10_000, 0.85, 0.7, 0.3, cluster, now::get);
+
+        int granted = 0;
+        while (clustered.tryAcquire("na1", "match") == 0) {
+            granted++;
+        }
+        assertEquals(10, granted);
+    }
+
+    @Test
+    void acquireReactive_completesWhenPermitFree() {
+        limiter.acquireReactive("na1", "match", RiotPriority.INTERACTIVE).block();
+
+        assertEquals(1, limiter.stats().acquired());
+        assertEquals(1, limiter.laneStats(RiotPriority.INTERACTIVE).waits().count());
+    }
+
+    @Test
+    void acquireReactive_errorsWhenWaitExceedsTimeout() {
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire("na1", "match");
+            now.addAndGet(1000);
         }
-        assertEquals(100, count);
+
+        // The 100:120 window is full for longer than the 10 s acquire timeout
+        assertThrows(RuntimeException.class,
+                () -> limiter.acquireReactive("na1", "match", RiotPriority.INTERACTIVE).block());
+        assertEquals(1, limiter.stats().rejected());
+        assertEquals(0, limiter.laneStats(RiotPriority.INTERACTIVE).queued());
     }
 }
@@ -0,0 +1,146 @@
+package com.jw.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jw.backend.region.RiotRegion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RiotReactiveClientTest {
+
+    @Mock
+    private ReactiveStringRedisTemplate redisTemplate;
+
+    @Mock
+    private ReactiveValueOperations<String, String> valueOperations;
+
+    @Mock
+    private MatchPayloadStore matchPayloadStore;
+
+    @Mock
+    private RiotHttpTransport transport;
+
+    private RiotResponseCache localCache;
+    private RiotRequestCoalescer coalescer;
+    private RiotReactiveClient client;
+
+    @BeforeEach
+    void setUp() {
+        RiotRateLimiter limiter = new RiotRateLimiter("20:1,100:120", 10_000, 0.85, 0.7, 0.3,
+                RiotClusterBudget.localOnly());
+        localCache = new RiotResponseCache(1024 * 1024);
+        coalescer = new RiotRequestCoalescer();
+        client = new RiotReactiveClient("fake-api-key", new ObjectMapper(), redisTemplate, limiter, localCache,
+                matchPayloadStore, coalescer, transport, 20, 30_000);
+    }
+
+    @Test
+    void getSummonerByPuuid_l1Hit_skipsRedis() {
+        localCache.put("summoner:na1:p1", "{\"level\":30}", 60_000);
+
+        assertEquals("{\"level\":30}", client.getSummonerByPuuid("p1", RiotRegion.NA).block());
+        verifyNoInteractions(redisTemplate, transport);
+        assertEquals(0, coalescer.stats().executions());
+    }
+
+    @Test
+    void getSummonerByPuuid_redisHit_copiesIntoL1() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("summoner:na1:p1")).thenReturn(Mono.just("{\"level\":31}"));
+
+        assertEquals("{\"level\":31}", client.getSummonerByPuuid("p1", RiotRegion.NA).block());
+        assertEquals("{\"level\":31}", localCache.peek("summoner:na1:p1"));
+        verifyNoInteractions(transport);
+    }
+
+    @Test
+    void getSummonerByPuuid_isLazyUntilSubscribed() {
+        client.getSummonerByPuuid("p1", RiotRegion.NA);
+
+        verifyNoInteractions(redisTemplate, transport);
+    }
+
+    @Test
+    void getMatchDetail_durableStoreHit_skipsRedisAndRiot() {
+        when(matchPayloadStore.find("NA1_1")).thenReturn(Optional.of("{\"info\":{}}"));
+
+        assertEquals("{\"info\":{}}", client.getMatchDetail("NA1_1", RiotRegion.NA).block());
+        assertEquals("{\"info\":{}}", localCache.peek("matchDetail:americas:NA1_1"));
+        verify(matchPayloadStore, never()).save(anyString(), anyString(), anyString());
+        verifyNoInteractions(redisTemplate, transport);
+    }
+
+    @Test
+    void getMatchDetail_legacyRedisPayload_migratesToStore() {
+        when(matchPayloadStore.find("NA1_2")).thenReturn(Optional.empty());
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("matchDetail:americas:NA1_2")).thenReturn(Mono.just("{\"legacy\":true}"));
+        when(matchPayloadStore.save("NA1_2", "NA", "{\"legacy\":true}")).thenReturn(true);
+
+        assertEquals("{\"legacy\":true}", client.getMatchDetail("NA1_2", RiotRegion.NA).block());
+        verify(matchPayloadStore).save("NA1_2", "NA", "{\"legacy\":true}");
+        verifyNoInteractions(transport);
+    }
+
+    @Test
+    void redisFailure_degradesToMiss() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("ranked:na1:p1")).thenReturn(Mono.error(new RuntimeException("redis down")));
+        when(transport.webClient("na1")).thenThrow(new IllegalStateException("no network in tests"));
+
+        // The miss falls through to Riot, which is unreachable here
+        assertThrows(IllegalStateException.class, () -> client.getRankedEntriesByPuuid("p1", RiotRegion.NA).block());
+        verify(transport).webClient("na1");
+    }
+
+    @Test
+    void getParsedMatches_noIds_makesNoCalls() {
+        assertEquals(Map.of(), client.getParsedMatches(RiotRegion.NA, List.of()).block());
+        verifyNoInteractions(redisTemplate, transport, matchPayloadStore);
+    }
+
+    @Test
+    void getParsedMatches_keepsRequestedOrder() {
+        localCache.put("matchDetail:americas:NA1_1", matchJson("NA1_1", 1_000), 60_000);
+        localCache.put("matchDetail:americas:NA1_2", matchJson("NA1_2", 2_000), 60_000);
+
+        var matches = client.getParsedMatches(RiotRegion.NA, List.of("NA1_2", "NA1_1")).block();
+
+        assertEquals(List.of("NA1_2", "NA1_1"), List.copyOf(matches.keySet()));
+        assertEquals(2_000, matches.get("NA1_2").gameEndTimestamp());
+        assertEquals("p1", matches.get("NA1_1").participants().get(0).puuid());
+        verifyNoInteractions(transport);
+    }
+
+    @Test
+    void getParsedMatch_countsEachLookupOnce() {
+        localCache.put("matchDetail:americas:NA1_1", matchJson("NA1_1", 1_000), 60_000);
+
+        client.getParsedMatch("NA1_1", RiotRegion.NA).block();
+        assertEquals(1, localCache.stats().hits());
+        assertEquals(0, localCache.stats().misses());
+
+        client.getParsedMatch("NA1_1", RiotRegion.NA).block();
+        assertEquals(2, localCache.stats().hits());
+        assertEquals(0, localCache.stats().misses());
+    }
+
+    private static String matchJson(String matchId, long gameEndTimestamp) {
+        return "{\"metadata\":{\"matchId\":\"" + matchId + "\"},\"info\":{\"gameEndTimestamp\":" + gameEndTimestamp
+                + ",\"participants\":[{\"puuid\":\"p1\",\"championName\":\"Ahri\",\"teamId\":100}]}}";
+    }
+}
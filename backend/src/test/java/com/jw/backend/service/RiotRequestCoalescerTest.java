@@ -0,0 +1,225 @@
+package com.jw.backend.service;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RiotRequestCoalescerTest {
+
+    private final RiotRequestCoalescer coalescer = new RiotRequestCoalescer();
+
+    @Test
+    void execute_concurrentCallsForSameKey_runOnce() throws Exception {
+        int callers = 8;
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(pool.submit(() -> coalescer.execute("ranked:na1:p1", RiotPriority.INTERACTIVE, () -> {
+                calls.incrementAndGet();
+                leaderStarted.countDown();
+                await(release);
+                return "result";
+            })));
+            assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+            for (int i = 1; i < callers; i++) {
+                results.add(pool.submit(() -> coalescer.execute("ranked:na1:p1", RiotPriority.INTERACTIVE, () -> {
+                    calls.incrementAndGet();
+                    return "duplicate";
+                })));
+            }
+            waitForCoalesced(callers - 1);
+            release.countDown();
+
+            for (Future<String> f : results) {
+                assertEquals("result", f.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, calls.get());
+        assertEquals(1, coalescer.stats().executions());
+        assertEquals(callers - 1, coalescer.stats().coalesced());
+        assertEquals(0, coalescer.stats().inFlight());
+    }
+
+    @Test
+    void execute_differentKeys_runIndependently() {
+        assertEquals("a", coalescer.execute("k1", RiotPriority.INTERACTIVE, () -> "a"));
+        assertEquals("b", coalescer.execute("k2", RiotPriority.INTERACTIVE, () -> "b"));
+        assertEquals(2, coalescer.stats().executions());
+        assertEquals(0, coalescer.stats().coalesced());
+    }
+
+    @Test
+    void execute_afterCompletion_runsAgain() {
+        AtomicInteger calls = new AtomicInteger();
+        coalescer.execute("k", RiotPriority.INTERACTIVE, calls::incrementAndGet);
+        coalescer.execute("k", RiotPriority.INTERACTIVE, calls::incrementAndGet);
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void execute_failure_isSharedWithWaitersAndReleasesKey() throws Exception {
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<Object> leader = pool.submit(() -> coalescer.execute("k", RiotPriority.INTERACTIVE, () -> {
+                leaderStarted.countDown();
+                await(release);
+                throw new IllegalStateException("riot down");
+            }));
+            assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+            Future<Object> waiter = pool.submit(() ->
+                    coalescer.execute("k", RiotPriority.INTERACTIVE, () -> "unused"));
+            waitForCoalesced(1);
+            release.countDown();
+
+            Exception leaderEx = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+            Exception waiterEx = assertThrows(Exception.class, () -> waiter.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, leaderEx.getCause());
+            assertInstanceOf(IllegalStateException.class, waiterEx.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals("fresh", coalescer.execute("k", RiotPriority.INTERACTIVE, () -> "fresh"));
+    }
+
+    @Test
+    void executeReactive_concurrentSubscribersShareOneCall() {
+        AtomicInteger calls = new AtomicInteger();
+        Sinks.One<String> response = Sinks.one();
+
+        Mono<String> first = coalescer.executeReactive("account:americas:p1", RiotPriority.INTERACTIVE, () -> {
+            calls.incrementAndGet();
+            return response.asMono();
+        }).cache();
+        Mono<String> second = coalescer.executeReactive("account:americas:p1", RiotPriority.INTERACTIVE, () -> {
+            calls.incrementAndGet();
+            return Mono.just("duplicate");
+        }).cache();
+        first.subscribe();
+        second.subscribe();
+        response.tryEmitValue("result");
+
+        assertEquals("result", first.block());
+        assertEquals("result", second.block());
+        assertEquals(1, calls.get());
+        assertEquals(1, coalescer.stats().coalesced());
+        assertEquals(0, coalescer.stats().inFlight());
+    }
+
+    @Test
+    void executeReactive_blockingCallerJoinsReactiveLeader() throws Exception {
+        Sinks.One<String> response = Sinks.one();
+        Mono<String> leader = coalescer.executeReactive("k", RiotPriority.INTERACTIVE, response::asMono).cache();
+        leader.subscribe();
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> blocking = pool.submit(() ->
+                    coalescer.execute("k", RiotPriority.INTERACTIVE, () -> "duplicate"));
+            waitForCoalesced(1);
+            response.tryEmitValue("result");
+
+            assertEquals("result", blocking.get(5, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void executeReactive_errorIsSharedAndKeyReleased() {
+        Mono<String> failing = coalescer.executeReactive("k", RiotPriority.INTERACTIVE,
+                () -> Mono.error(new IllegalStateException("boom")));
+
+        assertThrows(IllegalStateException.class, failing::block);
+        assertEquals(0, coalescer.stats().inFlight());
+        assertEquals("fresh", coalescer.executeReactive("k", RiotPriority.INTERACTIVE, () -> Mono.just("fresh"))
+                .block());
+    }
+
+    @Test
+    void executeReactive_firstCallerCancels_joinedCallerStillGetsValue() {
+        Sinks.One<String> response = Sinks.one();
+        Disposable first = coalescer.executeReactive("k", RiotPriority.INTERACTIVE, response::asMono).subscribe();
+        Mono<String> joined = coalescer.executeReactive("k", RiotPriority.INTERACTIVE,
+                () -> Mono.just("duplicate")).cache();
+        joined.subscribe();
+
+        first.dispose();
+        response.tryEmitValue("result");
+
+        assertEquals("result", joined.block(Duration.ofSeconds(5)));
+        assertEquals(1, coalescer.stats().executions());
+        assertEquals(0, coalescer.stats().inFlight());
+    }
+
+    @Test
+    void executeReactive_interactiveCallerDoesNotWaitOnBackgroundCall() {
+        Sinks.One<String> background = Sinks.one();
+        Mono<String> slow = coalescer.executeReactive("k", RiotPriority.BACKGROUND, background::asMono).cache();
+        slow.subscribe();
+
+        assertEquals("own", coalescer.executeReactive("k", RiotPriority.INTERACTIVE, () -> Mono.just("own"))
+                .block(Duration.ofSeconds(5)));
+        assertEquals(0, coalescer.stats().coalesced());
+        assertEquals(2, coalescer.stats().executions());
+
+        background.tryEmitValue("background");
+        assertEquals("background", slow.block());
+    }
+
+    @Test
+    void executeReactive_backgroundCallerJoinsInteractiveCall() {
+        Sinks.One<String> response = Sinks.one();
+        Mono<String> interactive = coalescer.executeReactive("k", RiotPriority.INTERACTIVE, response::asMono).cache();
+        interactive.subscribe();
+
+        Mono<String> background = coalescer.executeReactive("k", RiotPriority.BACKGROUND,
+                () -> Mono.just("duplicate")).cache();
+        background.subscribe();
+        response.tryEmitValue("result");
+
+        assertEquals("result", background.block());
+        assertEquals(1, coalescer.stats().coalesced());
+    }
+
+    private void waitForCoalesced(long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (coalescer.stats().coalesced() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, coalescer.stats().coalesced());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.jw.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RiotResponseCacheTest {
+
+    private AtomicLong now;
+    private RiotResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(1_000_000);
+        // Room for three 200-char entries once per-entry overhead is counted
+        cache = new RiotResponseCache(1600, now::get);
+    }
+
+    private static String payload(int length) {
+        return "x".repeat(length);
+    }
+
+    @Test
+    void get_returnsStoredValueAndCountsHit() {
+        cache.put("k1", "v1", 60_000);
+
+        assertEquals("v1", cache.get("k1"));
+        assertEquals(1, cache.stats().hits());
+        assertEquals(0, cache.stats().misses());
+    }
+
+    @Test
+    void get_missingKey_countsMiss() {
+        assertNull(cache.get("missing"));
+        assertEquals(1, cache.stats().misses());
+    }
+
+    @Test
+    void get_afterTtl_returnsNullAndReleasesWeight() {
+        cache.put("k1", payload(200), 30_000);
+        now.addAndGet(30_000);
+
+        assertNull(cache.get("k1"));
+        assertEquals(0, cache.stats().weightBytes());
+        assertEquals(0, cache.stats().entries());
+    }
+
+    @Test
+    void put_overBudget_evictsLeastRecentlyUsedByWeight() {
+        cache.put("a", payload(200), 60_000);
+        cache.put("b", payload(200), 60_000);
+        cache.put("c", payload(200), 60_000);
+        cache.get("a"); // "b" is now the eldest
+
+        cache.put("d", payload(200), 60_000);
+
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("d"));
+        assertEquals(1, cache.stats().evictions());
+        assertTrue(cache.stats().weightBytes() <= 1600);
+    }
+
+    @Test
+    void put_singleLargeEntry_evictsManySmallOnes() {
+        for (int i = 0; i < 5; i++) {
+            cache.put("small-" + i, payload(10), 60_000);
+        }
+
+        cache.put("large", payload(700), 60_000);
+
+        assertNotNull(cache.get("large"));
+        assertTrue(cache.stats().evictions() >= 4);
+    }
+
+    @Test
+    void put_weighsTwoBytesPerChar() {
+        cache.put("a", payload(100), 60_000);
+        long small = cache.stats().weightBytes();
+        cache.put("a", payload(200), 60_000);
+
+        assertEquals(small + 200, cache.stats().weightBytes());
+    }
+
+    @Test
+    void put_valueLargerThanBudget_isNotCached() {
+        cache.put("huge", payload(5000), 60_000);
+
+        assertNull(cache.get("huge"));
+        assertEquals(0, cache.stats().weightBytes());
+    }
+
+    @Test
+    void put_sameKey_replacesWithoutDoubleCountingWeight() {
+        cache.put("k", payload(100), 60_000);
+        long weight = cache.stats().weightBytes();
+
+        cache.put("k", payload(100), 60_000);
+
+        assertEquals(weight, cache.stats().weightBytes());
+        assertEquals(1, cache.stats().entries());
+    }
+
+    @Test
+    void purgeExpired_dropsOnlyExpiredEntries() {
+        cache.put("short", "v", 1_000);
+        cache.put("long", "v", 60_000);
+        now.addAndGet(5_000);
+
+        cache.purgeExpired();
+
+        assertEquals(1, cache.stats().entries());
+        assertEquals("v", cache.get("long"));
+    }
+
+    @Test
+    void attachDerived_isReturnedUntilRawEntryExpires() {
+        cache.put("k1", "v1", 30_000);
+        Object parsed = new Object();
+        cache.attachDerived("k1", parsed, 100);
+
+        assertSame(parsed, cache.getDerived("k1", Object.class));
+        assertEquals("v1", cache.get("k1"));
+
+        now.addAndGet(30_000);
+        assertNull(cache.getDerived("k1", Object.class));
+    }
+
+    @Test
+    void getDerived_countsHitsButLeavesMissesToTheRawLookup() {
+        cache.put("k1", "v1", 30_000);
+
+        assertNull(cache.getDerived("k1", Object.class));
+        assertNull(cache.getDerived("missing", Object.class));
+        assertEquals(0, cache.stats().misses());
+
+        cache.attachDerived("k1", new Object(), 100);
+        cache.getDerived("k1", Object.class);
+        assertEquals(1, cache.stats().hits());
+    }
+
+    @Test
+    void attachDerived_withoutRawEntry_isIgnored() {
+        cache.attachDerived("missing", new Object(), 100);
+
+        assertNull(cache.getDerived("missing", Object.class));
+        assertEquals(0, cache.stats().entries());
+    }
+
+    @Test
+    void attachDerived_countsTowardWeightAndIsDroppedOnPut() {
+        cache.put("k1", payload(100), 60_000);
+        long base = cache.stats().weightBytes();
+
+        cache.attachDerived("k1", "parsed", 200);
+        assertEquals(base + 200, cache.stats().weightBytes());
+
+        cache.put("k1", payload(100), 60_000);
+        assertEquals(base, cache.stats().weightBytes());
+        assertNull(cache.getDerived("k1", String.class));
+    }
+}
@@ -0,0 +1,99 @@
+package com.jw.backend.service;
+
+import com.jw.backend.region.RiotRegion;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SearchSideEffectsTest {
+
+    @Mock
+    private PlayerTrackingService playerTrackingService;
+
+    @Mock
+    private LpTrackingService lpTrackingService;
+
+    private final RiotIoExecutor ioExecutor = new RiotIoExecutor("virtual", 0, 4, 5_000);
+
+    private SearchSideEffects sideEffects;
+
+    @BeforeEach
+    void setUp() {
+        sideEffects = new SearchSideEffects(playerTrackingService, lpTrackingService, ioExecutor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ioExecutor.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_coalescesRepeatedSearchesOfOnePlayer() {
+        sideEffects.playerSearched("puuid-1", RiotRegion.NA, "OldName", "NA1");
+        sideEffects.playerSearched("puuid-1", RiotRegion.NA, "NewName", "NA1");
+        sideEffects.playerSearched("puuid-2", RiotRegion.KR, "Faker", "KR1");
+
+        sideEffects.flush();
+
+        ArgumentCaptor<Collection<PlayerTrackingService.Search>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(playerTrackingService).trackPlayers(captor.capture());
+        assertEquals(2, captor.getValue().size());
+        assertTrue(captor.getValue().contains(new PlayerTrackingService.Search("puuid-1", "NA", "NewName", "NA1")));
+        assertTrue(captor.getValue().contains(new PlayerTrackingService.Search("puuid-2", "KR", "Faker", "KR1")));
+        verify(lpTrackingService, times(1)).captureSnapshot("puuid-1", RiotRegion.NA);
+        verify(lpTrackingService, times(1)).captureSnapshot("puuid-2", RiotRegion.KR);
+    }
+
+    @Test
+    void flush_drainsPendingSearches() {
+        sideEffects.playerSearched("puuid-1", RiotRegion.NA, "Player", "NA1");
+
+        sideEffects.flush();
+        sideEffects.flush();
+
+        verify(playerTrackingService, times(1)).trackPlayers(anyCollection());
+        verify(lpTrackingService, times(1)).captureSnapshot("puuid-1", RiotRegion.NA);
+    }
+
+    @Test
+    void flush_nothingSearched_doesNothing() {
+        sideEffects.flush();
+
+        verifyNoInteractions(playerTrackingService, lpTrackingService);
+    }
+
+    @Test
+    void flush_trackingFailure_stillCapturesLp() {
+        doThrow(new RuntimeException("DB down")).when(playerTrackingService).trackPlayers(anyCollection());
+        sideEffects.playerSearched("puuid-1", RiotRegion.NA, "Player", "NA1");
+
+        assertDoesNotThrow(() -> sideEffects.flush());
+
+        verify(lpTrackingService).captureSnapshot("puuid-1", RiotRegion.NA);
+    }
+
+    @Test
+    void flush_lpFailure_doesNotAffectOtherPlayers() {
+        doThrow(new RuntimeException("Riot down")).when(lpTrackingService).captureSnapshot("puuid-1", RiotRegion.NA);
+        sideEffects.playerSearched("puuid-1", RiotRegion.NA, "Player", "NA1");
+        sideEffects.playerSearched("puuid-2", RiotRegion.NA, "Other", "NA1");
+
+        assertDoesNotThrow(() -> sideEffects.flush());
+
+        verify(lpTrackingService).captureSnapshot("puuid-2", RiotRegion.NA);
+        verify(lpTrackingService, times(2)).captureSnapshot(any(), any());
+    }
+}
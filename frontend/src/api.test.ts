@@ -1,7 +1,7 @@
 import { describe, it, expect, vi, beforeEach } from "vitest";
 import {
   setAuthToken, getAuthToken, login, register, readErrorMessage,
-  fetchAccount, fetchAccountByPuuid, fetchMatchSummaries, fetchStats,
+  fetchAccount, fetchAccountByPuuid, fetchMatchSummaries, streamMatchSummaries, fetchStats,
   fetchRanked, fetchMatchDetail, fetchFavorites, checkIsFavorite,
   addFavorite, removeFavorite, fetchChampionStats, fetchMatchTrends,
   fetchLpHistory, fetchTier, fetchLeaderboard,
@@ -214,6 +214,53 @@ describe("fetchMatchSummaries", () => {
   });
 });
 
+describe("streamMatchSummaries", () => {
+  beforeEach(() => vi.clearAllMocks());
+
+  function mockStream(chunks: string[]) {
+    const encoder = new TextEncoder();
+    let i = 0;
+    mockFetch.mockResolvedValue({
+      ok: true,
+      body: {
+        getReader: () => ({
+          read: () => Promise.resolve(i < chunks.length
+            ? { done: false, value: encoder.encode(chunks[i++]) }
+            : { done: true, value: undefined }),
+        }),
+      },
+    });
+  }
+
+  it("emits each match and resolves with the completion count", async () => {
+    // The second event is split across chunks to exercise line buffering
+    mockStream([
+      '{"type":"match","match":{"matchId":"NA1_1"}}\n{"type":"ma',
+      'tch","match":{"matchId":"NA1_2"}}\n',
+      '{"type":"complete","count":2}\n',
+    ]);
+    const seen: string[] = [];
+    const total = await streamMatchSummaries("p1", "NA", 20, 0, (m) => seen.push(m.matchId));
+
+    expect(mockFetch).toHaveBeenCalledWith(
+      expect.stringContaining("/api/matches/summary/stream?puuid=p1&region=NA&count=20&start=0"),
+      expect.any(Object)
+    );
+    expect(seen).toEqual(["NA1_1", "NA1_2"]);
+    expect(total).toBe(2);
+  });
+
+  it("throws when the stream ends without completing", async () => {
+    mockStream(['{"type":"match","match":{"matchId":"NA1_1"}}\n']);
+    await expect(streamMatchSummaries("p1", "NA", 20, 0, () => {})).rejects.toThrow("ended before completing");
+  });
+
+  it("throws on failure", async () => {
+    mockFail("Error");
+    await expect(streamMatchSummaries("p1", "NA", 20, 0, () => {})).rejects.toThrow("Error");
+  });
+});
+
 describe("fetchStats", () => {
   beforeEach(() => vi.clearAllMocks());
 
@@ -377,7 +424,8 @@ describe("fetchLpHistory", () => {
   beforeEach(() => vi.clearAllMocks());
 
   it("calls trends/lp endpoint with default queue", async () => {
-    mockOk([]);
+    mockOk({ queueType: "RANKED_SOLO_5x5", total: 0, capturedAt: [], leaguePoints: [],
+      tiers: [], tier: [], divisions: [], division: [] });
     await fetchLpHistory("p1");
     expect(mockFetch).toHaveBeenCalledWith(
       expect.stringContaining("/api/trends/lp?puuid=p1&queueType=RANKED_SOLO_5x5"),
@@ -385,6 +433,16 @@ describe("fetchLpHistory", () => {
     );
   });
 
+  it("expands the columnar series into snapshots", async () => {
+    mockOk({ queueType: "RANKED_SOLO_5x5", total: 2, capturedAt: [1000, 2000], leaguePoints: [75, 10],
+      tiers: ["GOLD", "PLATINUM"], tier: [0, 1], divisions: ["I", "IV"], division: [0, 1] });
+    const result = await fetchLpHistory("p1");
+    expect(result).toEqual([
+      { queueType: "RANKED_SOLO_5x5", tier: "GOLD", rankDivision: "I", leaguePoints: 75, capturedAt: 1000 },
+      { queueType: "RANKED_SOLO_5x5", tier: "PLATINUM", rankDivision: "IV", leaguePoints: 10, capturedAt: 2000 },
+    ]);
+  });
+
   it("throws on failure", async () => {
     mockFail("Error");
     await expect(fetchLpHistory("p1")).rejects.toThrow("Error");
@@ -5,6 +5,8 @@
  * @module frontend.api
  */
 
+import type { LpSeries, LpSnapshot, MatchSummary } from "./types";
+
 /**
  * Base URL for API requests. In development Vite proxies to localhost:8080;
  * in production the React build is served by Spring Boot on the same origin.
@@ -172,6 +174,68 @@ export async function fetchMatchSummaries(puuid: string, region: string, count =
   return res.json();
 }
 
+/**
+ * Stream match summaries from the NDJSON endpoint, invoking `onMatch` for each match as
+ * soon as the backend resolves it. Matches arrive in completion order, not by date.
+ *
+ * @param puuid - The player's PUUID from the Riot API.
+ * @param region - The Riot API region code.
+ * @param count - Number of matches to retrieve.
+ * @param start - The offset index for pagination.
+ * @param onMatch - Callback invoked with each match summary as it arrives.
+ * @returns The number of matches the backend reported sending.
+ */
+export async function streamMatchSummaries(
+  puuid: string,
+  region: string,
+  count: number,
+  start: number,
+  onMatch: (match: MatchSummary) => void,
+): Promise<number> {
+  const res = await fetch(
+    `${BASE}/api/matches/summary/stream?puuid=${encodeURIComponent(puuid)}&region=${region}&count=${count}&start=${start}`,
+    fetchOpts(),
+  );
+  if (!res.ok) throw new Error(await readErrorMessage(res));
+
+  const reader = res.body?.getReader();
+  if (!reader) throw new Error("Streaming not supported");
+
+  const decoder = new TextDecoder();
+  let buffered = "";
+  let received = 0;
+
+  const handleLine = (line: string): number | null => {
+    if (!line.trim()) return null;
+    const event = JSON.parse(line) as { type: string; match?: MatchSummary; count?: number };
+    if (event.type === "match" && event.match) {
+      received++;
+      onMatch(event.match);
+    } else if (event.type === "complete") {
+      return event.count ?? received;
+    }
+    return null;
+  };
+
+  while (true) {
+    const { done, value } = await reader.read();
+    if (done) break;
+    buffered += decoder.decode(value, { stream: true });
+
+    // Keep the trailing partial line until the rest of it arrives
+    const lines = buffered.split("\n");
+    buffered = lines.pop() ?? "";
+    for (const line of lines) {
+      const total = handleLine(line);
+      if (total !== null) return total;
+    }
+  }
+
+  const total = handleLine(buffered);
+  if (total !== null) return total;
+  throw new Error("Match stream ended before completing");
+}
+
 /**
  * Fetch aggregated player statistics over recent matches.
  *
@@ -311,17 +375,27 @@ export async function fetchMatchTrends(puuid: string) {
 /**
  * Fetch LP progression history for the Performance tab LP chart.
  *
+ * The backend downsamples long histories and sends them as columns; they are
+ * expanded back into one object per point here.
+ *
  * @param puuid - The player's PUUID.
  * @param queueType - The ranked queue type identifier (defaults to Solo/Duo).
  * @returns An array of LP snapshot objects ordered chronologically.
  */
-export async function fetchLpHistory(puuid: string, queueType = "RANKED_SOLO_5x5") {
+export async function fetchLpHistory(puuid: string, queueType = "RANKED_SOLO_5x5"): Promise<LpSnapshot[]> {
   const res = await fetchWithTimeout(
     `${BASE}/api/trends/lp?puuid=${encodeURIComponent(puuid)}&queueType=${encodeURIComponent(queueType)}`,
     fetchOpts()
   );
   if (!res.ok) throw new Error(await readErrorMessage(res));
-  return res.json();
+  const series: LpSeries = await res.json();
+  return series.capturedAt.map((capturedAt, i) => ({
+    queueType: series.queueType,
+    tier: series.tiers[series.tier[i]],
+    rankDivision: series.divisions[series.division[i]],
+    leaguePoints: series.leaguePoints[i],
+    capturedAt,
+  }));
 }
 
 /**
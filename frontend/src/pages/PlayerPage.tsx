@@ -16,7 +16,7 @@ import TabBar from "../components/TabBar";
 import OverviewTab from "../components/tabs/OverviewTab";
 import ChampionsTab from "../components/tabs/ChampionsTab";
 import { useTabNavigation } from "../hooks/useTabNavigation";
-import { fetchAccount, fetchAccountByPuuid, fetchMatchSummaries, fetchStats, fetchRanked, checkIsFavorite, addFavorite, removeFavorite, fetchTier, fetchLiveGame, getAuthToken, setAuthToken } from "../api";
+import { fetchAccount, fetchAccountByPuuid, fetchMatchSummaries, streamMatchSummaries, fetchStats, fetchRanked, checkIsFavorite, addFavorite, removeFavorite, fetchTier, fetchLiveGame, getAuthToken, setAuthToken } from "../api";
 import type { Region, Account, MatchSummary, PlayerStats, RankedEntry, LiveGame } from "../types";
 import LiveGameCard from "../components/LiveGameCard";
 import { computeStreak, computeClimbStatus } from "../utils/playerInsights";
@@ -46,7 +46,11 @@ export default function PlayerPage() {
   const [status, setStatus] = useState<"loading" | "error" | "done">("loading");
   const [errorMsg, setErrorMsg] = useState("");
 
-  /** Fetches all player data in parallel. Called on mount and on manual refresh. */
+  /**
+   * Fetches all player data. The profile renders as soon as the account resolves;
+   * matches stream in as each one is fetched, and stats follow once they're all in.
+   * Called on mount and on manual refresh.
+   */
   const load = useCallback(async (cancelled = { current: false }) => {
     if (!region || (!puuidParam && (!gameName || !tag))) return;
 
@@ -70,30 +74,34 @@ export default function PlayerPage() {
       if (cancelled.current) return;
       setAccount(acc);
       setTier(tierData.tier);
+      setStatus("done");
 
       const matchCount = 20;
-      // Fetch matches first so their details populate the Redis cache,
+      // Matches arrive in completion order; keep the list newest-first as they land
+      const onMatch = (match: MatchSummary) => {
+        if (cancelled.current) return;
+        setMatches((prev) =>
+          [...prev, match].sort((a, b) => b.gameEndTimestamp - a.gameEndTimestamp));
+      };
+      // Stream matches first so their details populate the cache,
       // then stats can reuse the cached match data instead of re-fetching.
-      const [matchData, rankedData, favStatus, liveGameData] = await Promise.all([
-        fetchMatchSummaries(acc.puuid, region, matchCount),
+      const [received, rankedData, favStatus, liveGameData] = await Promise.all([
+        streamMatchSummaries(acc.puuid, region, matchCount, 0, onMatch),
         fetchRanked(acc.puuid, region).catch((e) => { console.error("Ranked fetch failed:", e); return []; }),
         checkIsFavorite(acc.puuid),
         fetchLiveGame(acc.puuid, region).catch(() => null),
       ]);
 
       if (cancelled.current) return;
+      setHasMore(received >= matchCount);
+      setRanked(Array.isArray(rankedData) ? rankedData : []);
+      setIsFav(favStatus);
+      setLiveGame(liveGameData || null);
 
-      const statsData = await fetchStats(acc.puuid, region, 20);
+      const statsData = await fetchStats(acc.puuid, region, matchCount);
 
       if (cancelled.current) return;
-      const matchList = Array.isArray(matchData) ? matchData : [];
-      setMatches(matchList);
-      setHasMore(matchList.length >= 20);
       setStats(statsData);
-      setRanked(Array.isArray(rankedData) ? rankedData : []);
-      setIsFav(favStatus);
-      setLiveGame(liveGameData || null);
-      setStatus("done");
     } catch (e: unknown) {
       if (cancelled.current) return;
       setStatus("error");
@@ -167,7 +167,7 @@ export type MatchTrendPoint = {
   queueId: number;
 };
 
-/** Point-in-time LP snapshot for LP progression charts — returned by GET /api/trends/lp. */
+/** Point-in-time LP snapshot for LP progression charts — decoded from an `LpSeries`. */
 export type LpSnapshot = {
   queueType: string;
   tier: string;
@@ -176,6 +176,21 @@ export type LpSnapshot = {
   capturedAt: number;
 };
 
+/**
+ * Downsampled LP history as parallel arrays — returned by GET /api/trends/lp.
+ * Tier and division are dictionary-encoded: point i is `tiers[tier[i]]` / `divisions[division[i]]`.
+ */
+export type LpSeries = {
+  queueType: string;
+  total: number;
+  capturedAt: number[];
+  leaguePoints: number[];
+  tiers: string[];
+  tier: number[];
+  divisions: string[];
+  division: number[];
+};
+
 /** A single entry in the ranked leaderboard (Challenger/Grandmaster/Master). */
 export type LeaderboardEntry = {
   summonerName: string;